@@ -18,9 +18,12 @@ import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -30,7 +33,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * 功能：
  * 1. 智能嗅探：自动从参数中提取 bizId, batchId 等（基于反射缓存，无实例化高性能模式）
  * 2. 注解支持：处理 @BizTrace 注解，支持 SpEL 表达式
- * 3. 自动清理：方法结束后自动清理 MDC
+ * 3. 自动清理：方法结束后自动清理 MDC；清理前把业务标识快照到当前请求属性 ({@link BizContext#SNAPSHOT_ATTRIBUTE})，
+ * 供请求结束后才执行的 HTTP 交换日志采集读取
  * 4. 安全防护：切面内部异常被隔离，不影响主业务逻辑
  */
 @Slf4j
@@ -64,11 +68,37 @@ public class AutoBizTraceAspect {
       // 执行业务逻辑
       return point.proceed();
     } finally {
+      // 清理前保留快照：Logbook 等在整个请求结束后才回调，届时 MDC 已被清空
+      snapshotToRequest();
       // 确保清理 MDC，防止线程污染
       BizContext.clear();
     }
   }
 
+  private void snapshotToRequest() {
+    try {
+      RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+      if (attributes == null) {
+        // 非 Web 请求 (如定时任务) 无需快照
+        return;
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, String> snapshot = (Map<String, String>) attributes.getAttribute(
+        BizContext.SNAPSHOT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+      if (snapshot != null) {
+        // 嵌套调用：内层先写入，外层只补充缺失的 Key
+        BizContext.mergeInto(snapshot);
+        return;
+      }
+      snapshot = new HashMap<>(4);
+      if (BizContext.mergeInto(snapshot)) {
+        attributes.setAttribute(BizContext.SNAPSHOT_ATTRIBUTE, snapshot, RequestAttributes.SCOPE_REQUEST);
+      }
+    } catch (Exception e) {
+      log.debug("AutoBizTraceAspect 快照业务标识失败，已忽略", e);
+    }
+  }
+
   private void safeHandleTrace(ProceedingJoinPoint point) {
     // 1. 优先处理注解 (兜底策略)
     MethodSignature signature = (MethodSignature) point.getSignature();
@@ -1,6 +1,7 @@
 package com.example.shared.core.trace.context;
 
 import org.slf4j.MDC;
+
 import java.util.Map;
 
 /**
@@ -12,6 +13,9 @@ public class BizContext {
   public static final String KEY_BATCH_ID = "batchId";
   public static final String KEY_JNL_NO = "jnlNo";
 
+  // 请求属性名：MDC 清理前的业务标识快照 (Map<String, String>，Key 同 MDC)，供请求结束后才执行的采集方读取
+  public static final String SNAPSHOT_ATTRIBUTE = BizContext.class.getName() + ".SNAPSHOT";
+
   // —————— Biz ID ——————
   public static void setBizId(String val) {
     if (val != null) MDC.put(KEY_BIZ_ID, val);
@@ -46,6 +50,22 @@ public class BizContext {
     MDC.remove(KEY_JNL_NO);
   }
 
+  /**
+   * 当前业务标识并入 snapshot：只补充缺失的 Key，不覆盖已有值
+   *
+   * @return 是否有任何值写入
+   */
+  public static boolean mergeInto(Map<String, String> snapshot) {
+    boolean changed = putIfAbsent(snapshot, KEY_BIZ_ID, getBizId());
+    changed |= putIfAbsent(snapshot, KEY_BATCH_ID, getBatchId());
+    changed |= putIfAbsent(snapshot, KEY_JNL_NO, getJnlNo());
+    return changed;
+  }
+
+  private static boolean putIfAbsent(Map<String, String> snapshot, String key, String val) {
+    return val != null && snapshot.putIfAbsent(key, val) == null;
+  }
+
   public static Map<String, String> getCopyOfContextMap() {
     return MDC.getCopyOfContextMap();
   }
@@ -0,0 +1,35 @@
+package com.example.share.logging.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 在 JMH 命令行参数之外默认附加 {@code -prof gc}，结果同时给出吞吐量与每次操作的分配字节数 (gc.alloc.rate.norm)。
+ * <pre>
+ * mvn -pl demo-shared/shared-logging-benchmarks -am package -DskipTests
+ * java -jar demo-shared/shared-logging-benchmarks/target/benchmarks.jar                 # 全部
+ * java -jar demo-shared/shared-logging-benchmarks/target/benchmarks.jar QueryParam -f 1  # 按类名过滤
+ * </pre>
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<String> argv = new ArrayList<>(List.of(args));
+    // 显式指定了 profiler 时不再追加
+    if (!argv.contains("-prof") && !argv.contains("-h") && !argv.contains("-l")) {
+      argv.add("-prof");
+      argv.add("gc");
+    }
+    Main.main(argv.toArray(String[]::new));
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.persistence.repository.BodyCompressor;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大 Body 压缩：吞吐与体积的取舍
+ * <p>
+ * compress 的 aux 计数 originalBytes / storedBytes 之比即入库体积压缩率 (未达阈值或压缩无效时按原大小计)；
+ * decode 为读取还原的开销
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyCompressorBenchmark {
+
+  @Param({"small", "large"})
+  private String body;
+
+  @Param({"1", "6"})
+  private int level;
+
+  private byte[] bytes;
+  private byte[] packed;
+  private BodyCompressor compressor;
+
+  @Setup
+  public void setup() {
+    bytes = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+    compressor = new BodyCompressor(new DatabaseExportProperties.Compression(
+      true, DatabaseExportProperties.Codec.DEFLATE, DataSize.ofKilobytes(8), level), new SimpleMeterRegistry());
+    // 小 Body 低于阈值不会压缩，读取基准改用大 Body 的结果
+    packed = compressor.compress(LogBody.of(BenchmarkFixtures.largeBody(), StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public byte[] compress(Sizes sizes) {
+    byte[] result = compressor.compress(LogBody.of(bytes, StandardCharsets.UTF_8));
+    sizes.originalBytes += bytes.length;
+    sizes.storedBytes += result != null ? result.length : bytes.length;
+    return result;
+  }
+
+  @Benchmark
+  public String decode() {
+    return BodyCompressor.decode(packed);
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Sizes {
+    public long originalBytes;
+    public long storedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      originalBytes = 0;
+      storedBytes = 0;
+    }
+  }
+}
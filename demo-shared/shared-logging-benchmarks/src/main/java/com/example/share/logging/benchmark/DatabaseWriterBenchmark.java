@@ -0,0 +1,115 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogPGCopyWriter;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogPGRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一批完整交换写入 http_exchange_log 的耗时：逐条 upsert (每行一次往返、一次提交)、JDBC batch upsert、COPY + 合并
+ * <p>
+ * 需要已执行 pg.sql 的 PostgreSQL，连接参数取系统属性 (在 JMH 参数中用 -jvmArgs 传入)：
+ * <pre>
+ * java -jar benchmarks.jar DatabaseWriter -jvmArgs "-Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres"
+ * </pre>
+ * 单连接、无连接池，结果只比较写入方式本身；每次迭代写入新的 correlation_id，结束时删除本次写入的行
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseWriterBenchmark {
+
+  @Param({"per-row", "batch-upsert", "copy"})
+  private String writer;
+
+  @Param({"200"})
+  private int batchSize;
+
+  @Param({"small", "large"})
+  private String body;
+
+  private SingleConnectionDataSource dataSource;
+  private HttpExchangeLogPGRepository repository;
+  private HttpExchangeLogBatchWriter batchWriter;
+  private String prefix;
+  private byte[] requestBody;
+  private byte[] responseBody;
+  private long sequence;
+
+  @Setup
+  public void setup() {
+    dataSource = new SingleConnectionDataSource(
+      System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+      System.getProperty("benchmark.jdbc.username", "postgres"),
+      System.getProperty("benchmark.jdbc.password", ""), true);
+    repository = new HttpExchangeLogPGRepository(JdbcClient.create(dataSource), new NamedParameterJdbcTemplate(dataSource));
+    batchWriter = "copy".equals(writer) ? new HttpExchangeLogPGCopyWriter(new JdbcTemplate(dataSource)) : repository;
+    prefix = "bench-" + writer + "-" + body + "-" + System.nanoTime() + "-";
+    requestBody = BenchmarkFixtures.smallBody();
+    responseBody = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+  }
+
+  @TearDown
+  public void tearDown() {
+    new JdbcTemplate(dataSource).update("DELETE FROM engine.http_exchange_log WHERE correlation_id LIKE ?", prefix + "%");
+    dataSource.destroy();
+  }
+
+  @Benchmark
+  public int writeBatch() {
+    List<LogEvent> events = new ArrayList<>(batchSize);
+    OffsetDateTime now = OffsetDateTime.now();
+    for (int i = 0; i < batchSize; i++) {
+      events.add(LogEvent.exchange(exchange(prefix + sequence++, now)));
+    }
+    if ("per-row".equals(writer)) {
+      for (LogEvent event : events) {
+        repository.upsertExchange(event.log());
+      }
+    } else {
+      batchWriter.writeBatch(events);
+    }
+    return events.size();
+  }
+
+  private HttpExchangeLog exchange(String correlationId, OffsetDateTime time) {
+    return new HttpExchangeLog()
+      .setCorrelationId(correlationId)
+      .setCreatedTime(time)
+      .setRequestTime(time)
+      .setResponseTime(time.plusNanos(12_000_000))
+      .setDurationMillis(12L)
+      .setMethod("POST")
+      .setUri("https://api.example.com/api/users/search?page=1")
+      .setRemote("10.0.0.12")
+      .setIp("10.0.0.12")
+      .setContentType(BenchmarkFixtures.JSON)
+      .setRequestHeaders(BenchmarkFixtures.requestHeaders())
+      .setRequestBody(LogBody.of(requestBody, StandardCharsets.UTF_8))
+      .setRequestContentLength(requestBody.length)
+      .setStatusCode(200)
+      .setResponseHeaders(BenchmarkFixtures.responseHeaders())
+      .setResponseBody(LogBody.of(responseBody, StandardCharsets.UTF_8))
+      .setResponseContentLength(responseBody.length)
+      .setComplete(true);
+  }
+}
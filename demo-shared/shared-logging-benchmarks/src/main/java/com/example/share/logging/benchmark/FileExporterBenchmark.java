@@ -0,0 +1,93 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.exporter.impl.FileLogExporter;
+import com.example.share.logging.export.exporter.impl.NdjsonFileLogExporter;
+import com.example.share.logging.export.properties.FileExportProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件导出：经 SLF4J (logback FileAppender，同步写、每条 flush) 与滚动 NDJSON (堆外缓冲 + 组提交) 的单条导出吞吐
+ * <p>
+ * slf4j 模式的输出位置见 logback.xml，ndjson 写入 ${java.io.tmpdir}/logbook-benchmark/ndjson，均不压缩、不 fsync
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileExporterBenchmark {
+
+  @Param({"slf4j", "ndjson"})
+  private String mode;
+
+  @Param({"small", "large"})
+  private String body;
+
+  private LogExporter exporter;
+  private NdjsonFileLogExporter ndjson;
+  private HttpExchangeLog log;
+
+  @Setup
+  public void setup() {
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    if ("slf4j".equals(mode)) {
+      exporter = new FileLogExporter(objectMapper);
+    } else {
+      ndjson = new NdjsonFileLogExporter(objectMapper, new FileExportProperties(true,
+        FileExportProperties.Mode.NDJSON, Path.of(System.getProperty("java.io.tmpdir"), "logbook-benchmark", "ndjson"),
+        "http-exchange", DataSize.ofKilobytes(256), 512, Duration.ofMillis(200), false, DataSize.ofMegabytes(100),
+        Duration.ofDays(1), FileExportProperties.Compression.NONE, 5), new SimpleMeterRegistry());
+      ndjson.start();
+      exporter = ndjson;
+    }
+
+    byte[] bytes = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+    OffsetDateTime now = OffsetDateTime.now();
+    log = new HttpExchangeLog()
+      .setCorrelationId("5f0c2a9e61d44c1b")
+      .setCreatedTime(now)
+      .setRequestTime(now)
+      .setResponseTime(now)
+      .setDurationMillis(12L)
+      .setMethod("POST")
+      .setUri("/api/users/search")
+      .setContentType(BenchmarkFixtures.JSON)
+      .setRequestHeaders(BenchmarkFixtures.requestHeaders())
+      .setRequestBody(LogBody.of(bytes, StandardCharsets.UTF_8))
+      .setRequestContentLength(bytes.length)
+      .setStatusCode(200)
+      .setResponseHeaders(BenchmarkFixtures.responseHeaders())
+      .setResponseBody(LogBody.of(bytes, StandardCharsets.UTF_8))
+      .setResponseContentLength(bytes.length)
+      .setComplete(true);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (ndjson != null) {
+      ndjson.stop();
+    }
+  }
+
+  @Benchmark
+  public void exportExchange() {
+    exporter.exportExchange(log);
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.sanitizer.impl.HeaderSanitizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header 脱敏：sensitive 为带 Authorization / X-Api-Key / X-Phone 的请求头，clean 为没有命中的响应头
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderSanitizerBenchmark {
+
+  @Param({"sensitive", "clean"})
+  private String headers;
+
+  private HeaderSanitizer sanitizer;
+  private Map<String, List<String>> input;
+
+  @Setup
+  public void setup() {
+    SanitizationContext context = BenchmarkFixtures.context(0);
+    sanitizer = new HeaderSanitizer(context, BenchmarkFixtures.valueSanitizer(context));
+    input = "sensitive".equals(headers) ? BenchmarkFixtures.requestHeaders() : BenchmarkFixtures.responseHeaders();
+  }
+
+  @Benchmark
+  public Map<String, List<String>> handler() {
+    return sanitizer.handler(input);
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.sanitizer.impl.JsonBodySanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.StreamingJsonBodySanitizer;
+import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * JSON Body 脱敏：streaming 与 jsonpath 两种引擎，小/大 Body，规则规模 (yml 原有字段 + extraFields)
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBodySanitizerBenchmark {
+
+  @Param({"streaming", "jsonpath"})
+  private String engine;
+
+  @Param({"small", "large"})
+  private String body;
+
+  @Param({"0", "500"})
+  private int extraFields;
+
+  private byte[] bytes;
+  private UnaryOperator<LogBody> handler;
+
+  @Setup
+  public void setup() {
+    bytes = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+    SanitizationContext context = BenchmarkFixtures.context(extraFields);
+    ValueSanitizer valueSanitizer = BenchmarkFixtures.valueSanitizer(context);
+    if ("streaming".equals(engine)) {
+      StreamingJsonBodySanitizer sanitizer = new StreamingJsonBodySanitizer(context, valueSanitizer);
+      handler = value -> sanitizer.handler(BenchmarkFixtures.JSON, value);
+    } else {
+      JsonBodySanitizer sanitizer = new JsonBodySanitizer(context, valueSanitizer);
+      handler = value -> sanitizer.handler(BenchmarkFixtures.JSON, value);
+    }
+  }
+
+  @Benchmark
+  public LogBody handler() {
+    // 每次新建 LogBody，避免复用上一次解码缓存的文本
+    return handler.apply(LogBody.of(bytes, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,201 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.integration.logbook.BodyCapture;
+import com.example.share.logging.integration.logbook.LogbookMapper;
+import org.openjdk.jmh.annotations.*;
+import org.zalando.logbook.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logbook 对象到 HttpExchangeLog 的映射
+ * <p>
+ * inline 为请求线程上直接构建日志；capture 只做快照 (deferred 模式下请求线程的开销)，
+ * captureAndMaterialize 为快照加工作线程上物化的总开销
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogbookMapperBenchmark {
+
+  @Param({"small", "large"})
+  private String body;
+
+  private LogbookMapper mapper;
+  private Correlation correlation;
+  private HttpRequest request;
+  private HttpResponse response;
+
+  @Setup
+  public void setup() {
+    mapper = new LogbookMapper(new BodyCapture(BenchmarkFixtures.captureProperties().body()));
+    Instant start = Instant.now();
+    correlation = new FixedCorrelation("5f0c2a9e61d44c1b", start, start.plusMillis(12));
+    request = new FixedRequest(BenchmarkFixtures.requestHeaders(), BenchmarkFixtures.smallBody());
+    response = new FixedResponse(BenchmarkFixtures.responseHeaders(),
+      "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody());
+  }
+
+  @Benchmark
+  public HttpExchangeLog inlineRequest() {
+    return mapper.toRequestLog(correlation, request);
+  }
+
+  @Benchmark
+  public HttpExchangeLog inlineResponse() {
+    return mapper.toResponseLog(correlation, request, response);
+  }
+
+  @Benchmark
+  public LogCapture captureResponse() {
+    return mapper.captureResponse(correlation, request, response);
+  }
+
+  @Benchmark
+  public HttpExchangeLog captureAndMaterializeResponse() {
+    return mapper.captureResponse(correlation, request, response).materialize();
+  }
+
+  private record FixedCorrelation(String id, Instant start, Instant end) implements Correlation {
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public Instant getStart() {
+      return start;
+    }
+
+    @Override
+    public Instant getEnd() {
+      return end;
+    }
+
+    @Override
+    public Duration getDuration() {
+      return Duration.between(start, end);
+    }
+  }
+
+  /**
+   * 已缓冲 Body 的请求，等价于 Logbook 过滤器在 Sink 回调时交给 Mapper 的对象
+   */
+  private record FixedRequest(HttpHeaders headers, byte[] body) implements HttpRequest {
+
+    FixedRequest(Map<String, List<String>> headers, byte[] body) {
+      this(HttpHeaders.of(headers), body);
+    }
+
+    @Override
+    public String getRemote() {
+      return "10.0.0.12";
+    }
+
+    @Override
+    public String getMethod() {
+      return "POST";
+    }
+
+    @Override
+    public String getScheme() {
+      return "https";
+    }
+
+    @Override
+    public String getHost() {
+      return "api.example.com";
+    }
+
+    @Override
+    public Optional<Integer> getPort() {
+      return Optional.of(443);
+    }
+
+    @Override
+    public String getPath() {
+      return "/api/users/search";
+    }
+
+    @Override
+    public String getQuery() {
+      return BenchmarkFixtures.SENSITIVE_QUERY;
+    }
+
+    @Override
+    public Origin getOrigin() {
+      return Origin.REMOTE;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public byte[] getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpRequest withBody() {
+      return this;
+    }
+
+    @Override
+    public HttpRequest withoutBody() {
+      return this;
+    }
+  }
+
+  private record FixedResponse(HttpHeaders headers, byte[] body) implements HttpResponse {
+
+    FixedResponse(Map<String, List<String>> headers, byte[] body) {
+      this(HttpHeaders.of(headers), body);
+    }
+
+    @Override
+    public int getStatus() {
+      return 200;
+    }
+
+    @Override
+    public Origin getOrigin() {
+      return Origin.LOCAL;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public byte[] getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpResponse withBody() {
+      return this;
+    }
+
+    @Override
+    public HttpResponse withoutBody() {
+      return this;
+    }
+  }
+}
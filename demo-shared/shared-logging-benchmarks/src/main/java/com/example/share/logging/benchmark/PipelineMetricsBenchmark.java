@@ -0,0 +1,98 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.pipeline.AsyncLogPipeline;
+import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import com.example.share.logging.sanitization.sanitizer.impl.HeaderSanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.QueryParamSanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.StreamingJsonBodySanitizer;
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationMemo;
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationMetrics;
+import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管道埋点的开销：同一条完整交换走 物化 → 脱敏 → 分发
+ * <p>
+ * off 使用没有子注册表的 CompositeMeterRegistry (所有 Meter 为空实现)，on 使用 SimpleMeterRegistry；
+ * 执行器为调用线程直接运行，Exporter 只把日志交给 Blackhole，两者之差即埋点成本
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineMetricsBenchmark {
+
+  @Param({"off", "on"})
+  private String metrics;
+
+  private AsyncLogPipeline pipeline;
+  private byte[] requestBody;
+  private byte[] responseBody;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    MeterRegistry registry = "on".equals(metrics) ? new SimpleMeterRegistry() : new CompositeMeterRegistry();
+    SanitizationContext context = BenchmarkFixtures.context(0);
+    ValueSanitizer valueSanitizer = new ValueSanitizer(BenchmarkFixtures.strategyFactory(),
+      SanitizationMemo.of(context, registry), SanitizationMetrics.of(context, registry));
+    SanitizationEngine engine = new SanitizationEngine(List.of(
+      new StreamingJsonBodySanitizer(context, valueSanitizer),
+      new HeaderSanitizer(context, valueSanitizer),
+      new QueryParamSanitizer(context, valueSanitizer)), registry);
+    LogExporter exporter = new LogExporter() {
+      @Override
+      public String getName() {
+        return "blackhole";
+      }
+
+      @Override
+      public void exportRequest(HttpExchangeLog log) {
+        blackhole.consume(log);
+      }
+
+      @Override
+      public void exportResponse(HttpExchangeLog log) {
+        blackhole.consume(log);
+      }
+    };
+    pipeline = new AsyncLogPipeline(engine, new LogExporterDispatcher(List.of(exporter), registry),
+      Runnable::run, registry);
+    requestBody = BenchmarkFixtures.smallBody();
+    responseBody = BenchmarkFixtures.smallBody();
+  }
+
+  @Benchmark
+  public void exchange() {
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setCorrelationId("5f0c2a9e61d44c1b")
+      .setMethod("POST")
+      .setUri("/api/users/search?" + BenchmarkFixtures.SENSITIVE_QUERY)
+      .setContentType(BenchmarkFixtures.JSON)
+      .setRequestHeaders(BenchmarkFixtures.requestHeaders())
+      .setRequestBody(LogBody.of(requestBody, StandardCharsets.UTF_8))
+      .setRequestContentLength(requestBody.length)
+      .setStatusCode(200)
+      .setResponseBody(LogBody.of(responseBody, StandardCharsets.UTF_8))
+      .setResponseContentLength(responseBody.length);
+    pipeline.captureExchange(LogCapture.of(log));
+  }
+}
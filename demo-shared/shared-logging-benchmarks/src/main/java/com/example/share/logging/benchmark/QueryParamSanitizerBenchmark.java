@@ -0,0 +1,40 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.sanitizer.impl.QueryParamSanitizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询串脱敏：clean 没有敏感参数 (应为零分配)，sensitive 含编码后的 password / phone / email
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryParamSanitizerBenchmark {
+
+  @Param({"clean", "sensitive"})
+  private String query;
+
+  private QueryParamSanitizer sanitizer;
+  private String input;
+
+  @Setup
+  public void setup() {
+    SanitizationContext context = BenchmarkFixtures.context(0);
+    sanitizer = new QueryParamSanitizer(context, BenchmarkFixtures.valueSanitizer(context));
+    input = "clean".equals(query) ? BenchmarkFixtures.CLEAN_QUERY : BenchmarkFixtures.SENSITIVE_QUERY;
+  }
+
+  @Benchmark
+  public String handler() {
+    return sanitizer.handler(input);
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import com.example.share.logging.sanitization.sanitizer.impl.HeaderSanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.QueryParamSanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.StreamingJsonBodySanitizer;
+import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整脱敏链路 (Body → Header → Query，与自动配置的顺序一致)
+ * <p>
+ * 脱敏会改写日志实体，每次调用都新建实体；构建开销只有若干字段赋值，计入结果
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizationEngineBenchmark {
+
+  @Param({"small", "large"})
+  private String body;
+
+  private SanitizationEngine engine;
+  private byte[] requestBody;
+  private byte[] responseBody;
+  private Map<String, List<String>> requestHeaders;
+  private Map<String, List<String>> responseHeaders;
+
+  @Setup
+  public void setup() {
+    SanitizationContext context = BenchmarkFixtures.context(0);
+    ValueSanitizer valueSanitizer = BenchmarkFixtures.valueSanitizer(context);
+    engine = new SanitizationEngine(List.of(
+      new StreamingJsonBodySanitizer(context, valueSanitizer),
+      new HeaderSanitizer(context, valueSanitizer),
+      new QueryParamSanitizer(context, valueSanitizer)));
+    requestBody = BenchmarkFixtures.smallBody();
+    responseBody = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+    requestHeaders = BenchmarkFixtures.requestHeaders();
+    responseHeaders = BenchmarkFixtures.responseHeaders();
+  }
+
+  @Benchmark
+  public HttpExchangeLog sanitizeRequest() {
+    HttpExchangeLog log = request();
+    engine.sanitizeRequest(log);
+    return log;
+  }
+
+  @Benchmark
+  public HttpExchangeLog sanitizeResponse() {
+    HttpExchangeLog log = request()
+      .setStatusCode(200)
+      .setResponseHeaders(responseHeaders)
+      .setResponseBody(LogBody.of(responseBody, StandardCharsets.UTF_8));
+    engine.sanitizeResponse(log);
+    return log;
+  }
+
+  private HttpExchangeLog request() {
+    return new HttpExchangeLog()
+      .setCorrelationId("5f0c2a9e61d44c1b")
+      .setMethod("POST")
+      .setUri("/api/users/search?" + BenchmarkFixtures.SENSITIVE_QUERY)
+      .setContentType(BenchmarkFixtures.JSON)
+      .setRequestHeaders(requestHeaders)
+      .setRequestBody(LogBody.of(requestBody, StandardCharsets.UTF_8));
+  }
+}
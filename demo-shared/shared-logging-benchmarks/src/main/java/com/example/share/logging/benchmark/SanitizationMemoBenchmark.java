@@ -0,0 +1,65 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import com.example.share.logging.sanitization.properties.SanitizationProperties;
+import com.example.share.logging.sanitization.properties.SanitizationStrategyType;
+import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脱敏结果缓存的命中路径：同一条含卡号的备注反复出现，PATTERN_REGEX 直接计算 (off) 与命中缓存 (on) 对比
+ * <p>
+ * length 为备注长度，256 为 memoize 默认的 max-value-length
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizationMemoBenchmark {
+
+  @Param({"off", "on"})
+  private String memo;
+
+  @Param({"64", "256"})
+  private int length;
+
+  private ValueSanitizer sanitizer;
+  private SanitizationRule rule;
+  private String value;
+
+  @Setup
+  public void setup() {
+    SanitizationProperties properties = BenchmarkFixtures.sanitizationProperties();
+    Map<String, SanitizationProperties.FieldConfig> fields = new LinkedHashMap<>(properties.fields());
+    fields.put("remark", new SanitizationProperties.FieldConfig(List.of("$..remark"),
+      SanitizationStrategyType.PATTERN_REGEX, null,
+      Map.of("pattern", "\\b\\d{4}[ -]?\\d{4}[ -]?\\d{4}[ -]?\\d{4}\\b", "replacement", "****-****-****-****"),
+      new SanitizationProperties.Memoize(true, 10000, Duration.ofMinutes(5), 256)));
+    SanitizationContext context = BenchmarkFixtures.context(
+      new SanitizationProperties(properties.global(), fields, properties.strategies()));
+
+    sanitizer = "on".equals(memo)
+      ? BenchmarkFixtures.valueSanitizer(context)
+      : new ValueSanitizer(BenchmarkFixtures.strategyFactory());
+    rule = context.getFieldConfig("remark");
+    String card = "退款至尾号卡 6222 0212 3456 7890，";
+    value = (card + "客户来电确认收货地址变更 2026-10-18 10:30 ".repeat(length / 8)).substring(0, length);
+  }
+
+  @Benchmark
+  public String sanitize() {
+    return sanitizer.sanitize(value, rule);
+  }
+}
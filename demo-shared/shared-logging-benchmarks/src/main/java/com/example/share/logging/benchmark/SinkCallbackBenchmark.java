@@ -0,0 +1,220 @@
+package com.example.share.logging.benchmark;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import com.example.share.logging.integration.logbook.BodyCapture;
+import com.example.share.logging.integration.logbook.LogbookMapper;
+import com.example.share.logging.integration.logbook.LogbookSinkAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.zalando.logbook.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logbook Sink 回调在请求线程上的耗时分布 (p50/p90/p99/p99.9)
+ * <p>
+ * inline 为改造前：回调内直接映射为日志实体；deferred 为改造后：回调内只做快照 (含按上限截断)，
+ * 映射推迟到管道工作线程。下游处理器只接收结果，不物化，测得的即请求线程承担的部分
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SinkCallbackBenchmark {
+
+  @Param({"inline", "deferred"})
+  private String mode;
+
+  @Param({"small", "large"})
+  private String body;
+
+  private LogbookSinkAdapter sink;
+  private Correlation correlation;
+  private HttpRequest request;
+  private HttpResponse response;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    LogbookMapper mapper = new LogbookMapper(new BodyCapture(BenchmarkFixtures.captureProperties().body()));
+    sink = new LogbookSinkAdapter(mapper, new DiscardingProcessor(blackhole),
+      "inline".equals(mode) ? LogCaptureProperties.Mode.INLINE : LogCaptureProperties.Mode.DEFERRED);
+    Instant start = Instant.now();
+    correlation = new FixedCorrelation(start, start.plusMillis(12));
+    byte[] bytes = "small".equals(body) ? BenchmarkFixtures.smallBody() : BenchmarkFixtures.largeBody();
+    request = new FixedRequest(HttpHeaders.of(BenchmarkFixtures.requestHeaders()), bytes);
+    response = new FixedResponse(HttpHeaders.of(BenchmarkFixtures.responseHeaders()), bytes);
+  }
+
+  @Benchmark
+  public void writeResponse() {
+    sink.write(correlation, request, response);
+  }
+
+  /**
+   * 只把结果交给 Blackhole，不物化延迟快照
+   */
+  private record DiscardingProcessor(Blackhole blackhole) implements LogProcessor {
+
+    @Override
+    public void processRequest(HttpExchangeLog requestLog) {
+      blackhole.consume(requestLog);
+    }
+
+    @Override
+    public void processResponse(HttpExchangeLog responseLog) {
+      blackhole.consume(responseLog);
+    }
+
+    @Override
+    public void captureRequest(LogCapture capture) {
+      blackhole.consume(capture);
+    }
+
+    @Override
+    public void captureResponse(LogCapture capture) {
+      blackhole.consume(capture);
+    }
+  }
+
+  private record FixedCorrelation(Instant start, Instant end) implements Correlation {
+
+    @Override
+    public String getId() {
+      return "5f0c2a9e61d44c1b";
+    }
+
+    @Override
+    public Instant getStart() {
+      return start;
+    }
+
+    @Override
+    public Instant getEnd() {
+      return end;
+    }
+
+    @Override
+    public Duration getDuration() {
+      return Duration.between(start, end);
+    }
+  }
+
+  private record FixedRequest(HttpHeaders headers, byte[] body) implements HttpRequest {
+
+    @Override
+    public String getRemote() {
+      return "10.0.0.12";
+    }
+
+    @Override
+    public String getMethod() {
+      return "POST";
+    }
+
+    @Override
+    public String getScheme() {
+      return "https";
+    }
+
+    @Override
+    public String getHost() {
+      return "api.example.com";
+    }
+
+    @Override
+    public Optional<Integer> getPort() {
+      return Optional.of(443);
+    }
+
+    @Override
+    public String getPath() {
+      return "/api/users/search";
+    }
+
+    @Override
+    public String getQuery() {
+      return BenchmarkFixtures.SENSITIVE_QUERY;
+    }
+
+    @Override
+    public String getContentType() {
+      return BenchmarkFixtures.JSON;
+    }
+
+    @Override
+    public Charset getCharset() {
+      return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public Origin getOrigin() {
+      return Origin.REMOTE;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public byte[] getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpRequest withBody() {
+      return this;
+    }
+
+    @Override
+    public HttpRequest withoutBody() {
+      return this;
+    }
+  }
+
+  private record FixedResponse(HttpHeaders headers, byte[] body) implements HttpResponse {
+
+    @Override
+    public int getStatus() {
+      return 200;
+    }
+
+    @Override
+    public Origin getOrigin() {
+      return Origin.LOCAL;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public byte[] getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpResponse withBody() {
+      return this;
+    }
+
+    @Override
+    public HttpResponse withoutBody() {
+      return this;
+    }
+  }
+}
@@ -2,25 +2,78 @@ package com.example.share.logging.autoconfigure;
 
 import com.example.share.logging.core.api.LogProcessor;
 import com.example.share.logging.core.pipeline.AsyncLogPipeline;
+import com.example.share.logging.core.pipeline.CoalescingLogProcessor;
+import com.example.share.logging.core.pipeline.RingBufferLogPipeline;
+import com.example.share.logging.core.policy.CapturePolicy;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import com.example.share.logging.core.properties.LogPipelineProperties;
 import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
 import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import java.util.concurrent.Executor;
 
 @Configuration
+@EnableConfigurationProperties({LogPipelineProperties.class, LogCaptureProperties.class})
 public class LogCoreConfiguration {
 
+  // 脱敏之前按结果决定是否保留完整 Body
   @Bean
   @ConditionalOnMissingBean
+  public CapturePolicy capturePolicy(LogCaptureProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+    return new CapturePolicy(properties.policy(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // 默认：有界环形缓冲 + 固定工作线程
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(prefix = "logbook.pipeline", name = "mode", havingValue = "ring-buffer", matchIfMissing = true)
   public LogProcessor logProcessor(
     SanitizationEngine sanitizationEngine,
     LogExporterDispatcher logExporterDispatcher,
-    @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
+    CapturePolicy capturePolicy,
+    LogPipelineProperties properties,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+
+    return new RingBufferLogPipeline(sanitizationEngine, logExporterDispatcher, capturePolicy, properties,
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // 兼容：每条日志提交一次 applicationTaskExecutor
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(prefix = "logbook.pipeline", name = "mode", havingValue = "executor")
+  public LogProcessor executorLogProcessor(
+    SanitizationEngine sanitizationEngine,
+    LogExporterDispatcher logExporterDispatcher,
+    CapturePolicy capturePolicy,
+    @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+
+    return new AsyncLogPipeline(sanitizationEngine, logExporterDispatcher, capturePolicy, taskExecutor,
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // 管道前置的请求/响应合并，Sink 注入的是这一层
+  // 包装容器中现有的 LogProcessor (内置管道或应用自定义的实现)，不依赖 Bean 名称；自身不参与注入候选
+  @Bean
+  @Primary
+  @ConditionalOnProperty(prefix = "logbook.pipeline.coalescing", name = "enable", havingValue = "true", matchIfMissing = true)
+  public CoalescingLogProcessor coalescingLogProcessor(
+    LogProcessor logPipeline,
+    LogPipelineProperties properties,
+    ObjectProvider<MeterRegistry> meterRegistry) {
 
-    return new AsyncLogPipeline(sanitizationEngine, logExporterDispatcher, taskExecutor);
+    return new CoalescingLogProcessor(logPipeline, properties.coalescing(),
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
   }
 }
@@ -1,26 +1,54 @@
 package com.example.share.logging.autoconfigure;
 
 import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
+import com.example.share.logging.export.endpoint.HttpExchangeLogEndpoint;
+import com.example.share.logging.export.endpoint.HttpExchangeLogExportEndpoint;
 import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.exporter.impl.BatchingDatabaseLogExporter;
 import com.example.share.logging.export.exporter.impl.DatabaseLogExporter;
 import com.example.share.logging.export.exporter.impl.FileLogExporter;
+import com.example.share.logging.export.exporter.impl.LatencyRollupExporter;
+import com.example.share.logging.export.exporter.impl.NdjsonFileLogExporter;
+import com.example.share.logging.export.exporter.impl.SpoolingDatabaseLogExporter;
+import com.example.share.logging.export.persistence.partition.HttpExchangeLogPartitionManager;
+import com.example.share.logging.export.persistence.repository.BodyCompressor;
+import com.example.share.logging.export.persistence.repository.HttpExchangeContentCollector;
+import com.example.share.logging.export.persistence.repository.HttpExchangeContentStore;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogPGCopyWriter;
 import com.example.share.logging.export.persistence.repository.HttpExchangeLogPGRepository;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository;
+import com.example.share.logging.export.persistence.repository.LatencyRollupRepository;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.example.share.logging.export.properties.DispatcherProperties;
+import com.example.share.logging.export.properties.FileExportProperties;
+import com.example.share.logging.export.properties.RollupProperties;
+import com.example.share.logging.export.spool.MappedLogSpool;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.JdbcClient;
 
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties({DatabaseExportProperties.class, FileExportProperties.class, DispatcherProperties.class,
+  RollupProperties.class})
 public class LogExportConfiguration {
 
   // --- 基础设施 ---
@@ -43,21 +71,156 @@ public class LogExportConfiguration {
 
   @Bean
   @ConditionalOnMissingBean
+  @ConditionalOnProperty(name = "logbook.database.compression.enable", havingValue = "true")
+  public BodyCompressor bodyCompressor(DatabaseExportProperties properties,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BodyCompressor(properties.compression(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnBean(JdbcClient.class)
+  public HttpExchangeLogPGRepository httpExchangeLogPGRepository(JdbcClient jdbcClient, DataSource dataSource,
+                                                                 DatabaseExportProperties properties,
+                                                                 ObjectProvider<BodyCompressor> compressor,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+    MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    HttpExchangeContentStore contentStore = properties.storage() == DatabaseExportProperties.Storage.CONTENT_ADDRESSED
+      ? new HttpExchangeContentStore(properties.contentAddressed(), registry)
+      : null;
+    return new HttpExchangeLogPGRepository(jdbcClient, new NamedParameterJdbcTemplate(dataSource), contentStore,
+      compressor.getIfAvailable());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnClass(name = "org.postgresql.PGConnection")
+  @ConditionalOnProperty(name = "logbook.database.writer", havingValue = "copy")
+  @ConditionalOnBean(JdbcClient.class)
+  public HttpExchangeLogPGCopyWriter httpExchangeLogPGCopyWriter(DataSource dataSource,
+                                                                 ObjectProvider<BodyCompressor> compressor) {
+    return new HttpExchangeLogPGCopyWriter(new JdbcTemplate(dataSource), compressor.getIfAvailable());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnProperty(name = "logbook.database.partition.enable", havingValue = "true")
+  @ConditionalOnBean(JdbcClient.class)
+  public HttpExchangeLogPartitionManager httpExchangeLogPartitionManager(DataSource dataSource,
+                                                                         DatabaseExportProperties properties) {
+    return new HttpExchangeLogPartitionManager(new JdbcTemplate(dataSource), properties.partition());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnProperty(name = "logbook.database.storage", havingValue = "content-addressed")
+  @ConditionalOnProperty(name = "logbook.database.content-addressed.gc.enable", havingValue = "true",
+    matchIfMissing = true)
   @ConditionalOnBean(JdbcClient.class)
-  public HttpExchangeLogPGRepository httpExchangeLogPGRepository(JdbcClient jdbcClient) {
-    return new HttpExchangeLogPGRepository(jdbcClient);
+  public HttpExchangeContentCollector httpExchangeContentCollector(DataSource dataSource,
+                                                                   DatabaseExportProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+    return new HttpExchangeContentCollector(new JdbcTemplate(dataSource), properties.contentAddressed(),
+      properties.partition(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // --- 读取侧 ---
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnBean(JdbcClient.class)
+  public HttpExchangeLogQueryRepository httpExchangeLogQueryRepository(DataSource dataSource,
+                                                                       DatabaseExportProperties properties) {
+    return new HttpExchangeLogQueryRepository(new JdbcTemplate(dataSource), properties.query());
+  }
+
+  // 应用引入 actuator 时才注册，是否对外暴露仍由 management.endpoints.web.exposure 控制
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+  @ConditionalOnBean(HttpExchangeLogQueryRepository.class)
+  public HttpExchangeLogEndpoint httpExchangeLogEndpoint(HttpExchangeLogQueryRepository repository) {
+    return new HttpExchangeLogEndpoint(repository);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+  @ConditionalOnBean(HttpExchangeLogQueryRepository.class)
+  public HttpExchangeLogExportEndpoint httpExchangeLogExportEndpoint(HttpExchangeLogQueryRepository repository,
+                                                                     ObjectMapper objectMapper,
+                                                                     DatabaseExportProperties properties) {
+    return new HttpExchangeLogExportEndpoint(repository, objectMapper, properties.query());
   }
 
   // --- 具体 Exporters ---
   @Bean
   @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnProperty(name = "logbook.database.spool.enable", havingValue = "true")
+  @ConditionalOnBean(HttpExchangeLogPGRepository.class)
+  public SpoolingDatabaseLogExporter spoolingDatabaseLogExporter(HttpExchangeLogPGRepository repository,
+                                                                 ObjectProvider<HttpExchangeLogPGCopyWriter> copyWriter,
+                                                                 DatabaseExportProperties properties,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+    repository.verifyConflictTarget();
+    DatabaseExportProperties.Spool spool = properties.spool();
+    MappedLogSpool mappedLogSpool = new MappedLogSpool(spool.directory(),
+      Math.toIntExact(spool.segmentSize().toBytes()), spool.maxSegments());
+    return new SpoolingDatabaseLogExporter(mappedLogSpool, batchWriter(repository, copyWriter, properties), spool,
+      properties.batch().size(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnProperty(name = "logbook.database.spool.enable", havingValue = "false", matchIfMissing = true)
+  @ConditionalOnProperty(name = "logbook.database.batch.enable", havingValue = "true")
+  @ConditionalOnBean(HttpExchangeLogPGRepository.class)
+  public BatchingDatabaseLogExporter batchingDatabaseLogExporter(HttpExchangeLogPGRepository repository,
+                                                                 ObjectProvider<HttpExchangeLogPGCopyWriter> copyWriter,
+                                                                 DatabaseExportProperties properties,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+    repository.verifyConflictTarget();
+    return new BatchingDatabaseLogExporter(batchWriter(repository, copyWriter, properties), properties.batch(),
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "logbook.database.enable", havingValue = "true")
+  @ConditionalOnProperty(name = "logbook.database.spool.enable", havingValue = "false", matchIfMissing = true)
+  @ConditionalOnProperty(name = "logbook.database.batch.enable", havingValue = "false", matchIfMissing = true)
   @ConditionalOnBean(HttpExchangeLogPGRepository.class)
   public DatabaseLogExporter databaseLogExporter(HttpExchangeLogPGRepository repository) {
+    repository.verifyConflictTarget();
     return new DatabaseLogExporter(repository);
   }
 
+  @Bean
+  @ConditionalOnProperty(name = "logbook.rollup.enable", havingValue = "true")
+  @ConditionalOnBean(JdbcClient.class)
+  public LatencyRollupExporter latencyRollupExporter(DataSource dataSource,
+                                                     RollupProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+    return new LatencyRollupExporter(new LatencyRollupRepository(new JdbcTemplate(dataSource)), properties,
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // 按需开启 (logbook.file.mode=ndjson)：直接写滚动文件，不经日志框架
   @Bean
   @ConditionalOnProperty(name = "logbook.file.enable", havingValue = "true", matchIfMissing = true)
+  @ConditionalOnProperty(name = "logbook.file.mode", havingValue = "ndjson")
+  public NdjsonFileLogExporter ndjsonFileLogExporter(ObjectMapper objectMapper,
+                                                     FileExportProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+    return new NdjsonFileLogExporter(objectMapper, properties,
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  // 默认：经 SLF4J log.info 输出，沿用应用现有的日志采集方式
+  @Bean
+  @ConditionalOnProperty(name = "logbook.file.enable", havingValue = "true", matchIfMissing = true)
+  @ConditionalOnProperty(name = "logbook.file.mode", havingValue = "slf4j", matchIfMissing = true)
   public FileLogExporter fileLogExporter(ObjectMapper objectMapper) {
     return new FileLogExporter(objectMapper);
   }
@@ -65,7 +228,25 @@ public class LogExportConfiguration {
   // --- 分发器 (Dispatcher) ---
   @Bean
   @ConditionalOnMissingBean
-  public LogExporterDispatcher logExporterDispatcher(List<LogExporter> exporters) {
-    return new LogExporterDispatcher(exporters);
+  public LogExporterDispatcher logExporterDispatcher(List<LogExporter> exporters,
+                                                     DispatcherProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+    MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    if (!properties.isolated()) {
+      return new LogExporterDispatcher(exporters, registry);
+    }
+    return new LogExporterDispatcher(exporters, properties, registry);
+  }
+
+  // 配置了 copy 且驱动可用时走 COPY，否则退回 JDBC batch upsert
+  // 内容寻址存储只由 upsert 实现，此时忽略 copy
+  private static HttpExchangeLogBatchWriter batchWriter(HttpExchangeLogPGRepository repository,
+                                                        ObjectProvider<HttpExchangeLogPGCopyWriter> copyWriter,
+                                                        DatabaseExportProperties properties) {
+    if (properties.storage() == DatabaseExportProperties.Storage.CONTENT_ADDRESSED) {
+      return repository;
+    }
+    HttpExchangeLogBatchWriter writer = copyWriter.getIfAvailable();
+    return writer != null ? writer : repository;
   }
 }
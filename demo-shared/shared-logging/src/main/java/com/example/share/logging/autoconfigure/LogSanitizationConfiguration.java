@@ -11,12 +11,17 @@ import com.example.share.logging.sanitization.sanitizer.LogSanitizer;
 import com.example.share.logging.sanitization.sanitizer.impl.HeaderSanitizer;
 import com.example.share.logging.sanitization.sanitizer.impl.JsonBodySanitizer;
 import com.example.share.logging.sanitization.sanitizer.impl.QueryParamSanitizer;
+import com.example.share.logging.sanitization.sanitizer.impl.StreamingJsonBodySanitizer;
 import com.example.share.logging.sanitization.strategy.SanitizationStrategy;
 import com.example.share.logging.sanitization.strategy.SanitizationStrategyFactory;
 import com.example.share.logging.sanitization.strategy.impl.*;
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationMemo;
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationMetrics;
 import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
 import com.example.share.logging.sanitization.strategy.validator.impl.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -79,14 +84,36 @@ public class LogSanitizationConfiguration {
 
   @Bean
   @ConditionalOnMissingBean
-  public ValueSanitizer valueSanitizer(SanitizationStrategyFactory factory) {
-    return new ValueSanitizer(factory);
+  public SanitizationMemo sanitizationMemo(SanitizationContext ctx, ObjectProvider<MeterRegistry> meterRegistry) {
+    return SanitizationMemo.of(ctx, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public SanitizationMetrics sanitizationMetrics(SanitizationContext ctx, ObjectProvider<MeterRegistry> meterRegistry) {
+    return SanitizationMetrics.of(ctx, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public ValueSanitizer valueSanitizer(SanitizationStrategyFactory factory, SanitizationMemo memo,
+                                       SanitizationMetrics metrics) {
+    return new ValueSanitizer(factory, memo, metrics);
   }
 
   // --- 4. 净化器 (Sanitizers) ---
   @Bean
   @ConditionalOnMissingBean
   @Order(1)
+  @ConditionalOnProperty(prefix = "logbook.obfuscate.global", name = "json-engine", havingValue = "streaming", matchIfMissing = true)
+  public StreamingJsonBodySanitizer streamingJsonBodySanitizer(SanitizationContext ctx, ValueSanitizer valueSanitizer) {
+    return new StreamingJsonBodySanitizer(ctx, valueSanitizer);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @Order(1)
+  @ConditionalOnProperty(prefix = "logbook.obfuscate.global", name = "json-engine", havingValue = "jsonpath")
   public JsonBodySanitizer jsonBodySanitizer(SanitizationContext ctx, ValueSanitizer valueSanitizer) {
     return new JsonBodySanitizer(ctx, valueSanitizer);
   }
@@ -94,8 +121,8 @@ public class LogSanitizationConfiguration {
   @Bean
   @ConditionalOnMissingBean
   @Order(2)
-  public HeaderSanitizer headerSanitizer(SanitizationContext ctx, ValueSanitizer valueSanitizer, ObjectMapper objectMapper) {
-    return new HeaderSanitizer(ctx, valueSanitizer, objectMapper);
+  public HeaderSanitizer headerSanitizer(SanitizationContext ctx, ValueSanitizer valueSanitizer) {
+    return new HeaderSanitizer(ctx, valueSanitizer);
   }
 
   @Bean
@@ -108,7 +135,8 @@ public class LogSanitizationConfiguration {
   // --- 5. 引擎 (Engine) ---
   @Bean
   @ConditionalOnMissingBean
-  public SanitizationEngine sanitizationEngine(List<LogSanitizer> sanitizers) {
-    return new SanitizationEngine(sanitizers);
+  public SanitizationEngine sanitizationEngine(List<LogSanitizer> sanitizers,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+    return new SanitizationEngine(sanitizers, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
   }
 }
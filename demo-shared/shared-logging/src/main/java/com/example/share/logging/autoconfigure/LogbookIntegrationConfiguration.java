@@ -1,12 +1,14 @@
 package com.example.share.logging.autoconfigure;
 
 import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import com.example.share.logging.integration.logbook.BizIdCapture;
+import com.example.share.logging.integration.logbook.BodyCapture;
 import com.example.share.logging.integration.logbook.LogbookMapper; // 原 HttpExchangeLogMapper
 import com.example.share.logging.integration.logbook.LogbookSinkAdapter; // 原 UnifiedAsyncSink
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -15,21 +17,33 @@ import org.zalando.logbook.Sink;
 
 @Configuration
 @ConditionalOnClass(Logbook.class)
+@EnableConfigurationProperties(LogCaptureProperties.class)
 public class LogbookIntegrationConfiguration {
 
   @Bean
-  @ConditionalOnBean(ObjectMapper.class)
   @ConditionalOnMissingBean
-  public LogbookMapper logbookMapper(ObjectMapper objectMapper) {
-    return new LogbookMapper(objectMapper);
+  public BodyCapture bodyCapture(LogCaptureProperties properties) {
+    return new BodyCapture(properties.body());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public BizIdCapture bizIdCapture(LogCaptureProperties properties) {
+    return new BizIdCapture(properties.bizIds());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public LogbookMapper logbookMapper(BodyCapture bodyCapture, BizIdCapture bizIdCapture) {
+    return new LogbookMapper(bodyCapture, bizIdCapture);
   }
 
   // 将 Sink 暴露给 Logbook 框架
   @Bean
   @Primary
-  public Sink logbookSink(LogbookMapper mapper, LogProcessor logProcessor) {
+  public Sink logbookSink(LogbookMapper mapper, LogProcessor logProcessor, LogCaptureProperties properties) {
     // LogbookSinkAdapter 实现了 Sink 接口
-    // 它只负责转换数据，然后把逻辑委托给 LogProcessor (AsyncLogPipeline)
-    return new LogbookSinkAdapter(mapper, logProcessor);
+    // 它只负责转换数据 (deferred 模式下只做快照)，然后把逻辑委托给 LogProcessor (AsyncLogPipeline)
+    return new LogbookSinkAdapter(mapper, logProcessor, properties.mode());
   }
 }
@@ -0,0 +1,77 @@
+package com.example.share.logging.core.api;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+
+import java.util.function.Supplier;
+
+/**
+ * 待物化的日志
+ * <p>
+ * 请求线程只保存原始快照 (Body 字节、Header 引用、时间戳)，映射、解码与序列化推迟到管道工作线程上执行
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public interface LogCapture {
+
+  String correlationId();
+
+  /**
+   * 构建日志实体；重复调用返回同一实例，物化只执行一次
+   */
+  HttpExchangeLog materialize();
+
+  /**
+   * 已物化的日志
+   */
+  static LogCapture of(HttpExchangeLog log) {
+    return new Materialized(log);
+  }
+
+  /**
+   * 延迟物化：materializer 在首次调用 {@link #materialize()} 的线程上执行，结果缓存，执行后释放 materializer 持有的快照
+   */
+  static LogCapture deferred(String correlationId, Supplier<HttpExchangeLog> materializer) {
+    return new Deferred(correlationId, materializer);
+  }
+
+  record Materialized(HttpExchangeLog log) implements LogCapture {
+
+    @Override
+    public String correlationId() {
+      return log.getCorrelationId();
+    }
+
+    @Override
+    public HttpExchangeLog materialize() {
+      return log;
+    }
+  }
+
+  final class Deferred implements LogCapture {
+
+    private final String correlationId;
+    private Supplier<HttpExchangeLog> materializer;
+    private HttpExchangeLog log;
+
+    private Deferred(String correlationId, Supplier<HttpExchangeLog> materializer) {
+      this.correlationId = correlationId;
+      this.materializer = materializer;
+    }
+
+    @Override
+    public String correlationId() {
+      return correlationId;
+    }
+
+    // 通常只有一个工作线程物化，锁不会有竞争
+    @Override
+    public synchronized HttpExchangeLog materialize() {
+      if (log == null) {
+        log = materializer.get();
+        materializer = null;
+      }
+      return log;
+    }
+  }
+}
@@ -13,4 +13,25 @@ public interface LogProcessor {
 
   // 处理响应阶段日志
   void processResponse(HttpExchangeLog responseLog);
+
+  // 处理已合并的完整交换 (请求 + 响应只写一次)
+  // 默认依次按请求、响应处理，未覆盖此方法的实现也能拿到请求头/请求体；异步管道应覆盖为一次处理
+  default void processExchange(HttpExchangeLog exchangeLog) {
+    processRequest(exchangeLog);
+    processResponse(exchangeLog);
+  }
+
+  // 延迟物化的入口：默认在调用线程上立即物化
+  // 异步实现应覆盖为在工作线程上物化，使请求线程只承担快照成本
+  default void captureRequest(LogCapture capture) {
+    processRequest(capture.materialize());
+  }
+
+  default void captureResponse(LogCapture capture) {
+    processResponse(capture.materialize());
+  }
+
+  default void captureExchange(LogCapture capture) {
+    processExchange(capture.materialize());
+  }
 }
@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 这是一个纯 POJO，不再需要 @Entity、@Table 等 JPA 注解
@@ -26,21 +28,28 @@ public class HttpExchangeLog {
   private String method;
   private String uri;
   private String remote;
-  private String requestHeaders;
-  private String requestContent;
+  private Map<String, List<String>> requestHeaders; // 不可变多值 Map，仅在导出时序列化一次
+  private LogBody requestBody; // 原始字节 + 字符集，按需解码
+  private Integer requestContentLength; // 原始请求体字节数 (截断前)
   private String contentType;
 
   // 响应信息
   private Integer statusCode;
-  private String responseHeaders;
-  private String responseContent;
+  private Map<String, List<String>> responseHeaders;
+  private LogBody responseBody;
+  private Integer responseContentLength; // 原始响应体字节数 (截断前)
 
   // 客户端信息
   private String clientInfo;
   private String ip;
   private String userAgent;
 
+  // 业务标识 (采集时从请求头或 MDC 提取)
+  private String bizId;
+  private String batchId;
+  private String jnlNo;
+
   // 状态标记
-  private boolean truncated;
+  private boolean truncated; // 请求或响应体超过采集上限被截断
   private boolean complete;
 }
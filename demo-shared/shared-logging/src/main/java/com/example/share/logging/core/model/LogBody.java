@@ -0,0 +1,124 @@
+package com.example.share.logging.core.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 请求/响应体
+ * <p>
+ * 保存原始字节与字符集，只有在确实需要文本时才解码；能直接处理字节的环节 (流式 JSON 脱敏、COPY 写入) 不会触发解码。
+ * <p>
+ * 解码得到的文本缓存在字节旁边，不替换字节：之后写文件、COPY、预写队列仍直接使用原始字节，不会重新编码；
+ * 以文本构建的 Body (如脱敏结果) 首次取字节时编码并缓存。判等与哈希基于字节与字符集，不触发解码。
+ * 隔离通道下多个导出线程共享同一个实例，两种表示各放在 volatile 字段中安全发布，并发时至多重复计算一次，结果相同
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class LogBody {
+
+  private final Charset charset;
+  // 至少有一个非空：原始字节构建时先有 bytes，文本构建时先有 text，另一个按需计算后缓存
+  private volatile byte[] bytes;
+  private volatile String text;
+
+  private LogBody(byte[] bytes, String text, Charset charset) {
+    this.bytes = bytes;
+    this.text = text;
+    this.charset = charset;
+  }
+
+  /**
+   * 以原始字节构建，不复制数组，调用方不得再修改
+   */
+  public static LogBody of(byte[] bytes, Charset charset) {
+    return new LogBody(bytes, null, charset);
+  }
+
+  public static LogBody of(String text) {
+    return of(text, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 以文本构建 (如脱敏结果)，需要字节时按 charset 编码
+   */
+  public static LogBody of(String text, Charset charset) {
+    return new LogBody(null, text, charset);
+  }
+
+  /**
+   * null 安全的文本读取
+   */
+  public static String textOf(LogBody body) {
+    return body != null ? body.text() : null;
+  }
+
+  @JsonValue
+  public String text() {
+    String current = text;
+    if (current == null) {
+      current = new String(bytes, charset);
+      text = current;
+    }
+    return current;
+  }
+
+  /**
+   * 字节表示 (调用方不得修改)：原始字节构建时即原数组，文本构建时首次编码后缓存
+   */
+  public byte[] bytes() {
+    byte[] current = bytes;
+    if (current == null) {
+      current = text.getBytes(charset);
+      bytes = current;
+    }
+    return current;
+  }
+
+  public Charset charset() {
+    return charset;
+  }
+
+  /**
+   * 是否已持有 UTF-8 字节，可不经解码直接处理
+   */
+  public boolean isUtf8Bytes() {
+    return bytes != null && StandardCharsets.UTF_8.equals(charset);
+  }
+
+  public boolean isBlank() {
+    if (!isUtf8Bytes()) {
+      return text().isBlank();
+    }
+    for (byte b : bytes) {
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LogBody other)) {
+      return false;
+    }
+    return charset.equals(other.charset) && Arrays.equals(bytes(), other.bytes());
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * charset.hashCode() + Arrays.hashCode(bytes());
+  }
+
+  @Override
+  public String toString() {
+    return text();
+  }
+}
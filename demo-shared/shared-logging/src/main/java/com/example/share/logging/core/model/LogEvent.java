@@ -0,0 +1,22 @@
+package com.example.share.logging.core.model;
+
+/**
+ * 管道内部流转的日志事件：阶段 + 日志实体
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public record LogEvent(LogPhase phase, HttpExchangeLog log) {
+
+  public static LogEvent request(HttpExchangeLog log) {
+    return new LogEvent(LogPhase.REQUEST, log);
+  }
+
+  public static LogEvent response(HttpExchangeLog log) {
+    return new LogEvent(LogPhase.RESPONSE, log);
+  }
+
+  public static LogEvent exchange(HttpExchangeLog log) {
+    return new LogEvent(LogPhase.EXCHANGE, log);
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.share.logging.core.model;
+
+/**
+ * 日志所处的 HTTP 交换阶段
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public enum LogPhase {
+  REQUEST,
+  RESPONSE,
+
+  /**
+   * 请求与响应已合并的完整交换 (响应日志本身已回填请求数据)
+   */
+  EXCHANGE
+}
@@ -1,10 +1,14 @@
 package com.example.share.logging.core.pipeline;
 
+import com.example.share.logging.core.api.LogCapture;
 import com.example.share.logging.core.api.LogProcessor;
 import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.core.policy.CapturePolicy;
 import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
 import com.example.share.logging.sanitization.engine.SanitizationEngine;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 import java.util.concurrent.Executor;
 
@@ -14,38 +18,67 @@ import java.util.concurrent.Executor;
  * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
  * @since 2025/12/27 14:16
  */
-@RequiredArgsConstructor
 public class AsyncLogPipeline implements LogProcessor {
 
-  private final SanitizationEngine sanitizationEngine; // 脱敏引擎
-  private final LogExporterDispatcher exporterDispatcher; // 导出分发器
+  private final PipelineStages stages; // 物化、采集策略、脱敏、导出分发
   private final Executor executor;
 
+  public AsyncLogPipeline(SanitizationEngine sanitizationEngine,
+                          LogExporterDispatcher exporterDispatcher,
+                          Executor executor) {
+    this(sanitizationEngine, exporterDispatcher, executor, Metrics.globalRegistry);
+  }
+
+  public AsyncLogPipeline(SanitizationEngine sanitizationEngine,
+                          LogExporterDispatcher exporterDispatcher,
+                          Executor executor,
+                          MeterRegistry meterRegistry) {
+    this(sanitizationEngine, exporterDispatcher, CapturePolicy.KEEP_ALL, executor, meterRegistry);
+  }
+
+  public AsyncLogPipeline(SanitizationEngine sanitizationEngine,
+                          LogExporterDispatcher exporterDispatcher,
+                          CapturePolicy capturePolicy,
+                          Executor executor,
+                          MeterRegistry meterRegistry) {
+    this.stages = new PipelineStages(sanitizationEngine, exporterDispatcher, capturePolicy, meterRegistry);
+    this.executor = executor;
+  }
+
   @Override
   public void processRequest(HttpExchangeLog log) {
-    executor.execute(() -> {
-      try {
-        // 1. 净化请求数据
-        sanitizationEngine.sanitizeRequest(log);
-        // 2. 导出/记录请求
-        exporterDispatcher.exportRequest(log);
-      } catch (Exception e) {
-        // log error
-      }
-    });
+    captureRequest(LogCapture.of(log));
   }
 
   @Override
   public void processResponse(HttpExchangeLog log) {
-    executor.execute(() -> {
-      try {
-        // 1. 净化响应数据 (以及携带的请求URI等)
-        sanitizationEngine.sanitizeResponse(log);
-        // 2. 导出/记录响应
-        exporterDispatcher.exportResponse(log);
-      } catch (Exception e) {
-        // log error
-      }
-    });
+    captureResponse(LogCapture.of(log));
+  }
+
+  @Override
+  public void processExchange(HttpExchangeLog log) {
+    captureExchange(LogCapture.of(log));
+  }
+
+  // 延迟物化的快照在线程池任务内构建日志，请求线程只负责提交
+
+  @Override
+  public void captureRequest(LogCapture capture) {
+    submit(LogPhase.REQUEST, capture);
+  }
+
+  @Override
+  public void captureResponse(LogCapture capture) {
+    submit(LogPhase.RESPONSE, capture);
+  }
+
+  @Override
+  public void captureExchange(LogCapture capture) {
+    submit(LogPhase.EXCHANGE, capture);
+  }
+
+  private void submit(LogPhase phase, LogCapture capture) {
+    long submittedAt = System.nanoTime();
+    executor.execute(() -> stages.run(phase, capture, submittedAt));
   }
 }
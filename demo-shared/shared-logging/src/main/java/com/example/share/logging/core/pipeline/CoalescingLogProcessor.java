@@ -0,0 +1,198 @@
+package com.example.share.logging.core.pipeline;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.properties.LogPipelineProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CoalescingLogProcessor
+ * <p>
+ * 位于 Sink 与日志管道之间，按 correlationId 暂存请求日志：
+ * 1. 响应到达时丢弃暂存的请求，以响应日志 (已回填请求数据) 作为完整交换下发，每次交换只写一次
+ * 2. 超过 timeout 仍未等到响应的请求，作为孤儿日志 (complete=false) 照常下发
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class CoalescingLogProcessor implements LogProcessor, SmartLifecycle {
+
+  private static final long MIN_SWEEP_INTERVAL_MILLIS = 10;
+
+  private final LogProcessor delegate;
+  private final LogPipelineProperties.Coalescing properties;
+  private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+  // 计数器
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder orphaned = new LongAdder();
+  private final LongAdder passthrough = new LongAdder();
+
+  private volatile boolean running;
+  private ScheduledExecutorService sweeper;
+
+  public CoalescingLogProcessor(LogProcessor delegate,
+                                LogPipelineProperties.Coalescing properties,
+                                MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.properties = properties;
+    bindMetrics(meterRegistry);
+
+    log.info("Initialized Coalescing Log Processor. Timeout: {}, MaxPending: {}",
+      properties.timeout(), properties.maxPending());
+  }
+
+  // ================ LogProcessor ================
+
+  @Override
+  public void processRequest(HttpExchangeLog requestLog) {
+    captureRequest(LogCapture.of(requestLog));
+  }
+
+  @Override
+  public void processResponse(HttpExchangeLog responseLog) {
+    captureResponse(LogCapture.of(responseLog));
+  }
+
+  @Override
+  public void processExchange(HttpExchangeLog exchangeLog) {
+    captureResponse(LogCapture.of(exchangeLog));
+  }
+
+  @Override
+  public void captureRequest(LogCapture request) {
+    String correlationId = request.correlationId();
+    if (!running || correlationId == null || pending.size() >= properties.maxPending()) {
+      passthrough.increment();
+      delegate.captureRequest(request);
+      return;
+    }
+    long deadline = System.nanoTime() + properties.timeout().toNanos();
+    pending.put(correlationId, new Pending(request, deadline));
+  }
+
+  @Override
+  public void captureResponse(LogCapture response) {
+    String correlationId = response.correlationId();
+    // 无论请求是否仍在暂存 (可能已作为孤儿写出)，都按完整交换整体覆盖
+    // 被覆盖的请求快照从未物化，直接丢弃
+    if (correlationId != null && pending.remove(correlationId) != null) {
+      coalesced.increment();
+    }
+    delegate.captureExchange(response);
+  }
+
+  @Override
+  public void captureExchange(LogCapture exchange) {
+    captureResponse(exchange);
+  }
+
+  // ================ Sweeper ================
+
+  private void sweep() {
+    long now = System.nanoTime();
+    pending.forEach((correlationId, entry) -> {
+      if (now - entry.deadline() >= 0) {
+        flushOrphan(correlationId, entry);
+      }
+    });
+  }
+
+  private void flushAll() {
+    pending.forEach(this::flushOrphan);
+  }
+
+  private void flushOrphan(String correlationId, Pending entry) {
+    // 与响应线程竞争：只有成功移除的一方负责下发
+    if (!pending.remove(correlationId, entry)) {
+      return;
+    }
+    orphaned.increment();
+    try {
+      delegate.captureRequest(entry.request());
+    } catch (Exception e) {
+      log.error("Failed to flush orphan request log [{}]", correlationId, e);
+    }
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    long interval = Math.max(MIN_SWEEP_INTERVAL_MILLIS, properties.timeout().toMillis() / 4);
+    sweeper = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("log-coalescing-sweeper").daemon(true).factory());
+    sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    sweeper.shutdownNow();
+    // 停机时不再等待响应，暂存的请求全部作为孤儿写出
+    flushAll();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于 Web 容器、早于日志管道停止，保证排空的孤儿日志仍能进入管道
+    return SmartLifecycle.DEFAULT_PHASE - 3072;
+  }
+
+  // ================ Metrics ================
+
+  private void bindMetrics(MeterRegistry registry) {
+    FunctionCounter.builder("logbook.pipeline.coalescing.coalesced", coalesced, LongAdder::sum)
+      .description("Exchanges whose request and response were merged into one write")
+      .register(registry);
+    FunctionCounter.builder("logbook.pipeline.coalescing.orphaned", orphaned, LongAdder::sum)
+      .description("Request logs flushed without a matching response")
+      .register(registry);
+    FunctionCounter.builder("logbook.pipeline.coalescing.passthrough", passthrough, LongAdder::sum)
+      .description("Request logs forwarded immediately because the pending table was full")
+      .register(registry);
+    Gauge.builder("logbook.pipeline.coalescing.pending", pending, Map::size)
+      .description("Request logs waiting for their response")
+      .register(registry);
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  public long getOrphanedCount() {
+    return orphaned.sum();
+  }
+
+  private record Pending(LogCapture request, long deadline) {
+  }
+}
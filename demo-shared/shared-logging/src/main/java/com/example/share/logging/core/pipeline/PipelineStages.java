@@ -0,0 +1,139 @@
+package com.example.share.logging.core.pipeline;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.core.policy.CapturePolicy;
+import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
+import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管道工作线程上的处理步骤：物化 → 采集策略 ({@link CapturePolicy}) → 脱敏 → 分发，两种管道共用
+ * <p>
+ * 指标全部在构造时注册，标签只取固定枚举值；每条日志只有几次 nanoTime 与计数器累加，可常开。
+ * 1. logbook.pipeline.stage{stage=map|sanitize|dispatch}：各步骤耗时
+ * 2. logbook.pipeline.lag：入队到分发完成 (隔离模式下分发只是入队，Exporter 部分见 logbook.dispatcher.lag)
+ * 3. logbook.body.size{direction}：原始 Body 字节数 (截断前)
+ * 4. logbook.pipeline.errors{stage=map|dispatch}：被吞掉的异常
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+final class PipelineStages {
+
+  private final SanitizationEngine sanitizationEngine;
+  private final LogExporterDispatcher exporterDispatcher;
+  private final CapturePolicy capturePolicy;
+
+  private final Timer mapTimer;
+  private final Timer sanitizeTimer;
+  private final Timer dispatchTimer;
+  private final Timer lag;
+  private final DistributionSummary requestBodySize;
+  private final DistributionSummary responseBodySize;
+  private final Counter mapFailures;
+  private final Counter dispatchFailures;
+
+  PipelineStages(SanitizationEngine sanitizationEngine,
+                 LogExporterDispatcher exporterDispatcher,
+                 CapturePolicy capturePolicy,
+                 MeterRegistry registry) {
+    this.sanitizationEngine = sanitizationEngine;
+    this.exporterDispatcher = exporterDispatcher;
+    this.capturePolicy = capturePolicy;
+    this.mapTimer = stageTimer(registry, "map");
+    this.sanitizeTimer = stageTimer(registry, "sanitize");
+    this.dispatchTimer = stageTimer(registry, "dispatch");
+    this.lag = Timer.builder("logbook.pipeline.lag")
+      .description("Time from capture to dispatch completion")
+      .register(registry);
+    this.requestBodySize = bodySize(registry, "request");
+    this.responseBodySize = bodySize(registry, "response");
+    this.mapFailures = errors(registry, "map");
+    this.dispatchFailures = errors(registry, "dispatch");
+  }
+
+  /**
+   * @param enqueuedAt 入队时的 System.nanoTime()
+   */
+  void run(LogPhase phase, LogCapture capture, long enqueuedAt) {
+    long start = System.nanoTime();
+    HttpExchangeLog exchangeLog;
+    try {
+      exchangeLog = capture.materialize();
+    } catch (Exception e) {
+      mapFailures.increment();
+      log.error("Log pipeline failed to map {} [{}]", phase, capture.correlationId(), e);
+      return;
+    }
+    long mapped = System.nanoTime();
+    mapTimer.record(mapped - start, TimeUnit.NANOSECONDS);
+    recordBodySize(phase, exchangeLog);
+    // 不保留的 Body 在这里置空，脱敏不再为它付出解析成本
+    capturePolicy.apply(phase, exchangeLog);
+
+    // 引擎内部按 Sanitizer 隔离异常，这里不会抛出
+    switch (phase) {
+      case REQUEST -> sanitizationEngine.sanitizeRequest(exchangeLog);
+      case RESPONSE -> sanitizationEngine.sanitizeResponse(exchangeLog);
+      case EXCHANGE -> sanitizationEngine.sanitizeExchange(exchangeLog);
+    }
+    long sanitized = System.nanoTime();
+    sanitizeTimer.record(sanitized - mapped, TimeUnit.NANOSECONDS);
+
+    try {
+      switch (phase) {
+        case REQUEST -> exporterDispatcher.exportRequest(exchangeLog);
+        case RESPONSE -> exporterDispatcher.exportResponse(exchangeLog);
+        case EXCHANGE -> exporterDispatcher.exportExchange(exchangeLog);
+      }
+    } catch (Exception e) {
+      dispatchFailures.increment();
+      log.error("Log pipeline failed to dispatch {} [{}]", phase, capture.correlationId(), e);
+    } finally {
+      long end = System.nanoTime();
+      dispatchTimer.record(end - sanitized, TimeUnit.NANOSECONDS);
+      lag.record(end - enqueuedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // 请求阶段只记请求体，响应阶段只记响应体 (响应日志回填的请求体不重复计)
+  private void recordBodySize(LogPhase phase, HttpExchangeLog exchangeLog) {
+    if (phase != LogPhase.RESPONSE && exchangeLog.getRequestContentLength() != null) {
+      requestBodySize.record(exchangeLog.getRequestContentLength());
+    }
+    if (phase != LogPhase.REQUEST && exchangeLog.getResponseContentLength() != null) {
+      responseBodySize.record(exchangeLog.getResponseContentLength());
+    }
+  }
+
+  private static Timer stageTimer(MeterRegistry registry, String stage) {
+    return Timer.builder("logbook.pipeline.stage")
+      .description("Time spent in a pipeline stage")
+      .tag("stage", stage)
+      .register(registry);
+  }
+
+  private static DistributionSummary bodySize(MeterRegistry registry, String direction) {
+    return DistributionSummary.builder("logbook.body.size")
+      .description("Original body size before truncation")
+      .baseUnit("bytes")
+      .tag("direction", direction)
+      .register(registry);
+  }
+
+  private static Counter errors(MeterRegistry registry, String stage) {
+    return Counter.builder("logbook.pipeline.errors")
+      .description("Exceptions caught and swallowed inside the logging pipeline")
+      .tag("stage", stage)
+      .register(registry);
+  }
+}
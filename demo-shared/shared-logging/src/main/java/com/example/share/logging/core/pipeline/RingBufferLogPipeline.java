@@ -0,0 +1,223 @@
+package com.example.share.logging.core.pipeline;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.core.pipeline.buffer.BackpressureQueue;
+import com.example.share.logging.core.pipeline.buffer.OverflowPolicy;
+import com.example.share.logging.core.policy.CapturePolicy;
+import com.example.share.logging.core.properties.LogPipelineProperties;
+import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
+import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RingBufferLogPipeline
+ * <p>
+ * 与 {@link AsyncLogPipeline} 每条日志提交一次任务不同，这里使用有界预分配环形缓冲 + 固定工作线程：
+ * 1. 请求线程只做一次 CAS 入队，缓冲区满时按 {@link OverflowPolicy} 背压，绝不无限堆积
+ * 2. 固定数量的工作线程消费，数据库变慢时并发连接数也不会被放大
+ * 3. 延迟物化的快照 ({@link LogCapture}) 在工作线程上构建日志，请求线程不承担映射与解码
+ * 4. 各步骤耗时、入队到分发的延迟与异常计数见 {@link PipelineStages}
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class RingBufferLogPipeline implements LogProcessor, SmartLifecycle {
+
+  private final PipelineStages stages;
+  private final LogPipelineProperties properties;
+  private final BackpressureQueue<Task> buffer;
+
+  // 计数器 (溢出丢弃由 buffer 统计，这里只记停机后拒收的日志)
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  private volatile boolean running;
+  private volatile boolean accepting = true;
+  private Thread[] workers;
+
+  public RingBufferLogPipeline(SanitizationEngine sanitizationEngine,
+                               LogExporterDispatcher exporterDispatcher,
+                               LogPipelineProperties properties,
+                               MeterRegistry meterRegistry) {
+    this(sanitizationEngine, exporterDispatcher, CapturePolicy.KEEP_ALL, properties, meterRegistry);
+  }
+
+  public RingBufferLogPipeline(SanitizationEngine sanitizationEngine,
+                               LogExporterDispatcher exporterDispatcher,
+                               CapturePolicy capturePolicy,
+                               LogPipelineProperties properties,
+                               MeterRegistry meterRegistry) {
+    this.stages = new PipelineStages(sanitizationEngine, exporterDispatcher, capturePolicy, meterRegistry);
+    this.properties = properties;
+    this.buffer = new BackpressureQueue<>(properties.capacity(), properties.overflowPolicy(),
+      properties.blockTimeout(), properties.sampleRate(), properties.sampleHighWatermark());
+    bindMetrics(meterRegistry);
+
+    log.info("Initialized RingBuffer Log Pipeline. Capacity: {}, Workers: {}, OverflowPolicy: {}",
+      buffer.capacity(), properties.workers(), properties.overflowPolicy());
+  }
+
+  // ================ LogProcessor ================
+
+  @Override
+  public void processRequest(HttpExchangeLog requestLog) {
+    publish(LogPhase.REQUEST, LogCapture.of(requestLog));
+  }
+
+  @Override
+  public void processResponse(HttpExchangeLog responseLog) {
+    publish(LogPhase.RESPONSE, LogCapture.of(responseLog));
+  }
+
+  @Override
+  public void processExchange(HttpExchangeLog exchangeLog) {
+    publish(LogPhase.EXCHANGE, LogCapture.of(exchangeLog));
+  }
+
+  // 延迟物化：快照直接入队，由工作线程构建日志
+  @Override
+  public void captureRequest(LogCapture capture) {
+    publish(LogPhase.REQUEST, capture);
+  }
+
+  @Override
+  public void captureResponse(LogCapture capture) {
+    publish(LogPhase.RESPONSE, capture);
+  }
+
+  @Override
+  public void captureExchange(LogCapture capture) {
+    publish(LogPhase.EXCHANGE, capture);
+  }
+
+  private void publish(LogPhase phase, LogCapture capture) {
+    if (!accepting) {
+      rejected.increment();
+      return;
+    }
+    if (buffer.offer(new Task(phase, capture, System.nanoTime()))) {
+      enqueued.increment();
+    }
+  }
+
+  // ================ Worker ================
+
+  private void runWorker() {
+    int idle = 0;
+    // 停机时继续消费，直到缓冲区排空
+    while (running || !buffer.isEmpty()) {
+      Task task = buffer.poll();
+      if (task == null) {
+        buffer.idle(++idle);
+        continue;
+      }
+      idle = 0;
+      handle(task);
+    }
+  }
+
+  private void handle(Task task) {
+    stages.run(task.phase(), task.capture(), task.enqueuedAt());
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    accepting = true;
+    workers = new Thread[properties.workers()];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = Thread.ofPlatform()
+        .name("log-pipeline-worker-", i)
+        .daemon(true)
+        .start(this::runWorker);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    accepting = false;
+    running = false;
+    buffer.wakeConsumers();
+
+    long deadline = System.nanoTime() + properties.shutdownTimeout().toNanos();
+    for (Thread worker : workers) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      try {
+        worker.join(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    int remaining = buffer.size();
+    if (remaining > 0) {
+      log.warn("Log pipeline stopped with {} pending logs discarded", remaining);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于 Web 容器停止，保证在途请求的日志能进入缓冲区并被排空
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  // ================ Metrics ================
+
+  private void bindMetrics(MeterRegistry registry) {
+    FunctionCounter.builder("logbook.pipeline.enqueued", enqueued, LongAdder::sum)
+      .description("Logs accepted into the pipeline buffer")
+      .register(registry);
+    FunctionCounter.builder("logbook.pipeline.dropped", this, RingBufferLogPipeline::getDroppedCount)
+      .description("Logs dropped by the overflow policy")
+      .tag("policy", properties.overflowPolicy().name())
+      .register(registry);
+    Gauge.builder("logbook.pipeline.queue.depth", buffer, BackpressureQueue::size)
+      .description("Logs waiting in the pipeline buffer")
+      .register(registry);
+    Gauge.builder("logbook.pipeline.queue.capacity", buffer, BackpressureQueue::capacity)
+      .register(registry);
+  }
+
+  public long getEnqueuedCount() {
+    return enqueued.sum();
+  }
+
+  public long getDroppedCount() {
+    return buffer.droppedCount() + rejected.sum();
+  }
+
+  public int getQueueDepth() {
+    return buffer.size();
+  }
+
+  private record Task(LogPhase phase, LogCapture capture, long enqueuedAt) {
+  }
+}
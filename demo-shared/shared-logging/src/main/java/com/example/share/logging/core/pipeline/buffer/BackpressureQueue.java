@@ -0,0 +1,176 @@
+package com.example.share.logging.core.pipeline.buffer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 带溢出策略的有界队列
+ * <p>
+ * 在 {@link BoundedRingBuffer} 之上按 {@link OverflowPolicy} 处理缓冲区满的情况，被拒绝或被淘汰的元素计入 dropped；
+ * 取空的消费者经 {@link #idle(int)} 登记后休眠，由写入成功的 offer 唤醒，空闲服务上不再周期性空转
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class BackpressureQueue<E> {
+
+  private static final int SPIN_TRIES = 100;
+  // 生产者等待空位的最长单次休眠
+  private static final long MAX_BACKOFF_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  // 消费者空闲休眠的上限：正常由 offer 唤醒，超时只是兜底
+  private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final BoundedRingBuffer<E> buffer;
+  private final OverflowPolicy policy;
+  private final long blockTimeoutNanos;
+  private final int sampleRate;
+  private final int sampleThreshold;
+
+  private final LongAdder dropped = new LongAdder();
+  private final AtomicLong sampleSequence = new AtomicLong();
+  // 已休眠的消费者；offer 成功后唤醒队首一个
+  private final ConcurrentLinkedQueue<Thread> parkedConsumers = new ConcurrentLinkedQueue<>();
+
+  public BackpressureQueue(int capacity, OverflowPolicy policy, Duration blockTimeout,
+                           int sampleRate, double sampleHighWatermark) {
+    this.buffer = new BoundedRingBuffer<>(capacity);
+    this.policy = policy;
+    this.blockTimeoutNanos = blockTimeout.toNanos();
+    this.sampleRate = sampleRate;
+    this.sampleThreshold = (int) (buffer.capacity() * sampleHighWatermark);
+  }
+
+  /**
+   * 按溢出策略写入，返回 false 表示当前元素被丢弃
+   */
+  public boolean offer(E element) {
+    boolean accepted = switch (policy) {
+      case BLOCK -> offerWithTimeout(element);
+      case DROP_NEWEST -> buffer.offer(element);
+      case DROP_OLDEST -> offerEvictingOldest(element);
+      case SAMPLE -> offerSampled(element);
+    };
+    if (accepted) {
+      signalConsumer();
+    } else {
+      dropped.increment();
+    }
+    return accepted;
+  }
+
+  private boolean offerWithTimeout(E element) {
+    if (buffer.offer(element)) {
+      return true;
+    }
+    long deadline = System.nanoTime() + blockTimeoutNanos;
+    int tries = 0;
+    while (System.nanoTime() < deadline) {
+      if (buffer.offer(element)) {
+        return true;
+      }
+      backoff(++tries);
+    }
+    return buffer.offer(element);
+  }
+
+  private boolean offerEvictingOldest(E element) {
+    // 上限为容量次，防止与消费者竞争时无限循环
+    for (int i = 0; i < buffer.capacity(); i++) {
+      if (buffer.offer(element)) {
+        return true;
+      }
+      if (buffer.poll() != null) {
+        dropped.increment();
+      }
+    }
+    return false;
+  }
+
+  private boolean offerSampled(E element) {
+    if (buffer.size() >= sampleThreshold
+      && sampleSequence.incrementAndGet() % sampleRate != 0) {
+      return false;
+    }
+    return buffer.offer(element);
+  }
+
+  public E poll() {
+    return buffer.poll();
+  }
+
+  /**
+   * 消费者取空后的等待：先自旋、让出，之后登记并休眠，直到 offer 唤醒或 MAX_IDLE_PARK_NANOS 超时
+   *
+   * @param tries 连续取空的次数，取到元素后由调用方归零
+   */
+  public void idle(int tries) {
+    if (tries < SPIN_TRIES * 2) {
+      backoff(tries);
+      return;
+    }
+    Thread current = Thread.currentThread();
+    parkedConsumers.add(current);
+    try {
+      // 登记后再检查一次：登记前完成的 offer 看不到本线程，不会唤醒
+      if (buffer.isEmpty()) {
+        LockSupport.parkNanos(this, MAX_IDLE_PARK_NANOS);
+      }
+    } finally {
+      parkedConsumers.remove(current);
+    }
+  }
+
+  /**
+   * 唤醒全部休眠的消费者，停机时调用，使其立即检查退出条件
+   */
+  public void wakeConsumers() {
+    parkedConsumers.forEach(LockSupport::unpark);
+  }
+
+  private void signalConsumer() {
+    Thread consumer = parkedConsumers.peek();
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  public int size() {
+    return buffer.size();
+  }
+
+  public int capacity() {
+    return buffer.capacity();
+  }
+
+  public boolean isEmpty() {
+    return buffer.isEmpty();
+  }
+
+  public OverflowPolicy policy() {
+    return policy;
+  }
+
+  /**
+   * 被拒绝与被淘汰的元素总数
+   */
+  public long droppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * 自旋 -> 让出 -> 短暂休眠的渐进退避，用于等待空位等无人唤醒的场景
+   */
+  public static void backoff(int tries) {
+    if (tries < SPIN_TRIES) {
+      Thread.onSpinWait();
+    } else if (tries < SPIN_TRIES * 2) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(Math.min(MAX_BACKOFF_PARK_NANOS, 1000L * (tries - SPIN_TRIES * 2 + 1)));
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.share.logging.core.pipeline.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界、预分配的多生产者多消费者环形缓冲区 (Vyukov MPMC 算法)
+ * <p>
+ * 1. 槽位数组与序号数组在构造时一次性分配，运行期不再扩容
+ * 2. offer / poll 均为无锁 CAS，满/空时立即返回，由调用方决定背压策略
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class BoundedRingBuffer<E> {
+
+  private final int capacity;
+  private final int mask;
+  private final Object[] elements;
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong tail = new AtomicLong(); // 下一个写入位置
+  private final AtomicLong head = new AtomicLong(); // 下一个读取位置
+
+  public BoundedRingBuffer(int requestedCapacity) {
+    if (requestedCapacity < 2) {
+      throw new IllegalArgumentException("capacity must be >= 2, but got " + requestedCapacity);
+    }
+    this.capacity = roundUpToPowerOfTwo(requestedCapacity);
+    this.mask = capacity - 1;
+    this.elements = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * 尝试写入，缓冲区已满时返回 false
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("element must not be null");
+    }
+    long pos = tail.get();
+    for (; ; ) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          elements[index] = element;
+          // volatile 写发布元素，消费者读到序号后必然能看到元素
+          sequences.set(index, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        return false; // 已满
+      } else {
+        pos = tail.get(); // 被其他生产者抢先
+      }
+    }
+  }
+
+  /**
+   * 尝试读取，缓冲区为空时返回 null
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    long pos = head.get();
+    for (; ; ) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          E element = (E) elements[index];
+          elements[index] = null; // 释放引用，避免已消费日志滞留堆中
+          sequences.set(index, pos + capacity);
+          return element;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        return null; // 为空
+      } else {
+        pos = head.get(); // 被其他消费者抢先
+      }
+    }
+  }
+
+  /**
+   * 当前积压数量 (并发下为近似值)
+   */
+  public int size() {
+    long size = tail.get() - head.get();
+    if (size < 0) {
+      return 0;
+    }
+    return (int) Math.min(size, capacity);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  private static int roundUpToPowerOfTwo(int value) {
+    int highest = Integer.highestOneBit(value);
+    if (highest == value) {
+      return value;
+    }
+    if (highest >= (1 << 30)) {
+      throw new IllegalArgumentException("capacity too large: " + value);
+    }
+    return highest << 1;
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.share.logging.core.pipeline.buffer;
+
+/**
+ * 缓冲区溢出(背压)策略
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public enum OverflowPolicy {
+
+  /**
+   * 阻塞等待空位，超过 block-timeout 后丢弃当前日志
+   */
+  BLOCK,
+
+  /**
+   * 直接丢弃当前(最新)日志
+   */
+  DROP_NEWEST,
+
+  /**
+   * 淘汰队头(最旧)日志，为当前日志腾出空位
+   */
+  DROP_OLDEST,
+
+  /**
+   * 积压超过高水位后按 1/sample-rate 采样写入，满时丢弃
+   */
+  SAMPLE
+}
@@ -0,0 +1,177 @@
+package com.example.share.logging.core.policy;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Body 采集策略：在脱敏之前决定是否保留完整 Body
+ * <p>
+ * 1. 只看状态码、耗时与 URI，不解析 Body；不保留时直接置空两侧 Body，后续脱敏与导出都不再处理
+ * 2. 错误 (status >= error-status) 与慢调用 (duration > slow-threshold) 保留，其余按 sample-rate 随机保留
+ * 3. 请求阶段还不知道结果：先保留 (合并模式下单独的请求日志只有超时孤儿与溢出透传；非合并模式下响应日志会再带一份请求体)
+ * 4. 命中 budgets 的 URI 每次保留都要从该规则的令牌桶取令牌，取不到则只保存元数据
+ * <p>
+ * 被置空的 Body 仍保留原始长度 (request/responseContentLength)，可看出丢弃了多少数据
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public final class CapturePolicy {
+
+  public static final CapturePolicy KEEP_ALL = new CapturePolicy(
+    new LogCaptureProperties.Policy(false, 400, null, 1.0, List.of()), Metrics.globalRegistry);
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final boolean enabled;
+  private final int errorStatus;
+  private final long slowThresholdMillis;
+  private final double sampleRate;
+  private final List<Budget> budgets;
+  private final Map<Decision, Counter> decisions = new EnumMap<>(Decision.class);
+
+  public CapturePolicy(LogCaptureProperties.Policy properties, MeterRegistry registry) {
+    this(properties, registry, System::nanoTime);
+  }
+
+  CapturePolicy(LogCaptureProperties.Policy properties, MeterRegistry registry, LongSupplier nanoClock) {
+    this.enabled = properties.enable();
+    this.errorStatus = properties.errorStatus();
+    this.slowThresholdMillis = properties.slowThreshold() != null ? properties.slowThreshold().toMillis() : Long.MAX_VALUE;
+    this.sampleRate = properties.sampleRate();
+    this.budgets = properties.budgets().stream()
+      .map(budget -> new Budget(budget.pattern(),
+        new TokenBucket(budget.ratePerSecond(), budget.burst(), nanoClock)))
+      .toList();
+    if (enabled) {
+      for (Decision decision : Decision.values()) {
+        decisions.put(decision, Counter.builder("logbook.capture.policy")
+          .description("Body capture decisions taken before sanitization")
+          .tag("decision", decision.name().toLowerCase())
+          .tag("body", decision.isKeepBody() ? "kept" : "dropped")
+          .register(registry));
+      }
+      log.info("Initialized Capture Policy. ErrorStatus: {}, SlowThreshold: {}ms, SampleRate: {}, Budgets: {}",
+        errorStatus, slowThresholdMillis, sampleRate, properties.budgets().size());
+    }
+  }
+
+  /**
+   * 决定是否保留 Body，不保留时就地置空
+   */
+  public Decision apply(LogPhase phase, HttpExchangeLog exchangeLog) {
+    if (!enabled) {
+      return Decision.KEEP_ALL;
+    }
+    Decision decision = decide(phase, exchangeLog);
+    if (!decision.isKeepBody()) {
+      exchangeLog.setRequestBody(null);
+      exchangeLog.setResponseBody(null);
+    }
+    decisions.get(decision).increment();
+    return decision;
+  }
+
+  private Decision decide(LogPhase phase, HttpExchangeLog exchangeLog) {
+    if (!hasBody(exchangeLog.getRequestBody(), exchangeLog.getRequestContentLength())
+      && !hasBody(exchangeLog.getResponseBody(), exchangeLog.getResponseContentLength())) {
+      return Decision.NO_BODY;
+    }
+    Decision outcome = outcome(phase, exchangeLog);
+    if (!outcome.isKeepBody()) {
+      return outcome;
+    }
+    // 需要保留时再扣预算，没有 Body 与不保留的交换不消耗令牌
+    TokenBucket bucket = bucketFor(exchangeLog.getUri());
+    return bucket == null || bucket.tryAcquire() ? outcome : Decision.THROTTLED;
+  }
+
+  private Decision outcome(LogPhase phase, HttpExchangeLog exchangeLog) {
+    if (phase == LogPhase.REQUEST) {
+      return Decision.PENDING;
+    }
+    Integer status = exchangeLog.getStatusCode();
+    if (status != null && status >= errorStatus) {
+      return Decision.ERROR;
+    }
+    Long duration = exchangeLog.getDurationMillis();
+    if (duration != null && duration > slowThresholdMillis) {
+      return Decision.SLOW;
+    }
+    if (sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+      return Decision.SAMPLED;
+    }
+    return Decision.UNSAMPLED;
+  }
+
+  private static boolean hasBody(LogBody body, Integer originalLength) {
+    return body != null && (originalLength == null || originalLength > 0);
+  }
+
+  private TokenBucket bucketFor(String uri) {
+    if (budgets.isEmpty() || uri == null) {
+      return null;
+    }
+    String path = pathOf(uri);
+    for (Budget budget : budgets) {
+      if (pathMatcher.match(budget.pattern(), path)) {
+        return budget.bucket();
+      }
+    }
+    return null;
+  }
+
+  // Logbook 的 requestUri 是绝对地址：去掉 scheme://host[:port] 与查询串
+  static String pathOf(String uri) {
+    int start = 0;
+    int scheme = uri.indexOf("://");
+    if (scheme >= 0) {
+      start = uri.indexOf('/', scheme + 3);
+      if (start < 0) {
+        return "/";
+      }
+    }
+    int end = uri.indexOf('?', start);
+    return uri.substring(start, end < 0 ? uri.length() : end);
+  }
+
+  @Getter
+  public enum Decision {
+    // 策略关闭
+    KEEP_ALL(true),
+    // 两侧都没有 Body
+    NO_BODY(true),
+    // 请求阶段，结果未知
+    PENDING(true),
+    ERROR(true),
+    SLOW(true),
+    SAMPLED(true),
+    // 未抽中，只保存元数据
+    UNSAMPLED(false),
+    // 应保留但 URI 预算已耗尽，只保存元数据
+    THROTTLED(false);
+
+    private final boolean keepBody;
+
+    Decision(boolean keepBody) {
+      this.keepBody = keepBody;
+    }
+  }
+
+  private record Budget(String pattern, TokenBucket bucket) {
+  }
+}
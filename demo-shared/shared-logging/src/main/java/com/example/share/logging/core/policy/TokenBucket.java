@@ -0,0 +1,40 @@
+package com.example.share.logging.core.policy;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶：按固定速率补充，容量即允许的突发量
+ * <p>
+ * 只在管道工作线程上调用 (固定少量线程)，临界区只有几次算术运算，直接同步
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+final class TokenBucket {
+
+  private final double capacity;
+  private final double tokensPerNano;
+  private final LongSupplier nanoClock;
+
+  private double tokens;
+  private long lastRefill;
+
+  TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+    this.capacity = burst;
+    this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+    this.nanoClock = nanoClock;
+    this.tokens = burst;
+    this.lastRefill = nanoClock.getAsLong();
+  }
+
+  synchronized boolean tryAcquire() {
+    long now = nanoClock.getAsLong();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+}
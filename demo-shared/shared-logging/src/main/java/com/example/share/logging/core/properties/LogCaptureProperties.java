@@ -0,0 +1,114 @@
+package com.example.share.logging.core.properties;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 日志采集配置
+ * 前缀: logbook.capture
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.capture")
+public record LogCaptureProperties(
+  // deferred: 请求线程只做快照，映射与解码在管道工作线程上执行；inline: 在请求线程上立即构建日志
+  @DefaultValue("deferred") Mode mode,
+
+  @DefaultValue @Valid Body body,
+
+  // 按结果决定是否保留完整 Body
+  @DefaultValue @Valid Policy policy,
+
+  // 业务标识采集：先取请求头，再取请求属性中的业务上下文快照，最后取请求线程的 MDC
+  @DefaultValue @Valid BizIds bizIds
+) {
+
+  public enum Mode {
+    DEFERRED, INLINE
+  }
+
+  public record Body(
+    // 请求体最多采集的字节数，超出部分截断并标记 truncated
+    @DefaultValue("64KB") DataSize requestMaxSize,
+
+    // 响应体最多采集的字节数
+    @DefaultValue("64KB") DataSize responseMaxSize,
+
+    // 按 URI 覆盖上限 (Ant 风格，按顺序匹配，首个命中生效)，未配置的方向取全局值
+    @DefaultValue List<@Valid UriLimit> uris
+  ) {
+  }
+
+  public record UriLimit(
+    @NotBlank String pattern,
+    DataSize requestMaxSize,
+    DataSize responseMaxSize
+  ) {
+  }
+
+  public record Policy(
+    // 关闭时所有 Body 都保留 (兼容旧行为)
+    @DefaultValue("false") boolean enable,
+
+    // 状态码不低于该值时保留 Body
+    @DefaultValue("400") @Min(100) int errorStatus,
+
+    // 耗时超过该值时保留 Body
+    @DefaultValue("1s") Duration slowThreshold,
+
+    // 其余交换按比例随机保留，未命中只保存元数据
+    @DefaultValue("0.01") @DecimalMin("0.0") @DecimalMax("1.0") double sampleRate,
+
+    // 按 URI 的令牌桶预算 (Ant 风格，首个命中生效)，预算耗尽时即使是错误也只保存元数据
+    @DefaultValue List<@Valid Budget> budgets
+  ) {
+  }
+
+  public record Budget(
+    @NotBlank String pattern,
+
+    // 每秒补充的令牌数 (即长期平均每秒最多保留的 Body 数)
+    @DefaultValue("10") @Positive double ratePerSecond,
+
+    // 桶容量，允许的瞬时突发
+    @DefaultValue("20") @Min(1) int burst
+  ) {
+  }
+
+  public record BizIds(
+    @DefaultValue("true") boolean enable,
+
+    @DefaultValue("X-Biz-Id") @NotBlank String bizIdHeader,
+    @DefaultValue("X-Batch-Id") @NotBlank String batchIdHeader,
+    @DefaultValue("X-Jnl-No") @NotBlank String jnlNoHeader,
+
+    @DefaultValue("bizId") @NotBlank String bizIdMdcKey,
+    @DefaultValue("batchId") @NotBlank String batchIdMdcKey,
+    @DefaultValue("jnlNo") @NotBlank String jnlNoMdcKey,
+
+    // 业务上下文快照所在的请求属性 (Map，Key 同 MDC)，与 shared-core BizContext.SNAPSHOT_ATTRIBUTE 一致
+    @DefaultValue("com.example.shared.core.trace.context.BizContext.SNAPSHOT") @NotBlank String snapshotAttribute
+  ) {
+
+    /**
+     * 全部取 {@link DefaultValue} 的实例，供不经配置绑定的场景使用
+     */
+    public static BizIds defaults() {
+      return new Binder().bindOrCreate("logbook.capture.biz-ids", BizIds.class);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.share.logging.core.properties;
+
+import com.example.share.logging.core.pipeline.buffer.OverflowPolicy;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * 日志处理管道配置
+ * 前缀: logbook.pipeline
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.pipeline")
+public record LogPipelineProperties(
+  // 管道实现：ring-buffer (有界环形缓冲 + 固定工作线程) / executor (每条日志提交一次 applicationTaskExecutor)
+  @DefaultValue("ring-buffer") Mode mode,
+
+  // 环形缓冲区容量，向上取整为 2 的幂
+  @DefaultValue("8192") @Min(2) int capacity,
+
+  // 固定工作线程数
+  @DefaultValue("2") @Min(1) int workers,
+
+  // 缓冲区满时的背压策略
+  @DefaultValue("block") OverflowPolicy overflowPolicy,
+
+  // BLOCK 策略下请求线程最长等待时间
+  @DefaultValue("10ms") Duration blockTimeout,
+
+  // SAMPLE 策略下超过高水位后每 sample-rate 条保留 1 条
+  @DefaultValue("10") @Min(1) int sampleRate,
+
+  // SAMPLE 策略的高水位 (占容量比例)
+  @DefaultValue("0.8") @DecimalMin("0.0") @DecimalMax("1.0") double sampleHighWatermark,
+
+  // 停机时等待工作线程排空缓冲区的最长时间
+  @DefaultValue("5s") Duration shutdownTimeout,
+
+  // 请求/响应合并
+  @DefaultValue @Valid Coalescing coalescing
+) {
+
+  public enum Mode {
+    RING_BUFFER,
+    EXECUTOR
+  }
+
+  public record Coalescing(
+    // 是否合并同一 correlationId 的请求与响应，合并后每次交换只写一次
+    @DefaultValue("true") boolean enable,
+
+    // 请求日志等待响应的最长时间，超时作为孤儿日志 (complete=false) 单独写出
+    @DefaultValue("30s") Duration timeout,
+
+    // 最多暂存的请求日志数，超过后新请求直接透传，避免内存无限增长
+    @DefaultValue("10000") @Min(1) int maxPending
+  ) {
+  }
+}
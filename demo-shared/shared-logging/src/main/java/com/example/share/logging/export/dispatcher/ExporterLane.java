@@ -0,0 +1,260 @@
+package com.example.share.logging.export.dispatcher;
+
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.pipeline.buffer.BackpressureQueue;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.properties.DispatcherProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单个 Exporter 的独立通道：有界队列 + 专属消费线程
+ * <p>
+ * 某个 Exporter 变慢或失败只会让自己的队列积压并按溢出策略丢弃，不会阻塞其他 Exporter；
+ * 单次调用超过 call-timeout 的消费线程被判定为卡住：中断并放弃该线程，另起线程继续消费，
+ * 卡住的线程数超过 workers 时不再新建，等卡住的线程返回后再补齐
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+class ExporterLane {
+
+  private static final long MIN_WATCHDOG_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long MAX_WATCHDOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final LogExporter exporter;
+  private final String name;
+  private final DispatcherProperties.Lane properties;
+  private final BackpressureQueue<Entry> queue;
+
+  // 指标 (按 exporter 打标签)
+  private final Counter exported;
+  private final Counter failures;
+  private final Counter errors;
+  private final Timer lag;
+  private final Timer latency;
+  private final Counter timeouts;
+
+  // 正常消费的线程；被放弃的线程移入 abandoned，直到其调用返回并退出
+  private final List<Worker> workers = new CopyOnWriteArrayList<>();
+  private final List<Worker> abandoned = new CopyOnWriteArrayList<>();
+  private final AtomicInteger workerIndex = new AtomicInteger();
+
+  private volatile boolean running;
+
+  ExporterLane(LogExporter exporter, DispatcherProperties.Lane properties, MeterRegistry registry) {
+    this.exporter = exporter;
+    this.name = exporter.getName();
+    this.properties = properties;
+    this.queue = new BackpressureQueue<>(properties.capacity(), properties.overflowPolicy(),
+      properties.blockTimeout(), properties.sampleRate(), properties.sampleHighWatermark());
+
+    this.exported = Counter.builder("logbook.dispatcher.exported")
+      .description("Logs handed to the exporter")
+      .tag("exporter", name)
+      .register(registry);
+    this.failures = Counter.builder("logbook.dispatcher.failures")
+      .description("Exporter calls that threw")
+      .tag("exporter", name)
+      .register(registry);
+    this.errors = Counter.builder("logbook.pipeline.errors")
+      .description("Exceptions caught and swallowed inside the logging pipeline")
+      .tag("stage", "export")
+      .register(registry);
+    this.lag = Timer.builder("logbook.dispatcher.lag")
+      .description("Time from dispatch to export completion")
+      .tag("exporter", name)
+      .register(registry);
+    this.latency = Timer.builder("logbook.dispatcher.latency")
+      .description("Time spent inside the exporter call")
+      .tag("exporter", name)
+      .register(registry);
+    this.timeouts = Counter.builder("logbook.dispatcher.timeouts")
+      .description("Exporter calls that exceeded call-timeout and whose worker was abandoned")
+      .tag("exporter", name)
+      .register(registry);
+    Gauge.builder("logbook.dispatcher.stuck", abandoned, ExporterLane::countAlive)
+      .description("Abandoned workers still inside an exporter call")
+      .tag("exporter", name)
+      .register(registry);
+    FunctionCounter.builder("logbook.dispatcher.dropped", queue, BackpressureQueue::droppedCount)
+      .description("Logs dropped by the lane overflow policy")
+      .tag("exporter", name)
+      .tag("policy", properties.overflowPolicy().name())
+      .register(registry);
+    Gauge.builder("logbook.dispatcher.queue.depth", queue, BackpressureQueue::size)
+      .description("Logs waiting in the lane")
+      .tag("exporter", name)
+      .register(registry);
+  }
+
+  boolean publish(LogEvent event) {
+    return queue.offer(new Entry(event, System.nanoTime()));
+  }
+
+  // ================ Worker ================
+
+  private void runWorker(Worker worker) {
+    int idle = 0;
+    // 停机时继续消费，直到队列排空；被放弃的线程在当前调用返回后退出
+    while ((running || !queue.isEmpty()) && !worker.isAbandoned()) {
+      Entry entry = queue.poll();
+      if (entry == null) {
+        queue.idle(++idle);
+        continue;
+      }
+      idle = 0;
+      deliver(entry, worker);
+    }
+  }
+
+  private void deliver(Entry entry, Worker worker) {
+    LogEvent event = entry.event();
+    long start = System.nanoTime();
+    // 只从 IDLE 开始新调用：已被放弃的线程不再调用 Exporter，条目放回队列交给接替的线程
+    if (!worker.callStartedAt.compareAndSet(Worker.IDLE, start)) {
+      queue.offer(entry);
+      return;
+    }
+    try {
+      switch (event.phase()) {
+        case REQUEST -> exporter.exportRequest(event.log());
+        case RESPONSE -> exporter.exportResponse(event.log());
+        case EXCHANGE -> exporter.exportExchange(event.log());
+      }
+      exported.increment();
+    } catch (Exception e) {
+      failures.increment();
+      errors.increment();
+      log.error("Exporter [{}] failed on {} [{}]", name, event.phase(), event.log().getCorrelationId(), e);
+    } finally {
+      // 与看门狗竞争：认领失败说明本次调用已被判定超时并放弃，保持 ABANDONED，线程随后退出
+      worker.callStartedAt.compareAndSet(start, Worker.IDLE);
+      long end = System.nanoTime();
+      latency.record(end - start, TimeUnit.NANOSECONDS);
+      lag.record(end - entry.enqueuedAt(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // ================ Watchdog ================
+
+  private void runWatchdog() {
+    long timeoutNanos = properties.callTimeout().toNanos();
+    long interval = Math.clamp(timeoutNanos / 4, MIN_WATCHDOG_INTERVAL_NANOS, MAX_WATCHDOG_INTERVAL_NANOS);
+    while (running) {
+      LockSupport.parkNanos(interval);
+      long now = System.nanoTime();
+      for (Worker worker : workers) {
+        long startedAt = worker.callStartedAt.get();
+        // 以 CAS 认领：只有观察到的那次调用仍未结束时才放弃，不会误中断线程随后开始的下一次调用
+        if (startedAt != Worker.IDLE && startedAt != Worker.ABANDONED && now - startedAt > timeoutNanos
+          && worker.callStartedAt.compareAndSet(startedAt, Worker.ABANDONED)) {
+          abandon(worker);
+        }
+      }
+      abandoned.removeIf(worker -> !worker.thread.isAlive());
+      replenish();
+    }
+  }
+
+  private void abandon(Worker worker) {
+    workers.remove(worker);
+    abandoned.add(worker);
+    timeouts.increment();
+    errors.increment();
+    log.warn("Exporter [{}] call exceeded {} ms on {}, abandoning worker", name,
+      properties.callTimeout().toMillis(), worker.thread.getName());
+    worker.thread.interrupt();
+  }
+
+  // 补足消费线程，卡住的线程数超过 workers 时不再新建，避免 Exporter 持续挂起时线程无限增长
+  private void replenish() {
+    while (running && workers.size() < properties.workers() && abandoned.size() <= properties.workers()) {
+      startWorker();
+    }
+  }
+
+  private void startWorker() {
+    Worker worker = new Worker();
+    worker.thread = Thread.ofPlatform()
+      .name("log-export-" + name + "-", workerIndex.getAndIncrement())
+      .daemon(true)
+      .unstarted(() -> runWorker(worker));
+    workers.add(worker);
+    worker.thread.start();
+  }
+
+  private static double countAlive(List<Worker> workers) {
+    return workers.stream().filter(worker -> worker.thread.isAlive()).count();
+  }
+
+  // ================ Lifecycle ================
+
+  void start() {
+    running = true;
+    for (int i = 0; i < properties.workers(); i++) {
+      startWorker();
+    }
+    if (properties.callTimeout().isPositive()) {
+      Thread.ofPlatform()
+        .name("log-export-" + name + "-watchdog")
+        .daemon(true)
+        .start(this::runWatchdog);
+    }
+  }
+
+  void signalStop() {
+    running = false;
+    queue.wakeConsumers();
+  }
+
+  /**
+   * 等待消费线程退出，截止时仍未排空的日志被丢弃
+   */
+  void awaitTermination(long deadlineNanos) {
+    for (Worker worker : workers) {
+      long remaining = deadlineNanos - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      try {
+        worker.thread.join(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    int pending = queue.size();
+    if (pending > 0) {
+      log.warn("Exporter lane [{}] stopped with {} pending logs discarded", name, pending);
+    }
+  }
+
+  private record Entry(LogEvent event, long enqueuedAt) {
+  }
+
+  private static final class Worker {
+    private static final long IDLE = 0;
+    private static final long ABANDONED = Long.MIN_VALUE;
+
+    private volatile Thread thread;
+    // 当前调用的开始时间；空闲时为 IDLE，被看门狗放弃后固定为 ABANDONED
+    private final AtomicLong callStartedAt = new AtomicLong(IDLE);
+
+    boolean isAbandoned() {
+      return callStartedAt.get() == ABANDONED;
+    }
+  }
+}
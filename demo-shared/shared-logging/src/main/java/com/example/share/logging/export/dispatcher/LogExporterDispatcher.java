@@ -1,28 +1,201 @@
- package com.example.share.logging.export.dispatcher;
+package com.example.share.logging.export.dispatcher;
 
- import com.example.share.logging.core.model.HttpExchangeLog;
- import com.example.share.logging.export.exporter.LogExporter;
- import lombok.RequiredArgsConstructor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.properties.DispatcherProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
 
- import java.util.List;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-@RequiredArgsConstructor
-public class LogExporterDispatcher implements LogExporter {
+/**
+ * LogExporterDispatcher
+ * <p>
+ * 隔离模式下每个 Exporter 一条 {@link ExporterLane} (独立队列、线程与溢出策略)，分发只做入队；
+ * 非隔离模式下在调用线程内依次同步调用各 Exporter，单个 Exporter 失败不影响其后的 Exporter；
+ * 两种模式的成功/失败与耗时使用相同的指标 (logbook.dispatcher.exported / failures / latency，按 exporter 打标签)
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class LogExporterDispatcher implements LogExporter, SmartLifecycle {
 
   // 注入具体的 Exporter (DB, File)
   private final List<LogExporter> exporters;
+  // 为空表示非隔离模式
+  private final List<ExporterLane> lanes;
+  // 非隔离模式下与 exporters 一一对应
+  private final List<SyncExporter> syncExporters;
+  private final Duration shutdownTimeout;
+
+  private volatile boolean running;
+
+  /**
+   * 非隔离模式：同步依次调用
+   */
+  public LogExporterDispatcher(List<LogExporter> exporters) {
+    this(exporters, Metrics.globalRegistry);
+  }
+
+  public LogExporterDispatcher(List<LogExporter> exporters, MeterRegistry meterRegistry) {
+    this.exporters = exporters;
+    this.lanes = List.of();
+    this.syncExporters = exporters.stream()
+      .map(exporter -> new SyncExporter(exporter, meterRegistry))
+      .toList();
+    this.shutdownTimeout = Duration.ZERO;
+  }
+
+  /**
+   * 隔离模式：每个 Exporter 独立通道
+   */
+  public LogExporterDispatcher(List<LogExporter> exporters,
+                               DispatcherProperties properties,
+                               MeterRegistry meterRegistry) {
+    this.exporters = exporters;
+    this.lanes = exporters.stream()
+      .map(exporter -> new ExporterLane(exporter, properties.laneFor(exporter.getName()), meterRegistry))
+      .toList();
+    this.syncExporters = List.of();
+    this.shutdownTimeout = properties.shutdownTimeout();
+
+    log.info("Initialized isolated Log Exporter Dispatcher. Exporters: {}",
+      exporters.stream().map(LogExporter::getName).toList());
+  }
 
   @Override
   public void exportRequest(HttpExchangeLog log) {
-    for (LogExporter exporter : exporters) {
-      exporter.exportRequest(log);
+    if (lanes.isEmpty()) {
+      for (SyncExporter exporter : syncExporters) {
+        exporter.deliver(LogPhase.REQUEST, log);
+      }
+      return;
     }
+    publish(LogEvent.request(log));
   }
 
   @Override
   public void exportResponse(HttpExchangeLog log) {
-    for (LogExporter exporter : exporters) {
-      exporter.exportResponse(log);
+    if (lanes.isEmpty()) {
+      for (SyncExporter exporter : syncExporters) {
+        exporter.deliver(LogPhase.RESPONSE, log);
+      }
+      return;
+    }
+    publish(LogEvent.response(log));
+  }
+
+  @Override
+  public void exportExchange(HttpExchangeLog log) {
+    if (lanes.isEmpty()) {
+      for (SyncExporter exporter : syncExporters) {
+        exporter.deliver(LogPhase.EXCHANGE, log);
+      }
+      return;
+    }
+    publish(LogEvent.exchange(log));
+  }
+
+  // 各通道只读共享同一个日志对象 (脱敏已在管道内完成)
+  private void publish(LogEvent event) {
+    for (ExporterLane lane : lanes) {
+      lane.publish(event);
+    }
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    lanes.forEach(ExporterLane::start);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    // 先通知全部通道，再统一等待，总耗时不超过 shutdown-timeout
+    lanes.forEach(ExporterLane::signalStop);
+    long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+    for (ExporterLane lane : lanes) {
+      lane.awaitTermination(deadline);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于日志管道、早于各 Exporter 停止
+    return SmartLifecycle.DEFAULT_PHASE - 6144;
+  }
+
+  /**
+   * 非隔离模式下的单个 Exporter：在调用线程上执行，记录耗时与成败
+   */
+  private static final class SyncExporter {
+
+    private final LogExporter exporter;
+    private final Counter exported;
+    private final Counter failures;
+    private final Counter errors;
+    private final Timer latency;
+
+    SyncExporter(LogExporter exporter, MeterRegistry registry) {
+      this.exporter = exporter;
+      String name = exporter.getName();
+      this.exported = Counter.builder("logbook.dispatcher.exported")
+        .description("Logs handed to the exporter")
+        .tag("exporter", name)
+        .register(registry);
+      this.failures = Counter.builder("logbook.dispatcher.failures")
+        .description("Exporter calls that threw")
+        .tag("exporter", name)
+        .register(registry);
+      this.errors = Counter.builder("logbook.pipeline.errors")
+        .description("Exceptions caught and swallowed inside the logging pipeline")
+        .tag("stage", "export")
+        .register(registry);
+      this.latency = Timer.builder("logbook.dispatcher.latency")
+        .description("Time spent inside the exporter call")
+        .tag("exporter", name)
+        .register(registry);
+    }
+
+    void deliver(LogPhase phase, HttpExchangeLog exchangeLog) {
+      long start = System.nanoTime();
+      try {
+        switch (phase) {
+          case REQUEST -> exporter.exportRequest(exchangeLog);
+          case RESPONSE -> exporter.exportResponse(exchangeLog);
+          case EXCHANGE -> exporter.exportExchange(exchangeLog);
+        }
+        exported.increment();
+      } catch (Exception e) {
+        failures.increment();
+        errors.increment();
+        log.error("Exporter [{}] failed on {} [{}]", exporter.getName(), phase, exchangeLog.getCorrelationId(), e);
+      } finally {
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
     }
   }
 }
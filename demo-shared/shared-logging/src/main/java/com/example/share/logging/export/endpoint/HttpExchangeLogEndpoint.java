@@ -0,0 +1,103 @@
+package com.example.share.logging.export.endpoint;
+
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Criteria;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Cursor;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Detail;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Page;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * 交换日志查询端点：GET /actuator/exchangelogs
+ * <p>
+ * 1. 检索：from / to (ISO-8601，缺省为最近 default-lookback)、uri (路径前缀)、status (500 或 5xx)、
+ * correlationId、bizId / batchId / jnlNo、minDuration / maxDuration (毫秒)、limit；响应中的 nextCursor 原样作为下一次的 cursor 参数
+ * 2. 详情：GET /actuator/exchangelogs/{correlationId}，包含 Header 与 Body
+ * 3. 不分页的全量导出见 {@link HttpExchangeLogExportEndpoint}
+ * <p>
+ * 端点名不用 httpexchanges，避免与 Spring Boot 自带的内存 HTTP 交换端点冲突；
+ * 详情含脱敏后的 Body，暴露前应确认 management 端口的访问控制
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Endpoint(id = "exchangelogs")
+public class HttpExchangeLogEndpoint {
+
+  private final HttpExchangeLogQueryRepository repository;
+
+  public HttpExchangeLogEndpoint(HttpExchangeLogQueryRepository repository) {
+    this.repository = repository;
+  }
+
+  @ReadOperation
+  public Page search(@Nullable OffsetDateTime from,
+                     @Nullable OffsetDateTime to,
+                     @Nullable String uri,
+                     @Nullable String status,
+                     @Nullable String correlationId,
+                     @Nullable String bizId,
+                     @Nullable String batchId,
+                     @Nullable String jnlNo,
+                     @Nullable Long minDuration,
+                     @Nullable Long maxDuration,
+                     @Nullable String cursor,
+                     @Nullable Integer limit) {
+    Criteria criteria = criteria(from, to, uri, status, correlationId, bizId, batchId, jnlNo, minDuration, maxDuration);
+    Cursor after;
+    try {
+      after = cursor != null ? Cursor.decode(cursor) : null;
+    } catch (IllegalArgumentException e) {
+      throw new InvalidEndpointRequestException(e.getMessage(), "Invalid cursor");
+    }
+    return repository.search(criteria, after, limit);
+  }
+
+  /**
+   * 不存在时返回 null，端点响应 404
+   */
+  @ReadOperation
+  public List<Detail> exchange(@Selector String correlationId) {
+    List<Detail> details = repository.findByCorrelationId(correlationId);
+    return details.isEmpty() ? null : details;
+  }
+
+  // 检索与导出共用的参数解析
+  static Criteria criteria(OffsetDateTime from, OffsetDateTime to, String uri, String status, String correlationId,
+                           String bizId, String batchId, String jnlNo, Long minDuration, Long maxDuration) {
+    int[] statusRange = statusRange(status);
+    return new Criteria(instant(from), instant(to), uri,
+      statusRange != null ? statusRange[0] : null, statusRange != null ? statusRange[1] : null,
+      correlationId, minDuration, maxDuration, bizId, batchId, jnlNo);
+  }
+
+  // 500 -> [500, 500]；5xx -> [500, 599]
+  static int[] statusRange(String status) {
+    if (status == null || status.isBlank()) {
+      return null;
+    }
+    String value = status.trim();
+    try {
+      if (value.length() == 3 && value.substring(1).equalsIgnoreCase("xx")) {
+        int statusClass = Integer.parseInt(value.substring(0, 1)) * 100;
+        return new int[]{statusClass, statusClass + 99};
+      }
+      int code = Integer.parseInt(value);
+      return new int[]{code, code};
+    } catch (NumberFormatException e) {
+      throw new InvalidEndpointRequestException("Invalid status: " + status, "Expected a status code or class like 5xx");
+    }
+  }
+
+  private static Instant instant(OffsetDateTime time) {
+    return time != null ? time.toInstant() : null;
+  }
+}
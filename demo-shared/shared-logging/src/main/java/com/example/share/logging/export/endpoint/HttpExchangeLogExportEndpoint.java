@@ -0,0 +1,133 @@
+package com.example.share.logging.export.endpoint;
+
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Criteria;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交换日志导出端点：GET /actuator/exchangelogsexport，以 NDJSON (每行一条摘要，不含 Header 与 Body) 输出全部命中行
+ * <p>
+ * 1. 条件参数与 exchangelogs 检索相同，不分页；时间范围缺省同样为最近 default-lookback
+ * 2. 后台线程经 {@link HttpExchangeLogQueryRepository#stream} 在只读事务内按 fetch-size 分批读取，写入管道，
+ * 响应从管道另一端边读边发送，结果不在内存中堆积；客户端断开时管道关闭，读取随之中止并释放连接
+ * 3. 响应开始发送后出错只能截断输出，错误记录在日志中
+ * <p>
+ * 每个导出请求在整个传输期间占用一个数据库连接与一个只读事务，因此：
+ * 同时进行的导出不超过 max-concurrent-exports，已满时直接返回 429；单次最多 max-export-rows 行 (SQL LIMIT)；
+ * 超过 max-export-duration 时关闭管道读端，写线程下一次写入即失败并结束读取，
+ * 客户端读取过慢 (管道写满、写线程阻塞) 时同样生效
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+@WebEndpoint(id = "exchangelogsexport")
+public class HttpExchangeLogExportEndpoint {
+
+  static final String NDJSON = "application/x-ndjson";
+  private static final int PIPE_SIZE = 64 * 1024;
+
+  private final HttpExchangeLogQueryRepository repository;
+  private final ObjectWriter writer;
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final long maxRows;
+  private final Duration maxExportDuration;
+
+  public HttpExchangeLogExportEndpoint(HttpExchangeLogQueryRepository repository, ObjectMapper objectMapper,
+                                       DatabaseExportProperties.Query properties) {
+    this.repository = repository;
+    this.maxConcurrent = properties.maxConcurrentExports();
+    this.permits = new Semaphore(maxConcurrent);
+    this.maxRows = properties.maxExportRows();
+    this.maxExportDuration = properties.maxExportDuration();
+    // 逐行写入同一输出流：不关闭、不逐条 flush
+    this.writer = objectMapper.writer()
+      .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+      .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  @ReadOperation(produces = NDJSON)
+  public WebEndpointResponse<Resource> export(@Nullable OffsetDateTime from,
+                                              @Nullable OffsetDateTime to,
+                                              @Nullable String uri,
+                                              @Nullable String status,
+                                              @Nullable String correlationId,
+                                              @Nullable String bizId,
+                                              @Nullable String batchId,
+                                              @Nullable String jnlNo,
+                                              @Nullable Long minDuration,
+                                              @Nullable Long maxDuration) throws IOException {
+    Criteria criteria = HttpExchangeLogEndpoint.criteria(from, to, uri, status, correlationId, bizId, batchId, jnlNo,
+      minDuration, maxDuration);
+    if (!permits.tryAcquire()) {
+      log.warn("Exchange log export rejected: max-concurrent-exports ({}) reached", maxConcurrent);
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+    }
+    PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+    PipedOutputStream out = new PipedOutputStream(in);
+    Thread.ofVirtual().name("exchangelogs-export").start(() -> {
+      try {
+        write(criteria, out);
+      } finally {
+        permits.release();
+      }
+    });
+    // 到期关闭读端：写线程阻塞在管道上时每秒检查一次读端状态，随即写入失败并中止读取
+    CompletableFuture.delayedExecutor(maxExportDuration.toMillis(), TimeUnit.MILLISECONDS)
+      .execute(() -> close(in));
+    return new WebEndpointResponse<>(new InputStreamResource(in));
+  }
+
+  private static void close(PipedInputStream in) {
+    try {
+      in.close();
+    } catch (IOException e) {
+      log.debug("Failed to close export pipe", e);
+    }
+  }
+
+  void write(Criteria criteria, OutputStream target) {
+    try (OutputStream out = new BufferedOutputStream(target)) {
+      long count = repository.stream(criteria, summary -> {
+        try {
+          writer.writeValue(out, summary);
+          out.write('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      if (count >= maxRows) {
+        log.warn("Exchange log export truncated at max-export-rows ({})", maxRows);
+      } else {
+        log.debug("Exported {} exchange logs", count);
+      }
+    } catch (Exception e) {
+      log.warn("Exchange log export aborted", e);
+    }
+  }
+}
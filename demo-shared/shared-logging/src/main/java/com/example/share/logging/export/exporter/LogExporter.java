@@ -3,6 +3,18 @@ package com.example.share.logging.export.exporter;
 import com.example.share.logging.core.model.HttpExchangeLog;
 
 public interface LogExporter {
+
+  // 名称：用于分发通道的配置键与指标标签
+  default String getName() {
+    return getClass().getSimpleName();
+  }
+
   void exportRequest(HttpExchangeLog httpExchangeLog);
   void exportResponse(HttpExchangeLog httpExchangeLog);
+
+  // 完整交换 (请求 + 响应)，默认依次按请求、响应导出，避免未覆盖的实现丢失请求数据
+  default void exportExchange(HttpExchangeLog httpExchangeLog) {
+    exportRequest(httpExchangeLog);
+    exportResponse(httpExchangeLog);
+  }
 }
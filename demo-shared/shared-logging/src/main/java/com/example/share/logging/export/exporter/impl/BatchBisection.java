@@ -0,0 +1,31 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.LogEvent;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * 批次二分隔离：整批因非瞬时错误 (约束、数据错误) 被拒绝时，多由个别行引起，
+ * 拆成两半分别写入，逐层缩小到单行，只放弃单独写入仍失败的行
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+final class BatchBisection {
+
+  private BatchBisection() {
+  }
+
+  /**
+   * 把 batch 拆半交给 write (通常即调用方自身的写入方法，递归继续二分)，返回两半合计丢弃的行数；
+   * 单行无法再拆，直接计为丢弃
+   */
+  static int split(List<LogEvent> batch, ToIntFunction<List<LogEvent>> write) {
+    if (batch.size() <= 1) {
+      return batch.size();
+    }
+    int mid = batch.size() / 2;
+    return write.applyAsInt(batch.subList(0, mid)) + write.applyAsInt(batch.subList(mid, batch.size()));
+  }
+}
@@ -0,0 +1,244 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.pipeline.buffer.BoundedRingBuffer;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 批量数据库导出器
+ * <p>
+ * 调用方只负责入队；后台刷写线程按条数 (size) 或最早一条的等待时间 (max-latency) 攒批，
+ * 一个批次在同一事务内通过 JDBC batch 写入，把每次交换两次往返、两次提交降为按批摊销
+ * <p>
+ * 写入失败时不直接丢弃整批：瞬时故障 (连接、超时、死锁等) 按退避整批重试；其余失败多为个别行的数据问题，
+ * 二分拆批重写以隔离坏行，最终只丢弃单独写不进去的行
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class BatchingDatabaseLogExporter implements LogExporter, SmartLifecycle {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final HttpExchangeLogBatchWriter writer;
+  private final DatabaseExportProperties.Batch properties;
+  private final BoundedRingBuffer<LogEvent> queue;
+
+  // 指标
+  private final DistributionSummary flushSize;
+  private final Timer flushLatency;
+  private final Counter flushFailures;
+  private final Counter retries;
+  private final Counter dropped;
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  public BatchingDatabaseLogExporter(HttpExchangeLogBatchWriter writer,
+                                     DatabaseExportProperties.Batch properties,
+                                     MeterRegistry meterRegistry) {
+    this.writer = writer;
+    this.properties = properties;
+    this.queue = new BoundedRingBuffer<>(properties.queueCapacity());
+
+    this.flushSize = DistributionSummary.builder("logbook.database.batch.size")
+      .description("Rows written per batch flush")
+      .register(meterRegistry);
+    this.flushLatency = Timer.builder("logbook.database.batch.flush")
+      .description("Time spent writing one batch")
+      .register(meterRegistry);
+    this.flushFailures = Counter.builder("logbook.database.batch.failures")
+      .description("Batch write attempts that failed (including retries and split halves)")
+      .register(meterRegistry);
+    this.retries = Counter.builder("logbook.database.batch.retries")
+      .description("Whole-batch retries after a transient failure")
+      .register(meterRegistry);
+    this.dropped = Counter.builder("logbook.database.batch.dropped")
+      .description("Rows lost because the queue was full or could not be written after retry and split")
+      .register(meterRegistry);
+    Gauge.builder("logbook.database.batch.queue.depth", queue, BoundedRingBuffer::size)
+      .register(meterRegistry);
+
+    log.info("Initialized Batching Database Exporter. BatchSize: {}, MaxLatency: {}, QueueCapacity: {}, MaxRetries: {}",
+      properties.size(), properties.maxLatency(), queue.capacity(), properties.maxRetries());
+  }
+
+  @Override
+  public String getName() {
+    return "database";
+  }
+
+  @Override
+  public void exportRequest(HttpExchangeLog httpExchangeLog) {
+    enqueue(LogEvent.request(httpExchangeLog));
+  }
+
+  @Override
+  public void exportResponse(HttpExchangeLog httpExchangeLog) {
+    enqueue(LogEvent.response(httpExchangeLog));
+  }
+
+  @Override
+  public void exportExchange(HttpExchangeLog httpExchangeLog) {
+    enqueue(LogEvent.exchange(httpExchangeLog));
+  }
+
+  private void enqueue(LogEvent event) {
+    if (queue.offer(event)) {
+      return;
+    }
+    // 队列满：短暂等待刷写线程腾出空间，把背压传导给上游管道
+    long deadline = System.nanoTime() + properties.offerTimeout().toNanos();
+    while (System.nanoTime() < deadline) {
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+      if (queue.offer(event)) {
+        return;
+      }
+    }
+    dropped.increment();
+    log.warn("DB batch queue full, dropped {} log [{}]", event.phase(), event.log().getCorrelationId());
+  }
+
+  // ================ Flusher ================
+
+  private void runFlusher() {
+    int batchSize = properties.size();
+    long maxLatencyNanos = properties.maxLatency().toNanos();
+    List<LogEvent> batch = new ArrayList<>(batchSize);
+    long batchStartedAt = 0;
+
+    while (running || !queue.isEmpty()) {
+      LogEvent event = queue.poll();
+      if (event != null) {
+        if (batch.isEmpty()) {
+          batchStartedAt = System.nanoTime();
+        }
+        batch.add(event);
+        if (batch.size() >= batchSize) {
+          flush(batch);
+        }
+        continue;
+      }
+
+      if (!batch.isEmpty() && System.nanoTime() - batchStartedAt >= maxLatencyNanos) {
+        flush(batch);
+      } else {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      flush(batch);
+    }
+  }
+
+  private void flush(List<LogEvent> batch) {
+    int size = batch.size();
+    long start = System.nanoTime();
+    try {
+      int lost = write(batch);
+      flushSize.record(size - lost);
+      if (lost > 0) {
+        dropped.increment(lost);
+        log.error("DB batch write failed, {} of {} rows discarded", lost, size);
+      }
+    } finally {
+      flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      batch.clear();
+    }
+  }
+
+  /**
+   * 写入一批，返回最终丢弃的行数
+   */
+  int write(List<LogEvent> batch) {
+    RuntimeException failure = null;
+    for (int attempt = 0; attempt <= properties.maxRetries(); attempt++) {
+      if (attempt > 0) {
+        retries.increment();
+        LockSupport.parkNanos(properties.retryBackoff().toNanos() * attempt);
+      }
+      try {
+        writer.writeBatch(batch);
+        return 0;
+      } catch (RuntimeException e) {
+        flushFailures.increment();
+        failure = e;
+        if (!isTransient(e)) {
+          break;
+        }
+      }
+    }
+    // 瞬时故障重试耗尽：拆批也写不进去，整批放弃
+    if (isTransient(failure) || batch.size() == 1) {
+      log.warn("Discarding {} rows after write failure. Error: {}", batch.size(), failure.getMessage());
+      return batch.size();
+    }
+    // 非瞬时错误多由个别行引起：二分隔离，其余行照常写入
+    return BatchBisection.split(batch, this::write);
+  }
+
+  private static boolean isTransient(RuntimeException e) {
+    return e instanceof TransientDataAccessException
+      || e instanceof RecoverableDataAccessException
+      || e instanceof DataAccessResourceFailureException;
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    flusher = Thread.ofPlatform()
+      .name("log-db-batch-flusher")
+      .daemon(true)
+      .start(this::runFlusher);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      // 刷写线程会在排空队列后退出
+      flusher.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于日志管道停止，保证管道排空后的日志仍能被刷写
+    return SmartLifecycle.DEFAULT_PHASE - 8192;
+  }
+}
@@ -12,6 +12,11 @@ public class DatabaseLogExporter implements LogExporter {
 
   private final HttpExchangeLogPGRepository repository;
 
+  @Override
+  public String getName() {
+    return "database";
+  }
+
   @Override
   public void exportRequest(HttpExchangeLog httpExchangeLog) {
     try {
@@ -29,4 +34,13 @@ public class DatabaseLogExporter implements LogExporter {
       log.error("DB Write Response failed", e);
     }
   }
+
+  @Override
+  public void exportExchange(HttpExchangeLog httpExchangeLog) {
+    try {
+      repository.upsertExchange(httpExchangeLog);
+    } catch (Exception e) {
+      log.error("DB Write Exchange failed", e);
+    }
+  }
 }
@@ -12,6 +12,11 @@ public class FileLogExporter implements LogExporter {
 
   private final ObjectMapper objectMapper;
 
+  @Override
+  public String getName() {
+    return "file";
+  }
+
   @Override
   public void exportRequest(HttpExchangeLog httpExchangeLog) {
     try {
@@ -29,4 +34,14 @@ public class FileLogExporter implements LogExporter {
       log.error("File Write Response failed", e);
     }
   }
+
+  @Override
+  public void exportExchange(HttpExchangeLog httpExchangeLog) {
+    // 合并后的交换只输出一行
+    try {
+      log.info(objectMapper.writeValueAsString(httpExchangeLog));
+    } catch (Exception e) {
+      log.error("File Write Exchange failed", e);
+    }
+  }
 }
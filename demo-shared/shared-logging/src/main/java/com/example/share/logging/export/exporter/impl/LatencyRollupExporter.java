@@ -0,0 +1,180 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.persistence.repository.LatencyRollupRepository;
+import com.example.share.logging.export.properties.RollupProperties;
+import com.example.share.logging.export.rollup.LatencyRollup;
+import com.example.share.logging.export.rollup.RollupRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按接口的延迟汇总导出器
+ * <p>
+ * 每次响应只在内存汇总中记录一次耗时与状态码 ({@link LatencyRollup})，不保留日志本身；
+ * 后台线程在每个窗口边界取走上一个窗口的汇总，写入 engine.http_latency_rollup，每个组合一行。
+ * 请求阶段没有耗时，不记录。写库失败时该窗口的汇总丢弃，不影响后续窗口
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class LatencyRollupExporter implements LogExporter, SmartLifecycle {
+
+  private final LatencyRollupRepository repository;
+  private final LatencyRollup rollup;
+  private final Duration window;
+  private final long windowMillis;
+  private final String instance;
+  private final Clock clock;
+
+  // 指标
+  private final Timer flushLatency;
+  private final Counter flushFailures;
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public LatencyRollupExporter(LatencyRollupRepository repository, RollupProperties properties,
+                               MeterRegistry meterRegistry) {
+    this(repository, properties, meterRegistry, Clock.systemUTC());
+  }
+
+  LatencyRollupExporter(LatencyRollupRepository repository, RollupProperties properties,
+                        MeterRegistry meterRegistry, Clock clock) {
+    this.repository = repository;
+    this.rollup = new LatencyRollup(properties.maxSeries(), properties.highestLatency().toMillis(),
+      properties.significantDigits());
+    this.window = properties.window();
+    this.windowMillis = Math.max(1, window.toMillis());
+    this.instance = StringUtils.hasText(properties.instance()) ? properties.instance() : localHostName();
+    this.clock = clock;
+
+    this.flushLatency = Timer.builder("logbook.rollup.flush")
+      .description("Time spent writing one rollup window")
+      .register(meterRegistry);
+    this.flushFailures = Counter.builder("logbook.rollup.failures")
+      .description("Rollup windows that failed to be written and were discarded")
+      .register(meterRegistry);
+    Gauge.builder("logbook.rollup.series", rollup, LatencyRollup::seriesCount)
+      .description("Distinct method and URI template combinations being tracked")
+      .register(meterRegistry);
+    FunctionCounter.builder("logbook.rollup.overflow", rollup, LatencyRollup::overflowCount)
+      .description("Exchanges folded into the {other} series after max-series was reached")
+      .register(meterRegistry);
+
+    log.info("Initialized Latency Rollup Exporter. Window: {}, MaxSeries: {}, Instance: {}",
+      window, properties.maxSeries(), instance);
+  }
+
+  @Override
+  public String getName() {
+    return "rollup";
+  }
+
+  @Override
+  public void exportRequest(HttpExchangeLog httpExchangeLog) {
+    // 请求阶段没有结果与耗时
+  }
+
+  @Override
+  public void exportResponse(HttpExchangeLog httpExchangeLog) {
+    Long duration = httpExchangeLog.getDurationMillis();
+    if (duration == null) {
+      return;
+    }
+    rollup.record(httpExchangeLog.getMethod(), httpExchangeLog.getUri(), httpExchangeLog.getStatusCode(), duration);
+  }
+
+  /**
+   * 取走并写入当前汇总；windowStart 为这些数据所属窗口的起点
+   */
+  void flush(Instant windowStart) {
+    List<RollupRow> rows = rollup.drain();
+    if (rows.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      repository.write(windowStart, window, instance, rows);
+    } catch (Exception e) {
+      flushFailures.increment();
+      log.error("Latency rollup write failed, window {} with {} rows discarded", windowStart, rows.size(), e);
+    } finally {
+      flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // 定时任务在窗口边界附近触发，四舍五入到最近的边界，得到刚结束的窗口；
+  // 触发严重延迟时可能两次算出同一窗口，第二次写入与已有行合并 (见 LatencyRollupRepository)
+  private void flushCompletedWindow() {
+    long boundary = Math.round((double) clock.millis() / windowMillis) * windowMillis;
+    flush(Instant.ofEpochMilli(boundary - windowMillis));
+  }
+
+  private static String localHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("log-rollup-flusher").daemon(true).factory());
+    long delay = windowMillis - Math.floorMod(clock.millis(), windowMillis);
+    scheduler.scheduleAtFixedRate(this::flushCompletedWindow, delay, windowMillis, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // 未满的当前窗口也写出，停机前的请求不丢；同一窗口内重启后的写入与这些行合并
+    flush(Instant.ofEpochMilli(Math.floorDiv(clock.millis(), windowMillis) * windowMillis));
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于日志管道与分发器停止，排空后的响应仍能计入最后一个窗口
+    return SmartLifecycle.DEFAULT_PHASE - 8192;
+  }
+}
@@ -0,0 +1,456 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.properties.FileExportProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 滚动 NDJSON 文件导出器
+ * <p>
+ * 1. Jackson 流式生成器直接写入复用的堆外缓冲，缓冲写满或组提交时才落到 FileChannel，全程不生成中间 String
+ * 2. 组提交：累计 flush-records 条或距上次提交超过 flush-interval 时写入文件 (可选 fsync)
+ * 3. 按大小或时间滚动，滚动后的文件在后台压缩并按 max-history 清理
+ * 4. 单条记录写入失败 (如磁盘写满) 时丢弃生成器，并把缓冲与文件截回该记录开始处，下一条记录从完整的行边界写起
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class NdjsonFileLogExporter implements LogExporter, SmartLifecycle {
+
+  private static final String EXTENSION = ".ndjson";
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final DateTimeFormatter ROTATED_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter recordWriter;
+  private final FileExportProperties properties;
+  private final Path activeFile;
+  private final ChannelOutputStream out;
+  private final ChannelOpener channelOpener;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // 指标
+  private final Counter written;
+  private final Counter failures;
+  private final Counter rotations;
+
+  // 以下字段均在 lock 内访问
+  private FileChannel channel;
+  private JsonGenerator generator;
+  private int pendingRecords;
+  private long lastCommitNanos;
+  private long openedAtNanos;
+  private boolean closed;
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public NdjsonFileLogExporter(ObjectMapper objectMapper,
+                               FileExportProperties properties,
+                               MeterRegistry meterRegistry) {
+    this(objectMapper, properties, meterRegistry, path -> FileChannel.open(path,
+      StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+  }
+
+  NdjsonFileLogExporter(ObjectMapper objectMapper,
+                        FileExportProperties properties,
+                        MeterRegistry meterRegistry,
+                        ChannelOpener channelOpener) {
+    this.objectMapper = objectMapper;
+    this.channelOpener = channelOpener;
+    // 组提交由本类控制，关闭每条记录后的 flush
+    this.recordWriter = objectMapper.writerFor(HttpExchangeLog.class)
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.properties = properties;
+    this.activeFile = properties.directory().resolve(properties.fileName() + EXTENSION);
+    this.out = new ChannelOutputStream(Math.toIntExact(properties.bufferSize().toBytes()));
+
+    this.written = Counter.builder("logbook.file.written")
+      .description("Records written to the NDJSON file")
+      .register(meterRegistry);
+    this.failures = Counter.builder("logbook.file.failures")
+      .description("Records or commits that failed")
+      .register(meterRegistry);
+    this.rotations = Counter.builder("logbook.file.rotations")
+      .description("Rotated NDJSON files")
+      .register(meterRegistry);
+
+    log.info("Initialized NDJSON File Exporter. File: {}, FlushRecords: {}, FlushInterval: {}, MaxFileSize: {}",
+      activeFile.toAbsolutePath(), properties.flushRecords(), properties.flushInterval(), properties.maxFileSize());
+  }
+
+  @Override
+  public String getName() {
+    return "file";
+  }
+
+  @Override
+  public void exportRequest(HttpExchangeLog httpExchangeLog) {
+    write(httpExchangeLog);
+  }
+
+  @Override
+  public void exportResponse(HttpExchangeLog httpExchangeLog) {
+    write(httpExchangeLog);
+  }
+
+  @Override
+  public void exportExchange(HttpExchangeLog httpExchangeLog) {
+    write(httpExchangeLog);
+  }
+
+  private void write(HttpExchangeLog httpExchangeLog) {
+    lock.lock();
+    // 当前记录在文件中的起始偏移，记录完整进入缓冲后置为 -1
+    long recordStart = -1;
+    try {
+      if (closed) {
+        return;
+      }
+      ensureOpen();
+      recordStart = out.bytesWritten();
+      recordWriter.writeValue(generator, httpExchangeLog);
+      generator.writeRaw('\n');
+      // 每条记录都交给输出流 (只是内存拷贝)，生成器内不跨记录滞留字节，失败时才能按记录边界截断
+      generator.flush();
+      recordStart = -1;
+      written.increment();
+
+      if (++pendingRecords >= properties.flushRecords()) {
+        commit();
+      }
+      if (out.bytesWritten() >= properties.maxFileSize().toBytes()) {
+        rotate();
+      }
+    } catch (Exception e) {
+      failures.increment();
+      log.error("File Write [{}] failed", httpExchangeLog.getCorrelationId(), e);
+      recover(recordStart);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 写入失败后回到干净的记录边界：生成器可能停在对象中间，之后每次写入都会失败，直接丢弃换新；
+   * 写了一半的记录从缓冲或文件中截掉。截断也失败时关闭文件，下次写入重新打开
+   */
+  private void recover(long recordStart) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      generator = newGenerator();
+      if (recordStart >= 0) {
+        out.rewind(recordStart);
+      }
+    } catch (IOException e) {
+      log.error("Failed to truncate NDJSON file {} after write failure, reopening", activeFile, e);
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // 已在恢复路径上，关闭失败无需再处理
+      }
+      channel = null;
+      generator = null;
+    }
+  }
+
+  // ================ 提交与滚动 (持锁调用) ================
+
+  private void ensureOpen() throws IOException {
+    if (channel != null) {
+      return;
+    }
+    Files.createDirectories(activeFile.getParent());
+    channel = channelOpener.open(activeFile);
+    out.reset(channel, channel.size());
+    generator = newGenerator();
+    openedAtNanos = System.nanoTime();
+    lastCommitNanos = openedAtNanos;
+  }
+
+  private JsonGenerator newGenerator() throws IOException {
+    JsonGenerator created = objectMapper.getFactory().createGenerator(out);
+    // 记录之间用换行分隔，不使用默认的空格
+    created.setRootValueSeparator(null);
+    created.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return created;
+  }
+
+  private void commit() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    generator.flush();
+    out.drain();
+    if (properties.fsync()) {
+      channel.force(false);
+    }
+    pendingRecords = 0;
+    lastCommitNanos = System.nanoTime();
+  }
+
+  private void closeActive() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    commit();
+    generator.close();
+    channel.close();
+    channel = null;
+    generator = null;
+  }
+
+  private void rotate() throws IOException {
+    closeActive();
+    Path rotated = nextRotatedPath();
+    Files.move(activeFile, rotated);
+    rotations.increment();
+
+    // 压缩与清理放到后台，不占用写锁
+    ScheduledExecutorService archiver = scheduler;
+    if (archiver != null && !archiver.isShutdown()) {
+      archiver.execute(() -> archive(rotated));
+    } else {
+      archive(rotated);
+    }
+  }
+
+  private Path nextRotatedPath() {
+    // 同一秒内多次滚动时追加定宽序号，保证按名称排序即按时间排序
+    String base = properties.fileName() + "-" + LocalDateTime.now().format(ROTATED_SUFFIX);
+    Path candidate;
+    int sequence = 0;
+    do {
+      candidate = activeFile.resolveSibling("%s-%03d%s".formatted(base, sequence++, EXTENSION));
+    } while (Files.exists(candidate) || Files.exists(gzipPath(candidate)));
+    return candidate;
+  }
+
+  private void tick() {
+    lock.lock();
+    try {
+      if (closed || channel == null) {
+        return;
+      }
+      long now = System.nanoTime();
+      if (pendingRecords > 0 && now - lastCommitNanos >= properties.flushInterval().toNanos()) {
+        commit();
+      }
+      if (now - openedAtNanos >= properties.rotationInterval().toNanos() && out.bytesWritten() > 0) {
+        rotate();
+      }
+    } catch (Exception e) {
+      failures.increment();
+      log.error("File commit failed", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // ================ 归档 ================
+
+  private void archive(Path rotated) {
+    try {
+      // 积压过多时可能已被前一次清理删除
+      if (properties.compression() == FileExportProperties.Compression.GZIP && Files.exists(rotated)) {
+        Path gzip = gzipPath(rotated);
+        try (OutputStream target = new GZIPOutputStream(Files.newOutputStream(gzip), 64 * 1024)) {
+          Files.copy(rotated, target);
+        }
+        Files.delete(rotated);
+      }
+      prune();
+    } catch (IOException e) {
+      log.warn("Failed to archive rotated log file {}", rotated, e);
+    }
+  }
+
+  private void prune() throws IOException {
+    String prefix = properties.fileName() + "-";
+    List<Path> history;
+    try (Stream<Path> files = Files.list(activeFile.getParent())) {
+      // 文件名带时间戳，按名称排序即按时间排序
+      history = files.filter(path -> {
+          String name = path.getFileName().toString();
+          return name.startsWith(prefix) && (name.endsWith(EXTENSION) || name.endsWith(EXTENSION + GZIP_EXTENSION));
+        })
+        .sorted()
+        .toList();
+    }
+    for (int i = 0; i < history.size() - properties.maxHistory(); i++) {
+      Files.deleteIfExists(history.get(i));
+    }
+  }
+
+  private static Path gzipPath(Path file) {
+    return file.resolveSibling(file.getFileName() + GZIP_EXTENSION);
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("log-file-committer").daemon(true).factory());
+    long interval = Math.max(1, properties.flushInterval().toMillis());
+    scheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    scheduler.shutdown();
+    lock.lock();
+    try {
+      closed = true;
+      closeActive();
+    } catch (IOException e) {
+      log.error("Failed to close NDJSON file {}", activeFile, e);
+    } finally {
+      lock.unlock();
+    }
+    try {
+      // 等待已提交的压缩任务完成
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于日志管道停止，保证管道排空后的日志仍能写入文件
+    return SmartLifecycle.DEFAULT_PHASE - 8192;
+  }
+
+  /**
+   * 打开当前文件的 FileChannel (追加写)
+   */
+  @FunctionalInterface
+  interface ChannelOpener {
+    FileChannel open(Path path) throws IOException;
+  }
+
+  /**
+   * 基于堆外缓冲的 FileChannel 输出流：flush 为空操作，只有缓冲写满或 {@link #drain()} 时才真正写文件
+   * <p>
+   * 偏移均为文件内的逻辑偏移：缓冲 (写模式) 始终持有 [drained, bytesWritten) 区间的字节
+   */
+  private static final class ChannelOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private long bytesWritten;
+    // 已写入文件的字节数
+    private long drained;
+
+    ChannelOutputStream(int bufferSize) {
+      this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void reset(FileChannel channel, long existingBytes) {
+      this.channel = channel;
+      this.bytesWritten = existingBytes;
+      this.drained = existingBytes;
+      buffer.clear();
+    }
+
+    /**
+     * 丢弃 offset 之后的全部字节：仍在缓冲中的直接回退，已落盘的截断文件
+     */
+    void rewind(long offset) throws IOException {
+      if (offset >= drained) {
+        buffer.position(Math.toIntExact(offset - drained));
+      } else {
+        channel.truncate(offset);
+        drained = offset;
+        buffer.clear();
+      }
+      bytesWritten = offset;
+    }
+
+    long bytesWritten() {
+      return bytesWritten;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) b);
+      bytesWritten++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      while (length > 0) {
+        if (!buffer.hasRemaining()) {
+          drain();
+        }
+        int chunk = Math.min(buffer.remaining(), length);
+        buffer.put(bytes, offset, chunk);
+        offset += chunk;
+        length -= chunk;
+        bytesWritten += chunk;
+      }
+    }
+
+    void drain() throws IOException {
+      buffer.flip();
+      try {
+        while (buffer.hasRemaining()) {
+          drained += channel.write(buffer);
+        }
+      } finally {
+        // 写入中途失败时未写出的字节移回缓冲头部，保持写模式
+        buffer.compact();
+      }
+    }
+
+    @Override
+    public void flush() {
+      // 组提交由外部控制
+    }
+  }
+}
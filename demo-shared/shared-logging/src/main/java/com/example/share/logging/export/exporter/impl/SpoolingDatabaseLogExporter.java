@@ -0,0 +1,234 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.example.share.logging.export.spool.MappedLogSpool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 预写队列数据库导出器
+ * <p>
+ * 调用方只把日志追加到 {@link MappedLogSpool} (内存映射写入)；排空线程按批读取并写库，成功后推进检查点。
+ * 数据库不可用时退避重试同一批次，日志留在本地段文件中，恢复后自动追平，重启也不会丢失
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class SpoolingDatabaseLogExporter implements LogExporter, SmartLifecycle {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+  private final MappedLogSpool spool;
+  private final HttpExchangeLogBatchWriter writer;
+  private final DatabaseExportProperties.Spool properties;
+  private final int batchSize;
+
+  // 指标
+  private final Counter appended;
+  private final Counter dropped;
+  private final Counter drained;
+  private final Counter drainFailures;
+
+  private volatile boolean running;
+  private Thread drainer;
+
+  public SpoolingDatabaseLogExporter(MappedLogSpool spool,
+                                     HttpExchangeLogBatchWriter writer,
+                                     DatabaseExportProperties.Spool properties,
+                                     int batchSize,
+                                     MeterRegistry meterRegistry) {
+    this.spool = spool;
+    this.writer = writer;
+    this.properties = properties;
+    this.batchSize = batchSize;
+
+    this.appended = Counter.builder("logbook.spool.appended")
+      .description("Logs appended to the local spool")
+      .register(meterRegistry);
+    this.dropped = Counter.builder("logbook.spool.dropped")
+      .description("Logs rejected because the spool was full or a batch could not be written")
+      .register(meterRegistry);
+    this.drained = Counter.builder("logbook.spool.drained")
+      .description("Logs replayed from the spool into the database")
+      .register(meterRegistry);
+    this.drainFailures = Counter.builder("logbook.spool.drain.failures")
+      .description("Failed attempts to write a spooled batch")
+      .register(meterRegistry);
+    Gauge.builder("logbook.spool.segments", spool, MappedLogSpool::segmentCount)
+      .description("Segments not yet drained, including the active one")
+      .register(meterRegistry);
+
+    log.info("Initialized Spooling Database Exporter. Directory: {}, SegmentSize: {}, MaxSegments: {}",
+      properties.directory().toAbsolutePath(), properties.segmentSize(), properties.maxSegments());
+  }
+
+  @Override
+  public String getName() {
+    return "database";
+  }
+
+  @Override
+  public void exportRequest(HttpExchangeLog httpExchangeLog) {
+    append(LogEvent.request(httpExchangeLog));
+  }
+
+  @Override
+  public void exportResponse(HttpExchangeLog httpExchangeLog) {
+    append(LogEvent.response(httpExchangeLog));
+  }
+
+  @Override
+  public void exportExchange(HttpExchangeLog httpExchangeLog) {
+    append(LogEvent.exchange(httpExchangeLog));
+  }
+
+  private void append(LogEvent event) {
+    if (spool.append(event)) {
+      appended.increment();
+      return;
+    }
+    dropped.increment();
+    log.warn("Log spool full, dropped {} log [{}]", event.phase(), event.log().getCorrelationId());
+  }
+
+  // ================ Drainer ================
+
+  private void runDrainer() {
+    long backoffNanos = properties.retryBackoff().toNanos();
+    long maxBackoffNanos = properties.maxRetryBackoff().toNanos();
+    long currentBackoff = backoffNanos;
+
+    while (running) {
+      List<LogEvent> batch = spool.peek(batchSize);
+      if (batch.isEmpty()) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+      try {
+        int lost = write(batch);
+        spool.commit();
+        drained.increment(batch.size() - lost);
+        if (lost > 0) {
+          dropped.increment(lost);
+          log.error("Spool batch partially rejected by database, {} of {} logs discarded", lost, batch.size());
+        }
+        currentBackoff = backoffNanos;
+      } catch (RuntimeException e) {
+        // 数据库不可用：不推进检查点，退避后重试同一批次 (写入为幂等 upsert，已写入的部分重写无害)
+        log.warn("Spool drain failed, retrying in {} ms: {}",
+          TimeUnit.NANOSECONDS.toMillis(currentBackoff), e.getMessage());
+        LockSupport.parkNanos(currentBackoff);
+        currentBackoff = Math.min(currentBackoff * 2, maxBackoffNanos);
+      }
+    }
+  }
+
+  /**
+   * 写入一批，返回被数据库拒绝而放弃的行数；可重试错误原样抛出
+   * <p>
+   * 数据本身有问题 (约束、数据错误) 时重试也不会成功：二分隔离出问题行，只放弃这些行，其余照常写入
+   */
+  int write(List<LogEvent> batch) {
+    try {
+      writer.writeBatch(batch);
+      return 0;
+    } catch (RuntimeException e) {
+      drainFailures.increment();
+      if (isRetryable(e)) {
+        throw e;
+      }
+      if (batch.size() == 1) {
+        log.error("Spooled {} log [{}] rejected by database, discarded", batch.getFirst().phase(),
+          batch.getFirst().log().getCorrelationId(), e);
+      }
+      return BatchBisection.split(batch, this::write);
+    }
+  }
+
+  private static boolean isRetryable(Exception e) {
+    return e instanceof TransientDataAccessException
+      || e instanceof RecoverableDataAccessException
+      || e instanceof DataAccessResourceFailureException
+      || e instanceof TransactionException;
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    if (drainer != null && drainer.isAlive()) {
+      // 上次停止时排空线程仍卡在写库调用中：等它返回后再启动，避免两个线程同时读写检查点
+      try {
+        drainer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    running = true;
+    drainer = Thread.ofPlatform()
+      .name("log-spool-drainer")
+      .daemon(true)
+      .start(this::runDrainer);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    // 唤醒可能处于退避等待中的排空线程
+    LockSupport.unpark(drainer);
+    try {
+      drainer.join(STOP_TIMEOUT);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (drainer.isAlive()) {
+      // 排空线程仍在写库 (如数据库挂起)，此时关闭会让它提交到已关闭的检查点；
+      // 不关闭预写队列，线程在本次调用返回后自行退出，未提交的批次下次启动重放
+      log.warn("Spool drainer did not stop within {} s, leaving spool open", STOP_TIMEOUT.toSeconds());
+      return;
+    }
+    // 未排空的日志留在段文件中，下次启动继续重放
+    try {
+      spool.close();
+    } catch (IOException e) {
+      log.warn("Failed to close log spool", e);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 晚于日志管道停止，保证管道排空后的日志仍能写入预写队列
+    return SmartLifecycle.DEFAULT_PHASE - 8192;
+  }
+}
@@ -0,0 +1,290 @@
+package com.example.share.logging.export.persistence.partition;
+
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * engine.http_exchange_log 按天分区的维护
+ * <p>
+ * 1. 启动时与每个 check-interval 预建当天及之后 premake-days 天的分区 (http_exchange_log_pYYYYMMDD)
+ * 2. 默认分区中已有某天的数据时，建该天分区的同一事务内先把这些行移出，建好后再写回，否则建表失败
+ * 3. 整天早于 retention 的分区直接卸载 (DETACH)，再按 retention-mode 删除；不做大批量 DELETE。
+ * 没有默认分区时用 DETACH CONCURRENTLY (不能在事务块中执行)，不阻塞写入；有默认分区时 PG 不支持并发卸载，
+ * 退回普通 DETACH。上次并发卸载中断遗留的分区先 FINALIZE
+ * 4. 每条 DDL 各自一个短事务，受 lock-timeout 约束；单条失败只记录日志，其余继续执行
+ * 5. 多实例共用一张表：每轮取会话级 advisory 锁，拿不到说明其他实例正在维护，本轮跳过；结束时释放
+ * <p>
+ * 分区边界按系统时区的自然日计算，与写入时 created_time 的时区一致
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class HttpExchangeLogPartitionManager implements SmartLifecycle {
+
+  static final String SCHEMA = "engine";
+  static final String TABLE = "http_exchange_log";
+  static final String PARTITION_PREFIX = TABLE + "_p";
+  private static final String STASH_TABLE = "http_exchange_log_moved";
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private static final String LOCK_KEY = "hashtext('" + SCHEMA + "." + TABLE + "')";
+
+  private static final String LIST_PARTITIONS_SQL = """
+      SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT', i.inhdetachpending
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+      JOIN pg_class p ON p.oid = i.inhparent
+      JOIN pg_namespace n ON n.oid = p.relnamespace
+      WHERE n.nspname = 'engine' AND p.relname = 'http_exchange_log'
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseExportProperties.Partition properties;
+  private final Clock clock;
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public HttpExchangeLogPartitionManager(JdbcTemplate jdbcTemplate, DatabaseExportProperties.Partition properties) {
+    this(jdbcTemplate, properties, Clock.systemDefaultZone());
+  }
+
+  HttpExchangeLogPartitionManager(JdbcTemplate jdbcTemplate, DatabaseExportProperties.Partition properties,
+                                  Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.clock = clock;
+
+    log.info("Initialized Partition Manager. PremakeDays: {}, Retention: {}, Mode: {}, CheckInterval: {}",
+      properties.premakeDays(), properties.retention(), properties.retentionMode(), properties.checkInterval());
+  }
+
+  /**
+   * 执行一轮维护，数据库异常只记录日志，等下一轮重试
+   */
+  public void maintain() {
+    try {
+      jdbcTemplate.execute((ConnectionCallback<Void>) this::maintain);
+    } catch (Exception e) {
+      log.error("Partition maintenance for {}.{} failed", SCHEMA, TABLE, e);
+    }
+  }
+
+  private Void maintain(Connection connection) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      if (!tryLock(statement)) {
+        log.debug("Partition maintenance is running on another instance, skipped");
+        return null;
+      }
+      try {
+        statement.execute("SET lock_timeout = '%dms'".formatted(properties.lockTimeout().toMillis()));
+        maintain(connection, statement);
+      } finally {
+        // 连接归还连接池前恢复会话状态
+        statement.execute("RESET lock_timeout");
+        statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+      }
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+    return null;
+  }
+
+  private void maintain(Connection connection, Statement statement) throws SQLException {
+    LocalDate today = LocalDate.now(clock);
+    Partitions partitions = listPartitions(statement);
+
+    for (LocalDate day = today; !day.isAfter(today.plusDays(properties.premakeDays())); day = day.plusDays(1)) {
+      if (!partitions.names().contains(partitionName(day))) {
+        createPartition(connection, statement, day, partitions.defaultPartition());
+      }
+    }
+    for (String partition : expired(partitions.names(), today.minusDays(properties.retention().toDays()))) {
+      if (!execute(statement, detachSql(partition, partitions), "detach " + SCHEMA + "." + partition)) {
+        continue;
+      }
+      if (properties.retentionMode() == DatabaseExportProperties.RetentionMode.DROP
+        && !execute(statement, "DROP TABLE %s.%s".formatted(SCHEMA, partition), "drop " + SCHEMA + "." + partition)) {
+        continue;
+      }
+      log.info("Retired partition {}.{} ({})", SCHEMA, partition, properties.retentionMode());
+    }
+  }
+
+  /**
+   * 单独一个事务：默认分区中落在该天的行先移入临时表，建分区后写回父表 (路由到新分区)
+   */
+  private void createPartition(Connection connection, Statement statement, LocalDate day, String defaultPartition) {
+    String partition = partitionName(day);
+    try {
+      connection.setAutoCommit(false);
+      try {
+        long moved = defaultPartition != null ? stashDefaultRows(statement, day, defaultPartition) : 0;
+        statement.execute(createSql(day, clock.getZone()));
+        if (moved > 0) {
+          statement.execute("INSERT INTO %s.%s SELECT * FROM %s".formatted(SCHEMA, TABLE, STASH_TABLE));
+        }
+        connection.commit();
+        log.info("Created partition {}.{}{}", SCHEMA, partition,
+          moved > 0 ? " (moved " + moved + " rows from the default partition)" : "");
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException | RuntimeException e) {
+      log.warn("Failed to create partition {}.{}, will retry next round", SCHEMA, partition, e);
+    }
+  }
+
+  private long stashDefaultRows(Statement statement, LocalDate day, String defaultPartition) throws SQLException {
+    statement.execute("CREATE TEMP TABLE %s (LIKE %s.%s) ON COMMIT DROP".formatted(STASH_TABLE, SCHEMA, TABLE));
+    return statement.executeUpdate(moveDefaultSql(day, clock.getZone(), defaultPartition));
+  }
+
+  /**
+   * autocommit 下执行单条 DDL (各自一个事务)，失败记录日志后返回 false
+   */
+  private static boolean execute(Statement statement, String sql, String action) {
+    try {
+      statement.execute(sql);
+      return true;
+    } catch (SQLException e) {
+      log.warn("Partition maintenance failed to {}, will retry next round", action, e);
+      return false;
+    }
+  }
+
+  // 会话级 advisory 锁，需显式释放
+  private static boolean tryLock(Statement statement) throws SQLException {
+    try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+      return rs.next() && rs.getBoolean(1);
+    }
+  }
+
+  private static Partitions listPartitions(Statement statement) throws SQLException {
+    List<String> names = new ArrayList<>();
+    List<String> detachPending = new ArrayList<>();
+    String defaultPartition = null;
+    try (ResultSet rs = statement.executeQuery(LIST_PARTITIONS_SQL)) {
+      while (rs.next()) {
+        names.add(rs.getString(1));
+        if (rs.getBoolean(2)) {
+          defaultPartition = rs.getString(1);
+        }
+        if (rs.getBoolean(3)) {
+          detachPending.add(rs.getString(1));
+        }
+      }
+    }
+    return new Partitions(names, detachPending, defaultPartition);
+  }
+
+  static String partitionName(LocalDate day) {
+    return PARTITION_PREFIX + day.format(SUFFIX);
+  }
+
+  private static String detachSql(String partition, Partitions partitions) {
+    String mode;
+    if (partitions.detachPending().contains(partition)) {
+      mode = " FINALIZE";
+    } else {
+      mode = partitions.defaultPartition() == null ? " CONCURRENTLY" : "";
+    }
+    return "ALTER TABLE %s.%s DETACH PARTITION %s.%s%s".formatted(SCHEMA, TABLE, SCHEMA, partition, mode);
+  }
+
+  static String moveDefaultSql(LocalDate day, ZoneId zone, String defaultPartition) {
+    return ("WITH moved AS (DELETE FROM %s.%s WHERE created_time >= '%s' AND created_time < '%s' RETURNING *) "
+      + "INSERT INTO %s SELECT * FROM moved").formatted(SCHEMA, defaultPartition,
+      day.atStartOfDay(zone).toOffsetDateTime(), day.plusDays(1).atStartOfDay(zone).toOffsetDateTime(), STASH_TABLE);
+  }
+
+  static String createSql(LocalDate day, ZoneId zone) {
+    return "CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+      SCHEMA, partitionName(day), SCHEMA, TABLE,
+      day.atStartOfDay(zone).toOffsetDateTime(), day.plusDays(1).atStartOfDay(zone).toOffsetDateTime());
+  }
+
+  /**
+   * 按名称中的日期筛出早于 cutoff 的分区；默认分区与手工建立的其他分区不处理
+   */
+  static List<String> expired(List<String> partitions, LocalDate cutoff) {
+    List<String> expired = new ArrayList<>();
+    for (String partition : partitions) {
+      if (!partition.startsWith(PARTITION_PREFIX)) {
+        continue;
+      }
+      try {
+        if (LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX).isBefore(cutoff)) {
+          expired.add(partition);
+        }
+      } catch (DateTimeParseException e) {
+        // 不是本类建立的分区
+      }
+    }
+    return expired;
+  }
+
+  // defaultPartition 为 null 表示没有默认分区
+  private record Partitions(List<String> names, List<String> detachPending, String defaultPartition) {
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    // 启动时同步执行一轮，保证写入开始前当天分区已存在
+    maintain();
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("log-partition-manager").daemon(true).factory());
+    long interval = Math.max(1, properties.checkInterval().toMillis());
+    scheduler.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    scheduler.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // 早于所有导出器启动
+    return SmartLifecycle.DEFAULT_PHASE - 10240;
+  }
+}
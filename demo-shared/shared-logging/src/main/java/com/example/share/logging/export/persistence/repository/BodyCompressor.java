@@ -0,0 +1,151 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 大 Body 压缩：超过阈值的 Body 压缩后写入 *_content_compressed (BYTEA)，小 Body 仍按 JSONB 写入
+ * <p>
+ * 1. 存储格式：首字节为编码标记，其后是压缩数据；读取时用 {@link #decode(byte[])} 还原为文本
+ * 2. 压缩的是脱敏后的原始文本，非 JSON 与截断的 JSON 也按原样保存，不再包装为 JSON 字符串
+ * 3. 压缩后没有变小 (已压缩或随机内容) 时放弃，仍走 JSONB
+ * 4. Deflater 按线程复用，写库线程固定，不会随请求数增长
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public final class BodyCompressor {
+
+  // 编码标记：原始 DEFLATE 流 (无 zlib 头与校验)
+  static final byte DEFLATE = 1;
+
+  private final int threshold;
+  private final ThreadLocal<Deflater> deflaters;
+
+  private final Timer duration;
+  private final DistributionSummary ratio;
+  private final Counter originalBytes;
+  private final Counter compressedBytes;
+  private final Counter skipped;
+
+  public BodyCompressor(DatabaseExportProperties.Compression properties, MeterRegistry registry) {
+    this.threshold = Math.max(1, Math.toIntExact(properties.threshold().toBytes()));
+    int level = properties.level();
+    this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+
+    this.duration = Timer.builder("logbook.database.compression.duration")
+      .description("CPU time spent compressing bodies")
+      .register(registry);
+    this.ratio = DistributionSummary.builder("logbook.database.compression.ratio")
+      .description("Compressed size divided by original size")
+      .register(registry);
+    this.originalBytes = bytes(registry, "original");
+    this.compressedBytes = bytes(registry, "compressed");
+    this.skipped = Counter.builder("logbook.database.compression.skipped")
+      .description("Bodies above the threshold that did not shrink and were stored uncompressed")
+      .register(registry);
+
+    log.info("Initialized Body Compressor. Codec: {}, Threshold: {}, Level: {}",
+      properties.codec(), properties.threshold(), level);
+  }
+
+  /**
+   * 超过阈值且压缩有效时返回 [标记][压缩数据]，否则返回 null，由调用方按 JSONB 写入
+   */
+  public byte[] compress(LogBody body) {
+    if (body == null || !exceedsThreshold(body)) {
+      return null;
+    }
+    byte[] input = body.isUtf8Bytes() ? body.bytes() : body.text().getBytes(StandardCharsets.UTF_8);
+    if (input.length < threshold) {
+      return null;
+    }
+
+    long start = System.nanoTime();
+    Deflater deflater = deflaters.get();
+    byte[] packed;
+    try {
+      deflater.setInput(input);
+      deflater.finish();
+      // 不超过原始大小：放不下说明压缩无效，直接放弃
+      byte[] out = new byte[input.length];
+      out[0] = DEFLATE;
+      int length = 1;
+      while (!deflater.finished() && length < out.length) {
+        length += deflater.deflate(out, length, out.length - length);
+      }
+      packed = deflater.finished() ? Arrays.copyOf(out, length) : null;
+    } finally {
+      deflater.reset();
+    }
+    duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    if (packed == null) {
+      skipped.increment();
+      return null;
+    }
+    originalBytes.increment(input.length);
+    compressedBytes.increment(packed.length);
+    ratio.record((double) packed.length / input.length);
+    return packed;
+  }
+
+  // 文本形式的 Body 先用字符数估算，UTF-8 字节数不会少于字符数
+  private boolean exceedsThreshold(LogBody body) {
+    return body.isUtf8Bytes() ? body.bytes().length >= threshold : body.text().length() >= threshold / 3;
+  }
+
+  /**
+   * 读取辅助：将 *_content_compressed 还原为文本，null 原样返回
+   */
+  public static String decode(byte[] packed) {
+    if (packed == null) {
+      return null;
+    }
+    if (packed.length == 0 || packed[0] != DEFLATE) {
+      throw new IllegalArgumentException("Unknown body codec marker: " + (packed.length == 0 ? "<empty>" : packed[0]));
+    }
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(packed, 1, packed.length - 1);
+      byte[] out = new byte[Math.max(64, packed.length * 4)];
+      int length = 0;
+      while (!inflater.finished()) {
+        if (length == out.length) {
+          out = Arrays.copyOf(out, out.length * 2);
+        }
+        int n = inflater.inflate(out, length, out.length - length);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalArgumentException("Truncated compressed body");
+        }
+        length += n;
+      }
+      return new String(out, 0, length, StandardCharsets.UTF_8);
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupted compressed body", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static Counter bytes(MeterRegistry registry, String stage) {
+    return Counter.builder("logbook.database.compression.bytes")
+      .description("Body bytes before and after compression")
+      .baseUnit("bytes")
+      .tag("stage", stage)
+      .register(registry);
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内容寻址旁表的回收：删除主表已不再引用的 Body / Header 集合 (主表分区过期删除后遗留)
+ * <p>
+ * 1. 只删除 last_seen 早于 grace 的行，且删除前在同一条语句内确认主表四个摘要列均无引用
+ * 2. 按摘要顺序分批 DELETE ... RETURNING，每批一个短事务；FOR UPDATE SKIP LOCKED 跳过正在写入的行，多实例可同时执行
+ * 3. grace 必须大于 2 × cache-ttl，保证本地缓存命中而跳过写入的摘要不会已被回收 (见 {@link HttpExchangeContentStore})
+ * 4. 只检查主表 (含其分区) 的引用；分区以 detach 方式卸载后成为独立表，其引用的内容会被误删，因此与 detach 互斥
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class HttpExchangeContentCollector implements SmartLifecycle {
+
+  // 表名与引用列均为常量
+  private static final String DELETE_SQL = """
+      DELETE FROM engine.%1$s
+      WHERE digest IN (
+          SELECT c.digest FROM engine.%1$s c
+          WHERE c.digest > ?
+            AND c.last_seen < now() - make_interval(secs => ?)
+            AND NOT EXISTS (SELECT 1 FROM engine.http_exchange_log l WHERE l.%2$s = c.digest)
+            AND NOT EXISTS (SELECT 1 FROM engine.http_exchange_log l WHERE l.%3$s = c.digest)
+          ORDER BY c.digest
+          LIMIT ?
+          FOR UPDATE SKIP LOCKED
+      )
+      RETURNING digest
+      """;
+
+  static final String DELETE_BODIES_SQL = DELETE_SQL.formatted(
+    "http_exchange_body", "request_content_digest", "response_content_digest");
+  static final String DELETE_HEADERS_SQL = DELETE_SQL.formatted(
+    "http_exchange_headers", "request_headers_digest", "response_headers_digest");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseExportProperties.ContentGc properties;
+  private final Counter bodiesCollected;
+  private final Counter headerSetsCollected;
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public HttpExchangeContentCollector(JdbcTemplate jdbcTemplate, DatabaseExportProperties.ContentAddressed properties,
+                                      DatabaseExportProperties.Partition partition, MeterRegistry registry) {
+    if (partition.enable() && partition.retentionMode() == DatabaseExportProperties.RetentionMode.DETACH) {
+      throw new IllegalArgumentException("logbook.database.content-addressed.gc cannot be enabled together with "
+        + "logbook.database.partition.retention-mode=detach: detached partitions still reference content rows "
+        + "the collector would delete");
+    }
+    if (properties.gc().grace().compareTo(properties.cacheTtl().multipliedBy(2)) <= 0) {
+      throw new IllegalArgumentException("logbook.database.content-addressed.gc.grace (" + properties.gc().grace()
+        + ") must be greater than twice cache-ttl (" + properties.cacheTtl() + ")");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties.gc();
+    this.bodiesCollected = collected(registry, "body");
+    this.headerSetsCollected = collected(registry, "headers");
+
+    log.info("Initialized Content Collector. Interval: {}, Grace: {}, BatchSize: {}",
+      this.properties.interval(), this.properties.grace(), this.properties.batchSize());
+  }
+
+  /**
+   * 执行一轮回收，数据库异常只记录日志，等下一轮重试
+   */
+  public void collect() {
+    try {
+      long bodies = collect(DELETE_BODIES_SQL, bodiesCollected);
+      long headerSets = collect(DELETE_HEADERS_SQL, headerSetsCollected);
+      if (bodies > 0 || headerSets > 0) {
+        log.info("Collected {} bodies and {} header sets no longer referenced", bodies, headerSets);
+      }
+    } catch (Exception e) {
+      log.error("Content collection failed", e);
+    }
+  }
+
+  private long collect(String sql, Counter counter) {
+    double graceSeconds = properties.grace().toMillis() / 1000.0;
+    byte[] cursor = new byte[0];
+    long total = 0;
+    while (true) {
+      List<byte[]> deleted = jdbcTemplate.queryForList(sql, byte[].class, cursor, graceSeconds,
+        properties.batchSize());
+      total += deleted.size();
+      counter.increment(deleted.size());
+      // 未满一批说明已扫描到末尾；停机 (线程被中断) 时不再继续下一批
+      if (deleted.size() < properties.batchSize() || Thread.currentThread().isInterrupted()) {
+        return total;
+      }
+      cursor = max(deleted);
+    }
+  }
+
+  private static byte[] max(List<byte[]> digests) {
+    byte[] max = digests.getFirst();
+    for (byte[] digest : digests) {
+      if (Arrays.compareUnsigned(digest, max) > 0) {
+        max = digest;
+      }
+    }
+    return max;
+  }
+
+  private static Counter collected(MeterRegistry registry, String kind) {
+    return Counter.builder("logbook.database.content.collected")
+      .description("Unreferenced bodies or header sets deleted from the content tables")
+      .tag("kind", kind)
+      .register(registry);
+  }
+
+  // ================ SmartLifecycle ================
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("log-content-collector").daemon(true).factory());
+    long interval = Math.max(1, properties.interval().toMillis());
+    scheduler.scheduleWithFixedDelay(this::collect, interval, interval, TimeUnit.MILLISECONDS);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    scheduler.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
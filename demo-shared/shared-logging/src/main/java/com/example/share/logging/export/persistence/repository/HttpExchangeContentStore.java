@@ -0,0 +1,238 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 内容寻址存储：脱敏后的 Body 与 Header 集合按 SHA-256 摘要去重写入旁表，主表只保存摘要
+ * <p>
+ * 1. 旁表 http_exchange_body / http_exchange_headers 以摘要为主键，同一内容只写一次；已存在时只刷新 last_seen
+ * (距上次刷新超过 cache-ttl 才更新，避免每次都产生新行版本)
+ * 2. 本地 LRU 记录已确认入库的摘要，命中时跳过旁表写入 (UTF-8 JSON 字节命中时连 String 都不创建)
+ * 3. 摘要在事务提交后才进入 LRU，回滚的批次不会留下指向不存在内容的缓存
+ * 4. inline-headers 中的逐请求变化的 Header (请求 ID、链路追踪等) 留在主表 JSONB 列，其余 Header 才参与去重
+ * <p>
+ * 与回收 ({@link HttpExchangeContentCollector}) 的配合：LRU 条目写入后 cache-ttl 过期，条目存在期间对应行的
+ * last_seen 不早于 2 × cache-ttl 之前；回收只删除 last_seen 早于 grace (大于 2 × cache-ttl) 的行，
+ * 因此任何实例缓存命中而跳过写入的摘要都不会已被回收
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class HttpExchangeContentStore {
+
+  private static final String INSERT_BODY_SQL = """
+      INSERT INTO engine.http_exchange_body AS t (digest, content)
+      VALUES (:digest, :content::jsonb)
+      ON CONFLICT (digest) DO UPDATE SET last_seen = now()
+      WHERE t.last_seen < now() - make_interval(secs => :touchAfter)
+      """;
+
+  private static final String INSERT_HEADERS_SQL = """
+      INSERT INTO engine.http_exchange_headers AS t (digest, content)
+      VALUES (:digest, :content::jsonb)
+      ON CONFLICT (digest) DO UPDATE SET last_seen = now()
+      WHERE t.last_seen < now() - make_interval(secs => :touchAfter)
+      """;
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  });
+
+  private final Cache<ByteBuffer, Boolean> bodies;
+  private final Cache<ByteBuffer, Boolean> headerSets;
+  private final Set<String> inlineHeaders;
+  private final double touchAfterSeconds;
+  private final Counter bodiesStored;
+  private final Counter headerSetsStored;
+
+  public HttpExchangeContentStore(DatabaseExportProperties.ContentAddressed properties, MeterRegistry registry) {
+    this.bodies = cache(properties, registry, "body");
+    this.headerSets = cache(properties, registry, "headers");
+    this.touchAfterSeconds = properties.cacheTtl().toMillis() / 1000.0;
+    this.inlineHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    this.inlineHeaders.addAll(properties.inlineHeaders());
+    this.bodiesStored = stored(registry, "body");
+    this.headerSetsStored = stored(registry, "headers");
+
+    log.info("Initialized Content-Addressed Store. CacheSize: {}, CacheTtl: {}, InlineHeaders: {}",
+      properties.cacheSize(), properties.cacheTtl(), inlineHeaders);
+  }
+
+  /**
+   * 每个写库事务一个批次：先收集待写内容，主表写入前调用 {@link Batch#write}，最后 {@link Batch#complete}
+   */
+  public Batch newBatch() {
+    return new Batch();
+  }
+
+  /**
+   * 主表列值：json 写入原 JSONB 列，digest 写入对应的摘要列
+   */
+  public record Ref(String json, byte[] digest) {
+
+    static final Ref NULL = new Ref(null, null);
+
+    public static Ref inline(String json) {
+      return json != null ? new Ref(json, null) : NULL;
+    }
+  }
+
+  public final class Batch {
+
+    // 按摘要去重，同一批次内相同内容只写一次
+    private final Map<ByteBuffer, String> newBodies = new LinkedHashMap<>();
+    private final Map<ByteBuffer, String> newHeaderSets = new LinkedHashMap<>();
+
+    private Batch() {
+    }
+
+    public Ref body(LogBody body, boolean truncated) {
+      byte[] raw = HttpExchangeLogPGRepository.rawJson(body, truncated);
+      byte[] digest;
+      if (raw != null) {
+        digest = sha256(raw);
+        remember(bodies, newBodies, digest, raw, null);
+      } else {
+        String json = HttpExchangeLogPGRepository.ensureJson(body, truncated);
+        if (json == null) {
+          return Ref.NULL;
+        }
+        digest = sha256(json.getBytes(StandardCharsets.UTF_8));
+        remember(bodies, newBodies, digest, null, json);
+      }
+      return new Ref(null, digest);
+    }
+
+    public Ref headers(Map<String, List<String>> headers) {
+      if (headers == null || headers.isEmpty()) {
+        return Ref.inline(HttpExchangeLogPGRepository.headersJson(headers));
+      }
+      Map<String, List<String>> shared = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      Map<String, List<String>> inline = new LinkedHashMap<>();
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        (inlineHeaders.contains(entry.getKey()) ? inline : shared).put(entry.getKey(), entry.getValue());
+      }
+      if (shared.isEmpty()) {
+        return Ref.inline(HttpExchangeLogPGRepository.headersJson(inline));
+      }
+      // 按名称排序后再序列化，顺序不同的相同 Header 集合得到同一摘要
+      String json = HttpExchangeLogPGRepository.headersJson(shared);
+      byte[] digest = sha256(json.getBytes(StandardCharsets.UTF_8));
+      remember(headerSets, newHeaderSets, digest, null, json);
+      return new Ref(inline.isEmpty() ? null : HttpExchangeLogPGRepository.headersJson(inline), digest);
+    }
+
+    /**
+     * 写入本批次新出现的内容；按摘要排序，并发事务以相同顺序加锁，避免互相等待成环
+     */
+    public void write(NamedParameterJdbcOperations jdbcOperations) {
+      insert(jdbcOperations, INSERT_BODY_SQL, newBodies);
+      insert(jdbcOperations, INSERT_HEADERS_SQL, newHeaderSets);
+      bodiesStored.increment(newBodies.size());
+      headerSetsStored.increment(newHeaderSets.size());
+    }
+
+    /**
+     * 主表写入后调用：有事务时在提交后登记摘要，否则立即登记
+     */
+    public void complete() {
+      if (newBodies.isEmpty() && newHeaderSets.isEmpty()) {
+        return;
+      }
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            publish();
+          }
+        });
+      } else {
+        publish();
+      }
+    }
+
+    private void publish() {
+      newBodies.keySet().forEach(digest -> bodies.put(digest, Boolean.TRUE));
+      newHeaderSets.keySet().forEach(digest -> headerSets.put(digest, Boolean.TRUE));
+    }
+
+    private static void remember(Cache<ByteBuffer, Boolean> seen, Map<ByteBuffer, String> pending,
+                                 byte[] digest, byte[] raw, String json) {
+      ByteBuffer key = ByteBuffer.wrap(digest);
+      if (seen.getIfPresent(key) != null || pending.containsKey(key)) {
+        return;
+      }
+      // 只有需要写入旁表时才把 UTF-8 字节转成 String
+      pending.put(key, json != null ? json : new String(raw, StandardCharsets.UTF_8));
+    }
+
+    private void insert(NamedParameterJdbcOperations jdbcOperations, String sql, Map<ByteBuffer, String> pending) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<ByteBuffer> digests = new ArrayList<>(pending.keySet());
+      digests.sort(null);
+      SqlParameterSource[] params = new SqlParameterSource[digests.size()];
+      for (int i = 0; i < params.length; i++) {
+        ByteBuffer digest = digests.get(i);
+        params[i] = new MapSqlParameterSource()
+          .addValue("digest", digest.array())
+          .addValue("content", pending.get(digest))
+          .addValue("touchAfter", touchAfterSeconds);
+      }
+      jdbcOperations.batchUpdate(sql, params);
+    }
+  }
+
+  static byte[] sha256(byte[] content) {
+    return SHA_256.get().digest(content);
+  }
+
+  private static Cache<ByteBuffer, Boolean> cache(DatabaseExportProperties.ContentAddressed properties,
+                                                  MeterRegistry registry, String kind) {
+    Cache<ByteBuffer, Boolean> cache = Caffeine.newBuilder()
+      .maximumSize(properties.cacheSize())
+      .expireAfterWrite(properties.cacheTtl())
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "logbook.database.content.seen", Tags.of("kind", kind));
+    return cache;
+  }
+
+  private static Counter stored(MeterRegistry registry, String kind) {
+    return Counter.builder("logbook.database.content.stored")
+      .description("Distinct bodies or header sets sent to the content tables")
+      .tag("kind", kind)
+      .register(registry);
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.LogEvent;
+
+import java.util.List;
+
+/**
+ * 批量写入 http_exchange_log
+ * <p>
+ * 实现方负责在同一事务内完成整批写入，批次内同一 correlation_id 以后到者为准
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public interface HttpExchangeLogBatchWriter {
+
+  void writeBatch(List<LogEvent> events);
+}
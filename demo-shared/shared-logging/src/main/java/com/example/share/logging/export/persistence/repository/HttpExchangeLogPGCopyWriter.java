@@ -0,0 +1,397 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.model.LogPhase;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于 PostgreSQL COPY 的批量写入 (PG 专用)
+ * <p>
+ * 1. 每批在事务内新建临时表 (ON COMMIT DROP)，整批以 CSV 流经 COPY FROM STDIN 写入；JSONB 列在临时表中是 TEXT，
+ *    COPY 阶段不做解析；UTF-8 的 JSON Body 以原始字节写出，不经过 String
+ * 2. 每个阶段一条 INSERT ... SELECT DISTINCT ON ... ON CONFLICT，集中完成 JSONB 转换与合并
+ * 3. 临时表随事务结束删除，不在共享表上 DELETE，不产生死元组膨胀；各连接的临时表互不可见，无需批次号
+ * 4. 全部步骤在同一连接、同一事务内 (未处于 Spring 事务时自行提交)，失败整体回滚
+ * 5. 配置了 {@link BodyCompressor} 时，超过阈值的 Body 压缩后以 BYTEA 十六进制文本写出
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public class HttpExchangeLogPGCopyWriter implements HttpExchangeLogBatchWriter {
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  // 列类型与 engine.http_exchange_log 一致，JSONB 列暂存为 TEXT
+  static final String CREATE_BATCH_TABLE_SQL = """
+      CREATE TEMP TABLE http_exchange_log_batch (
+          seq INTEGER NOT NULL,
+          phase VARCHAR(16) NOT NULL,
+          correlation_id VARCHAR(64) NOT NULL,
+          created_time TIMESTAMPTZ,
+          request_time TIMESTAMPTZ,
+          method VARCHAR(10),
+          uri TEXT,
+          remote VARCHAR(45),
+          request_headers TEXT,
+          request_content TEXT,
+          request_content_length INTEGER,
+          content_type VARCHAR(100),
+          response_time TIMESTAMPTZ,
+          status_code INTEGER,
+          duration_millis BIGINT,
+          response_headers TEXT,
+          response_content TEXT,
+          response_content_length INTEGER,
+          client_info TEXT,
+          ip VARCHAR(45),
+          user_agent TEXT,
+          truncated BOOLEAN,
+          request_content_compressed BYTEA,
+          response_content_compressed BYTEA,
+          biz_id VARCHAR(64),
+          batch_id VARCHAR(64),
+          jnl_no VARCHAR(64)
+      ) ON COMMIT DROP
+      """;
+
+  // 处于外部事务时 ON COMMIT DROP 要等外部提交，显式删除以便同一事务内再次写入
+  static final String DROP_BATCH_TABLE_SQL = "DROP TABLE http_exchange_log_batch";
+
+  static final String COPY_SQL = """
+      COPY http_exchange_log_batch (
+          seq, phase,
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers, request_content, request_content_length, content_type,
+          response_time, status_code, duration_millis,
+          response_headers, response_content, response_content_length,
+          client_info, ip, user_agent,
+          truncated,
+          request_content_compressed, response_content_compressed,
+          biz_id, batch_id, jnl_no
+      ) FROM STDIN WITH (FORMAT csv)
+      """;
+
+  // DISTINCT ON 保证同一 correlation_id 在一条语句中只命中一次，取批次内最后一条
+  static final String MERGE_REQUEST_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers, request_content, request_content_length, content_type,
+          request_content_compressed,
+          biz_id, batch_id, jnl_no,
+          complete, status_code, duration_millis, truncated
+      )
+      SELECT DISTINCT ON (correlation_id)
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers::jsonb, request_content::jsonb, request_content_length, content_type,
+          request_content_compressed,
+          biz_id, batch_id, jnl_no,
+          false, 0, 0, truncated
+      FROM http_exchange_log_batch
+      WHERE phase = 'REQUEST'
+      ORDER BY correlation_id, seq DESC
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          request_time = EXCLUDED.request_time,
+          method = EXCLUDED.method,
+          uri = EXCLUDED.uri,
+          remote = EXCLUDED.remote,
+          request_headers = EXCLUDED.request_headers,
+          request_content = EXCLUDED.request_content,
+          request_content_length = EXCLUDED.request_content_length,
+          content_type = EXCLUDED.content_type,
+          request_content_compressed = EXCLUDED.request_content_compressed,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = http_exchange_log.truncated OR EXCLUDED.truncated
+      """;
+
+  static final String MERGE_RESPONSE_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          response_time, status_code, duration_millis,
+          response_headers, response_content, response_content_length,
+          response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          complete, truncated,
+          method, uri, remote, request_time
+      )
+      SELECT DISTINCT ON (correlation_id)
+          correlation_id, created_time,
+          response_time, status_code, duration_millis,
+          response_headers::jsonb, response_content::jsonb, response_content_length,
+          response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          true, truncated,
+          method, uri, remote, request_time
+      FROM http_exchange_log_batch
+      WHERE phase = 'RESPONSE'
+      ORDER BY correlation_id, seq DESC
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          response_time = EXCLUDED.response_time,
+          status_code = EXCLUDED.status_code,
+          duration_millis = EXCLUDED.duration_millis,
+          response_headers = EXCLUDED.response_headers,
+          response_content = EXCLUDED.response_content,
+          response_content_length = EXCLUDED.response_content_length,
+          response_content_compressed = EXCLUDED.response_content_compressed,
+          client_info = EXCLUDED.client_info,
+          ip = EXCLUDED.ip,
+          user_agent = EXCLUDED.user_agent,
+          complete = true,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = EXCLUDED.truncated
+      """;
+
+  static final String MERGE_EXCHANGE_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers, request_content, request_content_length, content_type,
+          response_time, status_code, duration_millis,
+          response_headers, response_content, response_content_length,
+          request_content_compressed, response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          complete, truncated
+      )
+      SELECT DISTINCT ON (correlation_id)
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers::jsonb, request_content::jsonb, request_content_length, content_type,
+          response_time, status_code, duration_millis,
+          response_headers::jsonb, response_content::jsonb, response_content_length,
+          request_content_compressed, response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          true, truncated
+      FROM http_exchange_log_batch
+      WHERE phase = 'EXCHANGE'
+      ORDER BY correlation_id, seq DESC
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          request_time = EXCLUDED.request_time,
+          method = EXCLUDED.method,
+          uri = EXCLUDED.uri,
+          remote = EXCLUDED.remote,
+          request_headers = EXCLUDED.request_headers,
+          request_content = EXCLUDED.request_content,
+          request_content_length = EXCLUDED.request_content_length,
+          content_type = EXCLUDED.content_type,
+          request_content_compressed = EXCLUDED.request_content_compressed,
+          response_time = EXCLUDED.response_time,
+          status_code = EXCLUDED.status_code,
+          duration_millis = EXCLUDED.duration_millis,
+          response_headers = EXCLUDED.response_headers,
+          response_content = EXCLUDED.response_content,
+          response_content_length = EXCLUDED.response_content_length,
+          response_content_compressed = EXCLUDED.response_content_compressed,
+          client_info = EXCLUDED.client_info,
+          ip = EXCLUDED.ip,
+          user_agent = EXCLUDED.user_agent,
+          complete = true,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = EXCLUDED.truncated
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  // 为 null 时不压缩
+  private final BodyCompressor compressor;
+
+  public HttpExchangeLogPGCopyWriter(JdbcTemplate jdbcTemplate) {
+    this(jdbcTemplate, null);
+  }
+
+  public HttpExchangeLogPGCopyWriter(JdbcTemplate jdbcTemplate, BodyCompressor compressor) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.compressor = compressor;
+  }
+
+  @Override
+  @Transactional
+  public void writeBatch(List<LogEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    Set<LogPhase> phases = EnumSet.noneOf(LogPhase.class);
+    for (LogEvent event : events) {
+      phases.add(event.phase());
+    }
+    // 临时表只对当前连接可见：建表、COPY、合并必须在同一连接上完成
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      boolean autoCommit = connection.getAutoCommit();
+      // 已处于 Spring 事务时由事务管理器提交，否则在本连接上开启并提交事务
+      if (autoCommit) {
+        connection.setAutoCommit(false);
+      }
+      try {
+        write(connection, events, phases);
+        if (autoCommit) {
+          connection.commit();
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (autoCommit) {
+          connection.rollback();
+        }
+        throw e;
+      } finally {
+        if (autoCommit) {
+          connection.setAutoCommit(true);
+        }
+      }
+      return null;
+    });
+  }
+
+  private void write(Connection connection, List<LogEvent> events, Set<LogPhase> phases) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_BATCH_TABLE_SQL);
+      PGConnection pgConnection = connection.unwrap(PGConnection.class);
+      // PGCopyOutputStream 自带缓冲，直接写入 UTF-8 字节
+      try (OutputStream out = new PGCopyOutputStream(pgConnection, COPY_SQL, COPY_BUFFER_SIZE)) {
+        writeCsv(out, events, compressor);
+      } catch (IOException e) {
+        throw new UncheckedIOException("COPY into http_exchange_log_batch failed", e);
+      }
+      // 与逐条 upsert 的顺序保持一致：请求、响应、完整交换
+      if (phases.contains(LogPhase.REQUEST)) {
+        statement.executeUpdate(MERGE_REQUEST_SQL);
+      }
+      if (phases.contains(LogPhase.RESPONSE)) {
+        statement.executeUpdate(MERGE_RESPONSE_SQL);
+      }
+      if (phases.contains(LogPhase.EXCHANGE)) {
+        statement.executeUpdate(MERGE_EXCHANGE_SQL);
+      }
+      statement.execute(DROP_BATCH_TABLE_SQL);
+    }
+  }
+
+  // ================ CSV ================
+
+  static void writeCsv(OutputStream out, List<LogEvent> events) throws IOException {
+    writeCsv(out, events, null);
+  }
+
+  static void writeCsv(OutputStream out, List<LogEvent> events, BodyCompressor compressor) throws IOException {
+    int seq = 0;
+    for (LogEvent event : events) {
+      HttpExchangeLog log = event.log();
+      byte[] requestCompressed = compressor != null ? compressor.compress(log.getRequestBody()) : null;
+      byte[] responseCompressed = compressor != null ? compressor.compress(log.getResponseBody()) : null;
+      // 列顺序与 COPY_SQL 一致
+      field(out, Integer.toString(seq++), true);
+      field(out, event.phase().name(), false);
+      field(out, log.getCorrelationId(), false);
+      field(out, log.getCreatedTime(), false);
+      field(out, log.getRequestTime(), false);
+      field(out, log.getMethod(), false);
+      field(out, log.getUri(), false);
+      field(out, log.getRemote(), false);
+      field(out, HttpExchangeLogPGRepository.headersJson(log.getRequestHeaders()), false);
+      // 已压缩的 Body 不再写入 JSONB 列
+      body(out, requestCompressed == null ? log.getRequestBody() : null, log.isTruncated());
+      field(out, log.getRequestContentLength(), false);
+      field(out, log.getContentType(), false);
+      field(out, log.getResponseTime(), false);
+      field(out, log.getStatusCode(), false);
+      field(out, log.getDurationMillis(), false);
+      field(out, HttpExchangeLogPGRepository.headersJson(log.getResponseHeaders()), false);
+      body(out, responseCompressed == null ? log.getResponseBody() : null, log.isTruncated());
+      field(out, log.getResponseContentLength(), false);
+      field(out, log.getClientInfo(), false);
+      field(out, log.getIp(), false);
+      field(out, log.getUserAgent(), false);
+      field(out, log.isTruncated(), false);
+      bytea(out, requestCompressed);
+      bytea(out, responseCompressed);
+      field(out, log.getBizId(), false);
+      field(out, log.getBatchId(), false);
+      field(out, log.getJnlNo(), false);
+      out.write('\n');
+    }
+  }
+
+  /**
+   * CSV 字段：null 写为未加引号的空值 (COPY 的 NULL)，其余一律加引号，内部双引号重复转义
+   */
+  private static void field(OutputStream out, Object value, boolean first) throws IOException {
+    if (!first) {
+      out.write(',');
+    }
+    if (value != null) {
+      quoted(out, value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Body 字段：UTF-8 JSON 字节原样写出，不解码再编码；其余走 ensureJson 文本路径
+   */
+  private static void body(OutputStream out, LogBody body, boolean truncated) throws IOException {
+    byte[] raw = HttpExchangeLogPGRepository.rawJson(body, truncated);
+    if (raw == null) {
+      field(out, HttpExchangeLogPGRepository.ensureJson(body, truncated), false);
+      return;
+    }
+    out.write(',');
+    quoted(out, raw);
+  }
+
+  /**
+   * BYTEA 字段：十六进制文本格式 (\x...)，只含 ASCII，无需转义
+   */
+  private static void bytea(OutputStream out, byte[] value) throws IOException {
+    out.write(',');
+    if (value == null) {
+      return;
+    }
+    byte[] hex = new byte[2 + value.length * 2];
+    hex[0] = '\\';
+    hex[1] = 'x';
+    for (int i = 0; i < value.length; i++) {
+      hex[2 + i * 2] = HEX_DIGITS[(value[i] >> 4) & 0xF];
+      hex[3 + i * 2] = HEX_DIGITS[value[i] & 0xF];
+    }
+    out.write(hex);
+  }
+
+  // UTF-8 多字节序列中不会出现 0x22，可按字节转义双引号
+  private static void quoted(OutputStream out, byte[] bytes) throws IOException {
+    out.write('"');
+    int start = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == '"') {
+        out.write(bytes, start, i - start + 1);
+        out.write('"');
+        start = i + 1;
+      }
+    }
+    out.write(bytes, start, bytes.length - start);
+    out.write('"');
+  }
+}
@@ -1,56 +1,230 @@
 package com.example.share.logging.export.persistence.repository;
 
 import com.example.share.logging.core.model.HttpExchangeLog;
-import lombok.RequiredArgsConstructor;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.transaction.annotation.Transactional;
 
-@RequiredArgsConstructor
-public class HttpExchangeLogPGRepository {
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+public class HttpExchangeLogPGRepository implements HttpExchangeLogBatchWriter {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  // 所有 upsert (含 COPY 合并) 的 ON CONFLICT 目标；旧版非分区表可能没有这一唯一约束
+  private static final String CONFLICT_TARGET_SQL = """
+      SELECT EXISTS (
+          SELECT 1 FROM pg_index i
+          WHERE i.indrelid = to_regclass('engine.http_exchange_log')
+            AND i.indisunique AND i.indpred IS NULL AND i.indnkeyatts = 2
+            AND (SELECT array_agg(a.attname::text ORDER BY a.attname)
+                 FROM pg_attribute a
+                 WHERE a.attrelid = i.indrelid AND a.attnum = ANY ((i.indkey::int2[])[0:1]))
+                = ARRAY['correlation_id', 'created_time']
+      )
+      """;
+
+  // 注意：request_headers::jsonb 和 request_content::jsonb
+  // 这要求传入的字符串必须是合法的 JSON 格式，否则数据库会报错
+  private static final String UPSERT_REQUEST_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers, request_content, request_content_length, content_type,
+          request_headers_digest, request_content_digest, request_content_compressed,
+          biz_id, batch_id, jnl_no,
+          complete, status_code, duration_millis, truncated
+      ) VALUES (
+          :correlationId, :createdTime,
+          :requestTime, :method, :uri, :remote,
+          :requestHeaders::jsonb, :requestContent::jsonb, :requestContentLength, :contentType,
+          :requestHeadersDigest, :requestContentDigest, :requestContentCompressed,
+          :bizId, :batchId, :jnlNo,
+          false, 0, 0, :truncated
+      )
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          request_time = EXCLUDED.request_time,
+          method = EXCLUDED.method,
+          uri = EXCLUDED.uri,
+          remote = EXCLUDED.remote,
+          request_headers = EXCLUDED.request_headers,
+          request_content = EXCLUDED.request_content,
+          request_content_length = EXCLUDED.request_content_length,
+          content_type = EXCLUDED.content_type,
+          request_headers_digest = EXCLUDED.request_headers_digest,
+          request_content_digest = EXCLUDED.request_content_digest,
+          request_content_compressed = EXCLUDED.request_content_compressed,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = http_exchange_log.truncated OR EXCLUDED.truncated
+      """;
+
+  private static final String UPSERT_RESPONSE_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          response_time, status_code, duration_millis,
+          response_headers, response_content, response_content_length,
+          response_headers_digest, response_content_digest, response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          complete, truncated,
+          method, uri, remote, request_time
+      ) VALUES (
+          :correlationId, :createdTime,
+          :responseTime, :statusCode, :durationMillis,
+          :responseHeaders::jsonb, :responseContent::jsonb, :responseContentLength,
+          :responseHeadersDigest, :responseContentDigest, :responseContentCompressed,
+          :clientInfo, :ip, :userAgent,
+          :bizId, :batchId, :jnlNo,
+          true, :truncated,
+          :method, :uri, :remote, :requestTime
+      )
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          response_time = EXCLUDED.response_time,
+          status_code = EXCLUDED.status_code,
+          duration_millis = EXCLUDED.duration_millis,
+          response_headers = EXCLUDED.response_headers,
+          response_content = EXCLUDED.response_content,
+          response_content_length = EXCLUDED.response_content_length,
+          response_headers_digest = EXCLUDED.response_headers_digest,
+          response_content_digest = EXCLUDED.response_content_digest,
+          response_content_compressed = EXCLUDED.response_content_compressed,
+          client_info = EXCLUDED.client_info,
+          ip = EXCLUDED.ip,
+          user_agent = EXCLUDED.user_agent,
+          complete = true,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = EXCLUDED.truncated
+      """;
+
+  // 完整交换：一次写入请求 + 响应全部字段
+  // 冲突说明请求阶段已作为孤儿日志 (complete=false) 提前落库，此时整体覆盖
+  private static final String UPSERT_EXCHANGE_SQL = """
+      INSERT INTO engine.http_exchange_log (
+          correlation_id, created_time,
+          request_time, method, uri, remote,
+          request_headers, request_content, request_content_length, content_type,
+          response_time, status_code, duration_millis,
+          response_headers, response_content, response_content_length,
+          request_headers_digest, request_content_digest, request_content_compressed,
+          response_headers_digest, response_content_digest, response_content_compressed,
+          client_info, ip, user_agent,
+          biz_id, batch_id, jnl_no,
+          complete, truncated
+      ) VALUES (
+          :correlationId, :createdTime,
+          :requestTime, :method, :uri, :remote,
+          :requestHeaders::jsonb, :requestContent::jsonb, :requestContentLength, :contentType,
+          :responseTime, :statusCode, :durationMillis,
+          :responseHeaders::jsonb, :responseContent::jsonb, :responseContentLength,
+          :requestHeadersDigest, :requestContentDigest, :requestContentCompressed,
+          :responseHeadersDigest, :responseContentDigest, :responseContentCompressed,
+          :clientInfo, :ip, :userAgent,
+          :bizId, :batchId, :jnlNo,
+          true, :truncated
+      )
+      ON CONFLICT (correlation_id, created_time) DO UPDATE SET
+          request_time = EXCLUDED.request_time,
+          method = EXCLUDED.method,
+          uri = EXCLUDED.uri,
+          remote = EXCLUDED.remote,
+          request_headers = EXCLUDED.request_headers,
+          request_content = EXCLUDED.request_content,
+          request_content_length = EXCLUDED.request_content_length,
+          content_type = EXCLUDED.content_type,
+          request_headers_digest = EXCLUDED.request_headers_digest,
+          request_content_digest = EXCLUDED.request_content_digest,
+          request_content_compressed = EXCLUDED.request_content_compressed,
+          response_time = EXCLUDED.response_time,
+          status_code = EXCLUDED.status_code,
+          duration_millis = EXCLUDED.duration_millis,
+          response_headers = EXCLUDED.response_headers,
+          response_content = EXCLUDED.response_content,
+          response_content_length = EXCLUDED.response_content_length,
+          response_headers_digest = EXCLUDED.response_headers_digest,
+          response_content_digest = EXCLUDED.response_content_digest,
+          response_content_compressed = EXCLUDED.response_content_compressed,
+          client_info = EXCLUDED.client_info,
+          ip = EXCLUDED.ip,
+          user_agent = EXCLUDED.user_agent,
+          complete = true,
+          biz_id = COALESCE(EXCLUDED.biz_id, http_exchange_log.biz_id),
+          batch_id = COALESCE(EXCLUDED.batch_id, http_exchange_log.batch_id),
+          jnl_no = COALESCE(EXCLUDED.jnl_no, http_exchange_log.jnl_no),
+          truncated = EXCLUDED.truncated
+      """;
 
   private final JdbcClient jdbcClient;
+  private final NamedParameterJdbcOperations jdbcOperations;
+  // 为 null 时 Body 与 Header 直接写入主表 JSONB 列
+  private final HttpExchangeContentStore contentStore;
+  // 为 null 时不压缩；只作用于内联存储
+  private final BodyCompressor compressor;
+
+  public HttpExchangeLogPGRepository(JdbcClient jdbcClient, NamedParameterJdbcOperations jdbcOperations) {
+    this(jdbcClient, jdbcOperations, null, null);
+  }
+
+  public HttpExchangeLogPGRepository(JdbcClient jdbcClient, NamedParameterJdbcOperations jdbcOperations,
+                                     HttpExchangeContentStore contentStore, BodyCompressor compressor) {
+    this.jdbcClient = jdbcClient;
+    this.jdbcOperations = jdbcOperations;
+    this.contentStore = contentStore;
+    this.compressor = compressor;
+  }
+
+  /**
+   * 启动时确认主表存在 (correlation_id, created_time) 唯一约束，缺失时直接失败，而不是每次写入都报错后被丢弃
+   * <p>
+   * 数据库暂不可用时只记录告警，不阻止启动 (由 spool 等机制兜底)
+   */
+  public void verifyConflictTarget() {
+    Boolean present;
+    try {
+      present = jdbcClient.sql(CONFLICT_TARGET_SQL).query(Boolean.class).single();
+    } catch (DataAccessResourceFailureException e) {
+      log.warn("Database unavailable, skipped unique key check of engine.http_exchange_log", e);
+      return;
+    }
+    if (!Boolean.TRUE.equals(present)) {
+      throw new IllegalStateException("engine.http_exchange_log is missing or has no unique constraint on "
+        + "(correlation_id, created_time) required by the upserts; migrate it with pg.sql "
+        + "(rename the legacy table, create the partitioned one, then backfill)");
+    }
+  }
 
   /**
    * 幂等写入 Request (PostgreSQL 版)
    */
   @Transactional
   public void upsertRequest(HttpExchangeLog log) {
-    // 注意：request_headers::jsonb 和 request_content::jsonb
-    // 这要求传入的字符串必须是合法的 JSON 格式，否则数据库会报错
-    String sql = """
-        INSERT INTO engine.http_exchange_log (
-            correlation_id, created_time,
-            request_time, method, uri, remote,
-            request_headers, request_content, content_type,
-            complete, status_code, duration_millis, truncated
-        ) VALUES (
-            :correlationId, :createdTime,
-            :requestTime, :method, :uri, :remote,
-            :requestHeaders::jsonb, :requestContent::jsonb, :contentType,
-            false, 0, 0, false
-        )
-        ON CONFLICT (correlation_id) DO UPDATE SET
-            request_time = EXCLUDED.request_time,
-            method = EXCLUDED.method,
-            uri = EXCLUDED.uri,
-            remote = EXCLUDED.remote,
-            request_headers = EXCLUDED.request_headers,
-            request_content = EXCLUDED.request_content,
-            content_type = EXCLUDED.content_type
-        """;
-
-    jdbcClient.sql(sql)
-      .param("correlationId", log.getCorrelationId()) // 假设实体已改为 String
-      .param("createdTime", log.getCreatedTime())
-      .param("requestTime", log.getRequestTime())
-      .param("method", log.getMethod())
-      .param("uri", log.getUri())
-      .param("remote", log.getRemote())
-      // 如果内容为空或非JSON，建议在上层Mapper处理成 "{}" 或 null，防止SQL报错
-      .param("requestHeaders", ensureJson(log.getRequestHeaders()))
-      .param("requestContent", ensureJson(log.getRequestContent()))
-      .param("contentType", log.getContentType())
+    HttpExchangeContentStore.Batch content = newContentBatch();
+    SqlParameterSource params = requestParams(log, content);
+    writeContent(content);
+    jdbcClient.sql(UPSERT_REQUEST_SQL)
+      .paramSource(params)
       .update();
+    completeContent(content);
   }
 
   /**
@@ -58,77 +232,283 @@ public class HttpExchangeLogPGRepository {
    */
   @Transactional
   public void upsertResponse(HttpExchangeLog log) {
-    String sql = """
-        INSERT INTO engine.http_exchange_log (
-            correlation_id, created_time,
-            response_time, status_code, duration_millis,
-            response_headers, response_content,
-            client_info, ip, user_agent,
-            complete, truncated,
-            method, uri, remote, request_time
-        ) VALUES (
-            :correlationId, :createdTime,
-            :responseTime, :statusCode, :durationMillis,
-            :responseHeaders::jsonb, :responseContent::jsonb,
-            :clientInfo, :ip, :userAgent,
-            true, :truncated,
-            :method, :uri, :remote, :requestTime
-        )
-        ON CONFLICT (correlation_id) DO UPDATE SET
-            response_time = EXCLUDED.response_time,
-            status_code = EXCLUDED.status_code,
-            duration_millis = EXCLUDED.duration_millis,
-            response_headers = EXCLUDED.response_headers,
-            response_content = EXCLUDED.response_content,
-            client_info = EXCLUDED.client_info,
-            ip = EXCLUDED.ip,
-            user_agent = EXCLUDED.user_agent,
-            complete = true,
-            truncated = EXCLUDED.truncated
-        """;
-
-    jdbcClient.sql(sql)
-      .param("correlationId", log.getCorrelationId())
-      .param("createdTime", log.getCreatedTime())
-      .param("responseTime", log.getResponseTime())
-      .param("statusCode", log.getStatusCode())
-      .param("durationMillis", log.getDurationMillis())
-      .param("responseHeaders", ensureJson(log.getResponseHeaders()))
-      .param("responseContent", ensureJson(log.getResponseContent()))
-      .param("clientInfo", log.getClientInfo())
-      .param("ip", log.getIp())
-      .param("userAgent", log.getUserAgent())
-      .param("truncated", log.isTruncated())
-      // 下面这些参数主要用于 Insert 场景，Update 时不会用到
-      .param("method", log.getMethod())
-      .param("uri", log.getUri())
-      .param("remote", log.getRemote())
-      .param("requestTime", log.getRequestTime())
+    HttpExchangeContentStore.Batch content = newContentBatch();
+    SqlParameterSource params = responseParams(log, content);
+    writeContent(content);
+    jdbcClient.sql(UPSERT_RESPONSE_SQL)
+      .paramSource(params)
       .update();
+    completeContent(content);
+  }
+
+  /**
+   * 幂等写入完整交换 (请求 + 响应合并后只写一次)
+   */
+  @Transactional
+  public void upsertExchange(HttpExchangeLog log) {
+    HttpExchangeContentStore.Batch content = newContentBatch();
+    SqlParameterSource params = exchangeParams(log, content);
+    writeContent(content);
+    jdbcClient.sql(UPSERT_EXCHANGE_SQL)
+      .paramSource(params)
+      .update();
+    completeContent(content);
+  }
+
+  /**
+   * 批量幂等写入：同一事务内以 JDBC batch 分别提交请求/响应两类 upsert
+   * <p>
+   * 不使用单条多值 INSERT，因为同一批次内可能出现同一 correlation_id 的请求与响应，
+   * PG 不允许一条 ON CONFLICT DO UPDATE 语句两次命中同一行
+   */
+  @Override
+  @Transactional
+  public void writeBatch(List<LogEvent> events) {
+    List<SqlParameterSource> requests = new ArrayList<>();
+    List<SqlParameterSource> responses = new ArrayList<>();
+    List<SqlParameterSource> exchanges = new ArrayList<>();
+    HttpExchangeContentStore.Batch content = newContentBatch();
+    for (LogEvent event : events) {
+      switch (event.phase()) {
+        case REQUEST -> requests.add(requestParams(event.log(), content));
+        case RESPONSE -> responses.add(responseParams(event.log(), content));
+        case EXCHANGE -> exchanges.add(exchangeParams(event.log(), content));
+      }
+    }
+    // 主表引用的内容先落旁表
+    writeContent(content);
+
+    // 请求与响应 upsert 更新的字段互不重叠，先后顺序不影响最终结果
+    if (!requests.isEmpty()) {
+      jdbcOperations.batchUpdate(UPSERT_REQUEST_SQL, requests.toArray(SqlParameterSource[]::new));
+    }
+    if (!responses.isEmpty()) {
+      jdbcOperations.batchUpdate(UPSERT_RESPONSE_SQL, responses.toArray(SqlParameterSource[]::new));
+    }
+    // 完整交换放在最后：同批次内若有同一 correlation_id 的孤儿请求，以完整数据为准
+    if (!exchanges.isEmpty()) {
+      jdbcOperations.batchUpdate(UPSERT_EXCHANGE_SQL, exchanges.toArray(SqlParameterSource[]::new));
+    }
+    completeContent(content);
+  }
+
+  private HttpExchangeContentStore.Batch newContentBatch() {
+    return contentStore != null ? contentStore.newBatch() : null;
+  }
+
+  private void writeContent(HttpExchangeContentStore.Batch content) {
+    if (content != null) {
+      content.write(jdbcOperations);
+    }
+  }
+
+  private static void completeContent(HttpExchangeContentStore.Batch content) {
+    if (content != null) {
+      content.complete();
+    }
+  }
+
+  private SqlParameterSource requestParams(HttpExchangeLog log, HttpExchangeContentStore.Batch content) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("correlationId", log.getCorrelationId())
+      .addValue("createdTime", log.getCreatedTime())
+      .addValue("requestTime", log.getRequestTime())
+      .addValue("method", log.getMethod())
+      .addValue("uri", log.getUri())
+      .addValue("remote", log.getRemote())
+      .addValue("requestContentLength", log.getRequestContentLength())
+      .addValue("contentType", log.getContentType())
+      .addValue("truncated", log.isTruncated());
+    addBizIds(params, log);
+    // 如果内容为空或非JSON，建议在上层Mapper处理成 "{}" 或 null，防止SQL报错
+    addRequestContent(params, log, content);
+    return params;
+  }
+
+  private SqlParameterSource responseParams(HttpExchangeLog log, HttpExchangeContentStore.Batch content) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("correlationId", log.getCorrelationId())
+      .addValue("createdTime", log.getCreatedTime())
+      .addValue("responseTime", log.getResponseTime())
+      .addValue("statusCode", log.getStatusCode())
+      .addValue("durationMillis", log.getDurationMillis())
+      .addValue("responseContentLength", log.getResponseContentLength())
+      .addValue("clientInfo", log.getClientInfo())
+      .addValue("ip", log.getIp())
+      .addValue("userAgent", log.getUserAgent())
+      .addValue("truncated", log.isTruncated())
+      // 下面这些参数主要用于 Insert 场景，Update 时不会用到
+      .addValue("method", log.getMethod())
+      .addValue("uri", log.getUri())
+      .addValue("remote", log.getRemote())
+      .addValue("requestTime", log.getRequestTime());
+    addBizIds(params, log);
+    addResponseContent(params, log, content);
+    return params;
+  }
+
+  private SqlParameterSource exchangeParams(HttpExchangeLog log, HttpExchangeContentStore.Batch content) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("correlationId", log.getCorrelationId())
+      .addValue("createdTime", log.getCreatedTime())
+      .addValue("requestTime", log.getRequestTime())
+      .addValue("method", log.getMethod())
+      .addValue("uri", log.getUri())
+      .addValue("remote", log.getRemote())
+      .addValue("requestContentLength", log.getRequestContentLength())
+      .addValue("contentType", log.getContentType())
+      .addValue("responseTime", log.getResponseTime())
+      .addValue("statusCode", log.getStatusCode())
+      .addValue("durationMillis", log.getDurationMillis())
+      .addValue("responseContentLength", log.getResponseContentLength())
+      .addValue("clientInfo", log.getClientInfo())
+      .addValue("ip", log.getIp())
+      .addValue("userAgent", log.getUserAgent())
+      .addValue("truncated", log.isTruncated());
+    addBizIds(params, log);
+    addRequestContent(params, log, content);
+    addResponseContent(params, log, content);
+    return params;
+  }
+
+  // 两个阶段都会带上采集到的业务标识，更新时已有值不会被 null 覆盖
+  private static void addBizIds(MapSqlParameterSource params, HttpExchangeLog log) {
+    params.addValue("bizId", log.getBizId())
+      .addValue("batchId", log.getBatchId())
+      .addValue("jnlNo", log.getJnlNo());
+  }
+
+  private void addRequestContent(MapSqlParameterSource params, HttpExchangeLog log,
+                                 HttpExchangeContentStore.Batch content) {
+    addRef(params, "requestHeaders", content != null
+      ? content.headers(log.getRequestHeaders())
+      : HttpExchangeContentStore.Ref.inline(headersJson(log.getRequestHeaders())));
+    addBody(params, "requestContent", log.getRequestBody(), log.isTruncated(), content);
+  }
+
+  private void addResponseContent(MapSqlParameterSource params, HttpExchangeLog log,
+                                  HttpExchangeContentStore.Batch content) {
+    addRef(params, "responseHeaders", content != null
+      ? content.headers(log.getResponseHeaders())
+      : HttpExchangeContentStore.Ref.inline(headersJson(log.getResponseHeaders())));
+    addBody(params, "responseContent", log.getResponseBody(), log.isTruncated(), content);
+  }
+
+  // 内容寻址 > 压缩 > JSONB，三者只取其一，其余列写 null
+  private void addBody(MapSqlParameterSource params, String name, LogBody body, boolean truncated,
+                       HttpExchangeContentStore.Batch content) {
+    byte[] compressed = content == null && compressor != null ? compressor.compress(body) : null;
+    params.addValue(name + "Compressed", compressed, Types.BINARY);
+    if (content != null) {
+      addRef(params, name, content.body(body, truncated));
+    } else {
+      addRef(params, name, compressed != null
+        ? HttpExchangeContentStore.Ref.NULL
+        : HttpExchangeContentStore.Ref.inline(ensureJson(body, truncated)));
+    }
+  }
+
+  // JSONB 列与摘要列成对出现：内联模式摘要为 null，内容寻址模式 JSONB 只保留不参与去重的部分
+  private static void addRef(MapSqlParameterSource params, String name, HttpExchangeContentStore.Ref ref) {
+    params.addValue(name, ref.json()).addValue(name + "Digest", ref.digest(), Types.BINARY);
+  }
+
+  /**
+   * Header 多值 Map 在入库时序列化一次：{"name": ["v1", "v2"]}
+   * 直接用流式生成器写出，不经过 ObjectMapper
+   */
+  static String headersJson(Map<String, List<String>> headers) {
+    if (headers == null) {
+      return null;
+    }
+    if (headers.isEmpty()) {
+      return "{}";
+    }
+    StringWriter out = new StringWriter(headers.size() * 48);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      generator.writeStartObject();
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        generator.writeArrayFieldStart(entry.getKey());
+        for (String value : entry.getValue()) {
+          generator.writeString(value);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to serialize headers", e);
+    }
+    return out.toString();
   }
 
   /**
    * 辅助方法：确保入库字符串符合 JSONB 格式要求
    * Postgres JSONB 字段不能存普通文本，必须是 JSON 对象/数组 或 null
+   * <p>
+   * Body 入库：非 JSON 文本、以及截断后不再完整的 JSON，包装为 JSON 字符串保存，不再置空丢弃
+   * 只有截断的记录才做完整性校验，正常记录仍只看首字符
+   * <p>
+   * 入参已经过脱敏：JSON 脱敏器对截断或无法解析的 Body 只保留已处理的前缀、其余丢弃，这里包装的不会是未脱敏的原文
    */
-  private String ensureJson(String value) {
+  static String ensureJson(String value, boolean truncated) {
     if (value == null || value.isBlank()) {
-      return null; // 或者返回 "{}"
+      return null;
     }
-    // 简单的校验：如果不是 { 开头也不是 [ 开头，说明可能是普通文本
-    // 这种情况下强行存入 JSONB 会报错，建议包装一下
     String trimmed = value.trim();
-    if (!(trimmed.startsWith("{") || trimmed.startsWith("["))) {
-      // 策略A: 包装成 JSON 字符串
-      // return "\"" + value.replace("\"", "\\\"") + "\"";
+    boolean looksLikeJson = trimmed.startsWith("{") || trimmed.startsWith("[");
+    if (looksLikeJson && (!truncated || isWellFormedJson(value))) {
+      return value;
+    }
+    // JSONB 不接受 NUL 字符，替换为 U+FFFD
+    StringBuilder quoted = new StringBuilder(value.length() + 16).append('"');
+    JsonStringEncoder.getInstance().quoteAsString(value.replace('\0', '\uFFFD'), quoted);
+    return quoted.append('"').toString();
+  }
 
-      // 策略B: 包装成对象 (推荐)
-      // return "{\"raw\": \"" + value.replace("\"", "\\\"") + "\"}";
+  static String ensureJson(LogBody body, boolean truncated) {
+    return body != null ? ensureJson(body.text(), truncated) : null;
+  }
 
-      // 策略C: 如果你能保证 logbook 这里的 content 一定是 json，就直接返回
-      // 否则这里如果不处理，遇到 "Hello World" 这种 body，SQL 会抛异常
+  /**
+   * 可不经解码直接写出的 UTF-8 JSON 字节：判定规则与 {@link #ensureJson(String, boolean)} 原样保留的条件一致，
+   * 不满足时返回 null，由调用方走文本路径
+   */
+  static byte[] rawJson(LogBody body, boolean truncated) {
+    if (body == null || !body.isUtf8Bytes()) {
       return null;
     }
-    return value;
+    byte[] bytes = body.bytes();
+    int first = 0;
+    // 与 String.trim 一致：跳过 <= ' ' 的 ASCII 字节 (UTF-8 多字节序列均为负值)
+    while (first < bytes.length && bytes[first] >= 0 && bytes[first] <= ' ') {
+      first++;
+    }
+    if (first == bytes.length || (bytes[first] != '{' && bytes[first] != '[')) {
+      return null;
+    }
+    return !truncated || isWellFormedJson(bytes) ? bytes : null;
+  }
+
+  private static boolean isWellFormedJson(String value) {
+    try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+      return drain(parser);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static boolean isWellFormedJson(byte[] value) {
+    try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+      return drain(parser);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static boolean drain(JsonParser parser) throws IOException {
+    while (parser.nextToken() != null) {
+      // 只校验语法，不构建对象
+    }
+    return true;
   }
 }
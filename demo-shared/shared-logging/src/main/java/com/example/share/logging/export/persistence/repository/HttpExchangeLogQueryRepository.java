@@ -0,0 +1,357 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * engine.http_exchange_log 读取侧
+ * <p>
+ * 1. 按 (created_time, correlation_id) 倒序做 keyset 分页：下一页从上一页最后一行之后继续，不用 OFFSET，翻到多深都只扫一页
+ * 2. 时间范围必带 (缺省为最近 default-lookback)，查询只落在对应的日分区内
+ * 3. 过滤条件与 pg.sql 中的索引一一对应：时间 (created_time, correlation_id)、URI 前缀 uri_path(uri)、
+ * 状态码 (status_code, created_time)、关联 ID 走主键、业务标识走各自的部分索引 (biz_id / batch_id / jnl_no, created_time)；
+ * 耗时只作为剩余过滤条件
+ * 4. 分页与检索只读元数据列；Body 与 Header 只在按关联 ID 查看详情时读取
+ * 5. 大量导出用 {@link #stream} (端点 exchangelogsexport 以 NDJSON 输出)：在只读事务内按 fetch-size 分批取回，
+ * 逐行回调，不在内存中堆积结果
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public class HttpExchangeLogQueryRepository {
+
+  private static final String SUMMARY_COLUMNS = """
+      correlation_id, created_time, request_time, response_time, duration_millis,
+      method, uri, remote, status_code, content_type,
+      request_content_length, response_content_length, ip, truncated, complete,
+      biz_id, batch_id, jnl_no""";
+
+  private static final String ORDER_BY = " ORDER BY created_time DESC, correlation_id DESC";
+
+  private static final String DETAIL_SQL = """
+      SELECT %s,
+             request_headers::text AS request_headers, request_content::text AS request_content,
+             response_headers::text AS response_headers, response_content::text AS response_content,
+             request_content_compressed, response_content_compressed, client_info, user_agent
+      FROM engine.http_exchange_log_full
+      WHERE correlation_id = ?
+      ORDER BY created_time DESC
+      """.formatted(SUMMARY_COLUMNS);
+
+  private static final RowMapper<Summary> SUMMARY_MAPPER = (rs, rowNum) -> summary(rs);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DatabaseExportProperties.Query properties;
+
+  public HttpExchangeLogQueryRepository(JdbcTemplate jdbcTemplate, DatabaseExportProperties.Query properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.jdbcTemplate.setQueryTimeout(Math.toIntExact(properties.statementTimeout().toSeconds()));
+  }
+
+  /**
+   * 检索一页，after 为上一页返回的游标 (首页传 null)
+   */
+  public Page search(Criteria criteria, Cursor after, Integer limit) {
+    int pageSize = pageSize(limit);
+    List<Object> args = new ArrayList<>();
+    // 多取一行判断是否还有下一页
+    String sql = searchSql(resolve(criteria), after, args) + " LIMIT " + (pageSize + 1);
+    List<Summary> rows = jdbcTemplate.query(sql, SUMMARY_MAPPER, args.toArray());
+    if (rows.size() <= pageSize) {
+      return new Page(rows, null);
+    }
+    List<Summary> page = rows.subList(0, pageSize);
+    Summary last = page.getLast();
+    return new Page(List.copyOf(page), new Cursor(last.createdTime().toInstant(), last.correlationId()).encode());
+  }
+
+  /**
+   * 按条件流式读取命中行 (同样按时间倒序，最多 max-export-rows 行)，返回行数；回调抛出的异常中止读取并原样传播
+   */
+  public long stream(Criteria criteria, Consumer<Summary> consumer) {
+    List<Object> args = new ArrayList<>();
+    String sql = searchSql(resolve(criteria), null, args) + " LIMIT " + properties.maxExportRows();
+    Long count = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> stream(connection, sql, args, consumer));
+    return count != null ? count : 0;
+  }
+
+  private long stream(Connection connection, String sql, List<Object> args, Consumer<Summary> consumer)
+    throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    boolean readOnly = connection.isReadOnly();
+    // PostgreSQL 驱动只在非自动提交模式下按 fetch-size 使用游标，否则一次取回全部结果
+    connection.setAutoCommit(false);
+    // 只读事务：可路由到只读副本，也避免长时间导出持有写锁
+    connection.setReadOnly(true);
+    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+      ps.setFetchSize(properties.fetchSize());
+      ps.setQueryTimeout(Math.toIntExact(properties.statementTimeout().toSeconds()));
+      for (int i = 0; i < args.size(); i++) {
+        ps.setObject(i + 1, args.get(i));
+      }
+      long count = 0;
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          consumer.accept(summary(rs));
+          count++;
+        }
+      }
+      return count;
+    } finally {
+      // 只读，回滚即可；连接归还连接池前恢复原状态
+      connection.rollback();
+      connection.setReadOnly(readOnly);
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  /**
+   * 查看一次交换的完整内容；同一关联 ID 极少数情况下可能对应多行 (如跨分区重放)
+   */
+  public List<Detail> findByCorrelationId(String correlationId) {
+    return jdbcTemplate.query(DETAIL_SQL, (rs, rowNum) -> new Detail(
+      summary(rs),
+      rs.getString("request_headers"),
+      body(rs.getString("request_content"), rs.getBytes("request_content_compressed")),
+      rs.getString("response_headers"),
+      body(rs.getString("response_content"), rs.getBytes("response_content_compressed")),
+      rs.getString("client_info"),
+      rs.getString("user_agent")), correlationId);
+  }
+
+  /**
+   * 按业务标识直接查找 (不限时间范围，按时间倒序取最近 limit 条)
+   */
+  public List<Summary> findByBizId(String bizId, Integer limit) {
+    return findBy("biz_id", bizId, limit);
+  }
+
+  public List<Summary> findByBatchId(String batchId, Integer limit) {
+    return findBy("batch_id", batchId, limit);
+  }
+
+  public List<Summary> findByJnlNo(String jnlNo, Integer limit) {
+    return findBy("jnl_no", jnlNo, limit);
+  }
+
+  // column 只来自上面的固定列名
+  private List<Summary> findBy(String column, String value, Integer limit) {
+    String sql = "SELECT " + SUMMARY_COLUMNS + " FROM engine.http_exchange_log WHERE " + column + " = ?"
+      + ORDER_BY + " LIMIT " + pageSize(limit);
+    return jdbcTemplate.query(sql, SUMMARY_MAPPER, value);
+  }
+
+  private int pageSize(Integer limit) {
+    return limit == null ? properties.defaultPageSize() : Math.min(Math.max(limit, 1), properties.maxPageSize());
+  }
+
+  // 补齐缺省的时间范围
+  private Criteria resolve(Criteria criteria) {
+    Instant to = criteria.to() != null ? criteria.to() : Instant.now();
+    Instant from = criteria.from() != null ? criteria.from() : to.minus(properties.defaultLookback());
+    return new Criteria(from, to, criteria.uriPrefix(), criteria.minStatus(), criteria.maxStatus(),
+      criteria.correlationId(), criteria.minDurationMillis(), criteria.maxDurationMillis(),
+      criteria.bizId(), criteria.batchId(), criteria.jnlNo());
+  }
+
+  static String searchSql(Criteria criteria, Cursor after, List<Object> args) {
+    StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+      .append(" FROM engine.http_exchange_log WHERE created_time >= ? AND created_time < ?");
+    args.add(Timestamp.from(criteria.from()));
+    args.add(Timestamp.from(criteria.to()));
+    if (criteria.correlationId() != null) {
+      sql.append(" AND correlation_id = ?");
+      args.add(criteria.correlationId());
+    }
+    if (criteria.bizId() != null) {
+      sql.append(" AND biz_id = ?");
+      args.add(criteria.bizId());
+    }
+    if (criteria.batchId() != null) {
+      sql.append(" AND batch_id = ?");
+      args.add(criteria.batchId());
+    }
+    if (criteria.jnlNo() != null) {
+      sql.append(" AND jnl_no = ?");
+      args.add(criteria.jnlNo());
+    }
+    if (criteria.uriPrefix() != null) {
+      // 与 idx_uri_path 的表达式一致才能走索引
+      sql.append(" AND engine.uri_path(uri) LIKE ? ESCAPE '\\'");
+      args.add(likePrefix(pathOf(criteria.uriPrefix())));
+    }
+    if (criteria.minStatus() != null && criteria.minStatus().equals(criteria.maxStatus())) {
+      sql.append(" AND status_code = ?");
+      args.add(criteria.minStatus());
+    } else {
+      if (criteria.minStatus() != null) {
+        sql.append(" AND status_code >= ?");
+        args.add(criteria.minStatus());
+      }
+      if (criteria.maxStatus() != null) {
+        sql.append(" AND status_code <= ?");
+        args.add(criteria.maxStatus());
+      }
+    }
+    if (criteria.minDurationMillis() != null) {
+      sql.append(" AND duration_millis >= ?");
+      args.add(criteria.minDurationMillis());
+    }
+    if (criteria.maxDurationMillis() != null) {
+      sql.append(" AND duration_millis <= ?");
+      args.add(criteria.maxDurationMillis());
+    }
+    if (after != null) {
+      // 行比较与 (created_time, correlation_id) 索引的顺序一致
+      sql.append(" AND (created_time, correlation_id) < (?, ?)");
+      args.add(Timestamp.from(after.createdTime()));
+      args.add(after.correlationId());
+    }
+    return sql.append(ORDER_BY).toString();
+  }
+
+  // 前缀写成完整地址时去掉 scheme://host[:port]
+  private static String pathOf(String prefix) {
+    int scheme = prefix.indexOf("://");
+    if (scheme < 0) {
+      return prefix;
+    }
+    int slash = prefix.indexOf('/', scheme + 3);
+    return slash < 0 ? "/" : prefix.substring(slash);
+  }
+
+  static String likePrefix(String prefix) {
+    StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+    for (int i = 0; i < prefix.length(); i++) {
+      char c = prefix.charAt(i);
+      if (c == '\\' || c == '%' || c == '_') {
+        pattern.append('\\');
+      }
+      pattern.append(c);
+    }
+    return pattern.append('%').toString();
+  }
+
+  private static Summary summary(ResultSet rs) throws SQLException {
+    return new Summary(
+      rs.getString("correlation_id"),
+      rs.getObject("created_time", OffsetDateTime.class),
+      rs.getObject("request_time", OffsetDateTime.class),
+      rs.getObject("response_time", OffsetDateTime.class),
+      (Long) rs.getObject("duration_millis"),
+      rs.getString("method"),
+      rs.getString("uri"),
+      rs.getString("remote"),
+      (Integer) rs.getObject("status_code"),
+      rs.getString("content_type"),
+      (Integer) rs.getObject("request_content_length"),
+      (Integer) rs.getObject("response_content_length"),
+      rs.getString("ip"),
+      rs.getBoolean("truncated"),
+      rs.getBoolean("complete"),
+      rs.getString("biz_id"),
+      rs.getString("batch_id"),
+      rs.getString("jnl_no"));
+  }
+
+  private static String body(String json, byte[] compressed) {
+    return compressed != null ? BodyCompressor.decode(compressed) : json;
+  }
+
+  /**
+   * 检索条件，null 表示不限制；状态码为闭区间，min == max 即精确匹配
+   */
+  public record Criteria(
+    Instant from,
+    Instant to,
+    String uriPrefix,
+    Integer minStatus,
+    Integer maxStatus,
+    String correlationId,
+    Long minDurationMillis,
+    Long maxDurationMillis,
+    String bizId,
+    String batchId,
+    String jnlNo
+  ) {
+  }
+
+  /**
+   * 上一页最后一行的位置，对外以不透明字符串传递
+   */
+  public record Cursor(Instant createdTime, String correlationId) {
+
+    public String encode() {
+      String raw = createdTime.getEpochSecond() + "." + createdTime.getNano() + ":" + correlationId;
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+      try {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int colon = raw.indexOf(':');
+        int dot = raw.lastIndexOf('.', colon);
+        Instant createdTime = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)),
+          Long.parseLong(raw.substring(dot + 1, colon)));
+        return new Cursor(createdTime, raw.substring(colon + 1));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+      }
+    }
+  }
+
+  public record Page(List<Summary> items, String nextCursor) {
+  }
+
+  public record Summary(
+    String correlationId,
+    OffsetDateTime createdTime,
+    OffsetDateTime requestTime,
+    OffsetDateTime responseTime,
+    Long durationMillis,
+    String method,
+    String uri,
+    String remote,
+    Integer statusCode,
+    String contentType,
+    Integer requestContentLength,
+    Integer responseContentLength,
+    String ip,
+    boolean truncated,
+    boolean complete,
+    String bizId,
+    String batchId,
+    String jnlNo
+  ) {
+  }
+
+  /**
+   * 完整内容：Header 为 JSON 文本；Body 为 JSON 文本，压缩存储的 Body 已解码为原始文本
+   */
+  public record Detail(
+    Summary summary,
+    String requestHeaders,
+    String requestContent,
+    String responseHeaders,
+    String responseContent,
+    String clientInfo,
+    String userAgent
+  ) {
+  }
+}
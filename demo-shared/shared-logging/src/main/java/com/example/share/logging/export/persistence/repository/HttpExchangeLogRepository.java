@@ -1,6 +1,7 @@
 package com.example.share.logging.export.persistence.repository;
 
 import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,8 +46,8 @@ public class HttpExchangeLogRepository {
       .param("method", log.getMethod())
       .param("uri", log.getUri())
       .param("remote", log.getRemote())
-      .param("requestHeaders", log.getRequestHeaders())
-      .param("requestContent", log.getRequestContent())
+      .param("requestHeaders", HttpExchangeLogPGRepository.headersJson(log.getRequestHeaders()))
+      .param("requestContent", LogBody.textOf(log.getRequestBody()))
       .param("contentType", log.getContentType())
       .update();
   }
@@ -92,8 +93,8 @@ public class HttpExchangeLogRepository {
       .param("responseTime", log.getResponseTime())
       .param("statusCode", log.getStatusCode())
       .param("durationMillis", log.getDurationMillis())
-      .param("responseHeaders", log.getResponseHeaders())
-      .param("responseContent", log.getResponseContent())
+      .param("responseHeaders", HttpExchangeLogPGRepository.headersJson(log.getResponseHeaders()))
+      .param("responseContent", LogBody.textOf(log.getResponseBody()))
       .param("clientInfo", log.getClientInfo())
       .param("ip", log.getIp())
       .param("userAgent", log.getUserAgent())
@@ -0,0 +1,165 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.export.rollup.RollupRow;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * engine.http_latency_rollup 写入：一个窗口的所有汇总行一次 JDBC batch
+ * <p>
+ * 主键为 (window_start, instance, method, uri_template)。同一窗口可能被写入多次 (停机写出未满窗口后在同一窗口内重启、
+ * 刷写任务延迟触发)，此时与已有行合并：状态码计数相加，直方图解码合并后重新计算分位数，不丢弃任何一次写入。
+ * <p>
+ * 合并需要读出已有行，整个窗口在一个事务内完成，并以 (instance, window_start) 的事务级 advisory 锁串行化，
+ * 同名实例并发写同一窗口时也不会互相覆盖
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public class LatencyRollupRepository {
+
+  private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtextextended(?, 0))";
+
+  private static final String SELECT_SQL = """
+      SELECT method, uri_template, request_count, status_2xx, status_3xx, status_4xx, status_5xx, status_other,
+             min_millis, p50_millis, p90_millis, p99_millis, max_millis, mean_millis, histogram
+      FROM engine.http_latency_rollup
+      WHERE window_start = ? AND instance = ?
+      """;
+
+  private static final String UPSERT_SQL = """
+      INSERT INTO engine.http_latency_rollup (
+          window_start, window_seconds, instance, method, uri_template, request_count,
+          status_2xx, status_3xx, status_4xx, status_5xx, status_other,
+          min_millis, p50_millis, p90_millis, p99_millis, max_millis, mean_millis, histogram
+      ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT (window_start, instance, method, uri_template) DO UPDATE SET
+          window_seconds = EXCLUDED.window_seconds,
+          request_count = EXCLUDED.request_count,
+          status_2xx = EXCLUDED.status_2xx,
+          status_3xx = EXCLUDED.status_3xx,
+          status_4xx = EXCLUDED.status_4xx,
+          status_5xx = EXCLUDED.status_5xx,
+          status_other = EXCLUDED.status_other,
+          min_millis = EXCLUDED.min_millis,
+          p50_millis = EXCLUDED.p50_millis,
+          p90_millis = EXCLUDED.p90_millis,
+          p99_millis = EXCLUDED.p99_millis,
+          max_millis = EXCLUDED.max_millis,
+          mean_millis = EXCLUDED.mean_millis,
+          histogram = EXCLUDED.histogram
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LatencyRollupRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void write(Instant windowStart, Duration window, String instance, List<RollupRow> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    // 加锁、读出已有行与写入必须在同一连接的同一事务内
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      boolean autoCommit = connection.getAutoCommit();
+      // 已处于 Spring 事务时由事务管理器提交，否则在本连接上开启并提交事务
+      if (autoCommit) {
+        connection.setAutoCommit(false);
+      }
+      try {
+        write(connection, Timestamp.from(windowStart), Math.toIntExact(window.toSeconds()), instance, rows);
+        if (autoCommit) {
+          connection.commit();
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (autoCommit) {
+          connection.rollback();
+        }
+        throw e;
+      } finally {
+        if (autoCommit) {
+          connection.setAutoCommit(true);
+        }
+      }
+      return null;
+    });
+  }
+
+  private void write(Connection connection, Timestamp start, int seconds, String instance, List<RollupRow> rows)
+    throws SQLException {
+    try (PreparedStatement lock = connection.prepareStatement(LOCK_SQL)) {
+      lock.setString(1, "http_latency_rollup:" + instance + ":" + start.toInstant());
+      lock.execute();
+    }
+
+    Map<String, RollupRow> existing = existing(connection, start, instance);
+    try (PreparedStatement ps = connection.prepareStatement(UPSERT_SQL)) {
+      for (RollupRow row : rows) {
+        RollupRow previous = existing.get(key(row.method(), row.uriTemplate()));
+        bind(ps, start, seconds, instance, previous != null ? previous.merge(row) : row);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+  }
+
+  // 该窗口本实例已写入的行，通常为空 (只有重复写入同一窗口时才有)
+  private static Map<String, RollupRow> existing(Connection connection, Timestamp start, String instance)
+    throws SQLException {
+    Map<String, RollupRow> rows = new HashMap<>();
+    try (PreparedStatement ps = connection.prepareStatement(SELECT_SQL)) {
+      ps.setTimestamp(1, start);
+      ps.setString(2, instance);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          RollupRow row = new RollupRow(rs.getString(1), rs.getString(2), rs.getLong(3),
+            rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8),
+            rs.getLong(9), rs.getLong(10), rs.getLong(11), rs.getLong(12), rs.getLong(13),
+            rs.getDouble(14), rs.getBytes(15));
+          rows.put(key(row.method(), row.uriTemplate()), row);
+        }
+      }
+    }
+    return rows;
+  }
+
+  // method 不含空格，可直接拼接为组合键
+  private static String key(String method, String uriTemplate) {
+    return method + ' ' + uriTemplate;
+  }
+
+  private static void bind(PreparedStatement ps, Timestamp start, int seconds, String instance, RollupRow row)
+    throws SQLException {
+    int i = 1;
+    ps.setTimestamp(i++, start);
+    ps.setInt(i++, seconds);
+    ps.setString(i++, instance);
+    ps.setString(i++, row.method());
+    ps.setString(i++, row.uriTemplate());
+    ps.setLong(i++, row.count());
+    ps.setLong(i++, row.status2xx());
+    ps.setLong(i++, row.status3xx());
+    ps.setLong(i++, row.status4xx());
+    ps.setLong(i++, row.status5xx());
+    ps.setLong(i++, row.statusOther());
+    ps.setLong(i++, row.min());
+    ps.setLong(i++, row.p50());
+    ps.setLong(i++, row.p90());
+    ps.setLong(i++, row.p99());
+    ps.setLong(i++, row.max());
+    ps.setDouble(i++, row.mean());
+    ps.setBytes(i, row.histogram());
+  }
+}
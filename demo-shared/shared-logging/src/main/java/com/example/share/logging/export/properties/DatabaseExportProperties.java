@@ -0,0 +1,204 @@
+package com.example.share.logging.export.properties;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 数据库导出配置
+ * 前缀: logbook.database
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.database")
+public record DatabaseExportProperties(
+  @DefaultValue("false") boolean enable,
+  @DefaultValue @Valid Batch batch,
+
+  // 批量写入方式：upsert (JDBC batch 逐行 upsert) / copy (COPY 到暂存表后集中合并，仅 PostgreSQL)
+  @DefaultValue("upsert") Writer writer,
+
+  // 本地预写队列 (开启后优先于 batch)
+  @DefaultValue @Valid Spool spool,
+
+  // 按天分区的预建与过期清理 (需先执行 pg.sql 建立分区表)
+  @DefaultValue @Valid Partition partition,
+
+  // Body 与 Header 的存储方式：inline (主表 JSONB 列) / content-addressed (按摘要去重写入旁表，主表只存摘要)
+  @DefaultValue("inline") Storage storage,
+
+  @DefaultValue @Valid ContentAddressed contentAddressed,
+
+  // 大 Body 压缩后写入 BYTEA 列 (仅 inline 存储)
+  @DefaultValue @Valid Compression compression,
+
+  // 读取侧：按条件检索 http_exchange_log (actuator 端点 exchangelogs)
+  @DefaultValue @Valid Query query
+) {
+
+  public enum Writer {
+    UPSERT,
+    COPY
+  }
+
+  public enum Storage {
+    INLINE,
+    CONTENT_ADDRESSED
+  }
+
+  public enum Codec {
+    // JDK 内置 DEFLATE，无额外依赖
+    DEFLATE
+  }
+
+  public enum RetentionMode {
+    // 卸载后直接删除
+    DROP,
+    // 只卸载，保留为独立表供归档 (content-addressed 存储下不能同时开启 gc)
+    DETACH
+  }
+
+  public record Batch(
+    // 是否按批次写入 (需显式开启，默认逐条 upsert)
+    @DefaultValue("false") boolean enable,
+
+    // 攒够 size 条立即刷写
+    @DefaultValue("200") @Min(1) int size,
+
+    // 批次中最早一条等待超过 max-latency 也会刷写
+    @DefaultValue("200ms") Duration maxLatency,
+
+    // 待刷写队列容量
+    @DefaultValue("8192") @Min(2) int queueCapacity,
+
+    // 队列满时调用方最长等待时间，超时丢弃
+    @DefaultValue("50ms") Duration offerTimeout,
+
+    // 瞬时故障 (连接、超时等) 时整批重试的次数
+    @DefaultValue("2") @Min(0) int maxRetries,
+
+    // 第 n 次重试前等待 n * retry-backoff
+    @DefaultValue("100ms") Duration retryBackoff
+  ) {
+  }
+
+  public record Spool(
+    // 开启后日志先追加到本地映射文件，由后台线程按批重放入库；数据库不可用时不丢日志
+    @DefaultValue("false") boolean enable,
+
+    // 段文件与检查点所在目录
+    @DefaultValue("logs/spool") Path directory,
+
+    // 单个段文件大小
+    @DefaultValue("64MB") DataSize segmentSize,
+
+    // 最多保留的段数，积压超过 segment-size * max-segments 后新日志被丢弃
+    @DefaultValue("32") @Min(2) int maxSegments,
+
+    // 写库失败后的首次重试间隔，连续失败时翻倍
+    @DefaultValue("100ms") Duration retryBackoff,
+
+    // 重试间隔上限
+    @DefaultValue("30s") Duration maxRetryBackoff
+  ) {
+  }
+
+  public record Partition(
+    @DefaultValue("false") boolean enable,
+
+    // 除当天外提前建好的天数
+    @DefaultValue("3") @Min(1) int premakeDays,
+
+    // 保留天数，早于该范围的整天分区被卸载
+    @DefaultValue("30d") Duration retention,
+
+    @DefaultValue("drop") RetentionMode retentionMode,
+
+    // 巡检间隔 (启动时立即执行一次)
+    @DefaultValue("1h") Duration checkInterval,
+
+    // 每条 DDL 等待表锁的上限，超时跳过该条、下一轮重试，避免阻塞写入
+    @DefaultValue("5s") Duration lockTimeout
+  ) {
+  }
+
+  public record ContentAddressed(
+    // 本地记录已入库摘要的条数 (Body 与 Header 集合各一份)，命中时跳过旁表写入
+    @DefaultValue("100000") @Min(1) long cacheSize,
+
+    // 缓存条目写入后的有效期；旁表行被回收后，各实例的缓存最迟在该时长后失效，须小于 gc.grace 的一半
+    @DefaultValue("1h") Duration cacheTtl,
+
+    // 逐请求变化的 Header 留在主表，不参与去重 (忽略大小写)
+    @DefaultValue({"Date", "X-Request-Id", "X-Correlation-Id", "traceparent", "tracestate",
+      "X-B3-TraceId", "X-B3-SpanId", "Content-Length"}) List<String> inlineHeaders,
+
+    // 回收主表不再引用的旁表内容 (主表分区过期删除后)；与 partition.retention-mode=detach 互斥
+    @DefaultValue @Valid ContentGc gc
+  ) {
+  }
+
+  public record ContentGc(
+    @DefaultValue("true") boolean enable,
+
+    // 回收间隔 (启动后延迟一个间隔再执行)
+    @DefaultValue("1h") Duration interval,
+
+    // 最近一次被写入确认 (last_seen) 早于该时长、且主表无引用的内容才回收
+    @DefaultValue("1d") Duration grace,
+
+    // 每条 DELETE 最多回收的行数
+    @DefaultValue("1000") @Min(1) int batchSize
+  ) {
+  }
+
+  public record Compression(
+    @DefaultValue("false") boolean enable,
+
+    @DefaultValue("deflate") Codec codec,
+
+    // 单个 Body 达到该大小才压缩，更小的仍按 JSONB 写入
+    @DefaultValue("8KB") DataSize threshold,
+
+    // 压缩级别 0-9，默认 1 (最快)：日志写入更看重 CPU，压缩率随级别提升有限
+    @DefaultValue("1") @Min(0) @Max(9) int level
+  ) {
+  }
+
+  public record Query(
+    // 未指定 limit 时每页条数
+    @DefaultValue("50") @Min(1) int defaultPageSize,
+
+    // 每页条数上限
+    @DefaultValue("500") @Min(1) int maxPageSize,
+
+    // 流式导出时每次从数据库取回的行数 (PostgreSQL 需在事务内才按游标分批取)
+    @DefaultValue("1000") @Min(1) int fetchSize,
+
+    // 未指定起始时间时往前查询的范围，保证查询只落在少数分区
+    @DefaultValue("1d") Duration defaultLookback,
+
+    // 单条查询超时
+    @DefaultValue("30s") Duration statementTimeout,
+
+    // 同时进行的流式导出数 (每个占用一个数据库连接)，已满时返回 429
+    @DefaultValue("2") @Min(1) int maxConcurrentExports,
+
+    // 单次流式导出最多输出的行数，超出部分不返回
+    @DefaultValue("100000") @Min(1) long maxExportRows,
+
+    // 单次流式导出的最长时长 (含客户端读取)，到期截断输出并释放连接
+    @DefaultValue("5m") Duration maxExportDuration
+  ) {
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.share.logging.export.properties;
+
+import com.example.share.logging.core.pipeline.buffer.OverflowPolicy;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 导出分发配置
+ * 前缀: logbook.dispatcher
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.dispatcher")
+public record DispatcherProperties(
+  // 每个 Exporter 独立队列 + 独立线程；关闭则在管道线程内依次同步调用
+  @DefaultValue("true") boolean isolated,
+
+  // 未单独配置的 Exporter 使用的通道参数
+  @DefaultValue @Valid Lane defaults,
+
+  // 按 Exporter 名称 (database / file ...) 覆盖通道参数，未配置的字段取默认值
+  @DefaultValue Map<String, @Valid Lane> exporters,
+
+  // 停机时等待各通道排空的最长时间
+  @DefaultValue("5s") Duration shutdownTimeout
+) {
+
+  public Lane laneFor(String exporterName) {
+    return exporters.getOrDefault(exporterName, defaults);
+  }
+
+  public record Lane(
+    // 队列容量，向上取整为 2 的幂
+    @DefaultValue("4096") @Min(2) int capacity,
+
+    // 消费线程数
+    @DefaultValue("1") @Min(1) int workers,
+
+    // 队列满时的背压策略：默认采样，积压时不阻塞管道线程；block 只适合确认 Exporter 足够快的场景
+    @DefaultValue("sample") OverflowPolicy overflowPolicy,
+
+    // BLOCK 策略下管道线程最长等待时间
+    @DefaultValue("10ms") Duration blockTimeout,
+
+    // SAMPLE 策略下超过高水位后每 sample-rate 条保留 1 条
+    @DefaultValue("10") @Min(1) int sampleRate,
+
+    // SAMPLE 策略的高水位 (占容量比例)
+    @DefaultValue("0.8") @DecimalMin("0.0") @DecimalMax("1.0") double sampleHighWatermark,
+
+    // 单次 Exporter 调用的超时，超过后放弃该消费线程并另起线程，计入 logbook.dispatcher.timeouts；0 表示不限制
+    @DefaultValue("30s") Duration callTimeout
+  ) {
+  }
+}
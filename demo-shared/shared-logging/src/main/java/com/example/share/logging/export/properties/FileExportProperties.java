@@ -0,0 +1,66 @@
+package com.example.share.logging.export.properties;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 文件导出配置
+ * 前缀: logbook.file
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.file")
+public record FileExportProperties(
+  @DefaultValue("true") boolean enable,
+
+  // 输出方式：slf4j (经日志框架 log.info 输出，默认) / ndjson (直接写 FileChannel 的滚动 NDJSON 文件，按需开启)
+  // 以下 directory 至 max-history 仅对 ndjson 生效
+  @DefaultValue("slf4j") Mode mode,
+
+  // 输出目录
+  @DefaultValue("logs") Path directory,
+
+  // 当前文件名 (不含扩展名)，滚动后追加时间戳
+  @DefaultValue("http-exchange") String fileName,
+
+  // 写缓冲区大小 (堆外)
+  @DefaultValue("256KB") DataSize bufferSize,
+
+  // 组提交：累计 flush-records 条或距上次提交超过 flush-interval 即写入文件
+  @DefaultValue("512") @Min(1) int flushRecords,
+  @DefaultValue("200ms") Duration flushInterval,
+
+  // 每次提交后是否 fsync
+  @DefaultValue("false") boolean fsync,
+
+  // 按大小滚动
+  @DefaultValue("100MB") DataSize maxFileSize,
+
+  // 按时间滚动
+  @DefaultValue("1d") Duration rotationInterval,
+
+  // 滚动后文件的压缩方式
+  @DefaultValue("gzip") Compression compression,
+
+  // 保留的历史文件数
+  @DefaultValue("30") @Min(1) int maxHistory
+) {
+
+  public enum Mode {
+    NDJSON,
+    SLF4J
+  }
+
+  public enum Compression {
+    NONE,
+    GZIP
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.share.logging.export.properties;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * 按接口的延迟汇总配置
+ * 前缀: logbook.rollup
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Validated
+@ConfigurationProperties(prefix = "logbook.rollup")
+public record RollupProperties(
+  @DefaultValue("false") boolean enable,
+
+  // 汇总窗口，按墙上时钟对齐 (1m 即每分钟整点刷写)
+  @DefaultValue("1m") Duration window,
+
+  // 最多跟踪的 (method, uri 模板) 组合，超出后归入 {other}
+  @DefaultValue("1000") @Min(1) int maxSeries,
+
+  // 直方图可记录的最大耗时，超出按最大值记录
+  @DefaultValue("60s") Duration highestLatency,
+
+  // 直方图有效数字位数，2 即相对误差 1%
+  @DefaultValue("2") @Min(1) @Max(5) int significantDigits,
+
+  // 实例标识，多实例的汇总行按它区分；为空时取主机名
+  String instance
+) {
+}
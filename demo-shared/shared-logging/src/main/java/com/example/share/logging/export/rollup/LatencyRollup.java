@@ -0,0 +1,156 @@
+package com.example.share.logging.export.rollup;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按 (method, uri 模板) 汇总耗时直方图与状态码分布，由刷写线程按窗口取走
+ * <p>
+ * 1. 记录路径无锁且不分配对象：开放寻址表按 URI 原文直接计算模板哈希并逐字符比对，
+ * 只有首次出现的组合才生成模板字符串与 Recorder，并以 CAS 放入空槽
+ * 2. 每个组合一个 HdrHistogram Recorder (wait-free 记录) 与一组状态码分类计数；
+ * {@link #drain()} 通过 Recorder 的双缓冲取走上个窗口的直方图，不阻塞记录线程
+ * 3. 组合数达到 max-series 后，新出现的组合全部归入 {other}，防止 URI 中未识别的变量撑爆内存
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class LatencyRollup {
+
+  public static final String OTHER_METHOD = "*";
+  public static final String OTHER_TEMPLATE = "{other}";
+
+  // 状态码分类下标：1xx 与缺失都计入 0
+  private static final int STATUS_OTHER = 0;
+
+  private final int maxSeries;
+  private final long highestTrackable;
+  private final int significantDigits;
+
+  private final AtomicReferenceArray<Series> slots;
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicLong overflowed = new AtomicLong();
+  private final Series overflow;
+
+  public LatencyRollup(int maxSeries, long highestTrackableMillis, int significantDigits) {
+    this.maxSeries = maxSeries;
+    this.highestTrackable = Math.max(2, highestTrackableMillis);
+    this.significantDigits = significantDigits;
+    // 装载因子不超过 0.5，探测链短且总能遇到空槽
+    this.slots = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(2, maxSeries) * 4 - 1));
+    this.overflow = newSeries(OTHER_METHOD, OTHER_TEMPLATE, 0);
+  }
+
+  /**
+   * 记录一次交换，耗时超出直方图范围时按最大值记录
+   */
+  public void record(String method, String uri, Integer status, long durationMillis) {
+    Series series = method != null && uri != null ? lookup(method, uri) : overflow;
+    series.recorder.recordValue(Math.min(Math.max(durationMillis, 0), highestTrackable));
+    series.statuses.incrementAndGet(statusIndex(status));
+  }
+
+  /**
+   * 取走自上次调用以来的汇总，跳过期间没有请求的组合；只能由单个线程调用
+   */
+  public List<RollupRow> drain() {
+    List<RollupRow> rows = new ArrayList<>();
+    for (int i = 0; i < slots.length(); i++) {
+      Series series = slots.get(i);
+      if (series != null) {
+        series.drainTo(rows);
+      }
+    }
+    overflow.drainTo(rows);
+    return rows;
+  }
+
+  public int seriesCount() {
+    return size.get();
+  }
+
+  /**
+   * 因达到 max-series 而归入 {other} 的记录数
+   */
+  public long overflowCount() {
+    return overflowed.get();
+  }
+
+  private Series lookup(String method, String uri) {
+    int hash = 31 * method.hashCode() + UriTemplates.hash(uri);
+    int mask = slots.length() - 1;
+    Series created = null;
+    for (int i = (hash ^ hash >>> 16) & mask; ; i = (i + 1) & mask) {
+      Series series = slots.get(i);
+      if (series == null) {
+        if (created == null) {
+          if (size.incrementAndGet() > maxSeries) {
+            size.decrementAndGet();
+            overflowed.incrementAndGet();
+            return overflow;
+          }
+          created = newSeries(method, UriTemplates.template(uri), hash);
+        }
+        if (slots.compareAndSet(i, null, created)) {
+          return created;
+        }
+        // 并发插入抢先占了这个槽，可能正是同一组合
+        series = slots.get(i);
+      }
+      if (series.hash == hash && series.method.equals(method) && UriTemplates.matches(series.template, uri)) {
+        if (created != null) {
+          size.decrementAndGet();
+        }
+        return series;
+      }
+    }
+  }
+
+  private Series newSeries(String method, String template, int hash) {
+    return new Series(method, template, hash, new Recorder(1, highestTrackable, significantDigits));
+  }
+
+  private static int statusIndex(Integer status) {
+    return status != null && status >= 200 && status < 600 ? status / 100 : STATUS_OTHER;
+  }
+
+  private static final class Series {
+
+    private final String method;
+    private final String template;
+    private final int hash;
+    private final Recorder recorder;
+    private final AtomicLongArray statuses = new AtomicLongArray(6);
+
+    // 上次取走的直方图，下次交还给 Recorder 复用；只有刷写线程访问
+    private Histogram recycled;
+
+    private Series(String method, String template, int hash, Recorder recorder) {
+      this.method = method;
+      this.template = template;
+      this.hash = hash;
+      this.recorder = recorder;
+    }
+
+    private void drainTo(List<RollupRow> rows) {
+      Histogram histogram = recorder.getIntervalHistogram(recycled);
+      recycled = histogram;
+      long[] counts = new long[statuses.length()];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = statuses.getAndSet(i, 0);
+      }
+      if (histogram.getTotalCount() == 0) {
+        return;
+      }
+      rows.add(RollupRow.of(method, template, counts[2], counts[3], counts[4], counts[5],
+        counts[STATUS_OTHER] + counts[1], histogram));
+    }
+  }
+}
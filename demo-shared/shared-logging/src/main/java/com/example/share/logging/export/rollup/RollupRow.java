@@ -0,0 +1,76 @@
+package com.example.share.logging.export.rollup;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * 一个窗口内某个 (method, uri 模板) 的汇总结果，耗时单位毫秒
+ *
+ * @param histogram HdrHistogram 压缩编码，可跨实例、跨窗口合并后重新计算分位数
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public record RollupRow(
+  String method,
+  String uriTemplate,
+  long count,
+  long status2xx,
+  long status3xx,
+  long status4xx,
+  long status5xx,
+  long statusOther,
+  long min,
+  long p50,
+  long p90,
+  long p99,
+  long max,
+  double mean,
+  byte[] histogram
+) {
+
+  /**
+   * 由直方图与状态码分类计数生成一行，次数、极值、分位数与均值都取自直方图
+   */
+  static RollupRow of(String method, String uriTemplate, long status2xx, long status3xx, long status4xx,
+                      long status5xx, long statusOther, Histogram histogram) {
+    ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+    int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+    return new RollupRow(method, uriTemplate, histogram.getTotalCount(),
+      status2xx, status3xx, status4xx, status5xx, statusOther,
+      histogram.getMinValue(),
+      histogram.getValueAtPercentile(50),
+      histogram.getValueAtPercentile(90),
+      histogram.getValueAtPercentile(99),
+      histogram.getMaxValue(),
+      histogram.getMean(),
+      Arrays.copyOf(buffer.array(), length));
+  }
+
+  /**
+   * 合并同一组合的两行 (如同一窗口被写入两次)：状态码计数相加，直方图合并后重新计算分位数
+   */
+  public RollupRow merge(RollupRow other) {
+    Histogram merged = decode(histogram);
+    // 两侧的可记录上限可能不同 (配置变更前后)，按需扩容
+    merged.setAutoResize(true);
+    merged.add(decode(other.histogram));
+    return of(method, uriTemplate,
+      status2xx + other.status2xx,
+      status3xx + other.status3xx,
+      status4xx + other.status4xx,
+      status5xx + other.status5xx,
+      statusOther + other.statusOther,
+      merged);
+  }
+
+  private static Histogram decode(byte[] compressed) {
+    try {
+      return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(compressed), 0);
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupted rollup histogram", e);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package com.example.share.logging.export.rollup;
+
+/**
+ * URI 归一化为路径模板：去掉 scheme://host[:port]、查询串与片段，纯数字段替换为 {id}，UUID 段替换为 {uuid}
+ * <p>
+ * hash / matches 直接在原始 URI 上扫描，与 {@link #template(String)} 的结果逐字符等价，
+ * 热路径上按 URI 查找已有模板时不创建任何对象
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class UriTemplates {
+
+  static final String ID = "{id}";
+  static final String UUID = "{uuid}";
+
+  private static final int LITERAL = 0;
+  private static final int NUMERIC = 1;
+  private static final int UUID_SEGMENT = 2;
+
+  private UriTemplates() {
+  }
+
+  /**
+   * 生成模板字符串，只在首次见到某个模板时调用
+   */
+  public static String template(String uri) {
+    int start = pathStart(uri);
+    int end = pathEnd(uri, start);
+    if (start == end) {
+      return "/";
+    }
+    StringBuilder template = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      if (uri.charAt(i) == '/') {
+        template.append('/');
+        i++;
+        continue;
+      }
+      int segmentEnd = segmentEnd(uri, i, end);
+      switch (classify(uri, i, segmentEnd)) {
+        case NUMERIC -> template.append(ID);
+        case UUID_SEGMENT -> template.append(UUID);
+        default -> template.append(uri, i, segmentEnd);
+      }
+      i = segmentEnd;
+    }
+    return template.toString();
+  }
+
+  /**
+   * 与 template(uri).hashCode() 相同，但不生成字符串
+   */
+  public static int hash(String uri) {
+    int start = pathStart(uri);
+    int end = pathEnd(uri, start);
+    if (start == end) {
+      return '/';
+    }
+    int h = 0;
+    int i = start;
+    while (i < end) {
+      if (uri.charAt(i) == '/') {
+        h = 31 * h + '/';
+        i++;
+        continue;
+      }
+      int segmentEnd = segmentEnd(uri, i, end);
+      switch (classify(uri, i, segmentEnd)) {
+        case NUMERIC -> h = hash(h, ID);
+        case UUID_SEGMENT -> h = hash(h, UUID);
+        default -> {
+          for (int j = i; j < segmentEnd; j++) {
+            h = 31 * h + uri.charAt(j);
+          }
+        }
+      }
+      i = segmentEnd;
+    }
+    return h;
+  }
+
+  /**
+   * uri 归一化后是否等于 template，不生成字符串
+   */
+  public static boolean matches(String template, String uri) {
+    int start = pathStart(uri);
+    int end = pathEnd(uri, start);
+    if (start == end) {
+      return template.equals("/");
+    }
+    int t = 0;
+    int i = start;
+    while (i < end) {
+      if (uri.charAt(i) == '/') {
+        if (t >= template.length() || template.charAt(t++) != '/') {
+          return false;
+        }
+        i++;
+        continue;
+      }
+      int segmentEnd = segmentEnd(uri, i, end);
+      switch (classify(uri, i, segmentEnd)) {
+        case NUMERIC -> {
+          if (!template.startsWith(ID, t)) {
+            return false;
+          }
+          t += ID.length();
+        }
+        case UUID_SEGMENT -> {
+          if (!template.startsWith(UUID, t)) {
+            return false;
+          }
+          t += UUID.length();
+        }
+        default -> {
+          int length = segmentEnd - i;
+          if (!template.regionMatches(t, uri, i, length)) {
+            return false;
+          }
+          t += length;
+        }
+      }
+      i = segmentEnd;
+    }
+    return t == template.length();
+  }
+
+  // Logbook 的 requestUri 是绝对地址，也兼容只有路径的写法
+  private static int pathStart(String uri) {
+    int scheme = uri.indexOf("://");
+    if (scheme < 0) {
+      return 0;
+    }
+    int slash = uri.indexOf('/', scheme + 3);
+    return slash < 0 ? uri.length() : slash;
+  }
+
+  private static int pathEnd(String uri, int start) {
+    for (int i = start; i < uri.length(); i++) {
+      char c = uri.charAt(i);
+      if (c == '?' || c == '#') {
+        return i;
+      }
+    }
+    return uri.length();
+  }
+
+  private static int segmentEnd(String uri, int from, int end) {
+    int i = from;
+    while (i < end && uri.charAt(i) != '/') {
+      i++;
+    }
+    return i;
+  }
+
+  private static int classify(String uri, int from, int to) {
+    boolean numeric = true;
+    for (int i = from; i < to; i++) {
+      char c = uri.charAt(i);
+      if (c < '0' || c > '9') {
+        numeric = false;
+        break;
+      }
+    }
+    if (numeric) {
+      return NUMERIC;
+    }
+    return to - from == 36 && isUuid(uri, from) ? UUID_SEGMENT : LITERAL;
+  }
+
+  // 8-4-4-4-12 个十六进制字符
+  private static boolean isUuid(String uri, int from) {
+    for (int i = 0; i < 36; i++) {
+      char c = uri.charAt(from + i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (Character.digit(c, 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(int h, String token) {
+    for (int i = 0; i < token.length(); i++) {
+      h = 31 * h + token.charAt(i);
+    }
+    return h;
+  }
+}
@@ -0,0 +1,238 @@
+package com.example.share.logging.export.spool;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.model.LogPhase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LogEvent 二进制编解码
+ * <p>
+ * 布局: [version:1][phase:1][字段...]，字段顺序固定；
+ * 字符串为 [len:4][utf8]，len = -1 表示 null；时间与包装类型前置 1 字节 null 标记；
+ * Header 为 [count:4]([name][count:4][value...])...；Body 为 [charset][len:4][原始字节]，不经过 String；
+ * 末尾为请求/响应体原始长度
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class LogEventCodec {
+
+  static final byte VERSION = 1;
+
+  private static final LogPhase[] PHASES = LogPhase.values();
+
+  private LogEventCodec() {
+  }
+
+  /**
+   * 编码到 buffer 当前位置，空间不足时抛出 {@link java.nio.BufferOverflowException}，调用方负责回滚 position
+   */
+  public static void encode(LogEvent event, ByteBuffer out) {
+    HttpExchangeLog log = event.log();
+    out.put(VERSION);
+    out.put((byte) event.phase().ordinal());
+
+    putString(out, log.getCorrelationId());
+    putTime(out, log.getCreatedTime());
+    putTime(out, log.getRequestTime());
+    putTime(out, log.getResponseTime());
+    putLong(out, log.getDurationMillis());
+
+    putString(out, log.getMethod());
+    putString(out, log.getUri());
+    putString(out, log.getRemote());
+    putHeaders(out, log.getRequestHeaders());
+    putBody(out, log.getRequestBody());
+    putString(out, log.getContentType());
+
+    putInt(out, log.getStatusCode());
+    putHeaders(out, log.getResponseHeaders());
+    putBody(out, log.getResponseBody());
+
+    putString(out, log.getClientInfo());
+    putString(out, log.getIp());
+    putString(out, log.getUserAgent());
+
+    out.put((byte) ((log.isTruncated() ? 1 : 0) | (log.isComplete() ? 2 : 0)));
+
+    putInt(out, log.getRequestContentLength());
+    putInt(out, log.getResponseContentLength());
+  }
+
+  public static LogEvent decode(ByteBuffer in) {
+    byte version = in.get();
+    if (version != VERSION) {
+      throw new IllegalStateException("Unsupported spool record version: " + version);
+    }
+    LogPhase phase = PHASES[in.get()];
+
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setCorrelationId(getString(in))
+      .setCreatedTime(getTime(in))
+      .setRequestTime(getTime(in))
+      .setResponseTime(getTime(in))
+      .setDurationMillis(getLong(in))
+      .setMethod(getString(in))
+      .setUri(getString(in))
+      .setRemote(getString(in))
+      .setRequestHeaders(getHeaders(in))
+      .setRequestBody(getBody(in))
+      .setContentType(getString(in))
+      .setStatusCode(getInt(in))
+      .setResponseHeaders(getHeaders(in))
+      .setResponseBody(getBody(in))
+      .setClientInfo(getString(in))
+      .setIp(getString(in))
+      .setUserAgent(getString(in));
+
+    byte flags = in.get();
+    log.setTruncated((flags & 1) != 0).setComplete((flags & 2) != 0)
+      .setRequestContentLength(getInt(in))
+      .setResponseContentLength(getInt(in));
+    return new LogEvent(phase, log);
+  }
+
+  // ================ 写 ================
+
+  private static void putString(ByteBuffer out, String value) {
+    if (value == null) {
+      out.putInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.putInt(bytes.length);
+    out.put(bytes);
+  }
+
+  // charset 为 null 表示 Body 为 null
+  private static void putBody(ByteBuffer out, LogBody body) {
+    if (body == null) {
+      out.putInt(-1);
+      return;
+    }
+    putString(out, body.charset().name());
+    byte[] bytes = body.bytes();
+    out.putInt(bytes.length);
+    out.put(bytes);
+  }
+
+  private static void putHeaders(ByteBuffer out, Map<String, List<String>> headers) {
+    if (headers == null) {
+      out.putInt(-1);
+      return;
+    }
+    out.putInt(headers.size());
+    for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+      putString(out, entry.getKey());
+      out.putInt(entry.getValue().size());
+      for (String value : entry.getValue()) {
+        putString(out, value);
+      }
+    }
+  }
+
+  private static void putTime(ByteBuffer out, OffsetDateTime value) {
+    if (value == null) {
+      out.put((byte) 0);
+      return;
+    }
+    out.put((byte) 1);
+    out.putLong(value.toEpochSecond());
+    out.putInt(value.getNano());
+    out.putInt(value.getOffset().getTotalSeconds());
+  }
+
+  private static void putLong(ByteBuffer out, Long value) {
+    if (value == null) {
+      out.put((byte) 0);
+      return;
+    }
+    out.put((byte) 1);
+    out.putLong(value);
+  }
+
+  private static void putInt(ByteBuffer out, Integer value) {
+    if (value == null) {
+      out.put((byte) 0);
+      return;
+    }
+    out.put((byte) 1);
+    out.putInt(value);
+  }
+
+  // ================ 读 ================
+
+  private static String getString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    if (in.hasArray()) {
+      String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+      in.position(in.position() + length);
+      return value;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static LogBody getBody(ByteBuffer in) {
+    String charset = getString(in);
+    if (charset == null) {
+      return null;
+    }
+    // 复制出缓冲区：spool 的映射内存会被后续记录覆盖
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return LogBody.of(bytes, Charset.forName(charset));
+  }
+
+  private static Map<String, List<String>> getHeaders(ByteBuffer in) {
+    int size = in.getInt();
+    if (size < 0) {
+      return null;
+    }
+    Map<String, List<String>> headers = new LinkedHashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      String name = getString(in);
+      String[] values = new String[in.getInt()];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = getString(in);
+      }
+      headers.put(name, Collections.unmodifiableList(Arrays.asList(values)));
+    }
+    return Collections.unmodifiableMap(headers);
+  }
+
+  private static OffsetDateTime getTime(ByteBuffer in) {
+    if (in.get() == 0) {
+      return null;
+    }
+    long epochSecond = in.getLong();
+    int nano = in.getInt();
+    ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.getInt());
+    return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+  }
+
+  private static Long getLong(ByteBuffer in) {
+    return in.get() == 0 ? null : in.getLong();
+  }
+
+  private static Integer getInt(ByteBuffer in) {
+    return in.get() == 0 ? null : in.getInt();
+  }
+}
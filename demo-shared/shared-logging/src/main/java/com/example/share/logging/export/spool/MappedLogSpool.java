@@ -0,0 +1,304 @@
+package com.example.share.logging.export.spool;
+
+import com.example.share.logging.core.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 基于内存映射文件的日志预写队列 (单写锁 + 单读线程)
+ * <p>
+ * 1. 目录下按序号存放定长段文件 {@code 00000000000000000001.seg}，写端经 MappedByteBuffer 顺序追加
+ * 2. 记录格式 [length:4][crc32c:4][payload]，长度最后写入：长度为 0 即表示段内数据结束，半条记录不会被读到
+ * 3. 读端 {@link #peek} 只读不前进，写库成功后 {@link #commit} 推进并持久化检查点，读完的段直接删除
+ * <p>
+ * 进程崩溃时映射页仍在页缓存中，已追加的记录不会丢失；段轮转时 force 一次，断电最多丢失当前段
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MappedLogSpool implements Closeable {
+
+  private static final int HEADER_BYTES = 8;
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final FileChannel checkpointChannel;
+  private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+
+  // 写端：append 持锁访问；段号与位置用 volatile 发布给读端
+  private final Object writeLock = new Object();
+  private MappedByteBuffer writeBuffer;
+  private volatile long writeSegment;
+  private volatile int writePosition;
+  private boolean closed;
+
+  // 读端：仅排空线程访问；readSegment 另供写端判断段数上限
+  private volatile long readSegment;
+  private int readPosition;
+  private MappedByteBuffer readBuffer;
+  private int peekPosition;
+
+  public MappedLogSpool(Path directory, int segmentSize, int maxSegments) throws IOException {
+    if (segmentSize <= HEADER_BYTES) {
+      throw new IllegalArgumentException("segmentSize too small: " + segmentSize);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+      StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    recover();
+  }
+
+  // ================ 写 ================
+
+  /**
+   * 追加一条记录，段数已达上限或单条记录超过段大小时返回 false
+   */
+  public boolean append(LogEvent event) {
+    synchronized (writeLock) {
+      if (closed) {
+        return false;
+      }
+      if (tryWrite(event)) {
+        return true;
+      }
+      // 当前段已满：读端积压过多时拒绝写入，否则轮转到新段
+      if (writeSegment - readSegment + 1 >= maxSegments) {
+        return false;
+      }
+      try {
+        rotate();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to rotate spool segment", e);
+      }
+      if (tryWrite(event)) {
+        return true;
+      }
+      log.warn("Log [{}] exceeds spool segment size {}, skipped", event.log().getCorrelationId(), segmentSize);
+      return false;
+    }
+  }
+
+  private boolean tryWrite(LogEvent event) {
+    int start = writePosition;
+    if (segmentSize - start <= HEADER_BYTES) {
+      return false;
+    }
+    writeBuffer.limit(segmentSize).position(start + HEADER_BYTES);
+    try {
+      LogEventCodec.encode(event, writeBuffer);
+    } catch (BufferOverflowException e) {
+      // 长度位仍为 0，写了一半的字节对读端不可见
+      return false;
+    }
+    int length = writeBuffer.position() - start - HEADER_BYTES;
+    CRC32C crc = new CRC32C();
+    crc.update(writeBuffer.slice(start + HEADER_BYTES, length));
+    writeBuffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+    writeBuffer.putInt(start, length);
+    writePosition = start + HEADER_BYTES + length;
+    return true;
+  }
+
+  private void rotate() throws IOException {
+    writeBuffer.force();
+    MappedByteBuffer next = map(writeSegment + 1, FileChannel.MapMode.READ_WRITE);
+    writeBuffer = next;
+    // 先发布段号再重置位置：读端看到新段号即可把旧段当作已封存
+    writeSegment = writeSegment + 1;
+    writePosition = 0;
+  }
+
+  // ================ 读 ================
+
+  /**
+   * 从已提交位置起读取最多 max 条记录 (不跨段)，不推进检查点
+   */
+  public List<LogEvent> peek(int max) {
+    List<LogEvent> events = new ArrayList<>();
+    try {
+      skipExhaustedSegments();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to advance spool segment", e);
+    }
+
+    boolean sealed = readSegment < writeSegment;
+    int limit = sealed ? segmentSize : writePosition;
+    int position = readPosition;
+    while (events.size() < max && position + HEADER_BYTES <= limit) {
+      int length = readBuffer.getInt(position);
+      if (length <= 0 || position + HEADER_BYTES + length > segmentSize) {
+        break;
+      }
+      byte[] payload = new byte[length];
+      readBuffer.get(position + HEADER_BYTES, payload);
+      CRC32C crc = new CRC32C();
+      crc.update(payload);
+      if ((int) crc.getValue() != readBuffer.getInt(position + Integer.BYTES)) {
+        // 断电导致的残缺记录：视为段尾，剩余部分放弃
+        log.warn("Spool segment {} corrupted at offset {}, skipping rest of segment", readSegment, position);
+        position = segmentSize;
+        if (events.isEmpty()) {
+          readPosition = position;
+          writeCheckpoint();
+        }
+        break;
+      }
+      events.add(LogEventCodec.decode(ByteBuffer.wrap(payload)));
+      position += HEADER_BYTES + length;
+    }
+    peekPosition = position;
+    return events;
+  }
+
+  /**
+   * 确认上一次 {@link #peek} 的记录已写入下游，推进并持久化检查点
+   */
+  public void commit() {
+    readPosition = peekPosition;
+    writeCheckpoint();
+  }
+
+  private void skipExhaustedSegments() throws IOException {
+    while (readSegment < writeSegment && isExhausted(readPosition)) {
+      long finished = readSegment;
+      readSegment = finished + 1;
+      readPosition = 0;
+      readBuffer = map(readSegment, FileChannel.MapMode.READ_ONLY);
+      // 先落检查点再删文件，崩溃后最多重放一次，不会跳过数据
+      writeCheckpoint();
+      Files.deleteIfExists(segmentPath(finished));
+    }
+    if (readBuffer == null) {
+      readBuffer = map(readSegment, FileChannel.MapMode.READ_ONLY);
+    }
+  }
+
+  private boolean isExhausted(int position) {
+    return position + HEADER_BYTES > segmentSize || readBuffer.getInt(position) <= 0;
+  }
+
+  // ================ 检查点与恢复 ================
+
+  private void recover() throws IOException {
+    List<Long> segments = listSegments();
+    long checkpointSegment = -1;
+    int checkpointPosition = 0;
+    if (checkpointChannel.size() >= checkpointBuffer.capacity()) {
+      checkpointBuffer.clear();
+      checkpointChannel.read(checkpointBuffer, 0);
+      checkpointBuffer.flip();
+      checkpointSegment = checkpointBuffer.getLong();
+      checkpointPosition = checkpointBuffer.getInt();
+    }
+
+    // 检查点之前的段已经排空，直接回收
+    for (Long segment : segments) {
+      if (segment < checkpointSegment) {
+        Files.deleteIfExists(segmentPath(segment));
+      }
+    }
+    final long from = checkpointSegment;
+    List<Long> remaining = segments.stream().filter(s -> s >= from).toList();
+
+    if (remaining.isEmpty()) {
+      readSegment = Math.max(checkpointSegment, 0) + 1;
+      readPosition = 0;
+    } else {
+      readSegment = remaining.getFirst();
+      readPosition = readSegment == checkpointSegment ? checkpointPosition : 0;
+    }
+
+    // 重启后总是新开一段写入，旧段全部视为已封存
+    long nextSegment = remaining.isEmpty() ? readSegment : remaining.getLast() + 1;
+    writeBuffer = map(nextSegment, FileChannel.MapMode.READ_WRITE);
+    writeSegment = nextSegment;
+    writePosition = 0;
+    readBuffer = map(readSegment, FileChannel.MapMode.READ_ONLY);
+    writeCheckpoint();
+
+    if (!remaining.isEmpty()) {
+      log.info("Recovered log spool with {} pending segment(s) from {}", remaining.size(), directory);
+    }
+  }
+
+  private void writeCheckpoint() {
+    checkpointBuffer.clear();
+    checkpointBuffer.putLong(readSegment).putInt(readPosition).flip();
+    try {
+      checkpointChannel.write(checkpointBuffer, 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write spool checkpoint", e);
+    }
+  }
+
+  private List<Long> listSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(path -> path.getFileName().toString())
+        .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+        .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+        .sorted()
+        .toList();
+    }
+  }
+
+  private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+    // 映射建立后即可关闭通道，映射区随 buffer 被回收而释放
+    try (FileChannel channel = FileChannel.open(segmentPath(segment),
+      StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(mode, 0, segmentSize);
+    }
+  }
+
+  private Path segmentPath(long segment) {
+    return directory.resolve("%020d%s".formatted(segment, SEGMENT_SUFFIX));
+  }
+
+  // ================ 状态 ================
+
+  /**
+   * 尚未排空的段数 (含正在写入的段)
+   */
+  public long segmentCount() {
+    return writeSegment - readSegment + 1;
+  }
+
+  /**
+   * 是否还有未提交的数据
+   */
+  public boolean hasBacklog() {
+    return readSegment < writeSegment || readPosition < writePosition;
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      writeBuffer.force();
+    }
+    checkpointChannel.force(true);
+    checkpointChannel.close();
+  }
+}
@@ -0,0 +1,117 @@
+package com.example.share.logging.integration.logbook;
+
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.MDC;
+import org.springframework.util.ClassUtils;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 业务标识 (bizId / batchId / jnlNo) 采集
+ * <p>
+ * 在 Sink 回调的请求线程上执行，按以下顺序取第一个非空值；不序列化、不解析 Header JSON。结果写入独立列，查询不必再扫 Header
+ * <p>
+ * 1. 请求头：按名称从 Logbook 的 Header Map 直接取值 (其本身大小写不敏感)
+ * 2. 请求属性中的业务上下文快照：shared-core 的切面在方法结束、清理 MDC 前写入，含从方法参数或 @BizTrace 解析出的标识。
+ * Servlet 应用中 Logbook 的请求即 HttpServletRequest 包装，响应回调发生在整个过滤链结束后，此时 MDC 已被切面清空，只能从这里取
+ * 3. 当前线程 MDC：由外层过滤器写入且尚未清理的值
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public class BizIdCapture {
+
+  private static final int MAX_LENGTH = 64;
+
+  private static final boolean SERVLET_PRESENT = ClassUtils.isPresent(
+    "jakarta.servlet.http.HttpServletRequest", BizIdCapture.class.getClassLoader());
+
+  private final LogCaptureProperties.BizIds properties;
+
+  public BizIdCapture(LogCaptureProperties.BizIds properties) {
+    this.properties = properties;
+  }
+
+  public Ids capture(Map<String, List<String>> headers) {
+    return capture(headers, Map.of());
+  }
+
+  /**
+   * request 为 Servlet 请求时额外读取其中的业务上下文快照
+   */
+  public Ids capture(HttpRequest request, Map<String, List<String>> headers) {
+    // 关闭时连请求属性也不读
+    if (!properties.enable()) {
+      return Ids.NONE;
+    }
+    return capture(headers, SERVLET_PRESENT ? ServletSnapshot.of(request, properties.snapshotAttribute()) : Map.of());
+  }
+
+  private Ids capture(Map<String, List<String>> headers, Map<?, ?> snapshot) {
+    if (!properties.enable()) {
+      return Ids.NONE;
+    }
+    String bizId = valueOf(headers, properties.bizIdHeader(), snapshot, properties.bizIdMdcKey());
+    String batchId = valueOf(headers, properties.batchIdHeader(), snapshot, properties.batchIdMdcKey());
+    String jnlNo = valueOf(headers, properties.jnlNoHeader(), snapshot, properties.jnlNoMdcKey());
+    if (bizId == null && batchId == null && jnlNo == null) {
+      return Ids.NONE;
+    }
+    return new Ids(bizId, batchId, jnlNo);
+  }
+
+  private static String valueOf(Map<String, List<String>> headers, String header, Map<?, ?> snapshot,
+                                String mdcKey) {
+    String value = first(headers, header);
+    if (value == null && snapshot.get(mdcKey) instanceof String captured) {
+      value = normalize(captured);
+    }
+    return value != null ? value : normalize(MDC.get(mdcKey));
+  }
+
+  private static String first(Map<String, List<String>> headers, String name) {
+    List<String> values = headers.get(name);
+    if (values == null && !(headers instanceof HttpHeaders)) {
+      // 普通 Map 区分大小写，退化为遍历
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        if (entry.getKey().equalsIgnoreCase(name)) {
+          values = entry.getValue();
+          break;
+        }
+      }
+    }
+    return values == null || values.isEmpty() ? null : normalize(values.getFirst());
+  }
+
+  // 空串视为缺失；超长截断到列宽 VARCHAR(64)
+  private static String normalize(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    String trimmed = value.trim();
+    return trimmed.length() > MAX_LENGTH ? trimmed.substring(0, MAX_LENGTH) : trimmed;
+  }
+
+  /**
+   * 隔离 Servlet API 的引用：未引入 Servlet 时不加载
+   */
+  private static final class ServletSnapshot {
+
+    static Map<?, ?> of(HttpRequest request, String attribute) {
+      if (request instanceof HttpServletRequest servletRequest
+        && servletRequest.getAttribute(attribute) instanceof Map<?, ?> snapshot) {
+        return snapshot;
+      }
+      return Map.of();
+    }
+  }
+
+  public record Ids(String bizId, String batchId, String jnlNo) {
+
+    public static final Ids NONE = new Ids(null, null, null);
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.share.logging.integration.logbook;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 有界 Body 采集
+ * <p>
+ * 直接引用 Logbook 已缓冲的字节，不在采集阶段解码；超过上限时只保留上限以内的前缀，
+ * 截断点落在字符边界上 (不完整的多字节序列整体丢弃)
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public class BodyCapture {
+
+  private static final Captured EMPTY = new Captured(LogBody.of(new byte[0], StandardCharsets.UTF_8), 0, false);
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final Limits defaults;
+  private final List<LogCaptureProperties.UriLimit> uriLimits;
+
+  public BodyCapture(LogCaptureProperties.Body properties) {
+    this.defaults = new Limits(toBytes(properties.requestMaxSize()), toBytes(properties.responseMaxSize()));
+    this.uriLimits = List.copyOf(properties.uris());
+  }
+
+  /**
+   * 按请求路径解析两个方向的上限
+   */
+  public Limits limitsFor(String path) {
+    if (path != null) {
+      for (LogCaptureProperties.UriLimit limit : uriLimits) {
+        if (pathMatcher.match(limit.pattern(), path)) {
+          return new Limits(
+            limit.requestMaxSize() != null ? toBytes(limit.requestMaxSize()) : defaults.request(),
+            limit.responseMaxSize() != null ? toBytes(limit.responseMaxSize()) : defaults.response());
+        }
+      }
+    }
+    return defaults;
+  }
+
+  /**
+   * 直接引用 Body 字节，超过 maxBytes 时只复制字符边界以内的前缀，不做解码
+   */
+  public Captured capture(byte[] body, Charset charset, int maxBytes) {
+    if (body == null || body.length == 0) {
+      return EMPTY;
+    }
+    if (body.length <= maxBytes) {
+      return new Captured(LogBody.of(body, charset), body.length, false);
+    }
+    int length = prefixLength(body, maxBytes, charset);
+    return new Captured(LogBody.of(Arrays.copyOf(body, length), charset), body.length, true);
+  }
+
+  /**
+   * 不超过 maxBytes 的最长完整字符前缀的字节数
+   * <p>
+   * UTF-8 只需向前跳过续字节 (10xxxxxx)；其他字符集借助解码器：
+   * endOfInput=false 时解码器把末尾不完整的字符留在输入中，消费位置即字符边界
+   */
+  static int prefixLength(byte[] body, int maxBytes, Charset charset) {
+    if (StandardCharsets.UTF_8.equals(charset)) {
+      int end = maxBytes;
+      while (end > 0 && maxBytes - end < 3 && (body[end] & 0xC0) == 0x80) {
+        end--;
+      }
+      return (body[end] & 0xC0) == 0x80 ? maxBytes : end;
+    }
+    CharsetDecoder decoder = charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    ByteBuffer in = ByteBuffer.wrap(body, 0, maxBytes);
+    decoder.decode(in, CharBuffer.allocate((int) Math.ceil(maxBytes * (double) decoder.maxCharsPerByte())), false);
+    return in.position();
+  }
+
+  private static int toBytes(DataSize size) {
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(0, size.toBytes()));
+  }
+
+  public record Limits(int request, int response) {
+  }
+
+  /**
+   * @param body           采集到的 Body (可能已截断)
+   * @param originalLength 原始 Body 字节数
+   * @param truncated      是否超过上限被截断
+   */
+  public record Captured(LogBody body, int originalLength, boolean truncated) {
+  }
+}
@@ -1,14 +1,16 @@
 package com.example.share.logging.integration.logbook;
 
+import com.example.share.logging.core.api.LogCapture;
 import com.example.share.logging.core.model.HttpExchangeLog;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.example.share.logging.core.properties.LogCaptureProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.zalando.logbook.*;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,108 +18,158 @@ import java.util.Map;
  * 设计模式：Converter / Mapper / Factory
  */
 @Slf4j
-@RequiredArgsConstructor
 public class LogbookMapper {
 
-  private final ObjectMapper objectMapper;
+  private final BodyCapture bodyCapture;
+  private final BizIdCapture bizIdCapture;
+
+  public LogbookMapper(BodyCapture bodyCapture) {
+    this(bodyCapture, new BizIdCapture(LogCaptureProperties.BizIds.defaults()));
+  }
+
+  public LogbookMapper(BodyCapture bodyCapture, BizIdCapture bizIdCapture) {
+    this.bodyCapture = bodyCapture;
+    this.bizIdCapture = bizIdCapture;
+  }
 
   /**
-   * 工厂方法：构建请求阶段的日志实体
+   * 工厂方法：构建请求阶段的日志实体 (在调用线程上立即物化)
    */
   public HttpExchangeLog toRequestLog(Precorrelation precorrelation, HttpRequest request) {
+    RequestSnapshot snapshot = RequestSnapshot.of(request);
+    BodyCapture.Limits limits = bodyCapture.limitsFor(snapshot.path());
+    return toRequestLog(precorrelation.getId(), precorrelation.getStart(), snapshot,
+      bodyCapture.capture(snapshot.body(), snapshot.charset(), limits.request()),
+      bizIdCapture.capture(request, snapshot.headers()));
+  }
+
+  /**
+   * 工厂方法：构建响应阶段的日志实体 (在调用线程上立即物化)
+   */
+  public HttpExchangeLog toResponseLog(Correlation correlation, HttpRequest request, HttpResponse response) {
+    RequestSnapshot snapshot = RequestSnapshot.of(request);
+    ResponseSnapshot responseSnapshot = ResponseSnapshot.of(response);
+    BodyCapture.Limits limits = bodyCapture.limitsFor(snapshot.path());
+    return toResponseLog(correlation.getId(), correlation.getStart(), correlation.getDuration(), Instant.now(),
+      snapshot, bodyCapture.capture(snapshot.body(), snapshot.charset(), limits.request()),
+      responseSnapshot, bodyCapture.capture(responseSnapshot.body(), responseSnapshot.charset(), limits.response()),
+      bizIdCapture.capture(request, snapshot.headers()));
+  }
+
+  /**
+   * 延迟物化：调用线程只做快照，解码、映射在首次 materialize 的线程上执行
+   * <p>
+   * 采集上限在快照时就应用：排队中的快照只持有截断后的前缀，不持有完整 Body
+   */
+  public LogCapture captureRequest(Precorrelation precorrelation, HttpRequest request) {
+    String correlationId = precorrelation.getId();
+    // 与响应阶段共用 Logbook 的开始时间：created_time 是分区键，两阶段必须一致才能命中同一行
+    Instant requestTime = precorrelation.getStart();
+    RequestSnapshot snapshot = RequestSnapshot.of(request);
+    BodyCapture.Captured body = bodyCapture.capture(snapshot.body(), snapshot.charset(),
+      bodyCapture.limitsFor(snapshot.path()).request());
+    RequestSnapshot head = snapshot.withoutBody();
+    // 请求属性与 MDC 只在请求线程上有效，业务标识必须随快照一起取
+    BizIdCapture.Ids ids = bizIdCapture.capture(request, snapshot.headers());
+    return LogCapture.deferred(correlationId, () -> toRequestLog(correlationId, requestTime, head, body, ids));
+  }
+
+  public LogCapture captureResponse(Correlation correlation, HttpRequest request, HttpResponse response) {
+    String correlationId = correlation.getId();
+    Instant start = correlation.getStart();
+    Duration duration = correlation.getDuration();
+    Instant responseTime = Instant.now();
+    RequestSnapshot requestSnapshot = RequestSnapshot.of(request);
+    ResponseSnapshot responseSnapshot = ResponseSnapshot.of(response);
+    BodyCapture.Limits limits = bodyCapture.limitsFor(requestSnapshot.path());
+    BodyCapture.Captured requestBody = bodyCapture.capture(requestSnapshot.body(), requestSnapshot.charset(),
+      limits.request());
+    BodyCapture.Captured responseBody = bodyCapture.capture(responseSnapshot.body(), responseSnapshot.charset(),
+      limits.response());
+    RequestSnapshot requestHead = requestSnapshot.withoutBody();
+    ResponseSnapshot responseHead = responseSnapshot.withoutBody();
+    BizIdCapture.Ids ids = bizIdCapture.capture(request, requestSnapshot.headers());
+    return LogCapture.deferred(correlationId, () -> toResponseLog(correlationId, start, duration, responseTime,
+      requestHead, requestBody, responseHead, responseBody, ids));
+  }
+
+  // ================ 快照 -> 日志实体 ================
+
+  HttpExchangeLog toRequestLog(String correlationId, Instant requestTime, RequestSnapshot request,
+                               BodyCapture.Captured requestBody, BizIdCapture.Ids ids) {
     HttpExchangeLog logEntity = new HttpExchangeLog();
 
     // ID 与 时间
-    logEntity.setCorrelationId(precorrelation.getId());
+    logEntity.setCorrelationId(correlationId);
 
-    OffsetDateTime now = OffsetDateTime.now(ZoneId.systemDefault());
-    logEntity.setCreatedTime(now);
-    logEntity.setRequestTime(now);
+    OffsetDateTime time = toOffsetDateTime(requestTime);
+    logEntity.setCreatedTime(time);
+    logEntity.setRequestTime(time);
 
-    // 填充请求数据
-    fillRequestData(logEntity, request);
-
-    // 初始状态
-    logEntity.setTruncated(false);
+    // 填充请求数据 (同时决定 truncated 初始状态)
+    fillRequestData(logEntity, request, requestBody, ids);
 
     return logEntity;
   }
 
-  /**
-   * 工厂方法：构建响应阶段的日志实体
-   */
-  public HttpExchangeLog toResponseLog(Correlation correlation, HttpRequest request, HttpResponse response) {
+  HttpExchangeLog toResponseLog(String correlationId, Instant start, Duration duration, Instant responseTime,
+                                RequestSnapshot request, BodyCapture.Captured requestBody,
+                                ResponseSnapshot response, BodyCapture.Captured responseBody,
+                                BizIdCapture.Ids ids) {
     HttpExchangeLog logEntity = new HttpExchangeLog();
 
     // ID
-    logEntity.setCorrelationId(correlation.getId());
+    logEntity.setCorrelationId(correlationId);
     // 时间计算 (从 Correlation 获取精准的开始时间)
-    OffsetDateTime startTime = correlation.getStart()
-      .atZone(ZoneId.systemDefault())
-      .toOffsetDateTime();
+    OffsetDateTime startTime = toOffsetDateTime(start);
     logEntity.setCreatedTime(startTime);
     logEntity.setRequestTime(startTime);
-    logEntity.setResponseTime(OffsetDateTime.now(ZoneId.systemDefault()));
-    logEntity.setDurationMillis(correlation.getDuration().toMillis());
-
-    // 填充响应数据
-    logEntity.setStatusCode(response.getStatus());
-    logEntity.setResponseHeaders(serializeHeaders(response.getHeaders()));
-    logEntity.setResponseContent(safeGetBody(response));
+    logEntity.setResponseTime(toOffsetDateTime(responseTime));
+    logEntity.setDurationMillis(duration.toMillis());
 
     // 【关键】即使是响应阶段，也重新填充 Request 元数据
     // 保证 Response 先入库时，数据也是完整的
-    fillRequestData(logEntity, request);
+    fillRequestData(logEntity, request, requestBody, ids);
+
+    // 填充响应数据
+    logEntity.setStatusCode(response.status());
+    logEntity.setResponseHeaders(response.headers());
+    logEntity.setResponseBody(responseBody.body());
+    logEntity.setResponseContentLength(responseBody.originalLength());
+    logEntity.setTruncated(logEntity.isTruncated() || responseBody.truncated());
 
     logEntity.setComplete(true);
 
     return logEntity;
   }
 
-  private void fillRequestData(HttpExchangeLog logEntity, HttpRequest request) {
-    logEntity.setMethod(request.getMethod());
-    logEntity.setUri(request.getRequestUri());
-    logEntity.setRemote(request.getRemote());
-    logEntity.setContentType(request.getContentType());
-    logEntity.setRequestHeaders(serializeHeaders(request.getHeaders()));
-    logEntity.setRequestContent(safeGetBody(request));
+  private void fillRequestData(HttpExchangeLog logEntity, RequestSnapshot request, BodyCapture.Captured body,
+                               BizIdCapture.Ids ids) {
+    logEntity.setMethod(request.method());
+    logEntity.setUri(request.requestUri());
+    logEntity.setRemote(request.remote());
+    logEntity.setContentType(request.contentType());
+    // Logbook 的 HttpHeaders 本身是不可变的多值 Map，直接引用，不做序列化
+    logEntity.setRequestHeaders(request.headers());
+    logEntity.setRequestBody(body.body());
+    logEntity.setRequestContentLength(body.originalLength());
+    logEntity.setTruncated(body.truncated());
 
     // 客户端指纹
-    logEntity.setUserAgent(safeGetHeader(request, "User-Agent"));
+    logEntity.setUserAgent(safeGetHeader(request.headers(), "User-Agent"));
     logEntity.setIp(extractClientIp(request));
-  }
 
-  private String serializeHeaders(Object headers) {
-    if (headers == null) {
-      return "{}";
-    }
-    // 简单的 Map 判空优化，避免 Jackson 调用
-    if (headers instanceof Map && ((Map<?, ?>) headers).isEmpty()) {
-      return "{}";
-    }
-
-    try {
-      return objectMapper.writeValueAsString(headers);
-    } catch (Exception e) {
-      log.warn("Failed to serialize headers. Error: {}", e.getMessage());
-      return "{}";
-    }
+    // 业务标识
+    logEntity.setBizId(ids.bizId());
+    logEntity.setBatchId(ids.batchId());
+    logEntity.setJnlNo(ids.jnlNo());
   }
 
-  private String safeGetBody(HttpMessage message) {
-    try {
-      String body = message.getBodyAsString();
-      return body != null ? body : "";
-    } catch (IOException e) {
-      log.warn("Failed to read body from message. Error: {}", e.getMessage());
-      return "";
-    }
+  private OffsetDateTime toOffsetDateTime(Instant instant) {
+    return instant.atZone(ZoneId.systemDefault()).toOffsetDateTime();
   }
 
-  private String safeGetHeader(HttpRequest request, String headerName) {
-    var headers = request.getHeaders();
-    if (headers == null) return "";
-
+  private String safeGetHeader(Map<String, List<String>> headers, String headerName) {
     return headers.entrySet().stream()
       .filter(e -> e.getKey().equalsIgnoreCase(headerName))
       .findFirst()
@@ -125,8 +177,8 @@ public class LogbookMapper {
       .orElse("");
   }
 
-  private String extractClientIp(HttpRequest request) {
-    String xForwardedFor = safeGetHeader(request, "X-Forwarded-For");
-    return xForwardedFor.isEmpty() ? request.getRemote() : xForwardedFor.split(",")[0].trim();
+  private String extractClientIp(RequestSnapshot request) {
+    String xForwardedFor = safeGetHeader(request.headers(), "X-Forwarded-For");
+    return xForwardedFor.isEmpty() ? request.remote() : xForwardedFor.split(",")[0].trim();
   }
 }
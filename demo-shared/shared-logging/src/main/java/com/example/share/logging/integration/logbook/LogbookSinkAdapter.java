@@ -2,6 +2,7 @@ package com.example.share.logging.integration.logbook;
 
 import com.example.share.logging.core.api.LogProcessor;
 import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.properties.LogCaptureProperties;
 import lombok.RequiredArgsConstructor;
 import org.zalando.logbook.*;
 
@@ -18,9 +19,19 @@ public class LogbookSinkAdapter implements Sink { // 实现 Logbook 契约
 
   private final LogbookMapper mapper;       // 转换器
   private final LogProcessor logProcessor;  // 核心业务接口
+  private final LogCaptureProperties.Mode mode;
+
+  public LogbookSinkAdapter(LogbookMapper mapper, LogProcessor logProcessor) {
+    this(mapper, logProcessor, LogCaptureProperties.Mode.DEFERRED);
+  }
 
   @Override
   public void write(@Nonnull Precorrelation precorrelation, @Nonnull HttpRequest request) {
+    if (mode == LogCaptureProperties.Mode.DEFERRED) {
+      // 只做快照，映射推迟到管道工作线程
+      logProcessor.captureRequest(mapper.captureRequest(precorrelation, request));
+      return;
+    }
     // 1. 转换
     HttpExchangeLog log = mapper.toRequestLog(precorrelation, request);
     // 2. 调用核心业务的“请求处理”方法
@@ -29,6 +40,10 @@ public class LogbookSinkAdapter implements Sink { // 实现 Logbook 契约
 
   @Override
   public void write(@Nonnull Correlation correlation, @Nonnull HttpRequest request, @Nonnull HttpResponse response) {
+    if (mode == LogCaptureProperties.Mode.DEFERRED) {
+      logProcessor.captureResponse(mapper.captureResponse(correlation, request, response));
+      return;
+    }
     // 1. 转换
     HttpExchangeLog log = mapper.toResponseLog(correlation, request, response);
     // 2. 调用核心业务的“响应处理”方法
@@ -0,0 +1,64 @@
+package com.example.share.logging.integration.logbook;
+
+import lombok.extern.slf4j.Slf4j;
+import org.zalando.logbook.HttpMessage;
+import org.zalando.logbook.HttpRequest;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求线程上的 Logbook 请求快照
+ * <p>
+ * 只保存引用 (已缓冲的 Body 字节、不可变的 Header Map) 与少量标量，不做解码与序列化；
+ * 请求结束后容器会回收底层对象，所以必须在 Sink 回调内完成快照
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public record RequestSnapshot(
+  String method,
+  String requestUri,
+  String path,
+  String remote,
+  String contentType,
+  Charset charset,
+  Map<String, List<String>> headers,
+  byte[] body
+) {
+
+  static final byte[] NO_BODY = new byte[0];
+
+  public static RequestSnapshot of(HttpRequest request) {
+    Map<String, List<String>> headers = request.getHeaders();
+    return new RequestSnapshot(
+      request.getMethod(),
+      request.getRequestUri(),
+      request.getPath(),
+      request.getRemote(),
+      request.getContentType(),
+      request.getCharset(),
+      headers != null ? headers : Map.of(),
+      bodyOf(request));
+  }
+
+  /**
+   * Body 已按上限单独采集后，排队中的快照不再引用原始字节
+   */
+  public RequestSnapshot withoutBody() {
+    return new RequestSnapshot(method, requestUri, path, remote, contentType, charset, headers, NO_BODY);
+  }
+
+  static byte[] bodyOf(HttpMessage message) {
+    try {
+      byte[] body = message.getBody();
+      return body != null ? body : NO_BODY;
+    } catch (IOException e) {
+      log.warn("Failed to read body from message. Error: {}", e.getMessage());
+      return NO_BODY;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.share.logging.integration.logbook;
+
+import org.zalando.logbook.HttpResponse;
+
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求线程上的 Logbook 响应快照，约束同 {@link RequestSnapshot}
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public record ResponseSnapshot(
+  int status,
+  Charset charset,
+  Map<String, List<String>> headers,
+  byte[] body
+) {
+
+  public static ResponseSnapshot of(HttpResponse response) {
+    Map<String, List<String>> headers = response.getHeaders();
+    return new ResponseSnapshot(
+      response.getStatus(),
+      response.getCharset(),
+      headers != null ? headers : Map.of(),
+      RequestSnapshot.bodyOf(response));
+  }
+
+  /**
+   * 同 {@link RequestSnapshot#withoutBody()}
+   */
+  public ResponseSnapshot withoutBody() {
+    return new ResponseSnapshot(status, charset, headers, RequestSnapshot.NO_BODY);
+  }
+}
@@ -61,7 +61,8 @@ public class ConfigurationValidator {
       normalizedAliases,
       fieldConfig.strategy(),
       fieldConfig.replacement(),
-      fieldConfig.params()
+      fieldConfig.params(),
+      fieldConfig.memoize()
     );
 
     StrategyParams validatedParams = validatorFactory.validateParams(
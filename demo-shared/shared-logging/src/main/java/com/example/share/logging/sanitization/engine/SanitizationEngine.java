@@ -1,39 +1,82 @@
 package com.example.share.logging.sanitization.engine;
 
 import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogPhase;
 import com.example.share.logging.sanitization.sanitizer.LogSanitizer;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SanitizationEngine {
 
-  private final List<LogSanitizer> logSanitizers;
+  private final LogSanitizer[] logSanitizers;
 
-  public void sanitizeRequest(HttpExchangeLog logEntity) {
-    logThreadInfo("Request Obfuscation");
-    for (LogSanitizer logSanitizer : logSanitizers) {
-      try {
-        logSanitizer.sanitizeRequest(logEntity);
-      } catch (Exception e) {
-        // 单个组件失败不应该影响其他组件，也不应阻断日志流程
-        log.error("Sanitize {} failed on Request", logSanitizer.getClass().getSimpleName(), e);
+  // 每个 Sanitizer 每个阶段一个 Timer，启动时注册好，运行时按下标取
+  private final Timer[][] timers;
+  private final Counter failures;
+
+  public SanitizationEngine(List<LogSanitizer> logSanitizers) {
+    this(logSanitizers, Metrics.globalRegistry);
+  }
+
+  public SanitizationEngine(List<LogSanitizer> logSanitizers, MeterRegistry meterRegistry) {
+    this.logSanitizers = logSanitizers.toArray(LogSanitizer[]::new);
+    this.timers = new Timer[LogPhase.values().length][this.logSanitizers.length];
+    for (LogPhase phase : LogPhase.values()) {
+      for (int i = 0; i < this.logSanitizers.length; i++) {
+        timers[phase.ordinal()][i] = Timer.builder("logbook.sanitizer.duration")
+          .description("Time spent in a single log sanitizer")
+          .tag("sanitizer", this.logSanitizers[i].getClass().getSimpleName())
+          .tag("phase", phase.name().toLowerCase())
+          .register(meterRegistry);
       }
     }
+    this.failures = Counter.builder("logbook.pipeline.errors")
+      .description("Exceptions caught and swallowed inside the logging pipeline")
+      .tag("stage", "sanitize")
+      .register(meterRegistry);
+  }
+
+  public void sanitizeRequest(HttpExchangeLog logEntity) {
+    logThreadInfo("Request Obfuscation");
+    sanitize(LogPhase.REQUEST, logEntity);
   }
 
   public void sanitizeResponse(HttpExchangeLog logEntity) {
     logThreadInfo("Response Obfuscation");
-    for (LogSanitizer logSanitizer : logSanitizers) {
+    sanitize(LogPhase.RESPONSE, logEntity);
+  }
+
+  public void sanitizeExchange(HttpExchangeLog logEntity) {
+    logThreadInfo("Exchange Obfuscation");
+    sanitize(LogPhase.EXCHANGE, logEntity);
+  }
+
+  private void sanitize(LogPhase phase, HttpExchangeLog logEntity) {
+    Timer[] phaseTimers = timers[phase.ordinal()];
+    for (int i = 0; i < logSanitizers.length; i++) {
+      LogSanitizer logSanitizer = logSanitizers[i];
+      long start = System.nanoTime();
       try {
-        logSanitizer.sanitizeResponse(logEntity);
+        switch (phase) {
+          case REQUEST -> logSanitizer.sanitizeRequest(logEntity);
+          case RESPONSE -> logSanitizer.sanitizeResponse(logEntity);
+          case EXCHANGE -> logSanitizer.sanitizeExchange(logEntity);
+        }
       } catch (Exception e) {
-        log.error("Sanitize {} failed on Response", logSanitizer.getClass().getSimpleName(), e);
+        // 单个组件失败不应该影响其他组件，也不应阻断日志流程
+        failures.increment();
+        log.error("Sanitize {} failed on {}", logSanitizer.getClass().getSimpleName(), phase, e);
+      } finally {
+        phaseTimers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
       }
     }
   }
@@ -3,10 +3,12 @@ package com.example.share.logging.sanitization.properties;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -37,22 +39,47 @@ public record SanitizationProperties(
   public record GlobalConfig(
     @DefaultValue("true") boolean enable,
     @DefaultValue("***") String replacement,
-    @DefaultValue("true") boolean enableWildcardPaths
+    @DefaultValue("true") boolean enableWildcardPaths,
+    // JSON Body 脱敏引擎：streaming 单次流式遍历；jsonpath 基于 JsonPath 文档树
+    @DefaultValue("streaming") JsonEngine jsonEngine
   ) {
   }
 
+  public enum JsonEngine {
+    STREAMING,
+    JSONPATH
+  }
+
   public record FieldConfig(
     List<String> aliases,
     @NotNull SanitizationStrategyType strategy,
     String replacement,
-    Map<String, Object> params
+    Map<String, Object> params,
+    // 结果缓存，默认关闭，仅对 PATTERN_REGEX 生效
+    @DefaultValue @Valid Memoize memoize
   ) {
     public FieldConfig {
       aliases = aliases != null ? List.copyOf(aliases) : List.of();
       params = params != null ? Map.copyOf(params) : Map.of();
+      memoize = memoize != null ? memoize : Memoize.DISABLED;
     }
   }
 
+  /**
+   * 按字段缓存脱敏结果：同一个较长的值反复出现时不再重复执行正则替换
+   * <p>
+   * 仅 PATTERN_REGEX 字段生效，其余策略直接计算比查缓存更快，开启时忽略并告警。
+   * 缓存 Key 为原值的带种子哈希 (进程内随机种子)，写入后最多保留 ttl，超时由后台调度及时清除；超过 maxValueLength 的值不缓存
+   */
+  public record Memoize(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("10000") @Positive long maxSize,
+    @DefaultValue("5m") Duration ttl,
+    @DefaultValue("256") @Positive int maxValueLength
+  ) {
+    public static final Memoize DISABLED = new Memoize(false, 10000, Duration.ofMinutes(5), 256);
+  }
+
   public record StrategyConfig(
     Map<String, Object> params
   ) {
@@ -9,18 +9,23 @@ import java.util.Arrays;
  */
 @Getter
 public enum SanitizationStrategyType {
-  FULL("FULL"),
-  PARTIAL_HIDE("PARTIAL_HIDE"),
-  KEEP_FIRST_LAST("KEEP_FIRST_LAST"),
-  HASH_SHA256("HASH_SHA256"),
-  PATTERN_REGEX("PATTERN_REGEX"),
+  FULL("FULL", false),
+  PARTIAL_HIDE("PARTIAL_HIDE", false),
+  KEEP_FIRST_LAST("KEEP_FIRST_LAST", false),
+  HASH_SHA256("HASH_SHA256", false),
+  PATTERN_REGEX("PATTERN_REGEX", true),
 
   ;
 
   private final String value;
 
-  SanitizationStrategyType(String value) {
+  // 结果只由 (值, 参数) 决定且计算成本明显高于查缓存，可按字段缓存；
+  // FULL/PARTIAL_HIDE/KEEP_FIRST_LAST 只做截取拼接，HASH_SHA256 约百余纳秒，都不比查缓存慢
+  private final boolean memoizable;
+
+  SanitizationStrategyType(String value, boolean memoizable) {
     this.value = value;
+    this.memoizable = memoizable;
   }
 
   /**
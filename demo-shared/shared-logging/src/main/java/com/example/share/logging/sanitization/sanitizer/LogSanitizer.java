@@ -11,6 +11,13 @@ public interface LogSanitizer extends Ordered {
   // 处理响应日志
   void sanitizeResponse(HttpExchangeLog log);
 
+  // 处理完整交换：请求部分与响应部分都需要脱敏
+  // 对两个阶段都会处理的字段 (如 URI)，实现类应覆盖此方法避免重复脱敏
+  default void sanitizeExchange(HttpExchangeLog log) {
+    sanitizeRequest(log);
+    sanitizeResponse(log);
+  }
+
   // 默认优先级
   @Override
   default int getOrder() {
@@ -5,13 +5,13 @@ import com.example.share.logging.sanitization.context.SanitizationContext;
 import com.example.share.logging.sanitization.sanitizer.LogSanitizer;
 import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
 import com.example.share.logging.core.model.HttpExchangeLog;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Header 脱敏服务
@@ -22,13 +22,11 @@ public class HeaderSanitizer implements LogSanitizer { // 去掉 implements Head
 
   private final Map<String, SanitizationRule> headerRules;
   private final ValueSanitizer valueSanitizer;
-  private final ObjectMapper objectMapper;
   private final boolean enabled;
 
-  public HeaderSanitizer(SanitizationContext config, ValueSanitizer valueSanitizer, ObjectMapper objectMapper) {
+  public HeaderSanitizer(SanitizationContext config, ValueSanitizer valueSanitizer) {
     this.headerRules = config.getHeaderRules();
     this.valueSanitizer = valueSanitizer;
-    this.objectMapper = objectMapper;
     this.enabled = config.getGlobalConfig().enable();
 
     log.info("Initialized Header Filter with {} rules.", headerRules.size());
@@ -38,49 +36,40 @@ public class HeaderSanitizer implements LogSanitizer { // 去掉 implements Head
 
   @Override
   public void sanitizeRequest(HttpExchangeLog httpExchangeLog) {
-    httpExchangeLog.setRequestHeaders(processHeaders(httpExchangeLog.getRequestHeaders()));
+    httpExchangeLog.setRequestHeaders(handler(httpExchangeLog.getRequestHeaders()));
   }
 
   @Override
   public void sanitizeResponse(HttpExchangeLog httpExchangeLog) {
-    httpExchangeLog.setResponseHeaders(processHeaders(httpExchangeLog.getResponseHeaders()));
+    httpExchangeLog.setResponseHeaders(handler(httpExchangeLog.getResponseHeaders()));
   }
 
-  private String processHeaders(String jsonHeaders) {
-    if (jsonHeaders == null || jsonHeaders.equals("{}")) return jsonHeaders;
-    try {
-      Map<String, List<String>> headers = objectMapper.readValue(jsonHeaders, new TypeReference<>() {});
-      Map<String, List<String>> maskedHeaders = handler(headers);
-      return objectMapper.writeValueAsString(maskedHeaders);
-    } catch (Exception e) {
-      log.warn("Failed to process headers", e);
-      return jsonHeaders;
-    }
-  }
-
-
-  // 专门处理 Map<String, List<String>> 结构的方法
+  /**
+   * 写时复制：没有命中规则时原样返回同一实例；命中时只替换命中的条目，返回新的不可变 Map
+   */
   public Map<String, List<String>> handler(Map<String, List<String>> headers) {
     if (!enabled || headerRules.isEmpty() || headers == null || headers.isEmpty()) {
       return headers;
     }
 
     try {
-      // 遍历并替换值
-      return headers.entrySet().stream()
-        .collect(Collectors.toMap(
-          Map.Entry::getKey,
-          entry -> {
-            SanitizationRule rule = headerRules.get(entry.getKey().toLowerCase());
-            if (rule == null) {
-              return entry.getValue();
-            }
-            // 命中规则，执行脱敏
-            return entry.getValue().stream()
-              .map(v -> valueSanitizer.sanitize(v, rule))
-              .toList();
-          }
-        ));
+      Map<String, List<String>> masked = null;
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        SanitizationRule rule = headerRules.get(entry.getKey().toLowerCase());
+        if (rule == null) {
+          continue;
+        }
+        if (masked == null) {
+          masked = new LinkedHashMap<>(headers);
+        }
+        // 命中规则，执行脱敏
+        List<String> values = new ArrayList<>(entry.getValue().size());
+        for (String value : entry.getValue()) {
+          values.add(valueSanitizer.sanitize(value, rule));
+        }
+        masked.put(entry.getKey(), Collections.unmodifiableList(values));
+      }
+      return masked != null ? Collections.unmodifiableMap(masked) : headers;
     } catch (Exception e) {
       log.error("Header obfuscation failed", e);
       return headers;
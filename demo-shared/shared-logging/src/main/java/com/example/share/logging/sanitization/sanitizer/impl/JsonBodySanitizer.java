@@ -5,6 +5,7 @@ import com.example.share.logging.sanitization.context.SanitizationRule;
 import com.example.share.logging.sanitization.sanitizer.LogSanitizer;
 import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
 import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
@@ -31,9 +32,14 @@ public class JsonBodySanitizer implements LogSanitizer { // 去掉 implements Bo
     .build();
 
   public JsonBodySanitizer(SanitizationContext config, ValueSanitizer valueSanitizer) {
-    this.jsonPathRules = config.getJsonPathRules();
+    this(config.getJsonPathRules(), config.getGlobalConfig().enable(), valueSanitizer);
+  }
+
+  // 供流式脱敏器兜底使用：只处理流式匹配无法表达的规则
+  public JsonBodySanitizer(Map<String, SanitizationRule> jsonPathRules, boolean enabled, ValueSanitizer valueSanitizer) {
+    this.jsonPathRules = jsonPathRules;
     this.valueSanitizer = valueSanitizer;
-    this.enabled = config.getGlobalConfig().enable();
+    this.enabled = enabled;
 
     log.info("Initialized JSON Body  Filter with {} rules.", jsonPathRules.size());
     log.debug("JSON Body  rules: {}", jsonPathRules.keySet());
@@ -41,23 +47,33 @@ public class JsonBodySanitizer implements LogSanitizer { // 去掉 implements Bo
 
   @Override
   public void sanitizeRequest(HttpExchangeLog httpExchangeLog) {
-    if (httpExchangeLog.getRequestContent() != null) {
-      String maskedBody = handler(httpExchangeLog.getContentType(), httpExchangeLog.getRequestContent());
-      httpExchangeLog.setRequestContent(maskedBody);
+    if (httpExchangeLog.getRequestBody() != null) {
+      LogBody maskedBody = handler(httpExchangeLog.getContentType(), httpExchangeLog.getRequestBody());
+      httpExchangeLog.setRequestBody(maskedBody);
     }
   }
 
   @Override
   public void sanitizeResponse(HttpExchangeLog httpExchangeLog) {
-    if (httpExchangeLog.getResponseContent() != null) {
+    if (httpExchangeLog.getResponseBody() != null) {
       // 注意：响应的 ContentType 有时在 Logbook 中可能没正确传递，
       // 严谨起见应该优先取 log.getContentType() (Logbook 只有 request 有 contentType 字段)
       // 或者通过 response header 判断。这里假设 log 实体上有 contentType 字段复用
-      String maskedBody = handler(httpExchangeLog.getContentType(), httpExchangeLog.getResponseContent());
-      httpExchangeLog.setResponseContent(maskedBody);
+      LogBody maskedBody = handler(httpExchangeLog.getContentType(), httpExchangeLog.getResponseBody());
+      httpExchangeLog.setResponseBody(maskedBody);
     }
   }
 
+  // 非 JSON 或无规则时不解码
+  public LogBody handler(String contentType, @Nonnull LogBody body) {
+    if (!enabled || !isJson(contentType) || jsonPathRules.isEmpty()) {
+      return body;
+    }
+    String text = body.text();
+    String masked = handler(contentType, text);
+    return masked == text ? body : LogBody.of(masked, body.charset());
+  }
+
   public String handler(String contentType, @Nonnull String body) {
     if (!enabled || !isJson(contentType) || jsonPathRules.isEmpty() || body.isBlank()) {
       return body;
@@ -96,10 +112,10 @@ public class JsonBodySanitizer implements LogSanitizer { // 去掉 implements Bo
       return body;
 
     } catch (Exception e) {
-      // 记录解析失败，这通常意味着 Body 不是有效的 JSON，或者太大了
-      log.warn("JSON obfuscation skipped. Reason: {}. Body preview: {}",
-        e.getMessage(), body.substring(0, Math.min(body.length(), 100)));
-      return body;
+      // 解析失败 (不是有效的 JSON，或采集时被截断)：无法确认没有命中值，整体丢弃而不是原样输出；
+      // 异常信息可能包含 Body 片段，只记录类型
+      log.warn("JSON obfuscation failed ({}), body of {} chars dropped", e.getClass().getSimpleName(), body.length());
+      return "";
     }
   }
 
@@ -10,19 +10,20 @@ import lombok.extern.slf4j.Slf4j;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 @Slf4j
 public class QueryParamSanitizer implements LogSanitizer { // 去掉 implements QueryFilter
 
   private final Map<String, SanitizationRule> queryRules;
   private final ValueSanitizer valueSanitizer;
+  private final KeyTable keyTable;
   private final boolean enabled;
-  private static final Pattern AMPERSAND = Pattern.compile("&");
 
   public QueryParamSanitizer(SanitizationContext config, ValueSanitizer valueSanitizer) {
     this.queryRules = config.getQueryRules();
+    this.keyTable = new KeyTable(queryRules);
     this.valueSanitizer = valueSanitizer;
     this.enabled = config.getGlobalConfig().enable();
 
@@ -40,31 +41,30 @@ public class QueryParamSanitizer implements LogSanitizer { // 去掉 implements
     handleUriObfuscation(httpExchangeLog);
   }
 
+  @Override
+  public void sanitizeExchange(HttpExchangeLog httpExchangeLog) {
+    // URI 只有一份，避免 HASH 等策略被重复应用
+    handleUriObfuscation(httpExchangeLog);
+  }
+
   private void handleUriObfuscation(HttpExchangeLog httpExchangeLog) {
     if (!enabled || httpExchangeLog.getUri() == null || queryRules.isEmpty()) {
       return;
     }
 
     String originalUri = httpExchangeLog.getUri();
-    // 简单判断是否包含 '?'，避免不必要的 split 开销
+    // 简单判断是否包含 '?'，没有查询串直接返回
     int questionMarkIdx = originalUri.indexOf('?');
-    if (questionMarkIdx == -1) {
-      return;
-    }
-
-    String path = originalUri.substring(0, questionMarkIdx);
-    String queryString = originalUri.substring(questionMarkIdx + 1);
-
-    if (queryString.isEmpty()) {
+    if (questionMarkIdx == -1 || questionMarkIdx == originalUri.length() - 1) {
       return;
     }
 
-    // 调用核心脱敏逻辑
-    String maskedQuery = handler(queryString);
+    // 直接在 URI 上从 '?' 之后扫描，不切分 path 与 query
+    String maskedUri = mask(originalUri, questionMarkIdx + 1);
 
-    // 只有当内容发生变化时才通过 set 方法回写，减少对象创建
-    if (!maskedQuery.equals(queryString)) {
-      httpExchangeLog.setUri(path + "?" + maskedQuery);
+    // 只有命中规则时才回写
+    if (maskedUri != originalUri) {
+      httpExchangeLog.setUri(maskedUri);
     }
   }
 
@@ -72,52 +72,76 @@ public class QueryParamSanitizer implements LogSanitizer { // 去掉 implements
     if (!enabled || query == null || query.isEmpty() || queryRules.isEmpty()) {
       return query;
     }
+    return mask(query, 0);
+  }
 
+  /**
+   * 从 from 开始单次向前扫描 key=value 对：
+   * 原始 key 直接与预计算的小写 key 表逐字符比较，只有含 '%' 或 '+' 的 key 才解码；
+   * 未命中的片段不复制，首次命中时才分配输出缓冲，没有命中返回原实例
+   */
+  private String mask(String source, int from) {
     try {
-      StringBuilder result = new StringBuilder(query.length() + 32);
-      String[] pairs = AMPERSAND.split(query, -1);
+      StringBuilder result = null;
+      int copied = 0;
       int matchCount = 0;
+      int length = source.length();
+      int start = from;
 
-      for (int i = 0; i < pairs.length; i++) {
-        String pair = pairs[i];
-        int eqIdx = pair.indexOf('=');
-
-        if (eqIdx > 0) {
-          String key = decode(pair.substring(0, eqIdx));
-          String value = pair.substring(eqIdx + 1);
-
-          SanitizationRule rule = queryRules.get(key.toLowerCase());
+      while (start <= length) {
+        int end = source.indexOf('&', start);
+        if (end < 0) {
+          end = length;
+        }
+        int eqIdx = start;
+        while (eqIdx < end && source.charAt(eqIdx) != '=') {
+          eqIdx++;
+        }
+        if (eqIdx > start && eqIdx < end) {
+          SanitizationRule rule = lookup(source, start, eqIdx);
           if (rule != null) {
+            String key = decode(source.substring(start, eqIdx));
             matchCount++;
             if (log.isTraceEnabled()) {
               log.trace("Obfuscating Query Param: [{}]", key);
             }
 
-            String decodedVal = decode(value);
+            String decodedVal = decode(source.substring(eqIdx + 1, end));
             String maskedVal = valueSanitizer.sanitize(decodedVal, rule);
-            result.append(encode(key)).append('=').append(encode(maskedVal));
-          } else {
-            result.append(pair);
+            if (result == null) {
+              result = new StringBuilder(length + 32);
+            }
+            result.append(source, copied, start)
+              .append(encode(key)).append('=').append(encode(maskedVal));
+            copied = end;
           }
-        } else {
-          result.append(pair);
-        }
-
-        if (i < pairs.length - 1) {
-          result.append('&');
         }
+        start = end + 1;
       }
 
-      if (matchCount > 0 && log.isDebugEnabled()) {
+      if (result == null) {
+        return source;
+      }
+      if (log.isDebugEnabled()) {
         log.debug("Sanitized {} query parameters", matchCount);
       }
-
-      return result.toString();
+      return result.append(source, copied, length).toString();
 
     } catch (Exception e) {
       log.warn("Query param obfuscation failed. Returning original query. Error: {}", e.getMessage());
-      return query;
+      return source;
+    }
+  }
+
+  private SanitizationRule lookup(String source, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = source.charAt(i);
+      if (c == '%' || c == '+') {
+        // 编码过的 key 才需要解码后再查
+        return queryRules.get(decode(source.substring(start, end)).toLowerCase());
+      }
     }
+    return keyTable.find(source, start, end - start);
   }
 
   private String decode(String s) {
@@ -137,4 +161,40 @@ public class QueryParamSanitizer implements LogSanitizer { // 去掉 implements
       return s;
     }
   }
+
+  /**
+   * 按长度分组的小写 key 表：查找时只比较长度相同的 key，忽略大小写逐字符比较，不创建 String
+   */
+  private static final class KeyTable {
+
+    private final String[][] keys;
+    private final SanitizationRule[][] rules;
+
+    KeyTable(Map<String, SanitizationRule> queryRules) {
+      int maxLength = queryRules.keySet().stream().mapToInt(String::length).max().orElse(0);
+      this.keys = new String[maxLength + 1][];
+      this.rules = new SanitizationRule[maxLength + 1][];
+      queryRules.forEach((key, rule) -> {
+        int length = key.length();
+        int size = keys[length] == null ? 0 : keys[length].length;
+        keys[length] = Arrays.copyOf(keys[length] == null ? new String[0] : keys[length], size + 1);
+        rules[length] = Arrays.copyOf(rules[length] == null ? new SanitizationRule[0] : rules[length], size + 1);
+        keys[length][size] = key;
+        rules[length][size] = rule;
+      });
+    }
+
+    SanitizationRule find(String source, int start, int length) {
+      if (length >= keys.length || keys[length] == null) {
+        return null;
+      }
+      String[] candidates = keys[length];
+      for (int i = 0; i < candidates.length; i++) {
+        if (source.regionMatches(true, start, candidates[i], 0, length)) {
+          return rules[length][i];
+        }
+      }
+      return null;
+    }
+  }
 }
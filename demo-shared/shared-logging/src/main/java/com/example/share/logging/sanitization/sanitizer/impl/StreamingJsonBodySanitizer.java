@@ -0,0 +1,224 @@
+package com.example.share.logging.sanitization.sanitizer.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import com.example.share.logging.sanitization.sanitizer.LogSanitizer;
+import com.example.share.logging.sanitization.sanitizer.support.JsonPathCursor;
+import com.example.share.logging.sanitization.sanitizer.support.JsonPathMatcher;
+import com.example.share.logging.sanitization.sanitizer.support.ValueSanitizer;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import jakarta.annotation.Nonnull;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 流式 JSON Body 脱敏
+ * <p>
+ * 1. JsonParser 单次遍历 token，按 {@link JsonPathCursor} 维护当前路径，不构建文档树
+ * 2. 直接解析 UTF-8 字节，命中规则的值按 token 的字节偏移原地替换，其余内容 (空白、字段顺序、数字写法) 原样保留
+ * 3. 流式无法表达的规则 (如过滤器) 交给 {@link JsonBodySanitizer} 兜底
+ * 4. 采集截断或格式错误的 Body：保留已处理部分 (命中值均已替换)，无法解析的剩余字节丢弃，不原样输出；
+ *    处理过程中出现其他异常时整个 Body 丢弃
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public class StreamingJsonBodySanitizer implements LogSanitizer {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  // 编译后的匹配计划，可通过 describe() 查看
+  @Getter
+  private final JsonPathMatcher matcher;
+  private final JsonBodySanitizer fallback;
+  private final ValueSanitizer valueSanitizer;
+  private final boolean enabled;
+
+  public StreamingJsonBodySanitizer(SanitizationContext config, ValueSanitizer valueSanitizer) {
+    this.matcher = JsonPathMatcher.compile(config.getJsonPathRules());
+    this.valueSanitizer = valueSanitizer;
+    this.enabled = config.getGlobalConfig().enable();
+    this.fallback = matcher.unsupportedRules().isEmpty()
+      ? null
+      : new JsonBodySanitizer(matcher.unsupportedRules(), enabled, valueSanitizer);
+
+    log.info("Initialized Streaming JSON Body Filter with {} rules, {} handled by JsonPath fallback.",
+      config.getJsonPathRules().size(), matcher.unsupportedRules().size());
+    log.debug("{}", matcher.describe());
+  }
+
+  @Override
+  public void sanitizeRequest(HttpExchangeLog httpExchangeLog) {
+    if (httpExchangeLog.getRequestBody() != null) {
+      httpExchangeLog.setRequestBody(
+        handler(httpExchangeLog.getContentType(), httpExchangeLog.getRequestBody()));
+    }
+  }
+
+  @Override
+  public void sanitizeResponse(HttpExchangeLog httpExchangeLog) {
+    if (httpExchangeLog.getResponseBody() != null) {
+      httpExchangeLog.setResponseBody(
+        handler(httpExchangeLog.getContentType(), httpExchangeLog.getResponseBody()));
+    }
+  }
+
+  public String handler(String contentType, @Nonnull String body) {
+    return handler(contentType, LogBody.of(body)).text();
+  }
+
+  /**
+   * UTF-8 字节直接解析与替换，不解码为 String；其他字符集先解码再按 UTF-8 处理
+   */
+  public LogBody handler(String contentType, @Nonnull LogBody body) {
+    if (!enabled || !isJson(contentType) || body.isBlank()) {
+      return body;
+    }
+    LogBody result = body;
+    if (!matcher.isEmpty()) {
+      byte[] utf8 = body.isUtf8Bytes() ? body.bytes() : body.text().getBytes(StandardCharsets.UTF_8);
+      try {
+        byte[] masked = mask(utf8);
+        if (masked != utf8) {
+          result = LogBody.of(masked, StandardCharsets.UTF_8);
+        }
+      } catch (Exception e) {
+        // 无法确认脱敏完成，不输出原文；异常信息可能包含 Body 片段，只记录类型
+        log.warn("JSON obfuscation failed ({}), body of {} bytes dropped", e.getClass().getSimpleName(), utf8.length);
+        return LogBody.of(new byte[0], StandardCharsets.UTF_8);
+      }
+    }
+    if (fallback == null) {
+      return result;
+    }
+    String text = result.text();
+    String masked = fallback.handler(contentType, text);
+    return masked == text ? result : LogBody.of(masked, result.charset());
+  }
+
+  /**
+   * 没有命中且完整解析时返回入参数组本身
+   */
+  private byte[] mask(byte[] body) throws IOException {
+    long startTime = System.nanoTime();
+    JsonPathCursor cursor = new JsonPathCursor();
+    // 首次命中时才分配输出缓冲
+    ByteArrayBuilder out = null;
+    int copied = 0;
+    // 此前的字节均已解析并按规则处理，解析中断时输出到此为止
+    int safeEnd = 0;
+    boolean incomplete = false;
+    int matches = 0;
+
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        switch (token) {
+          case FIELD_NAME -> {
+            cursor.field(parser.currentName());
+            // 读取字段名时解析器可能已预读其值，只能取字段名起点
+            safeEnd = (int) parser.currentTokenLocation().getByteOffset();
+          }
+          case END_OBJECT, END_ARRAY -> {
+            cursor.exit();
+            safeEnd = (int) parser.currentLocation().getByteOffset();
+          }
+          default -> {
+            cursor.nextValue();
+            SanitizationRule rule = token == JsonToken.VALUE_NULL ? null : matcher.match(cursor);
+            if (rule == null) {
+              if (token == JsonToken.START_OBJECT) {
+                cursor.enterObject();
+              } else if (token == JsonToken.START_ARRAY) {
+                cursor.enterArray();
+              }
+              // 字符串值延迟解析，当前位置尚未越过其内容，取其起点
+              safeEnd = (int) (token == JsonToken.VALUE_STRING
+                ? parser.currentTokenLocation() : parser.currentLocation()).getByteOffset();
+            } else {
+              int start = (int) parser.currentTokenLocation().getByteOffset();
+              String original;
+              int end;
+              try {
+                if (token.isStructStart()) {
+                  // 命中对象或数组时整体脱敏其原始文本
+                  parser.skipChildren();
+                  end = (int) parser.currentLocation().getByteOffset();
+                  original = new String(body, start, end - start, StandardCharsets.UTF_8);
+                } else {
+                  original = parser.getText();
+                  end = (int) parser.currentLocation().getByteOffset();
+                }
+              } catch (JsonEOFException e) {
+                // 截断的 Body 在命中值内部结束：剩余文本整体脱敏
+                end = body.length;
+                original = new String(body, start, end - start, StandardCharsets.UTF_8);
+              }
+              if (out == null) {
+                out = new ByteArrayBuilder(body.length + 16);
+              }
+              out.write(body, copied, start - copied);
+              out.append('"');
+              out.write(JsonStringEncoder.getInstance().quoteAsUTF8(valueSanitizer.sanitize(original, rule)));
+              out.append('"');
+              copied = end;
+              safeEnd = end;
+              matches++;
+            }
+          }
+        }
+      }
+    } catch (JsonProcessingException e) {
+      incomplete = true;
+      if (e instanceof JsonEOFException) {
+        // 采集时被截断的 Body
+        log.debug("Streaming JSON obfuscation reached truncated end of body, masked {} values", matches);
+      } else {
+        // 异常信息可能包含 Body 片段，只记录位置
+        log.warn("Malformed JSON body, obfuscation stopped at byte {} of {}, remainder dropped",
+          safeEnd, body.length);
+      }
+    }
+
+    if (incomplete) {
+      // 无法确认剩余字节中没有命中值，丢弃而不是原样输出
+      if (out == null) {
+        return Arrays.copyOf(body, safeEnd);
+      }
+      out.write(body, copied, safeEnd - copied);
+      recordPerformance(startTime, body.length, matches);
+      return out.toByteArray();
+    }
+    if (out == null) {
+      return body;
+    }
+    out.write(body, copied, body.length - copied);
+    recordPerformance(startTime, body.length, matches);
+    return out.toByteArray();
+  }
+
+  private void recordPerformance(long startTime, int bodyLength, int matches) {
+    if (log.isDebugEnabled()) {
+      long duration = (System.nanoTime() - startTime) / 1000; // 微秒
+      log.debug("Streaming JSON Obfuscation completed. Matches: {}, BodySize: {} bytes, Cost: {} us",
+        matches, bodyLength, duration);
+    }
+  }
+
+  private boolean isJson(String contentType) {
+    return contentType != null && (contentType.contains("json") || contentType.contains("JSON"));
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import java.util.Arrays;
+
+/**
+ * 流式解析时的当前路径
+ * <p>
+ * 每一层记录对象字段名或数组下标，随 token 推进原地更新，不产生中间对象
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class JsonPathCursor {
+
+  private static final int INITIAL_DEPTH = 16;
+
+  private String[] names = new String[INITIAL_DEPTH];
+  private int[] indices = new int[INITIAL_DEPTH];
+  private boolean[] arrays = new boolean[INITIAL_DEPTH];
+  private int depth;
+
+  public void enterObject() {
+    push(false);
+  }
+
+  public void enterArray() {
+    push(true);
+  }
+
+  public void exit() {
+    depth--;
+  }
+
+  /**
+   * 对象内读到字段名
+   */
+  public void field(String name) {
+    names[depth - 1] = name;
+  }
+
+  /**
+   * 读到一个值：若当前层是数组则下标前进
+   */
+  public void nextValue() {
+    if (depth > 0 && arrays[depth - 1]) {
+      indices[depth - 1]++;
+    }
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  public boolean isArray(int level) {
+    return arrays[level];
+  }
+
+  public String name(int level) {
+    return names[level];
+  }
+
+  public int index(int level) {
+    return indices[level];
+  }
+
+  private void push(boolean array) {
+    if (depth == names.length) {
+      names = Arrays.copyOf(names, depth * 2);
+      indices = Arrays.copyOf(indices, depth * 2);
+      arrays = Arrays.copyOf(arrays, depth * 2);
+    }
+    names[depth] = null;
+    indices[depth] = -1;
+    arrays[depth] = array;
+    depth++;
+  }
+}
@@ -0,0 +1,263 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationRule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 流式脱敏使用的 JsonPath 匹配器
+ * <p>
+ * 启动时把全部规则编译为一个匹配计划：具体路径构成一棵按段索引的前缀树，$..name 规则收敛为字段名哈希表，
+ * 遍历文档时每个节点只需 O(depth) 即可确定命中的规则，与配置的字段数量无关
+ * <p>
+ * 支持 $.a.b、$['a']、$.a[0]、$.a[*].b、$.a.* 与 $..name；
+ * 过滤器、切片、多段递归等其他语法归入 unsupported，由 JsonPath 兜底处理
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class JsonPathMatcher {
+
+  private final Node root;
+  private final int maxDepth;
+  private final int concreteCount;
+  private final Map<String, SanitizationRule> recursiveRules;
+  private final Map<String, SanitizationRule> unsupportedRules;
+
+  private JsonPathMatcher(Node root, int maxDepth, int concreteCount,
+                          Map<String, SanitizationRule> recursiveRules,
+                          Map<String, SanitizationRule> unsupportedRules) {
+    this.root = root;
+    this.maxDepth = maxDepth;
+    this.concreteCount = concreteCount;
+    this.recursiveRules = recursiveRules;
+    this.unsupportedRules = unsupportedRules;
+  }
+
+  public static JsonPathMatcher compile(Map<String, SanitizationRule> jsonPathRules) {
+    Node root = new Node();
+    int maxDepth = 0;
+    int concreteCount = 0;
+    Map<String, SanitizationRule> recursive = new HashMap<>();
+    Map<String, SanitizationRule> unsupported = new HashMap<>();
+
+    // 按路径排序，保证编译结果与计划输出稳定
+    for (Map.Entry<String, SanitizationRule> entry : new TreeMap<>(jsonPathRules).entrySet()) {
+      String path = entry.getKey();
+      String recursiveName = parseRecursiveName(path);
+      if (recursiveName != null) {
+        recursive.put(recursiveName, entry.getValue());
+        continue;
+      }
+      List<Segment> segments = parseSegments(path);
+      if (segments == null) {
+        unsupported.put(path, entry.getValue());
+        continue;
+      }
+      Node node = root;
+      for (Segment segment : segments) {
+        node = node.child(segment);
+      }
+      // 不同写法指向同一路径时 ($.a 与 $['a'])，保留先编译的规则
+      if (node.rule == null) {
+        node.rule = entry.getValue();
+        concreteCount++;
+      }
+      maxDepth = Math.max(maxDepth, segments.size());
+    }
+    return new JsonPathMatcher(root, maxDepth, concreteCount, Map.copyOf(recursive), Map.copyOf(unsupported));
+  }
+
+  /**
+   * 当前节点命中的规则：具体段优先于通配段，具体路径优先于递归字段名
+   */
+  public SanitizationRule match(JsonPathCursor cursor) {
+    int depth = cursor.depth();
+    if (depth == 0) {
+      return null;
+    }
+    SanitizationRule rule = depth <= maxDepth ? descend(root, cursor, 0, depth) : null;
+    if (rule == null && !recursiveRules.isEmpty() && !cursor.isArray(depth - 1)) {
+      rule = recursiveRules.get(cursor.name(depth - 1));
+    }
+    return rule;
+  }
+
+  private static SanitizationRule descend(Node node, JsonPathCursor cursor, int level, int depth) {
+    if (level == depth) {
+      return node.rule;
+    }
+    Node exact = cursor.isArray(level)
+      ? node.indices.get(cursor.index(level))
+      : node.fields.get(cursor.name(level));
+    if (exact != null) {
+      SanitizationRule rule = descend(exact, cursor, level + 1, depth);
+      if (rule != null) {
+        return rule;
+      }
+    }
+    return node.wildcard != null ? descend(node.wildcard, cursor, level + 1, depth) : null;
+  }
+
+  public boolean isEmpty() {
+    return concreteCount == 0 && recursiveRules.isEmpty();
+  }
+
+  /**
+   * 流式匹配无法表达的规则
+   */
+  public Map<String, SanitizationRule> unsupportedRules() {
+    return unsupportedRules;
+  }
+
+  /**
+   * 可读的匹配计划：前缀树、递归字段名与兜底规则
+   */
+  public String describe() {
+    StringBuilder plan = new StringBuilder()
+      .append("JsonPathMatcher plan: ")
+      .append(concreteCount).append(" concrete paths (max depth ").append(maxDepth).append("), ")
+      .append(recursiveRules.size()).append(" recursive names, ")
+      .append(unsupportedRules.size()).append(" JsonPath fallbacks\n")
+      .append("$\n");
+    root.describe(plan, 1);
+    new TreeMap<>(recursiveRules).forEach((name, rule) ->
+      plan.append("$..").append(name).append(" => ").append(rule.strategy()).append('\n'));
+    new TreeMap<>(unsupportedRules).forEach((path, rule) ->
+      plan.append("fallback ").append(path).append(" => ").append(rule.strategy()).append('\n'));
+    return plan.toString();
+  }
+
+  @Override
+  public String toString() {
+    return describe();
+  }
+
+  // ================ 路径解析 ================
+
+  // $..name 形式，name 中不能再含路径分隔
+  private static String parseRecursiveName(String path) {
+    if (!path.startsWith("$..")) {
+      return null;
+    }
+    String name = path.substring(3);
+    if (name.isEmpty() || name.equals("*") || name.contains(".") || name.contains("[")) {
+      return null;
+    }
+    return name;
+  }
+
+  private static List<Segment> parseSegments(String path) {
+    if (!path.startsWith("$")) {
+      return null;
+    }
+    List<Segment> segments = new ArrayList<>();
+    int i = 1;
+    while (i < path.length()) {
+      char c = path.charAt(i);
+      if (c == '.') {
+        if (i + 1 < path.length() && path.charAt(i + 1) == '.') {
+          return null;
+        }
+        int end = i + 1;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        String name = path.substring(i + 1, end);
+        if (name.isEmpty()) {
+          return null;
+        }
+        segments.add(name.equals("*") ? Segment.WILDCARD : Segment.field(name));
+        i = end;
+      } else if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end < 0) {
+          return null;
+        }
+        Segment segment = parseBracket(path.substring(i + 1, end).trim());
+        if (segment == null) {
+          return null;
+        }
+        segments.add(segment);
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments.isEmpty() ? null : segments;
+  }
+
+  private static Segment parseBracket(String inner) {
+    if (inner.equals("*")) {
+      return Segment.WILDCARD;
+    }
+    if (inner.length() >= 2) {
+      char quote = inner.charAt(0);
+      if ((quote == '\'' || quote == '"') && inner.charAt(inner.length() - 1) == quote) {
+        return Segment.field(inner.substring(1, inner.length() - 1));
+      }
+    }
+    if (!inner.isEmpty() && inner.chars().allMatch(Character::isDigit)) {
+      return Segment.index(Integer.parseInt(inner));
+    }
+    // 过滤器 [?()]、切片 [0:2]、联合 [0,1] 等
+    return null;
+  }
+
+  // ================ 内部结构 ================
+
+  private record Segment(String name, int index) {
+
+    static final Segment WILDCARD = new Segment(null, -1);
+
+    static Segment field(String name) {
+      return new Segment(name, -1);
+    }
+
+    static Segment index(int index) {
+      return new Segment(null, index);
+    }
+  }
+
+  private static final class Node {
+
+    // 编译完成后只读，可被多线程并发访问
+    private final Map<String, Node> fields = new HashMap<>();
+    private final Map<Integer, Node> indices = new HashMap<>();
+    private Node wildcard;
+    private SanitizationRule rule;
+
+    Node child(Segment segment) {
+      if (segment == Segment.WILDCARD) {
+        if (wildcard == null) {
+          wildcard = new Node();
+        }
+        return wildcard;
+      }
+      return segment.name() != null
+        ? fields.computeIfAbsent(segment.name(), key -> new Node())
+        : indices.computeIfAbsent(segment.index(), key -> new Node());
+    }
+
+    void describe(StringBuilder plan, int indent) {
+      new TreeMap<>(fields).forEach((name, child) -> child.describeAs(plan, indent, "." + name));
+      new TreeMap<>(indices).forEach((index, child) -> child.describeAs(plan, indent, "[" + index + "]"));
+      if (wildcard != null) {
+        wildcard.describeAs(plan, indent, "[*]");
+      }
+    }
+
+    private void describeAs(StringBuilder plan, int indent, String label) {
+      plan.append("  ".repeat(indent)).append(label);
+      if (rule != null) {
+        plan.append(" => ").append(rule.strategy());
+      }
+      plan.append('\n');
+      describe(plan, indent + 1);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import com.example.share.logging.sanitization.properties.SanitizationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 按字段的脱敏结果缓存
+ * <p>
+ * 1. 只为显式开启 memoize 且策略计算成本高于查缓存的字段建缓存 (目前只有 PATTERN_REGEX)，其余字段直接计算；
+ * 掩码、截取、SHA-256 本身只需几十到一百多纳秒，查缓存反而更慢
+ * 2. 规则实例在各类索引 (JsonPath/Header/Query) 间共享，按实例身份查找，不做字符串拼接
+ * 3. Key 为原值的 128 位带种子哈希 (两路 64 位乘法散列，每次读 4 个 char)，种子随实例随机生成，
+ * 堆转储中不出现明文，不同进程的 Key 也无法对照；256 字符以内的值计算只需十几纳秒
+ * 4. 条数有上限，写入后超过 ttl 由后台调度主动清除
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+@Slf4j
+public final class SanitizationMemo {
+
+  public static final SanitizationMemo NONE = new SanitizationMemo(Map.of());
+
+  private static final long MULTIPLIER_HIGH = 0x9E3779B97F4A7C15L;
+  private static final long MULTIPLIER_LOW = 0xC2B2AE3D27D4EB4FL;
+
+  private final Map<SanitizationRule, Entry> caches;
+  private final long seedHigh;
+  private final long seedLow;
+
+  private SanitizationMemo(Map<SanitizationRule, Entry> caches) {
+    this.caches = caches;
+    SecureRandom random = new SecureRandom();
+    this.seedHigh = random.nextLong();
+    this.seedLow = random.nextLong();
+  }
+
+  public static SanitizationMemo of(SanitizationContext context, MeterRegistry registry) {
+    Map<SanitizationRule, Entry> caches = new IdentityHashMap<>();
+    context.getValidatedFieldConfigs().forEach((field, rule) -> {
+      SanitizationProperties.Memoize memoize = rule.fieldConfig().memoize();
+      if (!memoize.enabled()) {
+        return;
+      }
+      if (!rule.strategy().isMemoizable()) {
+        log.warn("Memoization ignored for field [{}]: strategy {} is not memoizable", field, rule.strategy());
+        return;
+      }
+      Cache<Key, String> cache = Caffeine.newBuilder()
+        .maximumSize(memoize.maxSize())
+        .expireAfterWrite(memoize.ttl())
+        .scheduler(Scheduler.systemScheduler())
+        .recordStats()
+        .build();
+      CaffeineCacheMetrics.monitor(registry, cache, "logbook.obfuscate.memo", Tags.of("field", field));
+      Gauge.builder("logbook.obfuscate.memo.hit.ratio", cache, c -> c.stats().hitRate())
+        .description("Share of sanitized values served from the per-field cache")
+        .tag("field", field)
+        .register(registry);
+      caches.put(rule, new Entry(cache, memoize.maxValueLength()));
+      log.info("Memoization enabled for field [{}]. MaxSize: {}, TTL: {}", field, memoize.maxSize(), memoize.ttl());
+    });
+    return caches.isEmpty() ? NONE : new SanitizationMemo(caches);
+  }
+
+  /**
+   * 命中缓存直接返回，否则计算并写入；计算抛出的异常原样传播且不缓存
+   */
+  public String apply(SanitizationRule rule, String value, UnaryOperator<String> compute) {
+    Entry entry = caches.isEmpty() ? null : caches.get(rule);
+    if (entry == null || value.length() > entry.maxValueLength()) {
+      return compute.apply(value);
+    }
+    return entry.cache().get(key(value), key -> compute.apply(value));
+  }
+
+  /**
+   * 缓存中的 Key，供测试确认不含明文
+   */
+  Set<Key> keys(SanitizationRule rule) {
+    Entry entry = caches.get(rule);
+    return entry == null ? Set.of() : entry.cache().asMap().keySet();
+  }
+
+  Key key(String value) {
+    int length = value.length();
+    long high = seedHigh ^ length;
+    long low = seedLow ^ length;
+    int i = 0;
+    // 每次把 4 个 char 拼成一个 long 参与散列，不经过 UTF-8 编码
+    for (; i + 4 <= length; i += 4) {
+      long block = value.charAt(i)
+        | (long) value.charAt(i + 1) << 16
+        | (long) value.charAt(i + 2) << 32
+        | (long) value.charAt(i + 3) << 48;
+      high = (high ^ block) * MULTIPLIER_HIGH;
+      low = (low ^ block) * MULTIPLIER_LOW;
+    }
+    for (; i < length; i++) {
+      high = (high ^ value.charAt(i)) * MULTIPLIER_HIGH;
+      low = (low ^ value.charAt(i)) * MULTIPLIER_LOW;
+    }
+    return new Key(mix(high), mix(low ^ high));
+  }
+
+  // MurmurHash3 fmix64：让每一位输入都扩散到全部输出位
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  public boolean isEmpty() {
+    return caches.isEmpty();
+  }
+
+  private record Entry(Cache<Key, String> cache, int maxValueLength) {
+  }
+
+  record Key(long high, long low) {
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 按字段的脱敏命中计数
+ * <p>
+ * 计数器在启动时按字段注册，标签只有配置中的字段名 (基数有界)；
+ * 运行时按规则实例身份查找，不拼接字符串、不查注册表。
+ * 策略执行失败 (降级为错误掩码) 计入 logbook.pipeline.errors{stage=sanitize}
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class SanitizationMetrics {
+
+  public static final SanitizationMetrics NONE = new SanitizationMetrics(Map.of(), null);
+
+  private final Map<SanitizationRule, Counter> matches;
+  private final Counter failures;
+
+  private SanitizationMetrics(Map<SanitizationRule, Counter> matches, Counter failures) {
+    this.matches = matches;
+    this.failures = failures;
+  }
+
+  public static SanitizationMetrics of(SanitizationContext context, MeterRegistry registry) {
+    Map<SanitizationRule, Counter> matches = new IdentityHashMap<>();
+    context.getValidatedFieldConfigs().forEach((field, rule) -> matches.put(rule,
+      Counter.builder("logbook.sanitizer.matches")
+        .description("Values masked by a sanitization rule")
+        .tag("field", field)
+        .tag("strategy", rule.strategy().name())
+        .register(registry)));
+    Counter failures = Counter.builder("logbook.pipeline.errors")
+      .description("Exceptions caught and swallowed inside the logging pipeline")
+      .tag("stage", "sanitize")
+      .register(registry);
+    return new SanitizationMetrics(matches, failures);
+  }
+
+  public void matched(SanitizationRule rule) {
+    Counter counter = matches.isEmpty() ? null : matches.get(rule);
+    if (counter != null) {
+      counter.increment();
+    }
+  }
+
+  public void failed() {
+    if (failures != null) {
+      failures.increment();
+    }
+  }
+}
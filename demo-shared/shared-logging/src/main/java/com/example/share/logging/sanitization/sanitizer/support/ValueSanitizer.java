@@ -10,6 +10,16 @@ import lombok.extern.slf4j.Slf4j;
 public class ValueSanitizer {
 
   private final SanitizationStrategyFactory sanitizationStrategyFactory;
+  private final SanitizationMemo memo;
+  private final SanitizationMetrics metrics;
+
+  public ValueSanitizer(SanitizationStrategyFactory sanitizationStrategyFactory) {
+    this(sanitizationStrategyFactory, SanitizationMemo.NONE);
+  }
+
+  public ValueSanitizer(SanitizationStrategyFactory sanitizationStrategyFactory, SanitizationMemo memo) {
+    this(sanitizationStrategyFactory, memo, SanitizationMetrics.NONE);
+  }
 
   public String sanitize(String originalValue, SanitizationRule config) {
     // 1. 快速检查
@@ -21,18 +31,20 @@ public class ValueSanitizer {
       return originalValue;
     }
 
-    // 2. 尝试脱敏
+    // 2. 尝试脱敏 (缓存命中也计入命中数)
+    metrics.matched(config);
     try {
       if (log.isTraceEnabled()) {
         log.trace("Applying strategy [{}] to value of length {}",
           config.strategy(), originalValue.length());
       }
 
-      String result = sanitizationStrategyFactory.sanitize(
+      // 开启 memoize 的字段先查缓存
+      String result = memo.apply(config, originalValue, value -> sanitizationStrategyFactory.sanitize(
         config.strategy(),
-        originalValue,
+        value,
         config.validatedParams()
-      );
+      ));
 
       // 仅在 Trace 级别记录结果长度变化，避免直接打印敏感内容
       if (log.isTraceEnabled()) {
@@ -46,6 +58,7 @@ public class ValueSanitizer {
       // 生产环境关键日志：记录哪个策略、哪个配置出错了
       log.warn("Obfuscation failed! Strategy: [{}], Replacement: [{}]. Error: {}",
         config.strategy(), config.replacement(), e.getMessage());
+      metrics.failed();
 
       // 降级：返回安全掩码或原配置的 replacement
       return "******(Error)";
@@ -26,6 +26,7 @@ public class HashSHA256Strategy implements SanitizationStrategy {
   private static final String ALGORITHM = "SHA-256";
   private static final int HASH_LENGTH = 64;  // SHA-256 产生 64 位十六进制字符串
   private static final String ERROR_PLACEHOLDER = "*".repeat(HASH_LENGTH);
+  private static final HexFormat HEX = HexFormat.of();
 
   // 使用静态的 ThreadLocal 缓存 MessageDigest 实例，提高性能
   private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST_CACHE =
@@ -66,7 +67,7 @@ public class HashSHA256Strategy implements SanitizationStrategy {
       md.reset();
 
       byte[] hashBytes = md.digest(value.getBytes(StandardCharsets.UTF_8));
-      return HexFormat.of().formatHex(hashBytes);
+      return HEX.formatHex(hashBytes);
     } catch (Exception e) {
       log.warn("Failed to hash value with {}, using placeholder", ALGORITHM, e);
       return ERROR_PLACEHOLDER;
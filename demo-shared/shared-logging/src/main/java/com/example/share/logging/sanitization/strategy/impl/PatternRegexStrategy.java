@@ -38,18 +38,16 @@ public class PatternRegexStrategy implements SanitizationStrategy {
   }
 
   private String patternRegexSanitize(String value, PatternRegexParams params) {
-    String pattern = params.pattern();
-    String replacement = params.replacement();
-
-    if (pattern == null || pattern.isBlank()) {
-      log.warn("Pattern parameter is empty for PATTERN_REGEX strategy");
-      return "*".repeat(value.length());
+    // 快速路径：值中没有任何可能开始匹配的字符 (如卡号规则下不含数字的文本)，不进入正则引擎
+    if (!params.prefilter().mayMatch(value)) {
+      return value;
     }
 
     try {
-      return value.replaceAll(pattern, replacement);
+      // 使用配置校验时预编译的 Pattern，避免 String.replaceAll 每次重新编译
+      return params.compiled().matcher(value).replaceAll(params.replacement());
     } catch (Exception e) {
-      log.error("Regex replacement failed for pattern: {}", pattern, e);
+      log.error("Regex replacement failed for pattern: {}", params.pattern(), e);
       return "*".repeat(value.length());
     }
   }
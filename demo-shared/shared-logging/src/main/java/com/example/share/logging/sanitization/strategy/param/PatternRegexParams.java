@@ -2,8 +2,14 @@ package com.example.share.logging.sanitization.strategy.param;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * PatternRegexParams
+ * <p>
+ * 正则在配置校验时编译一次，同时生成 {@link Prefilter}：不含任何候选字符的值无需进入正则引擎
  *
  * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
  * @since 2025/12/24 17:34
@@ -12,17 +18,133 @@ public record PatternRegexParams(
   @NotBlank(message = "pattern must not be blank")
   String pattern,
 
-  String replacement
+  String replacement,
+
+  Pattern compiled,
+
+  Prefilter prefilter
 ) implements StrategyParams {
 
   public PatternRegexParams {
     if (pattern == null || pattern.isBlank()) {
       throw new IllegalArgumentException("pattern must not be blank");
     }
-    try {
-      java.util.regex.Pattern.compile(pattern);
-    } catch (java.util.regex.PatternSyntaxException e) {
-      throw new IllegalArgumentException("Invalid regex pattern: " + e.getMessage());
+    if (compiled == null) {
+      try {
+        compiled = Pattern.compile(pattern);
+      } catch (PatternSyntaxException e) {
+        throw new IllegalArgumentException("Invalid regex pattern: " + e.getMessage());
+      }
+    }
+    if (prefilter == null) {
+      prefilter = Prefilter.of(compiled);
+    }
+  }
+
+  public PatternRegexParams(String pattern, String replacement) {
+    this(pattern, replacement, null, null);
+  }
+
+  /**
+   * 匹配的首个字符只可能落在哪些 ASCII 字符上 (两个 64 位掩码)
+   * <p>
+   * 去掉零宽断言 (\b、^、$ 等) 后逐个试探 ASCII 字符：去掉断言只会放宽匹配，所以结果是安全的超集；
+   * 含环视或能匹配空串的正则无法这样推断，退化为全部放行。值中出现非 ASCII 字符时同样放行
+   *
+   * @param low  字符 0-63 的候选位
+   * @param high 字符 64-127 的候选位
+   * @param all  是否全部放行
+   */
+  public record Prefilter(long low, long high, boolean all) {
+
+    public static final Prefilter ALL = new Prefilter(-1L, -1L, true);
+
+    public boolean mayMatch(String value) {
+      if (all) {
+        return true;
+      }
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c >= 128 || (c < 64 ? (low >>> c & 1L) != 0 : (high >>> (c - 64) & 1L) != 0)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    static Prefilter of(Pattern compiled) {
+      String stripped = stripAssertions(compiled.pattern());
+      if (stripped == null) {
+        return ALL;
+      }
+      Pattern probe;
+      try {
+        probe = Pattern.compile(stripped, compiled.flags());
+      } catch (PatternSyntaxException e) {
+        return ALL;
+      }
+      if (probe.matcher("").lookingAt()) {
+        return ALL;
+      }
+      long low = 0;
+      long high = 0;
+      for (char c = 0; c < 128; c++) {
+        Matcher matcher = probe.matcher(String.valueOf(c));
+        // 单字符即匹配，或需要更多输入 (hitEnd) 都说明 c 可以作为匹配的首字符
+        if (matcher.lookingAt() || matcher.hitEnd()) {
+          if (c < 64) {
+            low |= 1L << c;
+          } else {
+            high |= 1L << (c - 64);
+          }
+        }
+      }
+      return new Prefilter(low, high, false);
+    }
+
+    /**
+     * 去掉字符类之外的零宽断言；含环视时返回 null
+     */
+    private static String stripAssertions(String pattern) {
+      StringBuilder out = new StringBuilder(pattern.length());
+      int classDepth = 0;
+      int i = 0;
+      while (i < pattern.length()) {
+        char c = pattern.charAt(i);
+        if (c == '\\' && i + 1 < pattern.length()) {
+          char next = pattern.charAt(i + 1);
+          if (next == 'Q') {
+            // \Q...\E 内的内容按字面量原样保留
+            int end = pattern.indexOf("\\E", i + 2);
+            end = end < 0 ? pattern.length() : end + 2;
+            out.append(pattern, i, end);
+            i = end;
+            continue;
+          }
+          if (classDepth > 0 || "bBAzZG".indexOf(next) < 0) {
+            out.append(c).append(next);
+          }
+          i += 2;
+          continue;
+        }
+        if (c == '[') {
+          classDepth++;
+        } else if (c == ']' && classDepth > 0) {
+          classDepth--;
+        } else if (classDepth == 0) {
+          if (pattern.startsWith("(?=", i) || pattern.startsWith("(?!", i)
+            || pattern.startsWith("(?<=", i) || pattern.startsWith("(?<!", i)) {
+            return null;
+          }
+          if (c == '^' || c == '$') {
+            i++;
+            continue;
+          }
+        }
+        out.append(c);
+        i++;
+      }
+      return out.toString();
     }
   }
 }
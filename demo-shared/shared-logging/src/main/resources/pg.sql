@@ -4,10 +4,21 @@ SET search_path TO engine;
 -- 启用 UUID 扩展（可选，如果 correlation_id 是 UUID 类型）
 -- CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
+-- 按 created_time 每天一个分区 (范围分区)
+-- 分区由 shared-logging 的 HttpExchangeLogPartitionManager 预建与清理 (logbook.database.partition)，
+-- 过期数据整块卸载/删除分区，不做大批量 DELETE；索引建在父表上，每个分区各自一份，随分区一起删除
+--
+-- 旧的非分区表无法原地转换，升级步骤：
+--   1. ALTER TABLE http_exchange_log RENAME TO http_exchange_log_legacy;
+--   2. 执行本脚本建立分区表，启用 partition 并启动应用预建分区
+--   3. 需要保留的历史数据按天 INSERT INTO http_exchange_log SELECT ... FROM http_exchange_log_legacy 回填
+--      (回填前先建好对应日期的分区，否则落入默认分区)，确认后删除旧表
+-- 写入依赖 ON CONFLICT (correlation_id, created_time)；旧表没有该唯一约束时，开启数据库导出的应用启动即失败，需先完成上述迁移
 CREATE TABLE IF NOT EXISTS http_exchange_log (
-  -- 核心关联ID，必须唯一以支持 ON CONFLICT
-  correlation_id VARCHAR(64) NOT NULL PRIMARY KEY,
+  -- 核心关联ID，与分区键组成主键以支持 ON CONFLICT
+  correlation_id VARCHAR(64) NOT NULL,
   -- 时间字段，Postgres 推荐使用 TIMESTAMPTZ
+  -- 分区键：取 Logbook 记录的请求开始时间，请求与响应两阶段写入同一值
   created_time TIMESTAMPTZ NOT NULL DEFAULT NOW(),
   request_time TIMESTAMPTZ,
   response_time TIMESTAMPTZ,
@@ -19,31 +30,169 @@ CREATE TABLE IF NOT EXISTS http_exchange_log (
   -- 【关键】使用 JSONB 存储结构化数据
   request_headers JSONB,
   request_content JSONB,
+  request_content_length INTEGER, -- 原始请求体字节数 (截断前)
   content_type VARCHAR(100),
   -- 响应信息
   status_code INTEGER,
   response_headers JSONB,
   response_content JSONB,
+  response_content_length INTEGER, -- 原始响应体字节数 (截断前)
   -- 客户端信息
   client_info TEXT,
   ip VARCHAR(45),
   user_agent TEXT,
+  -- 业务标识：采集时取自请求头 X-Biz-Id / X-Batch-Id / X-Jnl-No，缺失时取 BizContext 在请求属性中的快照，再缺失取 MDC
+  biz_id VARCHAR(64),
+  batch_id VARCHAR(64),
+  jnl_no VARCHAR(64),
+  -- 内容寻址存储 (logbook.database.storage=content-addressed)：指向旁表的 SHA-256 摘要
+  -- 此时 *_headers 只保留不参与去重的 Header，*_content 为空；读取请用 http_exchange_log_full 视图
+  request_headers_digest BYTEA,
+  request_content_digest BYTEA,
+  response_headers_digest BYTEA,
+  response_content_digest BYTEA,
+  -- 大 Body 压缩 (logbook.database.compression)：首字节为编码标记，此时对应的 *_content 为空
+  -- 读取请用 BodyCompressor.decode 还原
+  request_content_compressed BYTEA,
+  response_content_compressed BYTEA,
   -- 状态
   truncated BOOLEAN DEFAULT FALSE,
   complete BOOLEAN DEFAULT FALSE,
-  -- 约束
-  CONSTRAINT uq_correlation_id UNIQUE (correlation_id)
-  );
+  -- 约束：分区表的唯一约束必须包含分区键
+  CONSTRAINT pk_http_exchange_log PRIMARY KEY (correlation_id, created_time)
+  ) PARTITION BY RANGE (created_time);
+
+-- 默认分区：兜底没有对应日期分区的数据 (如重放早已过期的积压)，正常情况下应为空
+-- 默认分区中存在某天的数据时，分区维护在建该天分区的同一事务内先把这些行移出，建好后写回
+-- 注意：存在默认分区时 PG 不支持 DETACH PARTITION CONCURRENTLY，过期分区退回普通 DETACH (短暂持有父表锁，受 lock-timeout 约束)；
+-- 不需要兜底时可删除默认分区，卸载即改为 CONCURRENTLY，不阻塞写入
+CREATE TABLE IF NOT EXISTS http_exchange_log_default PARTITION OF http_exchange_log DEFAULT;
 
--- 索引优化
+-- 索引优化 (在父表上定义，自动作用于每个分区)
 -- 1. 基础查询索引
-CREATE INDEX IF NOT EXISTS idx_created_time ON http_exchange_log(created_time);
+-- (created_time, correlation_id) 对应查询接口的 keyset 分页顺序，同时覆盖按时间范围查询，取代原单列 created_time 索引
+CREATE INDEX IF NOT EXISTS idx_created_time_correlation ON http_exchange_log(created_time, correlation_id);
+DROP INDEX IF EXISTS idx_created_time;
 CREATE INDEX IF NOT EXISTS idx_request_time ON http_exchange_log(request_time);
 
+-- 查询接口的过滤条件 (HttpExchangeLogQueryRepository)：关联 ID 走主键，耗时只作为剩余过滤条件不单独建索引
+-- URI 前缀：uri 保存的是绝对地址，按去掉 scheme://host[:port] 后的路径建表达式索引，text_pattern_ops 支持 LIKE 'prefix%'
+CREATE OR REPLACE FUNCTION uri_path(uri TEXT) RETURNS TEXT
+  LANGUAGE SQL IMMUTABLE PARALLEL SAFE
+  AS $$ SELECT regexp_replace(uri, '^[a-zA-Z][a-zA-Z0-9+.-]*://[^/?#]*', '') $$;
+CREATE INDEX IF NOT EXISTS idx_uri_path ON http_exchange_log(uri_path(uri) text_pattern_ops, created_time);
+-- 状态码：等值条件下直接按时间顺序返回
+CREATE INDEX IF NOT EXISTS idx_status_created_time ON http_exchange_log(status_code, created_time);
+
 -- 2. JSONB GIN 索引 (Postgres 的杀手锏)
 -- 允许你高效查询：WHERE request_headers @> '{"Content-Type": "application/json"}'
+-- 按分区建立，分区卸载时一并移除，不会无限膨胀
 CREATE INDEX IF NOT EXISTS idx_request_headers_gin ON http_exchange_log USING GIN (request_headers);
 CREATE INDEX IF NOT EXISTS idx_response_headers_gin ON http_exchange_log USING GIN (response_headers);
 
+-- 已有分区表升级：补充内容摘要列
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS request_headers_digest BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS request_content_digest BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS response_headers_digest BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS response_content_digest BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS request_content_compressed BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS response_content_compressed BYTEA;
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS biz_id VARCHAR(64);
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS batch_id VARCHAR(64);
+ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS jnl_no VARCHAR(64);
+
+-- 业务标识：按 ID 直接定位交换，不再对 request_headers 做 GIN 包含查询；大部分请求不带这些 ID，只索引非空行
+CREATE INDEX IF NOT EXISTS idx_biz_id ON http_exchange_log(biz_id, created_time) WHERE biz_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_batch_id ON http_exchange_log(batch_id, created_time) WHERE batch_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_jnl_no ON http_exchange_log(jnl_no, created_time) WHERE jnl_no IS NOT NULL;
+
 -- 如果你需要经常查询请求体里的内容，也可以给 content 加索引
 -- CREATE INDEX IF NOT EXISTS idx_request_content_gin ON http_exchange_log USING GIN (request_content);
+
+-- COPY 批量写入 (logbook.database.writer=copy) 改为每批在事务内建临时表 (ON COMMIT DROP，定义见 HttpExchangeLogPGCopyWriter)，
+-- 不再使用共享的 UNLOGGED 暂存表 (按批 DELETE 会让其无限膨胀)；旧版本应用全部下线后删除：
+-- DROP TABLE IF EXISTS http_exchange_log_staging;
+
+-- 内容寻址旁表：脱敏后的 Body / Header 集合按 SHA-256 摘要只存一份
+-- 不分区，也不随主表分区删除；主表不再引用的内容由 HttpExchangeContentCollector 定期回收
+-- (logbook.database.content-addressed.gc)：只删除 last_seen 早于 grace 且主表四个摘要列均无引用的行。
+-- 写入时已存在的行距上次刷新超过 cache-ttl 才刷新 last_seen，应用本地摘要缓存 cache-ttl 后过期，
+-- grace 大于 2 × cache-ttl 即可保证缓存命中 (跳过旁表写入) 的摘要不会已被回收，回收后无需重启应用
+CREATE TABLE IF NOT EXISTS http_exchange_body (
+  digest BYTEA NOT NULL PRIMARY KEY,
+  content JSONB NOT NULL,
+  created_time TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  last_seen TIMESTAMPTZ NOT NULL DEFAULT NOW()
+  );
+
+CREATE TABLE IF NOT EXISTS http_exchange_headers (
+  digest BYTEA NOT NULL PRIMARY KEY,
+  content JSONB NOT NULL,
+  created_time TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  last_seen TIMESTAMPTZ NOT NULL DEFAULT NOW()
+  );
+
+ALTER TABLE http_exchange_body ADD COLUMN IF NOT EXISTS last_seen TIMESTAMPTZ NOT NULL DEFAULT NOW();
+ALTER TABLE http_exchange_headers ADD COLUMN IF NOT EXISTS last_seen TIMESTAMPTZ NOT NULL DEFAULT NOW();
+
+-- 回收时按摘要确认主表无引用；inline 存储的行摘要列为空，不进入这些部分索引
+CREATE INDEX IF NOT EXISTS idx_request_content_digest ON http_exchange_log(request_content_digest)
+  WHERE request_content_digest IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_response_content_digest ON http_exchange_log(response_content_digest)
+  WHERE response_content_digest IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_request_headers_digest ON http_exchange_log(request_headers_digest)
+  WHERE request_headers_digest IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_response_headers_digest ON http_exchange_log(response_headers_digest)
+  WHERE response_headers_digest IS NOT NULL;
+
+-- 读取视图：两种存储方式的行都还原为完整内容 (压缩的 Body 原样输出 *_content_compressed，由应用解码)
+-- Header：旁表中的共享部分与主表中逐请求变化的部分合并 (jsonb ||)
+CREATE OR REPLACE VIEW http_exchange_log_full AS
+SELECT
+  l.correlation_id, l.created_time, l.request_time, l.response_time, l.duration_millis,
+  l.method, l.uri, l.remote,
+  CASE WHEN l.request_headers_digest IS NULL THEN l.request_headers
+       ELSE rqh.content || COALESCE(l.request_headers, '{}'::jsonb) END AS request_headers,
+  COALESCE(l.request_content, rqb.content) AS request_content,
+  l.request_content_length, l.content_type,
+  l.status_code,
+  CASE WHEN l.response_headers_digest IS NULL THEN l.response_headers
+       ELSE rsh.content || COALESCE(l.response_headers, '{}'::jsonb) END AS response_headers,
+  COALESCE(l.response_content, rsb.content) AS response_content,
+  l.response_content_length,
+  l.request_content_compressed, l.response_content_compressed,
+  l.client_info, l.ip, l.user_agent, l.truncated, l.complete,
+  l.biz_id, l.batch_id, l.jnl_no
+FROM http_exchange_log l
+LEFT JOIN http_exchange_headers rqh ON rqh.digest = l.request_headers_digest
+LEFT JOIN http_exchange_body rqb ON rqb.digest = l.request_content_digest
+LEFT JOIN http_exchange_headers rsh ON rsh.digest = l.response_headers_digest
+LEFT JOIN http_exchange_body rsb ON rsb.digest = l.response_content_digest;
+
+-- 按接口的延迟汇总 (logbook.rollup.enable)：每个实例每个窗口每个 (method, uri 模板) 一行
+-- uri 模板中的纯数字段为 {id}、UUID 段为 {uuid}；超出 max-series 的组合记为 method '*'、模板 '{other}'
+-- histogram 为 HdrHistogram 压缩编码，多实例、多窗口的分位数需解码合并后计算，不能对 p99 列取平均
+-- 同一实例重复写入同一窗口 (停机后在窗口内重启、刷写延迟) 时，应用侧读出已有行合并直方图与计数后覆盖
+CREATE TABLE IF NOT EXISTS http_latency_rollup (
+  window_start TIMESTAMPTZ NOT NULL,
+  window_seconds INTEGER NOT NULL,
+  instance VARCHAR(255) NOT NULL,
+  method VARCHAR(10) NOT NULL,
+  uri_template TEXT NOT NULL,
+  request_count BIGINT NOT NULL,
+  status_2xx BIGINT NOT NULL,
+  status_3xx BIGINT NOT NULL,
+  status_4xx BIGINT NOT NULL,
+  status_5xx BIGINT NOT NULL,
+  status_other BIGINT NOT NULL,
+  min_millis BIGINT NOT NULL,
+  p50_millis BIGINT NOT NULL,
+  p90_millis BIGINT NOT NULL,
+  p99_millis BIGINT NOT NULL,
+  max_millis BIGINT NOT NULL,
+  mean_millis DOUBLE PRECISION NOT NULL,
+  histogram BYTEA NOT NULL,
+  PRIMARY KEY (window_start, instance, method, uri_template)
+  );
+
+CREATE INDEX IF NOT EXISTS idx_latency_rollup_template ON http_latency_rollup (uri_template, window_start);
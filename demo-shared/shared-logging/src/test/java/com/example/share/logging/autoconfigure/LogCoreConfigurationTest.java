@@ -0,0 +1,62 @@
+package com.example.share.logging.autoconfigure;
+
+import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.pipeline.CoalescingLogProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogCoreConfigurationTest {
+
+  private final ApplicationContextRunner runner = new ApplicationContextRunner()
+    .withUserConfiguration(CustomProcessorConfiguration.class, LogCoreConfiguration.class);
+
+  @Test
+  @DisplayName("合并层包装应用自定义的 LogProcessor，未覆盖 processExchange 的实现仍能拿到请求数据")
+  void wrapsCustomProcessor() {
+    runner.run(context -> {
+      assertThat(context).hasNotFailed();
+      LogProcessor processor = context.getBean(LogProcessor.class);
+      assertThat(processor).isInstanceOf(CoalescingLogProcessor.class);
+
+      processor.processRequest(new HttpExchangeLog().setCorrelationId("id-1"));
+      processor.processResponse(new HttpExchangeLog().setCorrelationId("id-1"));
+
+      assertThat(context.getBean(RecordingProcessor.class).events)
+        .containsExactly("REQUEST:id-1", "RESPONSE:id-1");
+    });
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  static class CustomProcessorConfiguration {
+
+    @Bean
+    RecordingProcessor customProcessor() {
+      return new RecordingProcessor();
+    }
+  }
+
+  // 只实现请求、响应两个阶段的旧式处理器
+  static class RecordingProcessor implements LogProcessor {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void processRequest(HttpExchangeLog log) {
+      events.add("REQUEST:" + log.getCorrelationId());
+    }
+
+    @Override
+    public void processResponse(HttpExchangeLog log) {
+      events.add("RESPONSE:" + log.getCorrelationId());
+    }
+  }
+}
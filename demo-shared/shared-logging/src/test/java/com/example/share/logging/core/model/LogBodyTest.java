@@ -0,0 +1,93 @@
+package com.example.share.logging.core.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogBodyTest {
+
+  private static final String JSON = "{\"name\":\"张三\",\"phone\":\"13800138000\"}";
+
+  @Test
+  @DisplayName("解码后文本缓存在字节旁边，字节仍返回原始数组")
+  void cachesTextAlongsideBytes() {
+    byte[] raw = JSON.getBytes(StandardCharsets.UTF_8);
+    LogBody body = LogBody.of(raw, StandardCharsets.UTF_8);
+
+    assertThat(body.isUtf8Bytes()).isTrue();
+    assertThat(body.bytes()).isSameAs(raw);
+
+    assertThat(body.text()).isEqualTo(JSON).isSameAs(body.text());
+    assertThat(body.isUtf8Bytes()).isTrue();
+    assertThat(body.bytes()).isSameAs(raw);
+  }
+
+  @Test
+  @DisplayName("以文本构建时首次取字节编码并缓存")
+  void cachesEncodedBytes() {
+    LogBody body = LogBody.of(JSON);
+
+    assertThat(body.isUtf8Bytes()).isFalse();
+    assertThat(body.bytes()).isEqualTo(JSON.getBytes(StandardCharsets.UTF_8)).isSameAs(body.bytes());
+    assertThat(body.text()).isSameAs(JSON);
+  }
+
+  @Test
+  @DisplayName("多个导出线程并发解码与取字节，结果一致")
+  void concurrentAccessIsConsistent() throws Exception {
+    byte[] raw = JSON.getBytes(StandardCharsets.UTF_8);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int round = 0; round < 200; round++) {
+        LogBody body = LogBody.of(raw, StandardCharsets.UTF_8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = IntStream.range(0, 8)
+          .mapToObj(i -> executor.submit(() -> {
+            start.await();
+            return i % 2 == 0
+              ? JSON.equals(body.text())
+              : Arrays.equals(raw, body.bytes());
+          }))
+          .toList();
+        start.countDown();
+        for (Future<Boolean> result : results) {
+          assertThat(result.get()).isTrue();
+        }
+        assertThat(body.text()).isEqualTo(JSON);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("按字节与字符集判等，两种构建方式内容相同即相等")
+  void equalsAcrossRepresentations() {
+    LogBody fromBytes = LogBody.of(JSON.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    LogBody fromText = LogBody.of(JSON);
+
+    assertThat(fromBytes).isEqualTo(LogBody.of(JSON.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+    assertThat(fromBytes).isEqualTo(fromText).hasSameHashCodeAs(fromText);
+    assertThat(LogBody.of("abc", StandardCharsets.UTF_8)).isNotEqualTo(LogBody.of("abc", StandardCharsets.ISO_8859_1));
+    assertThat(LogBody.of(" \n\t".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8).isBlank()).isTrue();
+  }
+
+  @Test
+  @DisplayName("JSON 序列化输出文本本身")
+  void serializesAsText() throws Exception {
+    LogBody body = LogBody.of(JSON.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+    assertThat(new ObjectMapper().writeValueAsString(body)).isEqualTo(new ObjectMapper().writeValueAsString(JSON));
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.share.logging.core.pipeline;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.api.LogProcessor;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.properties.LogPipelineProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class CoalescingLogProcessorTest {
+
+  private final List<String> forwarded = new CopyOnWriteArrayList<>();
+  private CoalescingLogProcessor processor;
+
+  @AfterEach
+  void tearDown() {
+    if (processor != null) {
+      processor.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("请求与响应合并为一次完整交换")
+  void coalescesRequestAndResponse() {
+    processor = newProcessor(Duration.ofSeconds(30), 100);
+    processor.processRequest(log("id-1"));
+    processor.processResponse(log("id-1"));
+
+    assertThat(forwarded).containsExactly("EXCHANGE:id-1");
+    assertThat(processor.getPendingCount()).isZero();
+    assertThat(processor.getCoalescedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("被完整交换覆盖的延迟请求快照不会被物化")
+  void discardsDeferredRequestWithoutMaterializing() {
+    processor = newProcessor(Duration.ofSeconds(30), 100);
+    AtomicInteger materialized = new AtomicInteger();
+    processor.captureRequest(LogCapture.deferred("id-1", () -> {
+      materialized.incrementAndGet();
+      return log("id-1");
+    }));
+    processor.captureResponse(LogCapture.deferred("id-1", () -> log("id-1")));
+
+    assertThat(forwarded).containsExactly("EXCHANGE:id-1");
+    assertThat(materialized).hasValue(0);
+  }
+
+  @Test
+  @DisplayName("超时未收到响应的请求作为孤儿日志写出")
+  void flushesOrphanAfterTimeout() {
+    processor = newProcessor(Duration.ofMillis(50), 100);
+    processor.processRequest(log("id-1"));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> forwarded.contains("REQUEST:id-1"));
+    assertThat(processor.getOrphanedCount()).isEqualTo(1);
+
+    // 迟到的响应仍按完整交换写出，覆盖孤儿行
+    processor.processResponse(log("id-1"));
+    assertThat(forwarded).containsExactly("REQUEST:id-1", "EXCHANGE:id-1");
+  }
+
+  @Test
+  @DisplayName("暂存数达到上限后请求直接透传")
+  void passesThroughWhenFull() {
+    processor = newProcessor(Duration.ofSeconds(30), 1);
+    processor.processRequest(log("id-1"));
+    processor.processRequest(log("id-2"));
+
+    assertThat(forwarded).containsExactly("REQUEST:id-2");
+    assertThat(processor.getPendingCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("停机时写出全部暂存请求")
+  void flushesPendingOnStop() {
+    processor = newProcessor(Duration.ofSeconds(30), 100);
+    processor.processRequest(log("id-1"));
+    processor.stop();
+
+    assertThat(forwarded).containsExactly("REQUEST:id-1");
+  }
+
+  private CoalescingLogProcessor newProcessor(Duration timeout, int maxPending) {
+    LogProcessor delegate = new LogProcessor() {
+      @Override
+      public void processRequest(HttpExchangeLog log) {
+        forwarded.add("REQUEST:" + log.getCorrelationId());
+      }
+
+      @Override
+      public void processResponse(HttpExchangeLog log) {
+        forwarded.add("RESPONSE:" + log.getCorrelationId());
+      }
+
+      @Override
+      public void processExchange(HttpExchangeLog log) {
+        forwarded.add("EXCHANGE:" + log.getCorrelationId());
+      }
+    };
+    CoalescingLogProcessor coalescer = new CoalescingLogProcessor(delegate,
+      new LogPipelineProperties.Coalescing(true, timeout, maxPending), new SimpleMeterRegistry());
+    coalescer.start();
+    return coalescer;
+  }
+
+  private static HttpExchangeLog log(String correlationId) {
+    return new HttpExchangeLog().setCorrelationId(correlationId);
+  }
+}
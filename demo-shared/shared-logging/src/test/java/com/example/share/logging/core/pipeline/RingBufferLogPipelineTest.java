@@ -0,0 +1,139 @@
+package com.example.share.logging.core.pipeline;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.pipeline.buffer.OverflowPolicy;
+import com.example.share.logging.core.properties.LogPipelineProperties;
+import com.example.share.logging.export.dispatcher.LogExporterDispatcher;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.sanitization.engine.SanitizationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RingBufferLogPipelineTest {
+
+  private final List<String> exported = new CopyOnWriteArrayList<>();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private RingBufferLogPipeline pipeline;
+
+  @AfterEach
+  void tearDown() {
+    if (pipeline != null) {
+      pipeline.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("DROP_NEWEST：缓冲区满时丢弃新日志")
+  void dropNewest() {
+    pipeline = newPipeline(OverflowPolicy.DROP_NEWEST);
+    publish(5);
+
+    assertThat(pipeline.getEnqueuedCount()).isEqualTo(2);
+    assertThat(pipeline.getDroppedCount()).isEqualTo(3);
+    assertThat(registry.get("logbook.pipeline.dropped").functionCounter().count()).isEqualTo(3);
+
+    pipeline.start();
+    await().atMost(Duration.ofSeconds(5)).until(() -> exported.size() == 2);
+    assertThat(exported).containsExactly("id-0", "id-1");
+  }
+
+  @Test
+  @DisplayName("DROP_OLDEST：淘汰最旧日志，保留最新日志")
+  void dropOldest() {
+    pipeline = newPipeline(OverflowPolicy.DROP_OLDEST);
+    publish(5);
+
+    assertThat(pipeline.getEnqueuedCount()).isEqualTo(5);
+    assertThat(pipeline.getDroppedCount()).isEqualTo(3);
+    assertThat(pipeline.getQueueDepth()).isEqualTo(2);
+
+    pipeline.start();
+    await().atMost(Duration.ofSeconds(5)).until(() -> exported.size() == 2);
+    assertThat(exported).containsExactly("id-3", "id-4");
+  }
+
+  @Test
+  @DisplayName("BLOCK：超时后丢弃，不会无限阻塞请求线程")
+  void blockTimesOut() {
+    pipeline = newPipeline(OverflowPolicy.BLOCK);
+    long start = System.nanoTime();
+    publish(3);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    assertThat(pipeline.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("停机时排空缓冲区")
+  void drainsOnStop() {
+    pipeline = newPipeline(OverflowPolicy.DROP_NEWEST);
+    publish(2);
+    pipeline.start();
+    pipeline.stop();
+
+    assertThat(exported).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("记录各步骤耗时、Body 大小与被吞掉的异常")
+  void recordsStageMetrics() {
+    pipeline = newPipeline(OverflowPolicy.DROP_NEWEST);
+    pipeline.captureRequest(LogCapture.deferred("bad", () -> {
+      throw new IllegalStateException("boom");
+    }));
+    pipeline.processRequest(new HttpExchangeLog().setCorrelationId("id-0").setRequestContentLength(128));
+    pipeline.start();
+
+    await().atMost(Duration.ofSeconds(5))
+      .until(() -> registry.get("logbook.pipeline.lag").timer().count() == 1);
+    assertThat(exported).containsExactly("id-0");
+    assertThat(registry.get("logbook.pipeline.errors").tag("stage", "map").counter().count()).isEqualTo(1);
+    assertThat(registry.get("logbook.pipeline.stage").tag("stage", "map").timer().count()).isEqualTo(1);
+    assertThat(registry.get("logbook.pipeline.stage").tag("stage", "dispatch").timer().count()).isEqualTo(1);
+    assertThat(registry.get("logbook.body.size").tag("direction", "request").summary().totalAmount())
+      .isEqualTo(128);
+    assertThat(registry.get("logbook.dispatcher.exported").tag("exporter", "memory").counter().count())
+      .isEqualTo(1);
+  }
+
+  private RingBufferLogPipeline newPipeline(OverflowPolicy policy) {
+    LogPipelineProperties properties = new LogPipelineProperties(
+      LogPipelineProperties.Mode.RING_BUFFER, 2, 1, policy,
+      Duration.ofMillis(20), 10, 0.8, Duration.ofSeconds(5),
+      new LogPipelineProperties.Coalescing(false, Duration.ofSeconds(30), 10000));
+    LogExporter exporter = new LogExporter() {
+      @Override
+      public String getName() {
+        return "memory";
+      }
+
+      @Override
+      public void exportRequest(HttpExchangeLog log) {
+        exported.add(log.getCorrelationId());
+      }
+
+      @Override
+      public void exportResponse(HttpExchangeLog log) {
+        exported.add(log.getCorrelationId());
+      }
+    };
+    return new RingBufferLogPipeline(new SanitizationEngine(List.of(), registry),
+      new LogExporterDispatcher(List.of(exporter), registry), properties, registry);
+  }
+
+  private void publish(int count) {
+    for (int i = 0; i < count; i++) {
+      pipeline.processRequest(new HttpExchangeLog().setCorrelationId("id-" + i));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.share.logging.core.pipeline.buffer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BackpressureQueueTest {
+
+  private static final int PARKING_TRIES = 1_000;
+
+  @Test
+  @DisplayName("空闲消费者休眠后由 offer 唤醒，而不是等到休眠超时")
+  void offerWakesParkedConsumer() throws Exception {
+    BackpressureQueue<String> queue = queue();
+    AtomicLong wokenAt = new AtomicLong();
+    Thread consumer = Thread.ofPlatform().start(() -> {
+      while (queue.poll() == null) {
+        queue.idle(PARKING_TRIES);
+      }
+      wokenAt.set(System.nanoTime());
+    });
+    awaitParked(consumer);
+
+    long offeredAt = System.nanoTime();
+    assertThat(queue.offer("log")).isTrue();
+    consumer.join(5_000);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(wokenAt.get() - offeredAt)).isLessThan(25);
+  }
+
+  @Test
+  @DisplayName("队列非空时不休眠；停机时 wakeConsumers 唤醒全部休眠的消费者")
+  void skipsParkingWhenNotEmptyAndWakesAllOnStop() throws Exception {
+    BackpressureQueue<String> queue = queue();
+    queue.offer("log");
+    long start = System.nanoTime();
+    queue.idle(PARKING_TRIES);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(25);
+    queue.poll();
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicInteger stopped = new AtomicInteger();
+    Thread[] consumers = new Thread[2];
+    for (int i = 0; i < consumers.length; i++) {
+      consumers[i] = Thread.ofPlatform().start(() -> {
+        while (running.get()) {
+          queue.idle(PARKING_TRIES);
+        }
+        stopped.incrementAndGet();
+      });
+    }
+    for (Thread consumer : consumers) {
+      awaitParked(consumer);
+    }
+
+    start = System.nanoTime();
+    running.set(false);
+    queue.wakeConsumers();
+    for (Thread consumer : consumers) {
+      consumer.join(5_000);
+    }
+
+    assertThat(stopped).hasValue(2);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(25);
+  }
+
+  private static void awaitParked(Thread consumer) {
+    await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(1))
+      .until(() -> consumer.getState() == Thread.State.TIMED_WAITING);
+  }
+
+  private static BackpressureQueue<String> queue() {
+    return new BackpressureQueue<>(8, OverflowPolicy.DROP_NEWEST, Duration.ZERO, 1, 1.0);
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.share.logging.core.pipeline.buffer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedRingBufferTest {
+
+  @Test
+  @DisplayName("容量向上取整为 2 的幂")
+  void capacityRoundsUpToPowerOfTwo() {
+    assertThat(new BoundedRingBuffer<String>(1000).capacity()).isEqualTo(1024);
+    assertThat(new BoundedRingBuffer<String>(8).capacity()).isEqualTo(8);
+    assertThatThrownBy(() -> new BoundedRingBuffer<String>(1))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("先进先出，满时 offer 返回 false，空时 poll 返回 null")
+  void fifoAndBounds() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(buffer.offer(i)).isTrue();
+    }
+    assertThat(buffer.offer(99)).isFalse();
+    assertThat(buffer.size()).isEqualTo(4);
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(buffer.poll()).isEqualTo(i);
+    }
+    assertThat(buffer.poll()).isNull();
+    assertThat(buffer.isEmpty()).isTrue();
+  }
+
+  @Test
+  @DisplayName("多生产者多消费者：不丢失、不重复")
+  void concurrentProducersAndConsumers() throws Exception {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+    int producers = 4;
+    int perProducer = 20_000;
+    Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+    AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+    CountDownLatch done = new CountDownLatch(producers + 2);
+
+    ExecutorService pool = Executors.newFixedThreadPool(producers + 2);
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      pool.execute(() -> {
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(base + i)) {
+            Thread.onSpinWait();
+          }
+        }
+        done.countDown();
+      });
+    }
+    for (int c = 0; c < 2; c++) {
+      pool.execute(() -> {
+        while (remaining.get() > 0) {
+          Integer value = buffer.poll();
+          if (value != null) {
+            assertThat(consumed.add(value)).isTrue();
+            remaining.decrementAndGet();
+          }
+        }
+        done.countDown();
+      });
+    }
+
+    assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+    pool.shutdownNow();
+    assertThat(consumed).hasSize(producers * perProducer);
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.share.logging.core.policy;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogPhase;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapturePolicyTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("错误与慢调用保留 Body，未抽中的只保留元数据")
+  void keepsErrorsAndSlowCalls() {
+    CapturePolicy policy = policy(0.0, List.of());
+
+    HttpExchangeLog error = exchange("/api/orders", 500, 10);
+    assertThat(policy.apply(LogPhase.EXCHANGE, error)).isEqualTo(CapturePolicy.Decision.ERROR);
+    assertThat(error.getResponseBody()).isNotNull();
+
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/orders", 200, 1500)))
+      .isEqualTo(CapturePolicy.Decision.SLOW);
+
+    HttpExchangeLog ok = exchange("/api/orders", 200, 10);
+    assertThat(policy.apply(LogPhase.EXCHANGE, ok)).isEqualTo(CapturePolicy.Decision.UNSAMPLED);
+    assertThat(ok.getRequestBody()).isNull();
+    assertThat(ok.getResponseBody()).isNull();
+    assertThat(ok.getResponseContentLength()).isEqualTo(2);
+
+    assertThat(registry.get("logbook.capture.policy").tag("decision", "unsampled").counter().count())
+      .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("请求阶段结果未知时先保留")
+  void keepsPendingRequests() {
+    CapturePolicy policy = policy(0.0, List.of());
+    HttpExchangeLog request = exchange("/api/orders", null, null);
+    request.setResponseBody(null);
+
+    assertThat(policy.apply(LogPhase.REQUEST, request)).isEqualTo(CapturePolicy.Decision.PENDING);
+    assertThat(request.getRequestBody()).isNotNull();
+  }
+
+  @Test
+  @DisplayName("URI 预算耗尽后降级为元数据，按速率恢复")
+  void throttlesByUriBudget() {
+    CapturePolicy policy = policy(1.0, List.of(new LogCaptureProperties.Budget("/api/**/list/**", 1, 2)));
+
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/user/list/1", 200, 10)))
+      .isEqualTo(CapturePolicy.Decision.SAMPLED);
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/user/list/2", 500, 10)))
+      .isEqualTo(CapturePolicy.Decision.ERROR);
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/user/list/3", 500, 10)))
+      .isEqualTo(CapturePolicy.Decision.THROTTLED);
+    // 未命中预算的 URI 不受影响
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/orders", 200, 10)))
+      .isEqualTo(CapturePolicy.Decision.SAMPLED);
+
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertThat(policy.apply(LogPhase.EXCHANGE, exchange("/api/user/list/4", 200, 10)))
+      .isEqualTo(CapturePolicy.Decision.SAMPLED);
+  }
+
+  @Test
+  @DisplayName("从绝对地址中取出路径")
+  void extractsPath() {
+    assertThat(CapturePolicy.pathOf("http://localhost:8080/api/user/list?page=1")).isEqualTo("/api/user/list");
+    assertThat(CapturePolicy.pathOf("https://example.com")).isEqualTo("/");
+    assertThat(CapturePolicy.pathOf("/api/orders")).isEqualTo("/api/orders");
+  }
+
+  private CapturePolicy policy(double sampleRate, List<LogCaptureProperties.Budget> budgets) {
+    return new CapturePolicy(new LogCaptureProperties.Policy(true, 400, Duration.ofSeconds(1), sampleRate, budgets),
+      registry, clock::get);
+  }
+
+  private static HttpExchangeLog exchange(String path, Integer status, Integer durationMillis) {
+    HttpExchangeLog exchangeLog = new HttpExchangeLog();
+    exchangeLog.setUri("http://localhost:8080" + path);
+    exchangeLog.setStatusCode(status);
+    exchangeLog.setDurationMillis(durationMillis == null ? null : durationMillis.longValue());
+    exchangeLog.setRequestBody(LogBody.of("{}"));
+    exchangeLog.setRequestContentLength(2);
+    exchangeLog.setResponseBody(LogBody.of("{}"));
+    exchangeLog.setResponseContentLength(2);
+    return exchangeLog;
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.share.logging.export.dispatcher;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.pipeline.buffer.OverflowPolicy;
+import com.example.share.logging.export.exporter.LogExporter;
+import com.example.share.logging.export.properties.DispatcherProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class LogExporterDispatcherTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private LogExporterDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (dispatcher != null) {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("卡住的 Exporter 不影响其他 Exporter，自身按溢出策略丢弃")
+  void slowExporterDoesNotBlockOthers() {
+    List<String> fast = new CopyOnWriteArrayList<>();
+    LogExporter hung = new NamedExporter("database", log -> awaitRelease());
+    LogExporter quick = new NamedExporter("file", log -> fast.add(log.getCorrelationId()));
+
+    DispatcherProperties.Lane lane = new DispatcherProperties.Lane(2, 1, OverflowPolicy.DROP_NEWEST,
+      Duration.ofMillis(10), 10, 0.8, Duration.ofSeconds(30));
+    DispatcherProperties properties = new DispatcherProperties(true, lane, Map.of(), Duration.ofMillis(200));
+    dispatcher = new LogExporterDispatcher(List.of(hung, quick), properties, registry);
+    dispatcher.start();
+
+    for (int i = 0; i < 10; i++) {
+      dispatcher.exportExchange(new HttpExchangeLog().setCorrelationId("id-" + i));
+      // 快速 Exporter 的队列同样只有 2 个槽位，逐条等待其消费
+      int expected = i + 1;
+      await().atMost(Duration.ofSeconds(5)).until(() -> fast.size() == expected);
+    }
+
+    assertThat(fast).hasSize(10);
+    assertThat(registry.get("logbook.dispatcher.dropped").tag("exporter", "database").functionCounter().count())
+      .isGreaterThan(0);
+    assertThat(registry.get("logbook.dispatcher.dropped").tag("exporter", "file").functionCounter().count())
+      .isZero();
+  }
+
+  @Test
+  @DisplayName("单次调用超过 call-timeout 的线程被放弃，另起线程继续消费并计数")
+  void abandonsStuckWorker() {
+    List<String> exported = new CopyOnWriteArrayList<>();
+    LogExporter stuck = new NamedExporter("database", log -> {
+      if (log.getCorrelationId().equals("id-0")) {
+        // 忽略中断，模拟无法取消的调用
+        while (release.getCount() > 0) {
+          awaitRelease();
+        }
+      }
+      exported.add(log.getCorrelationId());
+    });
+    DispatcherProperties.Lane lane = new DispatcherProperties.Lane(16, 1, OverflowPolicy.DROP_NEWEST,
+      Duration.ofMillis(10), 10, 0.8, Duration.ofMillis(50));
+    DispatcherProperties properties = new DispatcherProperties(true, lane, Map.of(), Duration.ofMillis(200));
+    dispatcher = new LogExporterDispatcher(List.of(stuck), properties, registry);
+    dispatcher.start();
+
+    for (int i = 0; i < 3; i++) {
+      dispatcher.exportExchange(new HttpExchangeLog().setCorrelationId("id-" + i));
+    }
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> exported.size() == 2);
+    assertThat(exported).containsExactly("id-1", "id-2");
+    assertThat(registry.get("logbook.dispatcher.timeouts").tag("exporter", "database").counter().count())
+      .isEqualTo(1);
+    assertThat(registry.get("logbook.dispatcher.stuck").tag("exporter", "database").gauge().value()).isEqualTo(1);
+
+    // 卡住的调用返回后线程退出，不再消费
+    release.countDown();
+    await().atMost(Duration.ofSeconds(5))
+      .until(() -> registry.get("logbook.dispatcher.stuck").gauge().value() == 0);
+    assertThat(exported).containsExactly("id-1", "id-2", "id-0");
+  }
+
+  @Test
+  @DisplayName("按名称覆盖通道参数")
+  void resolvesLanePerExporter() {
+    DispatcherProperties.Lane defaults = new DispatcherProperties.Lane(4096, 1, OverflowPolicy.BLOCK,
+      Duration.ofMillis(10), 10, 0.8, Duration.ofSeconds(30));
+    DispatcherProperties.Lane database = new DispatcherProperties.Lane(8192, 2, OverflowPolicy.DROP_OLDEST,
+      Duration.ofMillis(10), 10, 0.8, Duration.ofSeconds(30));
+    DispatcherProperties properties = new DispatcherProperties(true, defaults, Map.of("database", database),
+      Duration.ofSeconds(5));
+
+    assertThat(properties.laneFor("database")).isSameAs(database);
+    assertThat(properties.laneFor("file")).isSameAs(defaults);
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private record NamedExporter(String name, Consumer<HttpExchangeLog> action)
+    implements LogExporter {
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public void exportRequest(HttpExchangeLog log) {
+      action.accept(log);
+    }
+
+    @Override
+    public void exportResponse(HttpExchangeLog log) {
+      action.accept(log);
+    }
+
+    @Override
+    public void exportExchange(HttpExchangeLog log) {
+      action.accept(log);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.example.share.logging.export.endpoint;
+
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Criteria;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Summary;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class HttpExchangeLogExportEndpointTest {
+
+  private static final OffsetDateTime TIME = OffsetDateTime.of(2026, 10, 18, 8, 0, 0, 0, ZoneOffset.UTC);
+
+  private final HttpExchangeLogQueryRepository repository = mock(HttpExchangeLogQueryRepository.class);
+  private final HttpExchangeLogExportEndpoint endpoint = endpoint(Duration.ofMinutes(5));
+
+  @Test
+  @DisplayName("命中行经管道逐行输出为 NDJSON，时间为 ISO 格式")
+  @SuppressWarnings("unchecked")
+  void streamsNdjson() throws Exception {
+    doAnswer(invocation -> {
+      Consumer<Summary> consumer = invocation.getArgument(1);
+      consumer.accept(summary("id-1", 200));
+      consumer.accept(summary("id-2", 500));
+      return 2L;
+    }).when(repository).stream(any(), any());
+
+    String body;
+    try (InputStream in = endpoint.export(null, null, "/api", "5xx", null, null, null, null, null, null)
+      .getBody().getInputStream()) {
+      body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    assertThat(body.split("\n")).hasSize(2)
+      .satisfiesExactly(
+        line -> assertThat(line).startsWith("{\"correlationId\":\"id-1\",\"createdTime\":\"2026-10-18T08:00:00Z\""),
+        line -> assertThat(line).contains("\"correlationId\":\"id-2\"", "\"statusCode\":500"));
+    assertThat(body).endsWith("\n");
+
+    ArgumentCaptor<Criteria> criteria = ArgumentCaptor.forClass(Criteria.class);
+    verify(repository).stream(criteria.capture(), any(Consumer.class));
+    assertThat(criteria.getValue().uriPrefix()).isEqualTo("/api");
+    assertThat(criteria.getValue().minStatus()).isEqualTo(500);
+    assertThat(criteria.getValue().maxStatus()).isEqualTo(599);
+  }
+
+  @Test
+  @DisplayName("读取失败时截断输出并关闭输出流，不向调用方抛出")
+  void closesOutputWhenQueryFails() {
+    doThrow(new IllegalStateException("connection lost")).when(repository).stream(any(), any());
+    ClosingOutputStream out = new ClosingOutputStream();
+
+    endpoint.write(new Criteria(null, null, null, null, null, null, null, null, null, null, null), out);
+
+    assertThat(out.closed).isTrue();
+    assertThat(out.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("同时进行的导出达到上限时返回 429，结束后释放名额")
+  void rejectsExportsOverConcurrencyLimit() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      release.await();
+      return 0L;
+    }).when(repository).stream(any(), any());
+
+    WebEndpointResponse<Resource> first = export(endpoint);
+    WebEndpointResponse<Resource> second = export(endpoint);
+
+    assertThat(first.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    assertThat(second.getStatus()).isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+    assertThat(second.getBody()).isNull();
+
+    release.countDown();
+    try (InputStream in = first.getBody().getInputStream()) {
+      assertThat(in.readAllBytes()).isEmpty();
+    }
+    await().atMost(5, TimeUnit.SECONDS)
+      .until(() -> export(endpoint).getStatus() == WebEndpointResponse.STATUS_OK);
+  }
+
+  @Test
+  @DisplayName("超过导出时长上限时，即使客户端不再读取，写线程也会中止读取并释放名额")
+  void abortsExportPastMaxDuration() throws Exception {
+    AtomicBoolean aborted = new AtomicBoolean();
+    doAnswer(invocation -> {
+      Consumer<Summary> consumer = invocation.getArgument(1);
+      try {
+        // 客户端不读取：管道写满后写线程阻塞，直到读端被关闭
+        for (int i = 0; ; i++) {
+          consumer.accept(summary("id-" + i, 200));
+        }
+      } catch (RuntimeException e) {
+        aborted.set(true);
+        throw e;
+      }
+    }).when(repository).stream(any(), any());
+    HttpExchangeLogExportEndpoint bounded = endpoint(Duration.ofMillis(200));
+
+    assertThat(export(bounded).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+
+    await().atMost(5, TimeUnit.SECONDS).untilTrue(aborted);
+    await().atMost(5, TimeUnit.SECONDS)
+      .until(() -> export(bounded).getStatus() == WebEndpointResponse.STATUS_OK);
+  }
+
+  private HttpExchangeLogExportEndpoint endpoint(Duration maxDuration) {
+    return new HttpExchangeLogExportEndpoint(repository, new ObjectMapper().registerModule(new JavaTimeModule()),
+      new DatabaseExportProperties.Query(50, 500, 1000, Duration.ofDays(1), Duration.ofSeconds(30), 1, 1000,
+        maxDuration));
+  }
+
+  private static WebEndpointResponse<Resource> export(HttpExchangeLogExportEndpoint endpoint) throws Exception {
+    return endpoint.export(null, null, null, null, null, null, null, null, null, null);
+  }
+
+  private static Summary summary(String correlationId, int status) {
+    return new Summary(correlationId, TIME, TIME, TIME.plusNanos(12_000_000), 12L, "GET", "/api/users", "127.0.0.1",
+      status, "application/json", 0, 16, "127.0.0.1", false, true, null, null, null);
+  }
+
+  private static final class ClosingOutputStream extends ByteArrayOutputStream {
+
+    private boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
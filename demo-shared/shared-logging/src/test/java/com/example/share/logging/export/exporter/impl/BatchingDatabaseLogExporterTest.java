@@ -0,0 +1,131 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BatchingDatabaseLogExporterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<List<String>> written = new CopyOnWriteArrayList<>();
+  private BatchingDatabaseLogExporter exporter;
+
+  @AfterEach
+  void tearDown() {
+    if (exporter != null) {
+      exporter.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("攒够 size 条立即刷写，停机时排空剩余队列")
+  void flushesBySizeAndDrainsOnStop() {
+    exporter = newExporter(this::record, 3, Duration.ofHours(1), 16);
+    exporter.start();
+    IntStream.range(0, 7).forEach(i -> exporter.exportExchange(log("id-" + i)));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+    assertThat(written).containsExactly(List.of("id-0", "id-1", "id-2"), List.of("id-3", "id-4", "id-5"));
+
+    exporter.stop();
+    assertThat(written).hasSize(3);
+    assertThat(written.getLast()).containsExactly("id-6");
+  }
+
+  @Test
+  @DisplayName("未攒满时最早一条等待超过 max-latency 也会刷写")
+  void flushesByAge() {
+    exporter = newExporter(this::record, 100, Duration.ofMillis(20), 16);
+    exporter.start();
+    exporter.exportRequest(log("id-0"));
+    exporter.exportResponse(log("id-0"));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 1);
+    assertThat(written.getFirst()).containsExactly("id-0", "id-0");
+  }
+
+  @Test
+  @DisplayName("队列满且等待超时后丢弃并计数")
+  void dropsWhenQueueFull() {
+    // 不启动刷写线程，队列只进不出
+    exporter = newExporter(this::record, 100, Duration.ofHours(1), 2);
+    IntStream.range(0, 3).forEach(i -> exporter.exportExchange(log("id-" + i)));
+
+    assertThat(registry.get("logbook.database.batch.dropped").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("非瞬时失败二分拆批隔离坏行，只丢弃坏行")
+  void bisectsToIsolateBadRow() {
+    exporter = newExporter(events -> {
+      if (events.stream().anyMatch(event -> event.log().getCorrelationId().equals("bad"))) {
+        throw new DataIntegrityViolationException("value too long");
+      }
+      record(events);
+    }, 100, Duration.ofHours(1), 16);
+
+    List<LogEvent> batch = List.of(event("id-0"), event("id-1"), event("bad"), event("id-3"), event("id-4"));
+    assertThat(exporter.write(batch)).isEqualTo(1);
+
+    assertThat(written.stream().flatMap(List::stream)).containsExactlyInAnyOrder("id-0", "id-1", "id-3", "id-4");
+    assertThat(registry.get("logbook.database.batch.retries").counter().count()).isZero();
+    assertThat(registry.get("logbook.database.batch.failures").counter().count()).isGreaterThan(1);
+  }
+
+  @Test
+  @DisplayName("瞬时失败整批重试，重试耗尽后整批丢弃且不拆批")
+  void retriesTransientFailures() {
+    AtomicInteger calls = new AtomicInteger();
+    exporter = newExporter(events -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new QueryTimeoutException("timeout");
+      }
+      record(events);
+    }, 100, Duration.ofHours(1), 16);
+    assertThat(exporter.write(List.of(event("id-0"), event("id-1")))).isZero();
+    assertThat(written).containsExactly(List.of("id-0", "id-1"));
+
+    calls.set(0);
+    BatchingDatabaseLogExporter down = newExporter(events -> {
+      calls.incrementAndGet();
+      throw new QueryTimeoutException("timeout");
+    }, 100, Duration.ofHours(1), 16);
+    assertThat(down.write(List.of(event("id-0"), event("id-1")))).isEqualTo(2);
+    // 首次 + 2 次重试
+    assertThat(calls).hasValue(3);
+  }
+
+  private void record(List<LogEvent> events) {
+    written.add(events.stream().map(event -> event.log().getCorrelationId()).toList());
+  }
+
+  private BatchingDatabaseLogExporter newExporter(HttpExchangeLogBatchWriter writer, int size, Duration maxLatency,
+                                                  int queueCapacity) {
+    return new BatchingDatabaseLogExporter(writer, new DatabaseExportProperties.Batch(true, size, maxLatency,
+      queueCapacity, Duration.ofMillis(1), 2, Duration.ofMillis(1)), registry);
+  }
+
+  private static LogEvent event(String correlationId) {
+    return LogEvent.exchange(log(correlationId));
+  }
+
+  private static HttpExchangeLog log(String correlationId) {
+    return new HttpExchangeLog().setCorrelationId(correlationId);
+  }
+}
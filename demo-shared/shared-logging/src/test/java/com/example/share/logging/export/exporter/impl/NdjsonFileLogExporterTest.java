@@ -0,0 +1,251 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.export.properties.FileExportProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonFileLogExporterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("每条记录一行 JSON，停机时提交剩余缓冲")
+  void writesOneJsonPerLine() throws Exception {
+    NdjsonFileLogExporter exporter = newExporter(DataSize.ofMegabytes(100), 30);
+    exporter.start();
+    for (int i = 0; i < 3; i++) {
+      exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-" + i).setUri("/api/a"));
+    }
+    exporter.stop();
+
+    List<String> lines = Files.readAllLines(directory.resolve("http-exchange.ndjson"));
+    assertThat(lines).hasSize(3);
+    JsonNode first = objectMapper.readTree(lines.getFirst());
+    assertThat(first.get("correlationId").asText()).isEqualTo("id-0");
+  }
+
+  @Test
+  @DisplayName("超过大小后滚动并压缩，超出保留数的历史文件被清理")
+  void rotatesCompressesAndPrunes() throws Exception {
+    NdjsonFileLogExporter exporter = newExporter(DataSize.ofBytes(200), 2);
+    exporter.start();
+    for (int i = 0; i < 20; i++) {
+      exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-" + i).setUri("/api/a"));
+    }
+    exporter.stop();
+
+    List<Path> archived = list(".gz");
+    assertThat(archived).hasSize(2);
+    // 滚动出的文件都已压缩，只可能剩下当前文件
+    assertThat(list(".ndjson")).allMatch(path -> path.getFileName().toString().equals("http-exchange.ndjson"));
+    for (Path gzip : archived) {
+      assertThat(readGzip(gzip)).isNotEmpty().allSatisfy(line -> assertThat(objectMapper.readTree(line)).isNotNull());
+    }
+  }
+
+  @Test
+  @DisplayName("写入中途失败 (磁盘写满) 时截回记录边界，后续记录照常写入且每行都是完整 JSON")
+  void recoversFromFailedWrite() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    FailingChannel[] opened = new FailingChannel[1];
+    // 64 字节缓冲、逐条提交：长记录在序列化中途就会把缓冲落盘
+    FileExportProperties properties = new FileExportProperties(true, FileExportProperties.Mode.NDJSON,
+      directory, "http-exchange", DataSize.ofBytes(64), 1, Duration.ofMillis(50), false,
+      DataSize.ofMegabytes(100), Duration.ofDays(1), FileExportProperties.Compression.NONE, 2);
+    NdjsonFileLogExporter exporter = new NdjsonFileLogExporter(objectMapper, properties, registry,
+      path -> opened[0] = new FailingChannel(FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+    exporter.start();
+    String longUri = "/api/" + "a".repeat(300);
+
+    exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-0").setUri("/api/a"));
+    // 记录的前 10 个字节已落盘后失败：需截断文件
+    opened[0].failAfter(10);
+    exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-1").setUri(longUri));
+    opened[0].recover();
+    exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-2").setUri(longUri));
+    // 尚未落盘即失败：只回退缓冲
+    opened[0].failAfter(0);
+    exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-3").setUri(longUri));
+    opened[0].recover();
+    exporter.exportExchange(new HttpExchangeLog().setCorrelationId("id-4").setUri("/api/a"));
+    exporter.stop();
+
+    List<String> lines = Files.readAllLines(directory.resolve("http-exchange.ndjson"));
+    assertThat(lines).extracting(line -> objectMapper.readTree(line).get("correlationId").asText())
+      .containsExactly("id-0", "id-2", "id-4");
+    assertThat(registry.get("logbook.file.failures").counter().count()).isEqualTo(2);
+    assertThat(registry.get("logbook.file.written").counter().count()).isEqualTo(3);
+  }
+
+  private NdjsonFileLogExporter newExporter(DataSize maxFileSize, int maxHistory) {
+    FileExportProperties properties = new FileExportProperties(true, FileExportProperties.Mode.NDJSON,
+      directory, "http-exchange", DataSize.ofKilobytes(4), 2, Duration.ofMillis(50), false,
+      maxFileSize, Duration.ofDays(1), FileExportProperties.Compression.GZIP, maxHistory);
+    return new NdjsonFileLogExporter(objectMapper, properties, new SimpleMeterRegistry());
+  }
+
+  private List<Path> list(String suffix) throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(suffix)).toList();
+    }
+  }
+
+  private static List<String> readGzip(Path gzip) throws Exception {
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+      new GZIPInputStream(Files.newInputStream(gzip)), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * 可注入写入失败的 FileChannel：failAfter(n) 后再写 n 个字节即抛出 IOException
+   */
+  private static final class FailingChannel extends FileChannel {
+
+    private final FileChannel delegate;
+    private long budget = Long.MAX_VALUE;
+
+    FailingChannel(FileChannel delegate) {
+      this.delegate = delegate;
+    }
+
+    void failAfter(long bytes) {
+      budget = bytes;
+    }
+
+    void recover() {
+      budget = Long.MAX_VALUE;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      if (budget <= 0) {
+        throw new IOException("No space left on device");
+      }
+      int length = (int) Math.min(budget, src.remaining());
+      int written = delegate.write(src.slice(src.position(), length));
+      src.position(src.position() + written);
+      budget -= written;
+      return written;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return delegate.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return delegate.read(dsts, offset, length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long position() throws IOException {
+      return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      delegate.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return delegate.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      delegate.truncate(size);
+      return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      delegate.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+      return delegate.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return delegate.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      delegate.close();
+    }
+  }
+}
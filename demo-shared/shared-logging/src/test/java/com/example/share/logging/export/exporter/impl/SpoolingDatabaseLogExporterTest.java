@@ -0,0 +1,123 @@
+package com.example.share.logging.export.exporter.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogBatchWriter;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import com.example.share.logging.export.spool.MappedLogSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SpoolingDatabaseLogExporterTest {
+
+  @TempDir
+  Path directory;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<String> written = new CopyOnWriteArrayList<>();
+  private SpoolingDatabaseLogExporter exporter;
+
+  @AfterEach
+  void tearDown() {
+    if (exporter != null) {
+      exporter.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("写库瞬时失败时退避重试同一批次，恢复后按序写入且不重复")
+  void retriesSameBatchWithBackoff() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    List<Long> attempts = new CopyOnWriteArrayList<>();
+    exporter = newExporter(events -> {
+      attempts.add(System.nanoTime());
+      if (calls.incrementAndGet() <= 3) {
+        throw new QueryTimeoutException("timeout");
+      }
+      record(events);
+    });
+    IntStream.range(0, 5).forEach(i -> exporter.exportExchange(log("id-" + i)));
+    exporter.start();
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 5);
+    assertThat(written).containsExactly("id-0", "id-1", "id-2", "id-3", "id-4");
+    assertThat(registry.get("logbook.spool.drain.failures").counter().count()).isEqualTo(3);
+    assertThat(registry.get("logbook.spool.drained").counter().count()).isEqualTo(5);
+    // 退避间隔逐次翻倍：10ms、20ms、40ms
+    assertThat(attempts.get(3) - attempts.get(2)).isGreaterThanOrEqualTo(Duration.ofMillis(40).toNanos());
+  }
+
+  @Test
+  @DisplayName("数据库持续不可用时停机不推进检查点，重启后从段文件重放")
+  void replaysFromCheckpointAfterRestart() throws Exception {
+    exporter = newExporter(events -> {
+      throw new DataAccessResourceFailureException("connection refused");
+    });
+    exporter.start();
+    IntStream.range(0, 3).forEach(i -> exporter.exportExchange(log("id-" + i)));
+    await().atMost(Duration.ofSeconds(5))
+      .until(() -> registry.get("logbook.spool.drain.failures").counter().count() >= 2);
+    exporter.stop();
+    assertThat(written).isEmpty();
+
+    exporter = newExporter(this::record);
+    exporter.start();
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 3);
+    assertThat(written).containsExactly("id-0", "id-1", "id-2");
+  }
+
+  @Test
+  @DisplayName("非瞬时失败时二分隔离，只丢弃问题行，同批其余日志与后续日志照常写入")
+  void isolatesRejectedRows() throws Exception {
+    exporter = newExporter(events -> {
+      if (events.stream().anyMatch(event -> event.log().getCorrelationId().equals("bad"))) {
+        throw new DataIntegrityViolationException("value too long");
+      }
+      record(events);
+    });
+    List.of("id-0", "id-1", "bad", "id-3", "id-4").forEach(id -> exporter.exportExchange(log(id)));
+    exporter.start();
+    await().atMost(Duration.ofSeconds(5))
+      .until(() -> registry.get("logbook.spool.dropped").counter().count() == 1);
+
+    exporter.exportExchange(log("id-5"));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 5);
+    assertThat(written).containsExactly("id-0", "id-1", "id-3", "id-4", "id-5");
+    assertThat(registry.get("logbook.spool.drained").counter().count()).isEqualTo(5);
+  }
+
+  private void record(List<LogEvent> events) {
+    events.forEach(event -> written.add(event.log().getCorrelationId()));
+  }
+
+  private SpoolingDatabaseLogExporter newExporter(HttpExchangeLogBatchWriter writer) throws Exception {
+    DatabaseExportProperties.Spool properties = new DatabaseExportProperties.Spool(true, directory,
+      DataSize.ofKilobytes(64), 4, Duration.ofMillis(10), Duration.ofSeconds(1));
+    MappedLogSpool spool = new MappedLogSpool(directory, (int) properties.segmentSize().toBytes(),
+      properties.maxSegments());
+    return new SpoolingDatabaseLogExporter(spool, writer, properties, 100, registry);
+  }
+
+  private static HttpExchangeLog log(String correlationId) {
+    return new HttpExchangeLog().setCorrelationId(correlationId);
+  }
+}
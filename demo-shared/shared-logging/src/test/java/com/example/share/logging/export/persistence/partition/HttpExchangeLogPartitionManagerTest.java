@@ -0,0 +1,155 @@
+package com.example.share.logging.export.persistence.partition;
+
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpExchangeLogPartitionManagerTest {
+
+  @Test
+  @DisplayName("按自然日生成分区名与带时区的边界")
+  void buildsDailyPartition() {
+    LocalDate day = LocalDate.of(2026, 10, 18);
+
+    assertThat(HttpExchangeLogPartitionManager.partitionName(day)).isEqualTo("http_exchange_log_p20261018");
+    assertThat(HttpExchangeLogPartitionManager.createSql(day, ZoneId.of("Asia/Shanghai"))).isEqualTo(
+      "CREATE TABLE IF NOT EXISTS engine.http_exchange_log_p20261018 PARTITION OF engine.http_exchange_log "
+        + "FOR VALUES FROM ('2026-10-18T00:00+08:00') TO ('2026-10-19T00:00+08:00')");
+  }
+
+  @Test
+  @DisplayName("只卸载早于保留期的日分区，默认分区与其他表不受影响")
+  void selectsExpiredPartitions() {
+    List<String> partitions = List.of(
+      "http_exchange_log_p20260917", "http_exchange_log_p20260918", "http_exchange_log_p20261018",
+      "http_exchange_log_default", "http_exchange_log_p2026_archive");
+
+    assertThat(HttpExchangeLogPartitionManager.expired(partitions, LocalDate.of(2026, 9, 18)))
+      .containsExactly("http_exchange_log_p20260917");
+  }
+
+  @Test
+  @DisplayName("默认分区中的行在建分区的同一事务内移出再写回")
+  void movesDefaultRowsBeforeCreate() {
+    assertThat(HttpExchangeLogPartitionManager.moveDefaultSql(LocalDate.of(2026, 10, 18), ZoneOffset.UTC,
+      "http_exchange_log_default")).isEqualTo(
+      "WITH moved AS (DELETE FROM engine.http_exchange_log_default WHERE created_time >= '2026-10-18T00:00Z' "
+        + "AND created_time < '2026-10-19T00:00Z' RETURNING *) INSERT INTO http_exchange_log_moved SELECT * FROM moved");
+  }
+
+  @Test
+  @DisplayName("每条 DDL 各自一个事务，单条失败不影响其余；有默认分区时退回普通 DETACH")
+  void runsEachDdlInItsOwnTransaction() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.createStatement()).thenReturn(statement);
+    ResultSet lock = rows(new Object[][]{{true}});
+    when(statement.executeQuery(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lock);
+    ResultSet partitions = rows(new Object[][]{
+      {"http_exchange_log_default", true, false},
+      {"http_exchange_log_p20260901", false, false},
+      {"http_exchange_log_p20260902", false, true},
+      {"http_exchange_log_p20261018", false, false}});
+    when(statement.executeQuery(contains("pg_inherits"))).thenReturn(partitions);
+    when(statement.execute(contains("http_exchange_log_p20261019 PARTITION OF")))
+      .thenThrow(new SQLException("lock timeout"));
+    when(statement.executeUpdate(contains("http_exchange_log_default"))).thenReturn(0, 0, 2);
+
+    newManager(connection).maintain();
+
+    // 10-19 建表失败回滚，10-20、10-21 照常建立
+    verify(statement).execute(contains("http_exchange_log_p20261020 PARTITION OF"));
+    verify(statement).execute(contains("http_exchange_log_p20261021 PARTITION OF"));
+    verify(connection).rollback();
+    verify(connection, times(2)).commit();
+    verify(statement).execute("INSERT INTO engine.http_exchange_log SELECT * FROM http_exchange_log_moved");
+
+    InOrder order = inOrder(statement, connection);
+    order.verify(statement).execute(contains("ALTER TABLE engine.http_exchange_log DETACH PARTITION "
+      + "engine.http_exchange_log_p20260901"));
+    order.verify(statement).execute("DROP TABLE engine.http_exchange_log_p20260901");
+    order.verify(statement).execute("ALTER TABLE engine.http_exchange_log DETACH PARTITION "
+      + "engine.http_exchange_log_p20260902 FINALIZE");
+    order.verify(statement).execute("SELECT pg_advisory_unlock(hashtext('engine.http_exchange_log'))");
+    order.verify(connection).setAutoCommit(true);
+    verify(statement).execute("ALTER TABLE engine.http_exchange_log DETACH PARTITION "
+      + "engine.http_exchange_log_p20260901");
+    verify(statement, never()).execute(contains("CONCURRENTLY"));
+  }
+
+  @Test
+  @DisplayName("没有默认分区时在事务外 DETACH CONCURRENTLY；拿不到锁时跳过本轮")
+  void detachesConcurrentlyWithoutDefault() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    when(connection.getAutoCommit()).thenReturn(false);
+    when(connection.createStatement()).thenReturn(statement);
+    ResultSet lock = rows(new Object[][]{{true}});
+    ResultSet busy = rows(new Object[][]{{false}});
+    when(statement.executeQuery(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lock, busy);
+    ResultSet partitions = rows(new Object[][]{{"http_exchange_log_p20260901", false, false}});
+    when(statement.executeQuery(contains("pg_inherits"))).thenReturn(partitions);
+
+    HttpExchangeLogPartitionManager manager = newManager(connection);
+    manager.maintain();
+
+    verify(statement).execute("ALTER TABLE engine.http_exchange_log DETACH PARTITION "
+      + "engine.http_exchange_log_p20260901 CONCURRENTLY");
+    verify(statement, never()).executeUpdate(anyString());
+    // 结束后恢复连接原本的 autocommit
+    InOrder order = inOrder(statement, connection);
+    order.verify(statement).execute("SELECT pg_advisory_unlock(hashtext('engine.http_exchange_log'))");
+    order.verify(connection).setAutoCommit(false);
+
+    manager.maintain();
+    verify(statement).execute(eq("SELECT pg_advisory_unlock(hashtext('engine.http_exchange_log'))"));
+  }
+
+  private static HttpExchangeLogPartitionManager newManager(Connection connection) {
+    DatabaseExportProperties.Partition properties = new DatabaseExportProperties.Partition(true, 3,
+      Duration.ofDays(30), DatabaseExportProperties.RetentionMode.DROP, Duration.ofHours(1), Duration.ofSeconds(5));
+    Clock clock = Clock.fixed(Instant.parse("2026-10-18T08:00:00Z"), ZoneOffset.UTC);
+    return new HttpExchangeLogPartitionManager(new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+      properties, clock);
+  }
+
+  private static ResultSet rows(Object[][] rows) throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    int[] cursor = {-1};
+    when(rs.next()).thenAnswer(invocation -> ++cursor[0] < rows.length);
+    when(rs.getString(anyInt()))
+      .thenAnswer(invocation -> (String) rows[cursor[0]][(int) invocation.getArgument(0) - 1]);
+    when(rs.getBoolean(anyInt()))
+      .thenAnswer(invocation -> (Boolean) rows[cursor[0]][(int) invocation.getArgument(0) - 1]);
+    return rs;
+  }
+}
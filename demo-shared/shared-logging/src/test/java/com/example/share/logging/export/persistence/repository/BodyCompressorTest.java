@@ -0,0 +1,46 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BodyCompressorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final BodyCompressor compressor = new BodyCompressor(new DatabaseExportProperties.Compression(
+    true, DatabaseExportProperties.Codec.DEFLATE, DataSize.ofKilobytes(1), 1), registry);
+
+  @Test
+  @DisplayName("超过阈值的 Body 压缩后可还原，小 Body 不压缩")
+  void compressesLargeBodies() {
+    String text = "{\"items\":[" + "{\"name\":\"张三\",\"status\":\"PAID\"},".repeat(200) + "{}]}";
+
+    byte[] packed = compressor.compress(LogBody.of(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+
+    assertThat(packed).isNotNull();
+    assertThat(packed[0]).isEqualTo(BodyCompressor.DEFLATE);
+    assertThat(packed.length).isLessThan(text.length() / 4);
+    assertThat(BodyCompressor.decode(packed)).isEqualTo(text);
+    assertThat(compressor.compress(LogBody.of(text))).isEqualTo(packed);
+    assertThat(compressor.compress(LogBody.of("{\"small\":true}"))).isNull();
+    assertThat(registry.get("logbook.database.compression.ratio").summary().count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("压缩后没有变小时放弃")
+  void skipsIncompressibleBodies() {
+    byte[] noise = new byte[2048];
+    ThreadLocalRandom.current().nextBytes(noise);
+
+    assertThat(compressor.compress(LogBody.of(noise, StandardCharsets.UTF_8))).isNull();
+    assertThat(registry.get("logbook.database.compression.skipped").counter().count()).isEqualTo(1);
+  }
+}
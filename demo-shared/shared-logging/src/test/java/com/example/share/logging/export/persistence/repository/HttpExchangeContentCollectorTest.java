@@ -0,0 +1,90 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpExchangeContentCollectorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+  @Test
+  @DisplayName("按摘要顺序分批回收，满一批时从本批最大摘要之后继续")
+  void collectsInDigestOrder() {
+    byte[] a = {0x01};
+    byte[] b = {(byte) 0xf0};
+    byte[] c = {0x7f};
+    when(jdbcTemplate.queryForList(eq(HttpExchangeContentCollector.DELETE_BODIES_SQL), eq(byte[].class),
+      any(), any(), any())).thenReturn(List.of(b, a), List.of(c));
+    when(jdbcTemplate.queryForList(eq(HttpExchangeContentCollector.DELETE_HEADERS_SQL), eq(byte[].class),
+      any(), any(), any())).thenReturn(List.of());
+
+    new HttpExchangeContentCollector(jdbcTemplate, properties(Duration.ofHours(1), Duration.ofDays(1)),
+      partition(DatabaseExportProperties.RetentionMode.DROP), registry)
+      .collect();
+
+    verify(jdbcTemplate).queryForList(HttpExchangeContentCollector.DELETE_BODIES_SQL, byte[].class,
+      new byte[0], 86400.0, 2);
+    // 无符号比较：0xf0 大于 0x01
+    verify(jdbcTemplate).queryForList(HttpExchangeContentCollector.DELETE_BODIES_SQL, byte[].class, b, 86400.0, 2);
+    assertThat(registry.get("logbook.database.content.collected").tag("kind", "body").counter().count())
+      .isEqualTo(3);
+    assertThat(registry.get("logbook.database.content.collected").tag("kind", "headers").counter().count())
+      .isZero();
+  }
+
+  @Test
+  @DisplayName("回收语句确认主表两个摘要列都无引用")
+  void checksBothReferences() {
+    assertThat(HttpExchangeContentCollector.DELETE_BODIES_SQL)
+      .contains("l.request_content_digest = c.digest", "l.response_content_digest = c.digest",
+        "FOR UPDATE SKIP LOCKED");
+    assertThat(HttpExchangeContentCollector.DELETE_HEADERS_SQL)
+      .contains("DELETE FROM engine.http_exchange_headers",
+        "l.request_headers_digest = c.digest", "l.response_headers_digest = c.digest");
+  }
+
+  @Test
+  @DisplayName("grace 不大于 2 × cache-ttl 时拒绝启动")
+  void rejectsGraceWithinCacheTtl() {
+    assertThatThrownBy(() -> new HttpExchangeContentCollector(jdbcTemplate,
+      properties(Duration.ofHours(12), Duration.ofDays(1)), partition(DatabaseExportProperties.RetentionMode.DROP),
+      registry))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("cache-ttl");
+  }
+
+  @Test
+  @DisplayName("分区以 detach 方式卸载时拒绝启动，避免删除独立表仍引用的内容")
+  void rejectsDetachRetention() {
+    assertThatThrownBy(() -> new HttpExchangeContentCollector(jdbcTemplate,
+      properties(Duration.ofHours(1), Duration.ofDays(1)), partition(DatabaseExportProperties.RetentionMode.DETACH),
+      registry))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("retention-mode=detach");
+  }
+
+  private static DatabaseExportProperties.Partition partition(DatabaseExportProperties.RetentionMode mode) {
+    return new DatabaseExportProperties.Partition(true, 3, Duration.ofDays(30), mode, Duration.ofHours(1),
+      Duration.ofSeconds(5));
+  }
+
+  private static DatabaseExportProperties.ContentAddressed properties(Duration cacheTtl, Duration grace) {
+    return new DatabaseExportProperties.ContentAddressed(1000, cacheTtl, List.of(),
+      new DatabaseExportProperties.ContentGc(true, Duration.ofHours(1), grace, 2));
+  }
+}
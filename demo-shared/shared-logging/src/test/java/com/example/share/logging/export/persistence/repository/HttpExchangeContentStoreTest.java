@@ -0,0 +1,109 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HttpExchangeContentStoreTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final HttpExchangeContentStore store = new HttpExchangeContentStore(
+    properties(Duration.ofHours(1)), registry);
+
+  @Test
+  @DisplayName("相同 Body 只写一次，提交后的批次直接引用摘要")
+  void writesRepeatedBodyOnce() {
+    String json = "{\"code\":0,\"data\":[]}";
+    NamedParameterJdbcOperations first = mock(NamedParameterJdbcOperations.class);
+    HttpExchangeContentStore.Batch batch = store.newBatch();
+    HttpExchangeContentStore.Ref text = batch.body(LogBody.of(json), false);
+    HttpExchangeContentStore.Ref raw = batch.body(
+      LogBody.of(json.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), false);
+    batch.write(first);
+    batch.complete();
+
+    assertThat(text.json()).isNull();
+    assertThat(raw.digest()).isEqualTo(text.digest());
+    verify(first).batchUpdate(contains("http_exchange_body"),
+      argThat((SqlParameterSource[] params) -> params.length == 1));
+
+    NamedParameterJdbcOperations second = mock(NamedParameterJdbcOperations.class);
+    HttpExchangeContentStore.Batch next = store.newBatch();
+    assertThat(next.body(LogBody.of(json), false).digest()).isEqualTo(text.digest());
+    next.write(second);
+    verify(second, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    assertThat(registry.get("logbook.database.content.stored").tag("kind", "body").counter().count())
+      .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("逐请求变化的 Header 留在主表，其余部分与顺序无关地去重")
+  void splitsVolatileHeaders() {
+    Map<String, List<String>> a = new LinkedHashMap<>();
+    a.put("Accept", List.of("application/json"));
+    a.put("X-Request-Id", List.of("1"));
+    a.put("Content-Type", List.of("application/json"));
+    Map<String, List<String>> b = new LinkedHashMap<>();
+    b.put("Content-Type", List.of("application/json"));
+    b.put("x-request-id", List.of("2"));
+    b.put("Accept", List.of("application/json"));
+
+    HttpExchangeContentStore.Batch batch = store.newBatch();
+    HttpExchangeContentStore.Ref first = batch.headers(a);
+    HttpExchangeContentStore.Ref second = batch.headers(b);
+
+    assertThat(first.json()).isEqualTo("{\"X-Request-Id\":[\"1\"]}");
+    assertThat(second.json()).isEqualTo("{\"x-request-id\":[\"2\"]}");
+    assertThat(second.digest()).isEqualTo(first.digest());
+    assertThat(batch.headers(Map.of("X-Request-Id", List.of("3"))).digest()).isNull();
+  }
+
+  @Test
+  @DisplayName("缓存条目 cache-ttl 后过期，再次出现的内容重新写入以刷新 last_seen")
+  void rewritesAfterCacheTtl() {
+    HttpExchangeContentStore shortLived = new HttpExchangeContentStore(properties(Duration.ofMillis(50)), registry);
+    NamedParameterJdbcOperations jdbcOperations = mock(NamedParameterJdbcOperations.class);
+    write(shortLived, jdbcOperations);
+    write(shortLived, jdbcOperations);
+    verify(jdbcOperations).batchUpdate(contains("http_exchange_body"), argThat((SqlParameterSource[] params) ->
+      params.length == 1 && params[0].getValue("touchAfter").equals(0.05)));
+
+    await().pollDelay(Duration.ofMillis(100)).atMost(Duration.ofSeconds(2)).untilAsserted(() -> {
+      write(shortLived, jdbcOperations);
+      verify(jdbcOperations, times(2)).batchUpdate(contains("http_exchange_body"), any(SqlParameterSource[].class));
+    });
+  }
+
+  private static void write(HttpExchangeContentStore store, NamedParameterJdbcOperations jdbcOperations) {
+    HttpExchangeContentStore.Batch batch = store.newBatch();
+    batch.body(LogBody.of("{\"code\":0}"), false);
+    batch.write(jdbcOperations);
+    batch.complete();
+  }
+
+  private static DatabaseExportProperties.ContentAddressed properties(Duration cacheTtl) {
+    return new DatabaseExportProperties.ContentAddressed(1000, cacheTtl, List.of("X-Request-Id"),
+      new DatabaseExportProperties.ContentGc(true, Duration.ofHours(1), Duration.ofDays(1), 1000));
+  }
+}
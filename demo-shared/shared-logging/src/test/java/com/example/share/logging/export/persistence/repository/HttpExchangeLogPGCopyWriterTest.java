@@ -0,0 +1,239 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpExchangeLogPGCopyWriterTest {
+
+  @Test
+  @DisplayName("CSV 编码：null 不加引号，双引号重复转义")
+  void encodesCsvRow() throws Exception {
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setCorrelationId("id-1")
+      .setMethod("POST")
+      .setUri("/api/a?q=\"x\"")
+      .setRequestBody(LogBody.of("{\"name\":\"a,b\"}"))
+      .setStatusCode(200);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HttpExchangeLogPGCopyWriter.writeCsv(out, List.of(LogEvent.exchange(log)));
+
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+      "\"0\",\"EXCHANGE\",\"id-1\",,,\"POST\","
+        + "\"/api/a?q=\"\"x\"\"\",,,\"{\"\"name\"\":\"\"a,b\"\"}\",,,,\"200\",,,,,,,,\"false\",,,,,\n");
+  }
+
+  @Test
+  @DisplayName("CSV 编码：非 JSON 内容包装为 JSON 字符串")
+  void quotesNonJsonContent() throws Exception {
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setCorrelationId("id-1")
+      .setRequestBody(LogBody.of("plain text"))
+      .setRequestContentLength(10);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HttpExchangeLogPGCopyWriter.writeCsv(out, List.of(LogEvent.request(log)));
+
+    String[] columns = out.toString(StandardCharsets.UTF_8).split(",", -1);
+    assertThat(columns[9]).isEqualTo("\"\"\"plain text\"\"\"");
+    assertThat(columns[10]).isEqualTo("\"10\"");
+  }
+
+  @Test
+  @DisplayName("CSV 编码：UTF-8 JSON 字节原样写出，与文本路径结果一致")
+  void writesUtf8JsonBytesDirectly() throws Exception {
+    String json = "{\"name\":\"张三\"}";
+    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    HttpExchangeLogPGCopyWriter.writeCsv(raw, List.of(LogEvent.request(new HttpExchangeLog()
+      .setRequestBody(LogBody.of(json.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8)))));
+    ByteArrayOutputStream text = new ByteArrayOutputStream();
+    HttpExchangeLogPGCopyWriter.writeCsv(text, List.of(LogEvent.request(new HttpExchangeLog()
+      .setRequestBody(LogBody.of(json)))));
+
+    assertThat(HttpExchangeLogPGRepository.rawJson(LogBody.of(json.getBytes(StandardCharsets.UTF_8),
+      StandardCharsets.UTF_8), false)).isNotNull();
+    assertThat(raw.toByteArray()).isEqualTo(text.toByteArray());
+    assertThat(raw.toString(StandardCharsets.UTF_8)).contains("\"{\"\"name\"\":\"\"张三\"\"}\"");
+  }
+
+  @Test
+  @DisplayName("Header 多值 Map 在写入时序列化为 JSON 对象")
+  void serializesHeadersOnce() {
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    headers.put("Accept", List.of("application/json", "text/\"plain\""));
+    headers.put("X-Id", List.of("1"));
+
+    assertThat(HttpExchangeLogPGRepository.headersJson(headers))
+      .isEqualTo("{\"Accept\":[\"application/json\",\"text/\\\"plain\\\"\"],\"X-Id\":[\"1\"]}");
+    assertThat(HttpExchangeLogPGRepository.headersJson(Map.of())).isEqualTo("{}");
+    assertThat(HttpExchangeLogPGRepository.headersJson(null)).isNull();
+  }
+
+  @Test
+  @DisplayName("ensureJson：截断后不完整的 JSON 包装为字符串，完整 JSON 原样保留")
+  void quotesTruncatedJson() {
+    assertThat(HttpExchangeLogPGRepository.ensureJson("{\"a\":\"b\"}", true)).isEqualTo("{\"a\":\"b\"}");
+    assertThat(HttpExchangeLogPGRepository.ensureJson("{\"a\":\"b", true)).isEqualTo("\"{\\\"a\\\":\\\"b\"");
+    assertThat(HttpExchangeLogPGRepository.ensureJson("{\"a\":\"b", false)).isEqualTo("{\"a\":\"b");
+    assertThat(HttpExchangeLogPGRepository.ensureJson("  ", true)).isNull();
+  }
+
+  @Test
+  @DisplayName("合并 SQL 与 pg.sql 一致：目标列都在主表中，INSERT 与 SELECT 列数相同，来源列都在临时表中")
+  void mergeSqlMatchesSchema() throws Exception {
+    Set<String> table = tableColumns(new ClassPathResource("pg.sql").getContentAsString(StandardCharsets.UTF_8));
+    Set<String> batch = batchColumns();
+    assertThat(table).contains("correlation_id", "biz_id", "batch_id", "complete");
+
+    for (String sql : List.of(HttpExchangeLogPGCopyWriter.MERGE_REQUEST_SQL, HttpExchangeLogPGCopyWriter.MERGE_RESPONSE_SQL,
+      HttpExchangeLogPGCopyWriter.MERGE_EXCHANGE_SQL)) {
+      List<String> targets = list(between(sql, "INSERT INTO engine.http_exchange_log (", ")\n"));
+      List<String> sources = list(between(sql, "SELECT DISTINCT ON (correlation_id)", "FROM http_exchange_log_batch"));
+      assertThat(table).containsAll(targets);
+      assertThat(sources).hasSameSizeAs(targets);
+      sources.stream()
+        .map(source -> source.replace("::jsonb", ""))
+        .filter(source -> !source.matches("true|false|\\d+"))
+        .forEach(source -> assertThat(batch).contains(source));
+      Matcher assignment = Pattern.compile("(?m)^\\s+(\\w+) = ").matcher(sql.substring(sql.indexOf("DO UPDATE SET")));
+      while (assignment.find()) {
+        assertThat(table).contains(assignment.group(1));
+      }
+    }
+
+    // COPY 列与 CSV 字段一一对应
+    List<String> copied = list(between(HttpExchangeLogPGCopyWriter.COPY_SQL, "COPY http_exchange_log_batch (", ")"));
+    assertThat(batch).containsAll(copied);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HttpExchangeLogPGCopyWriter.writeCsv(out, List.of(LogEvent.exchange(new HttpExchangeLog().setCorrelationId("id-1"))));
+    assertThat(out.toString(StandardCharsets.UTF_8).trim().split(",", -1)).hasSize(copied.size());
+  }
+
+  @Test
+  @DisplayName("同一连接上依次建临时表、COPY、按出现的阶段合并、删表，自动提交连接上自行提交")
+  void writesBatchInOneTransaction() throws Exception {
+    Fixture fixture = new Fixture();
+    new HttpExchangeLogPGCopyWriter(fixture.jdbcTemplate()).writeBatch(List.of(
+      LogEvent.request(new HttpExchangeLog().setCorrelationId("id-1")),
+      LogEvent.exchange(new HttpExchangeLog().setCorrelationId("id-2"))));
+
+    InOrder order = inOrder(fixture.connection, fixture.statement, fixture.copyManager, fixture.copyIn);
+    order.verify(fixture.connection).setAutoCommit(false);
+    order.verify(fixture.statement).execute(HttpExchangeLogPGCopyWriter.CREATE_BATCH_TABLE_SQL);
+    order.verify(fixture.copyManager).copyIn(HttpExchangeLogPGCopyWriter.COPY_SQL);
+    order.verify(fixture.copyIn).endCopy();
+    order.verify(fixture.statement).executeUpdate(HttpExchangeLogPGCopyWriter.MERGE_REQUEST_SQL);
+    order.verify(fixture.statement).executeUpdate(HttpExchangeLogPGCopyWriter.MERGE_EXCHANGE_SQL);
+    order.verify(fixture.statement).execute(HttpExchangeLogPGCopyWriter.DROP_BATCH_TABLE_SQL);
+    order.verify(fixture.connection).commit();
+    order.verify(fixture.connection).setAutoCommit(true);
+    verify(fixture.statement, never()).executeUpdate(HttpExchangeLogPGCopyWriter.MERGE_RESPONSE_SQL);
+  }
+
+  @Test
+  @DisplayName("合并失败时整体回滚，不提交")
+  void rollsBackOnFailure() throws Exception {
+    Fixture fixture = new Fixture();
+    when(fixture.statement.executeUpdate(HttpExchangeLogPGCopyWriter.MERGE_RESPONSE_SQL))
+      .thenThrow(new SQLException("value too long", "22001"));
+
+    assertThatThrownBy(() -> new HttpExchangeLogPGCopyWriter(fixture.jdbcTemplate())
+      .writeBatch(List.of(LogEvent.response(new HttpExchangeLog().setCorrelationId("id-1")))))
+      .isInstanceOf(DataAccessException.class);
+    verify(fixture.connection).rollback();
+    verify(fixture.connection, never()).commit();
+    verify(fixture.connection).setAutoCommit(true);
+  }
+
+  private static final class Fixture {
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final CopyManager copyManager = mock(CopyManager.class);
+    private final CopyIn copyIn = mock(CopyIn.class);
+
+    private Fixture() throws Exception {
+      PGConnection pgConnection = mock(PGConnection.class);
+      when(connection.getAutoCommit()).thenReturn(true);
+      when(connection.createStatement()).thenReturn(statement);
+      when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+      when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+      when(copyManager.copyIn(any(String.class))).thenReturn(copyIn);
+      when(copyIn.isActive()).thenReturn(true);
+      when(statement.executeUpdate(any(String.class))).thenReturn(1);
+    }
+
+    private JdbcTemplate jdbcTemplate() {
+      return new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+    }
+  }
+
+  // pg.sql 中 http_exchange_log 的建表列与后续 ADD COLUMN 列
+  private static Set<String> tableColumns(String ddl) {
+    Set<String> columns = new LinkedHashSet<>();
+    String create = between(ddl, "CREATE TABLE IF NOT EXISTS http_exchange_log (", "PARTITION BY RANGE");
+    Matcher definition = Pattern.compile("(?m)^  ([a-z_]+) [A-Z]").matcher(create);
+    while (definition.find()) {
+      columns.add(definition.group(1));
+    }
+    Matcher added = Pattern.compile("ALTER TABLE http_exchange_log ADD COLUMN IF NOT EXISTS (\\w+)").matcher(ddl);
+    while (added.find()) {
+      columns.add(added.group(1));
+    }
+    return columns;
+  }
+
+  private static Set<String> batchColumns() {
+    Set<String> columns = new LinkedHashSet<>();
+    Matcher definition = Pattern.compile("(?m)^\\s+([a-z_]+) [A-Z]").matcher(HttpExchangeLogPGCopyWriter.CREATE_BATCH_TABLE_SQL);
+    while (definition.find()) {
+      columns.add(definition.group(1));
+    }
+    return columns;
+  }
+
+  private static String between(String text, String start, String end) {
+    int from = text.indexOf(start);
+    assertThat(from).as("missing: %s", start).isNotNegative();
+    from += start.length();
+    return text.substring(from, text.indexOf(end, from));
+  }
+
+  private static List<String> list(String columns) {
+    return new ArrayList<>(Arrays.stream(columns.split(",")).map(String::trim).filter(c -> !c.isEmpty()).toList());
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.share.logging.export.persistence.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpExchangeLogPGRepositoryTest {
+
+  private final JdbcClient jdbcClient = mock(JdbcClient.class, RETURNS_DEEP_STUBS);
+  private final HttpExchangeLogPGRepository repository = new HttpExchangeLogPGRepository(jdbcClient,
+    mock(NamedParameterJdbcOperations.class));
+
+  @Test
+  @DisplayName("主表缺少 ON CONFLICT 所需的唯一约束时启动失败")
+  void failsFastWithoutConflictTarget() {
+    when(jdbcClient.sql(anyString()).query(Boolean.class).single()).thenReturn(false);
+
+    assertThatThrownBy(repository::verifyConflictTarget)
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("(correlation_id, created_time)");
+  }
+
+  @Test
+  @DisplayName("约束存在或数据库暂不可用时正常启动")
+  void passesWhenPresentOrUnreachable() {
+    when(jdbcClient.sql(anyString()).query(Boolean.class).single())
+      .thenReturn(true)
+      .thenThrow(new CannotGetJdbcConnectionException("connection refused"));
+
+    assertThatCode(repository::verifyConflictTarget).doesNotThrowAnyException();
+    assertThatCode(repository::verifyConflictTarget).doesNotThrowAnyException();
+  }
+}
@@ -0,0 +1,184 @@
+package com.example.share.logging.export.persistence.repository;
+
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Criteria;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Cursor;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Page;
+import com.example.share.logging.export.persistence.repository.HttpExchangeLogQueryRepository.Summary;
+import com.example.share.logging.export.properties.DatabaseExportProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpExchangeLogQueryRepositoryTest {
+
+  private static final Instant FROM = Instant.parse("2026-10-18T00:00:00Z");
+  private static final Instant TO = Instant.parse("2026-10-19T00:00:00Z");
+
+  @Test
+  @DisplayName("检索 SQL：只拼接给定条件，游标转为行比较，URI 前缀按路径匹配并转义通配符")
+  void buildsKeysetSql() {
+    List<Object> args = new ArrayList<>();
+    Cursor after = new Cursor(Instant.parse("2026-10-18T12:00:00.123456Z"), "id-9");
+    String sql = HttpExchangeLogQueryRepository.searchSql(
+      new Criteria(FROM, TO, "http://host:8080/api/user_list", 500, 599, null, 1000L, null, null, null, null), after, args);
+
+    assertThat(sql)
+      .contains("created_time >= ? AND created_time < ?")
+      .contains("engine.uri_path(uri) LIKE ? ESCAPE '\\'")
+      .contains("status_code >= ?", "status_code <= ?", "duration_millis >= ?")
+      .contains("(created_time, correlation_id) < (?, ?)")
+      .doesNotContain("correlation_id = ?", "biz_id = ?", "OFFSET", "duration_millis <= ?")
+      .endsWith("ORDER BY created_time DESC, correlation_id DESC");
+    assertThat(args).containsExactly(Timestamp.from(FROM), Timestamp.from(TO), "/api/user\\_list%", 500, 599, 1000L,
+      Timestamp.from(after.createdTime()), "id-9");
+
+    args.clear();
+    assertThat(HttpExchangeLogQueryRepository.searchSql(
+      new Criteria(FROM, TO, null, 404, 404, "id-1", null, null, "B-1", null, "J-1"), null, args))
+      .contains("status_code = ?", "correlation_id = ?", "biz_id = ?", "jnl_no = ?")
+      .doesNotContain("status_code >=", "(created_time, correlation_id) <", "batch_id = ?");
+    assertThat(args).containsExactly(Timestamp.from(FROM), Timestamp.from(TO), "id-1", "B-1", "J-1", 404);
+  }
+
+  @Test
+  @DisplayName("游标编解码保留微秒精度，非法游标报参数错误")
+  void roundTripsCursor() {
+    Cursor cursor = new Cursor(Instant.parse("2026-10-18T12:00:00.123456Z"), "a:b.c");
+    assertThat(Cursor.decode(cursor.encode())).isEqualTo(cursor);
+    assertThatThrownBy(() -> Cursor.decode("not-a-cursor")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("多取一行判断下一页，游标指向本页最后一行；页大小受上限约束")
+  @SuppressWarnings("unchecked")
+  void returnsNextCursorWhenMoreRows() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    List<Summary> rows = IntStream.range(0, 4).mapToObj(HttpExchangeLogQueryRepositoryTest::summary).toList();
+    when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(rows);
+    HttpExchangeLogQueryRepository repository = new HttpExchangeLogQueryRepository(jdbcTemplate,
+      new DatabaseExportProperties.Query(2, 5, 100, Duration.ofDays(1), Duration.ofSeconds(30), 2, 1000,
+        Duration.ofMinutes(5)));
+    Criteria all = new Criteria(FROM, TO, null, null, null, null, null, null, null, null, null);
+
+    Page page = repository.search(all, null, 3);
+    assertThat(page.items()).hasSize(3);
+    assertThat(Cursor.decode(page.nextCursor())).isEqualTo(new Cursor(rows.get(2).createdTime().toInstant(), "id-2"));
+
+    assertThat(repository.search(all, null, 100).nextCursor()).isNull();
+    verify(jdbcTemplate).query(argThat((String sql) -> sql.endsWith("LIMIT 4")), any(RowMapper.class), any(Object[].class));
+    verify(jdbcTemplate).query(argThat((String sql) -> sql.endsWith("LIMIT 6")), any(RowMapper.class), any(Object[].class));
+  }
+
+  @Test
+  @DisplayName("按业务标识直接查找：等值命中对应列，不带时间范围，条数受上限约束")
+  @SuppressWarnings("unchecked")
+  void findsByBizIds() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    HttpExchangeLogQueryRepository repository = new HttpExchangeLogQueryRepository(jdbcTemplate,
+      new DatabaseExportProperties.Query(2, 5, 100, Duration.ofDays(1), Duration.ofSeconds(30), 2, 1000,
+        Duration.ofMinutes(5)));
+
+    repository.findByBizId("B-1", null);
+    repository.findByBatchId("BT-1", 100);
+    repository.findByJnlNo("J-1", 3);
+
+    verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("WHERE biz_id = ?") && sql.endsWith("LIMIT 2")),
+      any(RowMapper.class), eq("B-1"));
+    verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("WHERE batch_id = ?") && sql.endsWith("LIMIT 5")),
+      any(RowMapper.class), eq("BT-1"));
+    verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("WHERE jnl_no = ?") && sql.endsWith("LIMIT 3")),
+      any(RowMapper.class), eq("J-1"));
+  }
+
+  @Test
+  @DisplayName("流式读取：只读事务内按 fetch-size 取回，结束后回滚并恢复连接原状态")
+  void streamsInReadOnlyTransaction() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.isReadOnly()).thenReturn(false);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(rs);
+    when(rs.next()).thenReturn(true, true, false);
+    when(rs.getString("correlation_id")).thenReturn("id-1", "id-2");
+    HttpExchangeLogQueryRepository repository = new HttpExchangeLogQueryRepository(
+      new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+      new DatabaseExportProperties.Query(2, 5, 100, Duration.ofDays(1), Duration.ofSeconds(30), 2, 1000,
+        Duration.ofMinutes(5)));
+    List<String> ids = new ArrayList<>();
+
+    long count = repository.stream(new Criteria(FROM, TO, null, 500, 599, null, null, null, null, null, null),
+      summary -> ids.add(summary.correlationId()));
+
+    assertThat(count).isEqualTo(2);
+    assertThat(ids).containsExactly("id-1", "id-2");
+    InOrder order = inOrder(connection, statement);
+    order.verify(connection).setAutoCommit(false);
+    order.verify(connection).setReadOnly(true);
+    order.verify(statement).setFetchSize(100);
+    order.verify(statement).executeQuery();
+    order.verify(connection).rollback();
+    order.verify(connection).setReadOnly(false);
+    order.verify(connection).setAutoCommit(true);
+    verify(statement).setObject(3, 500);
+    verify(connection).prepareStatement(endsWith(" LIMIT 1000"));
+  }
+
+  @Test
+  @DisplayName("回调中止读取时同样回滚并恢复连接状态")
+  void restoresConnectionWhenConsumerFails() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(rs);
+    when(rs.next()).thenReturn(true);
+    HttpExchangeLogQueryRepository repository = new HttpExchangeLogQueryRepository(
+      new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+      new DatabaseExportProperties.Query(2, 5, 100, Duration.ofDays(1), Duration.ofSeconds(30), 2, 1000,
+        Duration.ofMinutes(5)));
+
+    assertThatThrownBy(() -> repository.stream(new Criteria(FROM, TO, null, null, null, null, null, null, null, null,
+      null), summary -> {
+      throw new IllegalStateException("client gone");
+    })).isInstanceOf(IllegalStateException.class);
+
+    verify(rs).close();
+    verify(connection).rollback();
+    verify(connection).setAutoCommit(true);
+  }
+
+  private static Summary summary(int i) {
+    OffsetDateTime time = OffsetDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC).minusSeconds(i);
+    return new Summary("id-" + i, time, time, time, 10L, "GET", "/api/a", null, 200, null, 0, 0, null, false, true, null, null, null);
+  }
+}
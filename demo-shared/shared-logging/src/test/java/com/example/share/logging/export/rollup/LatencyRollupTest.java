@@ -0,0 +1,111 @@
+package com.example.share.logging.export.rollup;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyRollupTest {
+
+  @Test
+  @DisplayName("URI 归一化：去掉主机与查询串，数字与 UUID 段替换为占位符")
+  void normalizesUris() {
+    assertThat(UriTemplates.template("http://localhost:8080/api/users/42/orders?page=1"))
+      .isEqualTo("/api/users/{id}/orders");
+    assertThat(UriTemplates.template("/api/files/3f2504e0-4f89-11d3-9a0c-0305e82c3301#top"))
+      .isEqualTo("/api/files/{uuid}");
+    assertThat(UriTemplates.template("https://example.com")).isEqualTo("/");
+    assertThat(UriTemplates.template("/api/v2/users/")).isEqualTo("/api/v2/users/");
+
+    for (String uri : List.of("http://h/api/users/42/orders?x=1", "/api/files/3f2504e0-4f89-11d3-9a0c-0305e82c3301",
+      "https://example.com", "/api/v2/users/", "/api/a1b2")) {
+      String template = UriTemplates.template(uri);
+      assertThat(UriTemplates.hash(uri)).isEqualTo(template.hashCode());
+      assertThat(UriTemplates.matches(template, uri)).isTrue();
+    }
+    assertThat(UriTemplates.matches("/api/users/{id}", "/api/users/abc")).isFalse();
+    assertThat(UriTemplates.matches("/api/users/{id}", "/api/users/1/orders")).isFalse();
+    assertThat(UriTemplates.matches("/api/users/{id}/orders", "/api/users/7")).isFalse();
+  }
+
+  @Test
+  @DisplayName("同一模板的请求汇总为一行，取走后窗口清零")
+  void aggregatesPerTemplate() throws DataFormatException {
+    LatencyRollup rollup = new LatencyRollup(10, 60_000, 2);
+    for (int i = 1; i <= 100; i++) {
+      rollup.record("GET", "http://h/api/users/" + i, i % 10 == 0 ? 500 : 200, i);
+    }
+    rollup.record("POST", "http://h/api/users/1", 201, 5);
+
+    List<RollupRow> rows = rollup.drain();
+    assertThat(rows).hasSize(2);
+    RollupRow get = rows.stream().filter(row -> row.method().equals("GET")).findFirst().orElseThrow();
+    assertThat(get.uriTemplate()).isEqualTo("/api/users/{id}");
+    assertThat(get.count()).isEqualTo(100);
+    assertThat(get.status2xx()).isEqualTo(90);
+    assertThat(get.status5xx()).isEqualTo(10);
+    assertThat(get.min()).isEqualTo(1);
+    assertThat(get.p50()).isEqualTo(50);
+    assertThat(get.p99()).isEqualTo(99);
+    assertThat(get.max()).isEqualTo(100);
+
+    Histogram decoded = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(get.histogram()), 0);
+    assertThat(decoded.getTotalCount()).isEqualTo(100);
+
+    assertThat(rollup.drain()).isEmpty();
+    rollup.record("GET", "/api/users/7", 200, 3);
+    assertThat(rollup.drain()).singleElement().extracting(RollupRow::count).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("组合数达到上限后归入 {other}，超出范围的耗时按最大值记录")
+  void foldsOverflowIntoOther() {
+    LatencyRollup rollup = new LatencyRollup(2, 1_000, 2);
+    rollup.record("GET", "/a", 200, 10);
+    rollup.record("GET", "/b", 200, 10);
+    rollup.record("GET", "/c", null, 5_000);
+    rollup.record("GET", "/d", 404, 10);
+
+    assertThat(rollup.seriesCount()).isEqualTo(2);
+    assertThat(rollup.overflowCount()).isEqualTo(2);
+    RollupRow other = rollup.drain().stream()
+      .filter(row -> row.uriTemplate().equals(LatencyRollup.OTHER_TEMPLATE))
+      .findFirst().orElseThrow();
+    assertThat(other.count()).isEqualTo(2);
+    assertThat(other.statusOther()).isEqualTo(1);
+    assertThat(other.status4xx()).isEqualTo(1);
+    assertThat(other.max()).isLessThanOrEqualTo(1_010);
+  }
+
+  @Test
+  @DisplayName("同一组合的两行合并：计数相加，直方图合并后重新计算分位数与极值")
+  void mergesRows() throws DataFormatException {
+    LatencyRollup rollup = new LatencyRollup(10, 60_000, 2);
+    for (int i = 1; i <= 50; i++) {
+      rollup.record("GET", "/api/users/" + i, 200, i);
+    }
+    RollupRow first = rollup.drain().getFirst();
+    for (int i = 51; i <= 100; i++) {
+      rollup.record("GET", "/api/users/" + i, i % 10 == 0 ? 500 : 200, i);
+    }
+    RollupRow second = rollup.drain().getFirst();
+
+    RollupRow merged = first.merge(second);
+    assertThat(merged.method()).isEqualTo("GET");
+    assertThat(merged.uriTemplate()).isEqualTo("/api/users/{id}");
+    assertThat(merged.count()).isEqualTo(100);
+    assertThat(merged.status2xx()).isEqualTo(95);
+    assertThat(merged.status5xx()).isEqualTo(5);
+    assertThat(merged.min()).isEqualTo(1);
+    assertThat(merged.p50()).isEqualTo(50);
+    assertThat(merged.max()).isEqualTo(100);
+    assertThat(merged.mean()).isEqualTo(50.5);
+    assertThat(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(merged.histogram()), 0).getTotalCount())
+      .isEqualTo(100);
+  }
+}
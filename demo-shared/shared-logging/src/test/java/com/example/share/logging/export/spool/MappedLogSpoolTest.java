@@ -0,0 +1,146 @@
+package com.example.share.logging.export.spool;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.model.LogBody;
+import com.example.share.logging.core.model.LogEvent;
+import com.example.share.logging.core.model.LogPhase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedLogSpoolTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("编解码往返保持全部字段")
+  void roundTripsAllFields() throws Exception {
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setCorrelationId("id-1")
+      .setCreatedTime(OffsetDateTime.of(2026, 10, 18, 8, 0, 0, 123_000_000, ZoneOffset.ofHours(8)))
+      .setRequestTime(OffsetDateTime.of(2026, 10, 18, 8, 0, 0, 0, ZoneOffset.UTC))
+      .setDurationMillis(15L)
+      .setMethod("POST")
+      .setUri("/api/订单")
+      .setRequestHeaders(Map.of("Accept", List.of("application/json", "text/plain")))
+      .setRequestBody(LogBody.of("{\"a\":\"中\"}".getBytes(Charset.forName("GBK")), Charset.forName("GBK")))
+      .setRequestContentLength(10)
+      .setStatusCode(201)
+      .setResponseHeaders(Map.of())
+      .setTruncated(true)
+      .setComplete(true);
+
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 4096, 4)) {
+      assertThat(spool.append(LogEvent.exchange(log))).isTrue();
+      List<LogEvent> events = spool.peek(10);
+
+      assertThat(events).hasSize(1);
+      assertThat(events.getFirst().phase()).isEqualTo(LogPhase.EXCHANGE);
+      assertThat(events.getFirst().log()).isEqualTo(log);
+    }
+  }
+
+  @Test
+  @DisplayName("未提交的记录会被重复读取，提交后前进")
+  void peekDoesNotAdvanceUntilCommit() throws Exception {
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 4096, 4)) {
+      append(spool, 0, 3);
+
+      assertThat(ids(spool.peek(2))).containsExactly("id-0", "id-1");
+      assertThat(ids(spool.peek(2))).containsExactly("id-0", "id-1");
+      spool.commit();
+      assertThat(ids(spool.peek(2))).containsExactly("id-2");
+      spool.commit();
+      assertThat(spool.hasBacklog()).isFalse();
+    }
+  }
+
+  @Test
+  @DisplayName("段写满后轮转，排空的段被回收")
+  void rotatesAndReclaimsSegments() throws Exception {
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 256, 8)) {
+      append(spool, 0, 20);
+      assertThat(spool.segmentCount()).isGreaterThan(1);
+
+      List<String> drained = drain(spool);
+
+      assertThat(drained).hasSize(20).startsWith("id-0").endsWith("id-19");
+      assertThat(spool.segmentCount()).isEqualTo(1);
+      assertThat(segmentFiles()).hasSize(1);
+    }
+  }
+
+  @Test
+  @DisplayName("段数达到上限后拒绝写入")
+  void rejectsWhenFull() throws Exception {
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 256, 2)) {
+      int accepted = 0;
+      for (int i = 0; i < 100; i++) {
+        if (spool.append(event("id-" + i))) {
+          accepted++;
+        }
+      }
+      assertThat(accepted).isBetween(1, 99);
+      assertThat(spool.segmentCount()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  @DisplayName("重启后从检查点继续重放")
+  void resumesFromCheckpoint() throws Exception {
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 256, 8)) {
+      append(spool, 0, 10);
+      assertThat(spool.peek(3)).hasSize(3);
+      spool.commit();
+    }
+
+    try (MappedLogSpool spool = new MappedLogSpool(directory, 256, 8)) {
+      append(spool, 10, 12);
+      assertThat(drain(spool)).hasSize(9).startsWith("id-3").endsWith("id-11");
+    }
+  }
+
+  private static void append(MappedLogSpool spool, int from, int to) {
+    for (int i = from; i < to; i++) {
+      assertThat(spool.append(event("id-" + i))).isTrue();
+    }
+  }
+
+  private static List<String> drain(MappedLogSpool spool) {
+    List<String> drained = new ArrayList<>();
+    while (spool.hasBacklog()) {
+      drained.addAll(ids(spool.peek(100)));
+      spool.commit();
+    }
+    // 最后一次读取负责越过已封存的空段
+    spool.peek(1);
+    return drained;
+  }
+
+  private static LogEvent event(String correlationId) {
+    return LogEvent.request(new HttpExchangeLog().setCorrelationId(correlationId).setUri("/api/test"));
+  }
+
+  private static List<String> ids(List<LogEvent> events) {
+    return events.stream().map(event -> event.log().getCorrelationId()).toList();
+  }
+
+  private List<Path> segmentFiles() throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(".seg")).toList();
+    }
+  }
+}
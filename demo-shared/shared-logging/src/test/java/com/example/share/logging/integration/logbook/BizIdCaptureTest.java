@@ -0,0 +1,97 @@
+package com.example.share.logging.integration.logbook;
+
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class BizIdCaptureTest {
+
+  private static final String SNAPSHOT_ATTRIBUTE = "com.example.shared.core.trace.context.BizContext.SNAPSHOT";
+
+  private static LogCaptureProperties.BizIds properties(boolean enable) {
+    return new LogCaptureProperties.BizIds(enable, "X-Biz-Id", "X-Batch-Id", "X-Jnl-No", "bizId", "batchId", "jnlNo",
+      SNAPSHOT_ATTRIBUTE);
+  }
+
+  @AfterEach
+  void clearMdc() {
+    MDC.clear();
+  }
+
+  @Test
+  @DisplayName("请求头优先 (大小写不敏感)，缺失时取 MDC，空值视为缺失")
+  void prefersHeaderOverMdc() {
+    MDC.put("bizId", "mdc-biz");
+    MDC.put("batchId", "mdc-batch");
+    HttpHeaders headers = HttpHeaders.empty()
+      .update("x-biz-id", "hdr-biz")
+      .update("X-Jnl-No", " ");
+
+    BizIdCapture.Ids ids = new BizIdCapture(properties(true)).capture(headers);
+
+    assertThat(ids).isEqualTo(new BizIdCapture.Ids("hdr-biz", "mdc-batch", null));
+    // 普通 Map 同样按大小写不敏感匹配
+    assertThat(new BizIdCapture(properties(true)).capture(Map.of("x-batch-id", List.of("b-1"))).batchId())
+      .isEqualTo("b-1");
+  }
+
+  @Test
+  @DisplayName("关闭或未命中时返回 NONE，超长值截断到列宽")
+  void returnsNoneWhenDisabledOrAbsent() {
+    Map<String, List<String>> headers = Map.of("X-Biz-Id", List.of("x".repeat(100)));
+
+    assertThat(new BizIdCapture(properties(false)).capture(headers)).isSameAs(BizIdCapture.Ids.NONE);
+    assertThat(new BizIdCapture(properties(true)).capture(Map.of())).isSameAs(BizIdCapture.Ids.NONE);
+    assertThat(new BizIdCapture(properties(true)).capture(headers).bizId()).hasSize(64);
+  }
+
+  @Test
+  @DisplayName("Servlet 请求属性中的业务上下文快照：次于请求头，优先于 MDC")
+  void readsSnapshotFromServletRequest() {
+    MDC.put("batchId", "mdc-batch");
+    MDC.put("jnlNo", "mdc-jnl");
+    HttpServletRequest request = mock(HttpServletRequest.class, withSettings().extraInterfaces(HttpRequest.class));
+    // 切面在清理 MDC 前写入的快照
+    when(request.getAttribute(SNAPSHOT_ATTRIBUTE)).thenReturn(Map.of("bizId", "arg-biz", "batchId", "arg-batch"));
+    HttpHeaders headers = HttpHeaders.empty().update("X-Batch-Id", "hdr-batch");
+
+    BizIdCapture.Ids ids = new BizIdCapture(properties(true)).capture((HttpRequest) request, headers);
+
+    assertThat(ids).isEqualTo(new BizIdCapture.Ids("arg-biz", "hdr-batch", "mdc-jnl"));
+    // 关闭时不读请求属性
+    assertThat(new BizIdCapture(properties(false)).capture((HttpRequest) request, headers))
+      .isSameAs(BizIdCapture.Ids.NONE);
+    verify(request, times(1)).getAttribute(SNAPSHOT_ATTRIBUTE);
+  }
+
+  @Test
+  @DisplayName("非 Servlet 请求 (如客户端请求) 只取请求头与 MDC")
+  void ignoresSnapshotForNonServletRequest() {
+    MDC.put("bizId", "mdc-biz");
+
+    BizIdCapture.Ids ids = new BizIdCapture(properties(true)).capture(mock(HttpRequest.class), HttpHeaders.empty());
+
+    assertThat(ids).isEqualTo(new BizIdCapture.Ids("mdc-biz", null, null));
+  }
+
+  @Test
+  @DisplayName("缺省配置取自属性记录的 @DefaultValue")
+  void defaultsComeFromPropertiesRecord() {
+    assertThat(LogCaptureProperties.BizIds.defaults()).isEqualTo(properties(true));
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.share.logging.integration.logbook;
+
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BodyCaptureTest {
+
+  @Test
+  @DisplayName("截断点落在 UTF-8 字符边界，不产生半个字符")
+  void truncatesAtCharacterBoundary() {
+    byte[] body = "ab中文".getBytes(StandardCharsets.UTF_8); // 2 + 3 + 3 字节
+
+    assertThat(BodyCapture.prefixLength(body, 4, StandardCharsets.UTF_8)).isEqualTo(2);
+    assertThat(BodyCapture.prefixLength(body, 5, StandardCharsets.UTF_8)).isEqualTo(5);
+    assertThat(BodyCapture.prefixLength(body, 7, StandardCharsets.UTF_8)).isEqualTo(5);
+
+    // 非 UTF-8 字符集走解码器判定边界
+    Charset gbk = Charset.forName("GBK");
+    byte[] gbkBody = "ab中文".getBytes(gbk); // 2 + 2 + 2 字节
+    assertThat(BodyCapture.prefixLength(gbkBody, 3, gbk)).isEqualTo(2);
+    assertThat(BodyCapture.prefixLength(gbkBody, 4, gbk)).isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("未超限的 Body 直接引用原始字节，不做解码")
+  void keepsOriginalBytesWithinLimit() {
+    BodyCapture capture = new BodyCapture(new LogCaptureProperties.Body(
+      DataSize.ofBytes(8), DataSize.ofBytes(8), List.of()));
+    byte[] body = "ab中文".getBytes(StandardCharsets.UTF_8);
+
+    BodyCapture.Captured full = capture.capture(body, StandardCharsets.UTF_8, 8);
+    assertThat(full.body().bytes()).isSameAs(body);
+    assertThat(full.truncated()).isFalse();
+
+    BodyCapture.Captured truncated = capture.capture(body, StandardCharsets.UTF_8, 7);
+    assertThat(truncated.body().text()).isEqualTo("ab中");
+    assertThat(truncated.originalLength()).isEqualTo(8);
+    assertThat(truncated.truncated()).isTrue();
+  }
+
+  @Test
+  @DisplayName("按 URI 覆盖上限，未配置的方向取全局值")
+  void resolvesLimitsPerUri() {
+    BodyCapture capture = new BodyCapture(new LogCaptureProperties.Body(
+      DataSize.ofKilobytes(64), DataSize.ofKilobytes(32),
+      List.of(new LogCaptureProperties.UriLimit("/api/**/export/**", null, DataSize.ofKilobytes(4)))));
+
+    assertThat(capture.limitsFor("/api/v1/export/orders")).isEqualTo(new BodyCapture.Limits(65536, 4096));
+    assertThat(capture.limitsFor("/api/v1/orders")).isEqualTo(new BodyCapture.Limits(65536, 32768));
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.share.logging.integration.logbook;
+
+import com.example.share.logging.core.api.LogCapture;
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.core.properties.LogCaptureProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogbookMapperTest {
+
+  private final LogbookMapper mapper = new LogbookMapper(new BodyCapture(new LogCaptureProperties.Body(
+    DataSize.ofBytes(8), DataSize.ofBytes(10), List.of())));
+
+  @Test
+  @DisplayName("延迟快照在采集时即按上限截断，不再引用完整 Body")
+  void appliesCapAtSnapshotTime() throws Exception {
+    byte[] requestBody = "{\"a\":\"0123456789\"}".getBytes(StandardCharsets.UTF_8);
+    byte[] responseBody = "{\"b\":\"abcdefghijklmn\"}".getBytes(StandardCharsets.UTF_8);
+
+    LogCapture capture = mapper.captureResponse(correlation(), request(requestBody), response(responseBody));
+    // 排队期间原始缓冲被容器复用
+    Arrays.fill(requestBody, (byte) 'x');
+    Arrays.fill(responseBody, (byte) 'x');
+    HttpExchangeLog log = capture.materialize();
+
+    assertThat(log.getRequestBody().text()).isEqualTo("{\"a\":\"01");
+    assertThat(log.getResponseBody().text()).isEqualTo("{\"b\":\"abcd");
+    assertThat(log.getRequestContentLength()).isEqualTo(18);
+    assertThat(log.getResponseContentLength()).isEqualTo(22);
+    assertThat(log.isTruncated()).isTrue();
+  }
+
+  @Test
+  @DisplayName("延迟物化只执行一次，重复调用返回同一实例")
+  void materializesOnce() {
+    AtomicInteger calls = new AtomicInteger();
+    LogCapture capture = LogCapture.deferred("id-1", () -> {
+      calls.incrementAndGet();
+      return new HttpExchangeLog().setCorrelationId("id-1");
+    });
+
+    HttpExchangeLog first = capture.materialize();
+
+    assertThat(capture.materialize()).isSameAs(first);
+    assertThat(calls).hasValue(1);
+    assertThat(capture.correlationId()).isEqualTo("id-1");
+  }
+
+  private static Correlation correlation() {
+    Correlation correlation = mock(Correlation.class);
+    Instant start = Instant.parse("2026-10-18T08:00:00Z");
+    when(correlation.getId()).thenReturn("id-1");
+    when(correlation.getStart()).thenReturn(start);
+    when(correlation.getDuration()).thenReturn(Duration.ofMillis(12));
+    return correlation;
+  }
+
+  private static HttpRequest request(byte[] body) throws Exception {
+    HttpRequest request = mock(HttpRequest.class);
+    when(request.getMethod()).thenReturn("POST");
+    when(request.getRequestUri()).thenReturn("http://localhost/api/users");
+    when(request.getPath()).thenReturn("/api/users");
+    when(request.getRemote()).thenReturn("127.0.0.1");
+    when(request.getContentType()).thenReturn("application/json");
+    when(request.getCharset()).thenReturn(StandardCharsets.UTF_8);
+    when(request.getHeaders()).thenReturn(HttpHeaders.empty());
+    when(request.getBody()).thenReturn(body);
+    return request;
+  }
+
+  private static HttpResponse response(byte[] body) throws Exception {
+    HttpResponse response = mock(HttpResponse.class);
+    when(response.getStatus()).thenReturn(200);
+    when(response.getCharset()).thenReturn(StandardCharsets.UTF_8);
+    when(response.getHeaders()).thenReturn(HttpHeaders.empty());
+    when(response.getBody()).thenReturn(body);
+    return response;
+  }
+}
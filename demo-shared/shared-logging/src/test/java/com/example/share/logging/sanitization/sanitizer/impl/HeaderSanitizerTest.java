@@ -0,0 +1,43 @@
+package com.example.share.logging.sanitization.sanitizer.impl;
+
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeaderSanitizerTest {
+
+  private final HeaderSanitizer sanitizer = sanitizer(List.of("header.Authorization"));
+
+  @Test
+  @DisplayName("未命中规则时返回同一实例，不复制")
+  void returnsSameInstanceWhenNothingMatches() {
+    Map<String, List<String>> headers = Map.of("Accept", List.of("application/json"));
+
+    assertThat(sanitizer.handler(headers)).isSameAs(headers);
+  }
+
+  @Test
+  @DisplayName("命中时只替换命中的条目，结果不可变")
+  void masksMatchedEntriesCopyOnWrite() {
+    Map<String, List<String>> headers = Map.of(
+      "authorization", List.of("Bearer abc"),
+      "Accept", List.of("application/json"));
+
+    Map<String, List<String>> masked = sanitizer.handler(headers);
+
+    assertThat(masked.get("authorization")).containsExactly("**********");
+    assertThat(masked.get("Accept")).isSameAs(headers.get("Accept"));
+    assertThat(headers.get("authorization")).containsExactly("Bearer abc");
+    assertThatThrownBy(() -> masked.put("X", List.of())).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  private static HeaderSanitizer sanitizer(List<String> aliases) {
+    return new HeaderSanitizer(SanitizationFixtures.context(true, aliases), SanitizationFixtures.valueSanitizer());
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.share.logging.sanitization.sanitizer.impl;
+
+import com.example.share.logging.core.model.HttpExchangeLog;
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryParamSanitizerTest {
+
+  private final QueryParamSanitizer sanitizer = sanitizer(List.of("query.password", "query.token"));
+
+  @Test
+  @DisplayName("没有敏感参数时返回原 URI 实例")
+  void returnsSameInstanceWhenNothingMatches() {
+    String uri = "/api/orders?page=1&size=20&flag&=x&sort=id";
+    HttpExchangeLog log = new HttpExchangeLog().setUri(uri);
+
+    sanitizer.sanitizeRequest(log);
+
+    assertThat(log.getUri()).isSameAs(uri);
+    assertThat(sanitizer.handler("page=1&size=20")).isSameAs("page=1&size=20");
+  }
+
+  @Test
+  @DisplayName("忽略大小写与编码匹配 key，未命中的片段原样保留")
+  void masksMatchingParams() {
+    HttpExchangeLog log = new HttpExchangeLog()
+      .setUri("/login?user=a%20b&PassWord=s3cret&pass%77ord=x&token=&next=%2Fhome&");
+
+    sanitizer.sanitizeRequest(log);
+
+    assertThat(log.getUri())
+      .isEqualTo("/login?user=a%20b&PassWord=******&password=*&token=&next=%2Fhome&");
+  }
+
+  private static QueryParamSanitizer sanitizer(List<String> aliases) {
+    return new QueryParamSanitizer(SanitizationFixtures.context(true, aliases), SanitizationFixtures.valueSanitizer());
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.share.logging.sanitization.sanitizer.impl;
+
+import com.example.share.logging.sanitization.sanitizer.support.SanitizationFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingJsonBodySanitizerTest {
+
+  private static final String JSON = "application/json";
+
+  @Test
+  @DisplayName("仅替换命中的值，其余字节原样保留")
+  void masksInPlaceAndKeepsLayout() {
+    StreamingJsonBodySanitizer sanitizer = sanitizer(true, List.of("$.user.password", "token"));
+    String body = """
+      {
+        "user" : { "name": "alice", "password": "s3cr\\"et" },
+        "token":123456, "amount": 1.50, "flag": true
+      }""";
+
+    String masked = sanitizer.handler(JSON, body);
+
+    assertThat(masked).isEqualTo("""
+      {
+        "user" : { "name": "alice", "password": "*******" },
+        "token":"******", "amount": 1.50, "flag": true
+      }""");
+  }
+
+  @Test
+  @DisplayName("递归字段名、数组通配与下标路径")
+  void matchesRecursiveAndArrayPaths() {
+    StreamingJsonBodySanitizer sanitizer = sanitizer(true, List.of("$.cards[*].no", "$.phones[1]", "idCard"));
+    String body = "{\"cards\":[{\"no\":\"6222\"},{\"no\":\"6223\",\"idCard\":\"110\"}],\"phones\":[\"138\",\"139\"],"
+      + "\"deep\":{\"list\":[{\"idCard\":\"120\"}]}}";
+
+    String masked = sanitizer.handler(JSON, body);
+
+    assertThat(masked).isEqualTo("{\"cards\":[{\"no\":\"****\"},{\"no\":\"****\",\"idCard\":\"***\"}],\"phones\":[\"138\",\"***\"],"
+      + "\"deep\":{\"list\":[{\"idCard\":\"***\"}]}}");
+  }
+
+  @Test
+  @DisplayName("未命中时返回原始 Body，过滤器规则交由 JsonPath 兜底")
+  void returnsOriginalWhenNothingMatchesAndFallsBackForFilters() {
+    StreamingJsonBodySanitizer plain = sanitizer(false, List.of("$.secret"));
+    String body = "{ \"name\" : \"alice\" }";
+    assertThat(plain.handler(JSON, body)).isSameAs(body);
+    assertThat(plain.handler("text/plain", "{\"secret\":\"x\"}")).isEqualTo("{\"secret\":\"x\"}");
+
+    StreamingJsonBodySanitizer filtered = sanitizer(false, List.of("$.items[?(@.type == 'card')].no"));
+    String masked = filtered.handler(JSON, "{\"items\":[{\"type\":\"card\",\"no\":\"6222\"},{\"type\":\"cash\",\"no\":\"1\"}]}");
+    assertThat(masked).contains("\"no\":\"****\"").contains("\"no\":\"1\"");
+  }
+
+  @Test
+  @DisplayName("采集截断的 Body：保留已完成的替换，末尾未闭合的命中值整体脱敏")
+  void masksTruncatedBody() {
+    StreamingJsonBodySanitizer sanitizer = sanitizer(true, List.of("token", "password"));
+
+    assertThat(sanitizer.handler(JSON, "{\"token\":\"abc\",\"items\":[1,2"))
+      .isEqualTo("{\"token\":\"***\",\"items\":[1,2");
+    assertThat(sanitizer.handler(JSON, "{\"token\":\"abc\",\"password\":\"hunt"))
+      .isEqualTo("{\"token\":\"***\",\"password\":\"*****\"");
+  }
+
+  @Test
+  @DisplayName("截断在命中字段内部或 Body 无法解析时，丢弃未解析的剩余部分，不输出原文")
+  void dropsUnparsedRemainder() {
+    StreamingJsonBodySanitizer sanitizer = sanitizer(true, List.of("token", "password"));
+
+    // 命中字段的值尚未读完 (字面量、对象) 即被截断
+    assertThat(sanitizer.handler(JSON, "{\"token\":\"abc\",\"password\":tru"))
+      .isEqualTo("{\"token\":\"***\"");
+    assertThat(sanitizer.handler(JSON, "{\"name\":\"a\",\"password\":{\"old\":\"hunter2\",\"new\":\"s3c"))
+      .isEqualTo("{\"name\":\"a\",\"password\":\"" + "*".repeat(27) + "\"");
+    // 截断在字段名内部：未命中的字符串值延迟解析，从其起点丢弃
+    assertThat(sanitizer.handler(JSON, "{\"name\":\"alice\",\"pass"))
+      .isEqualTo("{\"name\":");
+    // 中途格式错误：错误位置之后的命中值不会以原文输出
+    assertThat(sanitizer.handler(JSON, "{\"name\":\"alice\" \"password\":\"hunter2\"}"))
+      .isEqualTo("{\"name\":").doesNotContain("hunter2");
+    assertThat(sanitizer.handler(JSON, "password=hunter2")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("JsonPath 兜底规则遇到无法解析的 Body 时整体丢弃")
+  void fallbackDropsUnparseableBody() {
+    StreamingJsonBodySanitizer sanitizer = sanitizer(false, List.of("$.items[?(@.type == 'card')].no"));
+
+    assertThat(sanitizer.handler(JSON, "{\"items\":[{\"type\":\"card\",\"no\":\"6222")).isEmpty();
+  }
+
+  private static StreamingJsonBodySanitizer sanitizer(boolean wildcard, List<String> aliases) {
+    return new StreamingJsonBodySanitizer(SanitizationFixtures.context(wildcard, aliases),
+      SanitizationFixtures.valueSanitizer());
+  }
+}
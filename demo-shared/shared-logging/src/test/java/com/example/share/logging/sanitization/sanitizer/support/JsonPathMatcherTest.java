@@ -0,0 +1,81 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import com.example.share.logging.sanitization.properties.SanitizationProperties;
+import com.example.share.logging.sanitization.properties.SanitizationStrategyType;
+import com.example.share.logging.sanitization.strategy.param.FullParams;
+import com.example.share.logging.sanitization.strategy.param.HashSHA256Params;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonPathMatcherTest {
+
+  private final SanitizationRule full = rule(SanitizationStrategyType.FULL);
+  private final SanitizationRule hash = new SanitizationRule(
+    new SanitizationProperties.FieldConfig(List.of(), SanitizationStrategyType.HASH_SHA256, null, null, null),
+    new HashSHA256Params());
+
+  @Test
+  @DisplayName("具体段优先于通配段，具体路径优先于递归字段名")
+  void prefersMostSpecificRule() {
+    JsonPathMatcher matcher = JsonPathMatcher.compile(Map.of(
+      "$.users[*].card", full,
+      "$.users[0].card", hash,
+      "$..card", full,
+      "$..name", hash));
+
+    assertThat(matcher.match(cursor("users", 0, "card"))).isSameAs(hash);
+    assertThat(matcher.match(cursor("users", 3, "card"))).isSameAs(full);
+    assertThat(matcher.match(cursor("deep", "name"))).isSameAs(hash);
+    assertThat(matcher.match(cursor("users", 3, "age"))).isNull();
+  }
+
+  @Test
+  @DisplayName("字段数量增长不改变匹配结果，计划可读")
+  void compilesLargeRuleSetIntoInspectablePlan() {
+    Map<String, SanitizationRule> rules = new HashMap<>();
+    for (int i = 0; i < 500; i++) {
+      rules.put("$.body.field" + i, full);
+      rules.put("$..field" + i, full);
+    }
+    rules.put("$.items[?(@.type == 'card')].no", full);
+
+    JsonPathMatcher matcher = JsonPathMatcher.compile(rules);
+
+    assertThat(matcher.match(cursor("body", "field499"))).isSameAs(full);
+    assertThat(matcher.match(cursor("other", 1, "field7"))).isSameAs(full);
+    assertThat(matcher.match(cursor("body", "field500"))).isNull();
+    assertThat(matcher.unsupportedRules()).containsOnlyKeys("$.items[?(@.type == 'card')].no");
+    assertThat(matcher.describe())
+      .startsWith("JsonPathMatcher plan: 500 concrete paths (max depth 2), 500 recursive names, 1 JsonPath fallbacks")
+      .contains("  .body\n    .field0 => FULL\n")
+      .contains("$..field499 => FULL\n");
+  }
+
+  private static SanitizationRule rule(SanitizationStrategyType type) {
+    return new SanitizationRule(new SanitizationProperties.FieldConfig(List.of(), type, null, null, null), new FullParams());
+  }
+
+  // 按路径段构造游标：String 为对象字段，Integer 为数组下标
+  private static JsonPathCursor cursor(Object... segments) {
+    JsonPathCursor cursor = new JsonPathCursor();
+    for (Object segment : segments) {
+      if (segment instanceof Integer index) {
+        cursor.enterArray();
+        for (int i = 0; i <= index; i++) {
+          cursor.nextValue();
+        }
+      } else {
+        cursor.enterObject();
+        cursor.field((String) segment);
+      }
+    }
+    return cursor;
+  }
+}
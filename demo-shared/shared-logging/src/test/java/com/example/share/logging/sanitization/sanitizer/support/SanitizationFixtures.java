@@ -0,0 +1,57 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.support.ConfigurationValidator;
+import com.example.share.logging.sanitization.context.support.RuleBuilder;
+import com.example.share.logging.sanitization.properties.SanitizationProperties;
+import com.example.share.logging.sanitization.properties.SanitizationStrategyType;
+import com.example.share.logging.sanitization.strategy.SanitizationStrategyFactory;
+import com.example.share.logging.sanitization.strategy.impl.*;
+import com.example.share.logging.sanitization.strategy.validator.StrategyValidatorFactory;
+import com.example.share.logging.sanitization.strategy.validator.impl.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 脱敏测试公共装配：与自动配置相同的校验器、策略与上下文，不启动 Spring
+ *
+ * @author <a href="mailto: panoshu@gmail.com">panoshu</a>
+ * @since 2026/10/18
+ */
+public final class SanitizationFixtures {
+
+  private SanitizationFixtures() {
+  }
+
+  /**
+   * 单个 FULL 策略字段 secret，aliases 为其路径/别名
+   */
+  public static SanitizationContext context(boolean wildcard, List<String> aliases) {
+    return context(wildcard, Map.of("secret",
+      new SanitizationProperties.FieldConfig(aliases, SanitizationStrategyType.FULL, null, null, null)));
+  }
+
+  public static SanitizationContext context(boolean wildcard, Map<String, SanitizationProperties.FieldConfig> fields) {
+    SanitizationProperties properties = new SanitizationProperties(
+      new SanitizationProperties.GlobalConfig(true, "***", wildcard, SanitizationProperties.JsonEngine.STREAMING),
+      fields, Map.of());
+    return new SanitizationContext(properties, configurationValidator(), new RuleBuilder());
+  }
+
+  public static ConfigurationValidator configurationValidator() {
+    return new ConfigurationValidator(new StrategyValidatorFactory(List.of(
+      new FullValidator(), new PartialHideValidator(), new KeepFirstLastValidator(),
+      new HashSHA256Validator(), new PatternRegexValidator())));
+  }
+
+  public static SanitizationStrategyFactory strategyFactory() {
+    return new SanitizationStrategyFactory(List.of(
+      new FullSanitizationStrategy(), new PartialHideStrategy(), new KeepFirstLastStrategy(),
+      new HashSHA256Strategy(), new PatternRegexStrategy()));
+  }
+
+  public static ValueSanitizer valueSanitizer() {
+    return new ValueSanitizer(strategyFactory());
+  }
+}
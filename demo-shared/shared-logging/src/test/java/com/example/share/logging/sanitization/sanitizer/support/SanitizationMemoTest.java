@@ -0,0 +1,78 @@
+package com.example.share.logging.sanitization.sanitizer.support;
+
+import com.example.share.logging.sanitization.context.SanitizationContext;
+import com.example.share.logging.sanitization.context.SanitizationRule;
+import com.example.share.logging.sanitization.properties.SanitizationProperties;
+import com.example.share.logging.sanitization.properties.SanitizationStrategyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SanitizationMemoTest {
+
+  private static final SanitizationProperties.Memoize ON = new SanitizationProperties.Memoize(
+    true, 100, Duration.ofMinutes(1), 16);
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final SanitizationContext context = SanitizationFixtures.context(true, Map.of(
+    "token", new SanitizationProperties.FieldConfig(List.of(), SanitizationStrategyType.PATTERN_REGEX, null,
+      Map.of("pattern", "\\d+"), ON),
+    "secret", new SanitizationProperties.FieldConfig(List.of(), SanitizationStrategyType.FULL, null, null, ON),
+    "digest", new SanitizationProperties.FieldConfig(List.of(), SanitizationStrategyType.HASH_SHA256, null, null, ON),
+    "phone", new SanitizationProperties.FieldConfig(List.of(), SanitizationStrategyType.HASH_SHA256, null, null, null)));
+  private final SanitizationMemo memo = SanitizationMemo.of(context, registry);
+
+  @Test
+  @DisplayName("开启 memoize 的字段重复值只计算一次，并记录命中率")
+  void memoizesRepeatedValues() {
+    SanitizationRule token = context.getFieldConfig("token");
+    AtomicInteger computed = new AtomicInteger();
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(memo.apply(token, "abc", value -> "h-" + computed.incrementAndGet())).isEqualTo("h-1");
+    }
+    // 超过 maxValueLength 的值不进入缓存
+    memo.apply(token, "x".repeat(17), value -> "h-" + computed.incrementAndGet());
+    memo.apply(token, "x".repeat(17), value -> "h-" + computed.incrementAndGet());
+
+    assertThat(computed).hasValue(3);
+    assertThat(registry.get("logbook.obfuscate.memo.hit.ratio").tag("field", "token").gauge().value())
+      .isEqualTo(0.75);
+  }
+
+  @Test
+  @DisplayName("缓存 Key 为带随机种子的哈希，不保留明文，不同实例之间无法对照")
+  void keysAreSeededHashes() {
+    SanitizationRule token = context.getFieldConfig("token");
+    String value = "13800138000";
+
+    memo.apply(token, value, v -> "masked");
+
+    assertThat(memo.keys(token)).singleElement()
+      .isEqualTo(memo.key(value))
+      .satisfies(key -> assertThat(key.toString()).doesNotContain(value));
+    assertThat(memo.key(value)).isNotEqualTo(memo.key("13800138001"));
+    assertThat(SanitizationMemo.of(context, new SimpleMeterRegistry()).key(value)).isNotEqualTo(memo.key(value));
+    assertThat(memo.apply(token, value, v -> "recomputed")).isEqualTo("masked");
+  }
+
+  @Test
+  @DisplayName("未开启或策略计算比查缓存更快的字段每次都重新计算")
+  void skipsFieldsWithoutMemoization() {
+    AtomicInteger computed = new AtomicInteger();
+    for (String field : List.of("secret", "digest", "phone")) {
+      memo.apply(context.getFieldConfig(field), "abc", value -> "v" + computed.incrementAndGet());
+      memo.apply(context.getFieldConfig(field), "abc", value -> "v" + computed.incrementAndGet());
+    }
+
+    assertThat(computed).hasValue(6);
+    assertThat(registry.find("logbook.obfuscate.memo.hit.ratio").gauges()).hasSize(1);
+  }
+}
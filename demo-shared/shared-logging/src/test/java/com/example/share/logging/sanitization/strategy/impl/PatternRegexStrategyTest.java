@@ -0,0 +1,51 @@
+package com.example.share.logging.sanitization.strategy.impl;
+
+import com.example.share.logging.sanitization.strategy.param.PatternRegexParams;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatternRegexStrategyTest {
+
+  private static final String CARD = "\\b\\d{4}[ -]?\\d{4}[ -]?\\d{4}[ -]?\\d{4}\\b";
+
+  private final PatternRegexStrategy strategy = new PatternRegexStrategy();
+
+  @Test
+  @DisplayName("预编译结果与 String.replaceAll 一致")
+  void matchesStringReplaceAll() {
+    List<String> patterns = List.of(CARD, "[^a-z]+", "^\\w", "(?i)secret", "(?<=id=)\\d+", "\\Q$x\\E");
+    List<String> values = List.of("6222 0212 3456 7890", "card 6222021234567890 end", "plain free text",
+      "ABC-def", "Secret id=42", "", "a$x中文");
+
+    for (String pattern : patterns) {
+      PatternRegexParams params = new PatternRegexParams(pattern, "***");
+      for (String value : values) {
+        assertThat(strategy.sanitize(value, params))
+          .as("%s on [%s]", pattern, value)
+          .isEqualTo(value.replaceAll(pattern, "***"));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("卡号规则只以数字为候选字符，断言与字符类内的 ^ 不影响推断")
+  void derivesCandidateCharacters() {
+    PatternRegexParams.Prefilter card = new PatternRegexParams(CARD, "***").prefilter();
+    assertThat(card.mayMatch("plain free text")).isFalse();
+    assertThat(card.mayMatch("order 1")).isTrue();
+    assertThat(card.mayMatch("中文")).isTrue();
+
+    PatternRegexParams.Prefilter negated = new PatternRegexParams("[^a-z]+", "***").prefilter();
+    assertThat(negated.mayMatch("abc")).isFalse();
+    assertThat(negated.mayMatch("abc-")).isTrue();
+
+    assertThat(new PatternRegexParams("(?<=id=)\\d+", "***").prefilter())
+      .isSameAs(PatternRegexParams.Prefilter.ALL);
+    assertThat(new PatternRegexParams("x*", "***").prefilter())
+      .isSameAs(PatternRegexParams.Prefilter.ALL);
+  }
+}